@@ -0,0 +1,13 @@
+package com.example.Backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (nightly analytics, maintenance tasks).
+ * Pool size is configured with spring.task.scheduling.pool.size
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
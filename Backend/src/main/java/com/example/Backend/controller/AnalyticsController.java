@@ -1,15 +1,28 @@
 package com.example.Backend.controller;
 
 import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.entity.CustomerMetrics;
+import com.example.Backend.service.AnalyticsResultCache;
 import com.example.Backend.service.AnalyticsService;
+import com.example.Backend.service.CohortAnalysisService;
+import com.example.Backend.service.CustomerMetricsService;
+import com.example.Backend.service.KpiStreamService;
+import com.example.Backend.service.SearchAnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * REST Controller for Analytics and Dashboard Statistics
@@ -23,6 +36,11 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final CustomerMetricsService customerMetricsService;
+    private final AnalyticsResultCache analyticsCache;
+    private final CohortAnalysisService cohortAnalysisService;
+    private final KpiStreamService kpiStreamService;
+    private final SearchAnalyticsService searchAnalyticsService;
 
     /**
      * Get dashboard statistics
@@ -44,6 +62,15 @@ public class AnalyticsController {
         return ResponseEntity.ok(stats);
     }
 
+    /**
+     * Get live KPI snapshot (same payload as the /app/admin/kpi subscription)
+     * GET /api/analytics/kpi
+     */
+    @GetMapping("/kpi")
+    public ResponseEntity<AnalyticsDTO.KpiUpdate> getKpiSnapshot() {
+        return ResponseEntity.ok(kpiStreamService.getSnapshot());
+    }
+
     /**
      * Get comprehensive analytics for a date range
      * GET /api/analytics/comprehensive
@@ -75,9 +102,11 @@ public class AnalyticsController {
     public ResponseEntity<List<AnalyticsDTO.SalesChartData>> getSalesChartData(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "DAILY") String period) {
+            @RequestParam(defaultValue = "DAILY") String period,
+            @RequestParam(defaultValue = "500") int maxPoints) {
 
-        List<AnalyticsDTO.SalesChartData> chartData = analyticsService.getSalesChartData(startDate, endDate, period);
+        List<AnalyticsDTO.SalesChartData> chartData = analyticsService.getSalesChartData(startDate, endDate, period,
+                maxPoints);
         return ResponseEntity.ok(chartData);
     }
 
@@ -147,6 +176,86 @@ public class AnalyticsController {
         return ResponseEntity.ok(analytics);
     }
 
+    /**
+     * Get RFM customer segment distribution
+     * GET /api/analytics/customers/segments
+     */
+    @GetMapping("/customers/segments")
+    public ResponseEntity<AnalyticsDTO.RfmSummary> getCustomerSegments() {
+        return ResponseEntity.ok(customerMetricsService.getSummary());
+    }
+
+    /**
+     * Get customers of an RFM segment
+     * GET /api/analytics/customers/segments/{segment}
+     */
+    @GetMapping("/customers/segments/{segment}")
+    public ResponseEntity<Page<CustomerMetrics>> getSegmentCustomers(
+            @PathVariable String segment,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(customerMetricsService.getSegmentCustomers(segment, pageable));
+    }
+
+    /**
+     * Get RFM metrics and lifetime value of a customer
+     * GET /api/analytics/customers/{userId}/metrics
+     */
+    @GetMapping("/customers/{userId}/metrics")
+    public ResponseEntity<CustomerMetrics> getCustomerMetrics(@PathVariable UUID userId) {
+        return ResponseEntity.ok(customerMetricsService.getCustomerMetrics(userId));
+    }
+
+    /**
+     * Recompute RFM metrics in the background
+     * POST /api/analytics/customers/rfm/recompute
+     */
+    @PostMapping("/customers/rfm/recompute")
+    public ResponseEntity<Map<String, Object>> recomputeCustomerMetrics() {
+        boolean started = customerMetricsService.triggerRecompute();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "started", started,
+                        "message", started ? "RFM recomputation started" : "RFM recomputation already running"));
+    }
+
+    /**
+     * Get cohort retention matrix (cohort = month of first order)
+     * GET /api/analytics/cohorts?from=2025-01&to=2025-12&months=12
+     */
+    @GetMapping("/cohorts")
+    public ResponseEntity<AnalyticsDTO.CohortReport> getCohortRetention(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(defaultValue = "12") int months) {
+
+        return ResponseEntity.ok(cohortAnalysisService.getRetention(from, to, months));
+    }
+
+    /**
+     * Get retention of a single cohort
+     * GET /api/analytics/cohorts/{cohort}
+     */
+    @GetMapping("/cohorts/{cohort}")
+    public ResponseEntity<AnalyticsDTO.CohortRetention> getCohort(
+            @PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth cohort,
+            @RequestParam(defaultValue = "12") int months) {
+
+        return ResponseEntity.ok(cohortAnalysisService.getCohort(cohort, months));
+    }
+
+    /**
+     * Rebuild the cohort matrix from all orders
+     * POST /api/analytics/cohorts/rebuild
+     */
+    @PostMapping("/cohorts/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildCohorts() {
+        boolean rebuilt = cohortAnalysisService.rebuild();
+        return ResponseEntity.status(rebuilt ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "rebuilt", rebuilt,
+                        "message", rebuilt ? "Cohort matrix rebuilt" : "Cohort rebuild already running or failed"));
+    }
+
     /**
      * Get order status distribution
      * GET /api/analytics/order-status-distribution
@@ -178,4 +287,47 @@ public class AnalyticsController {
         List<AnalyticsDTO.ProductInventoryAlert> alerts = analyticsService.getInventoryAlerts();
         return ResponseEntity.ok(alerts);
     }
+
+    /**
+     * Get the most searched product queries (normalized) over the last days
+     * GET /api/analytics/search/popular?days=7&limit=50
+     */
+    @GetMapping("/search/popular")
+    public ResponseEntity<List<AnalyticsDTO.SearchTermStats>> getPopularSearches(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(searchAnalyticsService.getPopularQueries(days, limit));
+    }
+
+    /**
+     * Get the most searched product queries that found nothing over the last days
+     * GET /api/analytics/search/zero-results?days=7&limit=50
+     */
+    @GetMapping("/search/zero-results")
+    public ResponseEntity<List<AnalyticsDTO.SearchTermStats>> getZeroResultSearches(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(searchAnalyticsService.getZeroResultQueries(days, limit));
+    }
+
+    /**
+     * Get analytics cache statistics (entries, hit ratio)
+     * GET /api/analytics/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(analyticsCache.getStats());
+    }
+
+    /**
+     * Clear the analytics cache
+     * DELETE /api/analytics/cache
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        analyticsCache.clear();
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -1,8 +1,10 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.dto.ProductStockDTO;
 import com.example.Backend.dto.PurchaseOrderDTO;
 import com.example.Backend.dto.ReorderSettingDTO;
 import com.example.Backend.dto.StockMovementDTO;
+import com.example.Backend.dto.StockSnapshotDTO;
 import com.example.Backend.dto.SupplierDTO;
 import com.example.Backend.entity.PurchaseOrder;
 import com.example.Backend.entity.ReorderSetting;
@@ -11,19 +13,27 @@ import com.example.Backend.entity.Supplier;
 import com.example.Backend.service.PurchaseOrderService;
 import com.example.Backend.service.ReorderSettingService;
 import com.example.Backend.service.StockMovementService;
+import com.example.Backend.service.StockSnapshotService;
 import com.example.Backend.service.SupplierService;
 import com.example.Backend.service.InventoryStatsService;
+import com.example.Backend.service.DemandForecastService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -40,6 +50,8 @@ public class InventoryController {
     private final StockMovementService stockMovementService;
     private final ReorderSettingService reorderSettingService;
     private final InventoryStatsService inventoryStatsService;
+    private final DemandForecastService demandForecastService;
+    private final StockSnapshotService stockSnapshotService;
 
     // ==================== SUPPLIER ENDPOINTS ====================
 
@@ -266,6 +278,72 @@ public class InventoryController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Recompute demand forecasts and suggested reorder points in the background
+     */
+    @PostMapping("/reorder-settings/forecast")
+    public ResponseEntity<Map<String, Object>> forecastReorderSettings() {
+        boolean started = demandForecastService.triggerForecast();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "started", started,
+                        "message", started ? "Demand forecast started" : "Demand forecast already running"));
+    }
+
+    /**
+     * Copy the suggested reorder point and quantity into the setting
+     */
+    @PostMapping("/reorder-settings/{id}/apply-forecast")
+    public ResponseEntity<ReorderSetting> applyForecast(@PathVariable UUID id) {
+        ReorderSetting setting = reorderSettingService.applyForecast(id);
+        return ResponseEntity.ok(setting);
+    }
+
+    // ==================== STOCK SNAPSHOTS ====================
+
+    /**
+     * Get the stock of a product at a point in time
+     * GET /api/inventory/stock-at?productId=...&at=2025-03-15T12:00:00
+     */
+    @GetMapping("/stock-at")
+    public ResponseEntity<StockSnapshotDTO.StockAt> getStockAt(
+            @RequestParam UUID productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAt(productId, at));
+    }
+
+    /**
+     * Get inventory valuation at the end of a day
+     */
+    @GetMapping("/valuation")
+    public ResponseEntity<StockSnapshotDTO.Valuation> getValuation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(stockSnapshotService.getValuation(date));
+    }
+
+    /**
+     * Get month-end inventory valuations
+     * GET /api/inventory/valuation/month-end?from=2025-01&to=2025-12
+     */
+    @GetMapping("/valuation/month-end")
+    public ResponseEntity<List<StockSnapshotDTO.Valuation>> getMonthEndValuations(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return ResponseEntity.ok(stockSnapshotService.getMonthEndValuations(from, to));
+    }
+
+    /**
+     * Write any missing daily stock snapshots in the background
+     */
+    @PostMapping("/snapshots/run")
+    public ResponseEntity<Map<String, Object>> runStockSnapshots() {
+        boolean started = stockSnapshotService.triggerSnapshots();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "started", started,
+                        "message", started ? "Stock snapshots started" : "Stock snapshots already running"));
+    }
+
     // ==================== INVENTORY STATISTICS ====================
 
     /**
@@ -278,11 +356,30 @@ public class InventoryController {
     }
 
     /**
-     * Get product stock overview with status indicators
+     * Get product stock overview with status indicators, paged
+     * (status: OUT_OF_STOCK, CRITICAL, LOW, OK; sort: name, stock, price, value, status, category)
      */
     @GetMapping("/product-stock")
-    public ResponseEntity<List<Map<String, Object>>> getProductStockOverview() {
-        List<Map<String, Object>> stockOverview = inventoryStatsService.getProductStockOverview();
+    public ResponseEntity<Page<ProductStockDTO>> getProductStockOverview(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long categoryId,
+            @PageableDefault(size = 50) Pageable pageable) {
+        Page<ProductStockDTO> stockOverview = inventoryStatsService.getProductStockOverview(status, categoryId,
+                pageable);
         return ResponseEntity.ok(stockOverview);
     }
+
+    /**
+     * Stream the full product stock overview as NDJSON, same filters and sorting as above
+     */
+    @GetMapping(value = "/product-stock/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProductStock(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long categoryId,
+            Sort sort) {
+        StreamingResponseBody body = out -> inventoryStatsService.exportProductStock(status, categoryId, sort, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
 }
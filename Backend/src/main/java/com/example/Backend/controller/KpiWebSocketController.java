@@ -0,0 +1,27 @@
+package com.example.Backend.controller;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.service.KpiStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+/**
+ * WebSocket controller for live admin dashboard KPIs
+ * Client subscribes to /app/admin/kpi for the snapshot, then /topic/admin/kpi for deltas
+ */
+@Controller
+@RequiredArgsConstructor
+public class KpiWebSocketController {
+
+    private final KpiStreamService kpiStreamService;
+
+    /**
+     * Snapshot returned once, directly to the subscribing session
+     * Subscribe: /app/admin/kpi
+     */
+    @SubscribeMapping("/admin/kpi")
+    public AnalyticsDTO.KpiUpdate subscribeKpi() {
+        return kpiStreamService.getSnapshot();
+    }
+}
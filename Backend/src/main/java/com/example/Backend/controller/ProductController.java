@@ -35,6 +35,7 @@ public class ProductController {
      * Get all products with pagination and filters
      * GET
      * /api/products?page=0&size=20&categoryId=1&brandId=2&minPrice=10&maxPrice=500&sort=newest
+     * Searches are sorted by relevance unless another sort is given
      * Security: Public endpoint
      */
     @GetMapping
@@ -47,11 +48,14 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Boolean inStock,
-            @RequestParam(defaultValue = "name") String sort) {
+            @RequestParam(required = false) String sort) {
 
         // Handle sort parameter from frontend
         Sort.Direction direction = Sort.Direction.ASC;
         String sortField = "name";
+        if (sort == null) {
+            sort = search != null ? "relevance" : "name";
+        }
 
         if (sort != null) {
             switch (sort.toLowerCase()) {
@@ -71,6 +75,13 @@ public class ProductController {
                     sortField = "price";
                     direction = Sort.Direction.DESC;
                     break;
+                case "relevance":
+                    // Only searches have a relevance; otherwise fall back to name
+                    if (search != null) {
+                        sortField = "relevance";
+                        direction = Sort.Direction.DESC;
+                    }
+                    break;
                 case "name":
                 default:
                     sortField = "name";
@@ -79,7 +90,11 @@ public class ProductController {
             }
         }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
+        Sort sortBy = Sort.by(direction, sortField);
+        if ("relevance".equals(sortField)) {
+            sortBy = sortBy.and(Sort.by("name"));
+        }
+        Pageable pageable = PageRequest.of(page, size, sortBy);
 
         // If any filters are present, use search/filter method
         if (categoryId != null || brandId != null || minPrice != null ||
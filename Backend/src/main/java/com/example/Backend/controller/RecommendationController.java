@@ -3,14 +3,19 @@ package com.example.Backend.controller;
 import com.example.Backend.entity.Product;
 import com.example.Backend.entity.Recommendation;
 import com.example.Backend.security.UserPrincipal;
+import com.example.Backend.service.RecommendationEvaluationService;
+import com.example.Backend.service.RecommendationResultCache;
 import com.example.Backend.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +33,8 @@ import java.util.stream.Collectors;
 public class RecommendationController {
 
         private final RecommendationService recommendationService;
+        private final RecommendationResultCache recommendationCache;
+        private final RecommendationEvaluationService evaluationService;
 
         /**
          * Convert Product entity to a simple Map to avoid circular serialization
@@ -220,4 +227,57 @@ public class RecommendationController {
                                 "trending", trending,
                                 "message", "For you"));
         }
+
+        /**
+         * Get personalized recommendation cache statistics (users, hit ratio, recompute time)
+         * GET /api/recommendations/cache/stats
+         */
+        @GetMapping("/cache/stats")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public ResponseEntity<Map<String, Object>> getCacheStats() {
+                return ResponseEntity.ok(recommendationCache.getStats());
+        }
+
+        /**
+         * Clear the personalized recommendation cache
+         * DELETE /api/recommendations/cache
+         */
+        @DeleteMapping("/cache")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public ResponseEntity<Void> clearCache() {
+                recommendationCache.clear();
+                return ResponseEntity.noContent().build();
+        }
+
+        /**
+         * Evaluate every strategy offline, in the background: train on the activity before the
+         * split date, score precision@k, recall@k and coverage against carts and purchases after it
+         * POST /api/recommendations/evaluation?split=2026-01-01&trainingDays=60&testDays=7&k=10
+         */
+        @PostMapping("/evaluation")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public ResponseEntity<Map<String, Object>> evaluate(
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate split,
+                        @RequestParam(defaultValue = "60") int trainingDays,
+                        @RequestParam(defaultValue = "7") int testDays,
+                        @RequestParam(defaultValue = "10") int k) {
+
+                LocalDate splitDate = split != null ? split : LocalDate.now().minusDays(testDays);
+                boolean started = evaluationService.triggerEvaluation(splitDate, trainingDays, testDays, k);
+                return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                                .body(Map.of(
+                                                "started", started,
+                                                "message", started ? "Recommendation evaluation started"
+                                                                : "A recommendation evaluation is already running"));
+        }
+
+        /**
+         * Progress of the running evaluation, or the results of the last one
+         * GET /api/recommendations/evaluation
+         */
+        @GetMapping("/evaluation")
+        @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+        public ResponseEntity<Map<String, Object>> getEvaluation() {
+                return ResponseEntity.ok(evaluationService.getStatus());
+        }
 }
@@ -1,17 +1,29 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.dto.ReportJobDTO;
+import com.example.Backend.dto.ReportScheduleDTO;
+import com.example.Backend.dto.ReportSummaryDTO;
 import com.example.Backend.entity.Report;
+import com.example.Backend.entity.ReportSchedule;
+import com.example.Backend.service.ReportExportService;
+import com.example.Backend.service.ReportJobService;
+import com.example.Backend.service.ReportScheduleService;
 import com.example.Backend.service.ReportService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.example.Backend.security.UserPrincipal;
 
@@ -19,6 +31,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -27,6 +40,115 @@ import java.util.UUID;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final ReportExportService reportExportService;
+    private final ReportScheduleService reportScheduleService;
+
+    /**
+     * Submit a report for background generation; identical pending or fresh jobs are reused
+     * POST /api/reports/jobs?reportType=SALES&startDate=...&endDate=...
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitReportJob(
+            @RequestParam String reportType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestBody(required = false) Map<String, Object> parameters,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        try {
+            ReportJobDTO job = reportJobService.submit(reportType, startDate, endDate, parameters,
+                    currentUser != null ? currentUser.getId() : null);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "Too many reports in progress, please retry later"));
+        }
+    }
+
+    /**
+     * Get report job status and progress
+     * GET /api/reports/jobs/{jobId}
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    /**
+     * Get my report jobs (all jobs with all=true)
+     * GET /api/reports/jobs
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ReportJobDTO>> getReportJobs(
+            @RequestParam(defaultValue = "false") boolean all,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        UUID submittedBy = all || currentUser == null ? null : currentUser.getId();
+        return ResponseEntity.ok(reportJobService.getJobs(submittedBy));
+    }
+
+    /**
+     * Get recurring report schedules
+     * GET /api/reports/schedules
+     */
+    @GetMapping("/schedules")
+    public ResponseEntity<List<ReportSchedule>> getReportSchedules() {
+        return ResponseEntity.ok(reportScheduleService.getSchedules());
+    }
+
+    /**
+     * Get a recurring report schedule
+     * GET /api/reports/schedules/{id}
+     */
+    @GetMapping("/schedules/{id}")
+    public ResponseEntity<ReportSchedule> getReportSchedule(@PathVariable UUID id) {
+        return ResponseEntity.ok(reportScheduleService.getSchedule(id));
+    }
+
+    /**
+     * Create a recurring report schedule
+     * POST /api/reports/schedules
+     */
+    @PostMapping("/schedules")
+    public ResponseEntity<ReportSchedule> createReportSchedule(
+            @Valid @RequestBody ReportScheduleDTO scheduleDTO,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        ReportSchedule schedule = reportScheduleService.createSchedule(scheduleDTO,
+                currentUser != null ? currentUser.getId() : null);
+        return ResponseEntity.status(HttpStatus.CREATED).body(schedule);
+    }
+
+    /**
+     * Update a recurring report schedule
+     * PUT /api/reports/schedules/{id}
+     */
+    @PutMapping("/schedules/{id}")
+    public ResponseEntity<ReportSchedule> updateReportSchedule(
+            @PathVariable UUID id,
+            @Valid @RequestBody ReportScheduleDTO scheduleDTO) {
+        return ResponseEntity.ok(reportScheduleService.updateSchedule(id, scheduleDTO));
+    }
+
+    /**
+     * Run a schedule now instead of waiting for its next cron time
+     * POST /api/reports/schedules/{id}/run
+     */
+    @PostMapping("/schedules/{id}/run")
+    public ResponseEntity<ReportSchedule> runReportSchedule(@PathVariable UUID id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportScheduleService.runNow(id));
+    }
+
+    /**
+     * Delete a recurring report schedule
+     * DELETE /api/reports/schedules/{id}
+     */
+    @DeleteMapping("/schedules/{id}")
+    public ResponseEntity<Void> deleteReportSchedule(@PathVariable UUID id) {
+        reportScheduleService.deleteSchedule(id);
+        return ResponseEntity.noContent().build();
+    }
 
     /**
      * Generate sales report
@@ -92,15 +214,35 @@ public class ReportController {
         return ResponseEntity.ok(report);
     }
 
+    /**
+     * Download a report as CSV or XLSX, streamed row by row
+     * GET /api/reports/{id}/export?format=csv|xlsx
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportReport(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        Report report = reportService.getReportById(id);
+        String exportFormat = reportExportService.resolveFormat(format);
+        StreamingResponseBody body = out -> reportExportService.export(report, exportFormat, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + reportExportService.fileName(report, exportFormat) + "\"")
+                .contentType(MediaType.parseMediaType(reportExportService.contentType(exportFormat)))
+                .body(body);
+    }
+
     /**
      * Get all reports
      * GET /api/reports
      */
     @GetMapping
-    public ResponseEntity<Page<Report>> getAllReports(
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
+    public ResponseEntity<Page<ReportSummaryDTO>> getAllReports(
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
 
-        Page<Report> reports = reportService.getAllReports(pageable);
+        Page<ReportSummaryDTO> reports = reportService.getAllReports(pageable);
         return ResponseEntity.ok(reports);
     }
 
@@ -109,11 +251,11 @@ public class ReportController {
      * GET /api/reports/type/{reportType}
      */
     @GetMapping("/type/{reportType}")
-    public ResponseEntity<Page<Report>> getReportsByType(
+    public ResponseEntity<Page<ReportSummaryDTO>> getReportsByType(
             @PathVariable String reportType,
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
 
-        Page<Report> reports = reportService.getReportsByType(reportType, pageable);
+        Page<ReportSummaryDTO> reports = reportService.getReportsByType(reportType, pageable);
         return ResponseEntity.ok(reports);
     }
 
@@ -122,11 +264,11 @@ public class ReportController {
      * GET /api/reports/my-reports
      */
     @GetMapping("/my-reports")
-    public ResponseEntity<Page<Report>> getMyReports(
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable,
+    public ResponseEntity<Page<ReportSummaryDTO>> getMyReports(
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
             @AuthenticationPrincipal UserPrincipal currentUser) {
 
-        Page<Report> reports = reportService.getReportsByCreator(currentUser.getId(), pageable);
+        Page<ReportSummaryDTO> reports = reportService.getReportsByCreator(currentUser.getId(), pageable);
         return ResponseEntity.ok(reports);
     }
 
@@ -136,11 +278,11 @@ public class ReportController {
      */
     @GetMapping("/creator/{creatorId}")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
-    public ResponseEntity<Page<Report>> getReportsByCreator(
+    public ResponseEntity<Page<ReportSummaryDTO>> getReportsByCreator(
             @PathVariable UUID creatorId,
-            @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
 
-        Page<Report> reports = reportService.getReportsByCreator(creatorId, pageable);
+        Page<ReportSummaryDTO> reports = reportService.getReportsByCreator(creatorId, pageable);
         return ResponseEntity.ok(reports);
     }
 
@@ -149,10 +291,10 @@ public class ReportController {
      * GET /api/reports/recent
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<Report>> getRecentReports(
+    public ResponseEntity<List<ReportSummaryDTO>> getRecentReports(
             @RequestParam(defaultValue = "10") int limit) {
 
-        List<Report> reports = reportService.getRecentReports(limit);
+        List<ReportSummaryDTO> reports = reportService.getRecentReports(limit);
         return ResponseEntity.ok(reports);
     }
 
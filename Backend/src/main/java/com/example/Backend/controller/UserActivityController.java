@@ -4,16 +4,24 @@ import com.example.Backend.dto.UserActivityDTO;
 import com.example.Backend.entity.ActivityType;
 import com.example.Backend.entity.UserActivity;
 import com.example.Backend.security.UserPrincipal;
+import com.example.Backend.service.ActivityIngestionService;
+import com.example.Backend.service.ActivityRetentionService;
 import com.example.Backend.service.UserActivityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -26,7 +34,16 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UserActivityController {
 
+    // Activities that must reference a product
+    private static final Set<ActivityType> PRODUCT_ACTIVITIES = EnumSet.of(
+            ActivityType.VIEW, ActivityType.ADD_TO_CART, ActivityType.REMOVE_FROM_CART,
+            ActivityType.PURCHASE, ActivityType.RECOMMENDATION_CLICK);
+
+    private static final int MAX_BATCH_EVENTS = 100;
+
     private final UserActivityService activityService;
+    private final ActivityIngestionService ingestionService;
+    private final ActivityRetentionService retentionService;
 
     /**
      * Track a product view
@@ -49,19 +66,16 @@ public class UserActivityController {
 
         try {
             UUID productId = UUID.fromString(productIdStr);
-            UserActivity activity = activityService.trackProductView(
-                    currentUser.getId(), productId, sessionId);
-
-            if (activity != null) {
-                return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "message", "Product view tracked",
-                        "activityId", activity.getId()));
-            } else {
-                return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "message", "Duplicate view skipped"));
-            }
+            ActivityIngestionService.PendingActivity view = new ActivityIngestionService.PendingActivity(
+                    UUID.randomUUID(), currentUser.getId(), productId, ActivityType.VIEW,
+                    sessionId, null, null, null, LocalDateTime.now());
+
+            // Under load views are shed rather than retried; repeat views are dropped before queuing
+            boolean queued = ingestionService.submit(view);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "success", true,
+                    "queued", queued,
+                    "message", queued ? "Product view queued" : "Product view dropped under load"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -89,12 +103,8 @@ public class UserActivityController {
 
         try {
             UUID productId = UUID.fromString(productIdStr);
-            UserActivity activity = activityService.trackAddToCart(currentUser.getId(), productId);
-
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Add to cart tracked",
-                    "activityId", activity.getId()));
+            return queued(ActivityIngestionService.PendingActivity.of(
+                    currentUser.getId(), productId, ActivityType.ADD_TO_CART), "Add to cart queued");
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -120,12 +130,83 @@ public class UserActivityController {
                     "message", "query is required"));
         }
 
-        UserActivity activity = activityService.trackSearch(currentUser.getId(), query);
+        return queued(new ActivityIngestionService.PendingActivity(UUID.randomUUID(), currentUser.getId(), null,
+                ActivityType.SEARCH, null, query, null, null, LocalDateTime.now()), "Search queued");
+    }
 
-        return ResponseEntity.ok(Map.of(
+    /**
+     * Track several activities in one request, e.g. views buffered by the client
+     * POST /api/activities/batch
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> trackBatch(
+            @RequestBody List<UserActivityDTO> events,
+            @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        if (events == null || events.isEmpty() || events.size() > MAX_BATCH_EVENTS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Between 1 and " + MAX_BATCH_EVENTS + " events are required"));
+        }
+
+        List<ActivityIngestionService.PendingActivity> activities = new ArrayList<>(events.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (UserActivityDTO event : events) {
+            if (event.getActivityType() == null
+                    || (PRODUCT_ACTIVITIES.contains(event.getActivityType()) && event.getProductId() == null)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "Each event needs an activityType, and a productId for product activities"));
+            }
+            activities.add(new ActivityIngestionService.PendingActivity(UUID.randomUUID(), currentUser.getId(),
+                    event.getProductId(), event.getActivityType(), event.getSessionId(), event.getSearchQuery(),
+                    event.getCategoryId(), event.getMetadata(), now));
+        }
+
+        int queued = ingestionService.submitAll(activities);
+        if (queued == 0) {
+            return overloaded();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
                 "success", true,
-                "message", "Search tracked",
-                "activityId", activity.getId()));
+                "received", events.size(),
+                "queued", queued,
+                "dropped", events.size() - queued));
+    }
+
+    /**
+     * Get activity ingestion statistics (buffer, accepted/shed/written counts)
+     * GET /api/activities/ingest/stats
+     */
+    @GetMapping("/ingest/stats")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getIngestStats() {
+        return ResponseEntity.ok(ingestionService.getStats());
+    }
+
+    /**
+     * Roll up and delete raw activities older than the retention period, in the background
+     * POST /api/activities/retention/run
+     */
+    @PostMapping("/retention/run")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> runRetention() {
+        boolean started = retentionService.triggerRetention();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of(
+                        "started", started,
+                        "message", started ? "Activity retention started" : "Activity retention already running"));
+    }
+
+    /**
+     * Progress of the running retention job, or the outcome of the last run
+     * GET /api/activities/retention/status
+     */
+    @GetMapping("/retention/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRetentionStatus() {
+        return ResponseEntity.ok(retentionService.getStatus());
     }
 
     /**
@@ -187,4 +268,23 @@ public class UserActivityController {
                 "type", type,
                 "count", count));
     }
+
+    private ResponseEntity<Map<String, Object>> queued(ActivityIngestionService.PendingActivity activity,
+            String message) {
+        if (!ingestionService.submit(activity)) {
+            return overloaded();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "success", true,
+                "message", message,
+                "activityId", activity.id()));
+    }
+
+    private ResponseEntity<Map<String, Object>> overloaded() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "success", false,
+                        "message", "Too many activities, retry shortly"));
+    }
 }
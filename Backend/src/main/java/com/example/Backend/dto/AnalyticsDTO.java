@@ -1,5 +1,6 @@
 package com.example.Backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -166,4 +167,82 @@ public class AnalyticsDTO {
         private LocalDate endDate;
         private String period; // DAILY, WEEKLY, MONTHLY
     }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CustomerSegment {
+        private String segment; // CHAMPIONS, LOYAL, AT_RISK, LOST, ...
+        private Long customers;
+        private Double percentage;
+        private BigDecimal totalRevenue;
+        private BigDecimal averageLifetimeValue;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RfmSummary {
+        private List<CustomerSegment> segments;
+        private Long totalCustomers;
+        private Long returningCustomers;
+        private BigDecimal totalRevenue;
+        private BigDecimal averageLifetimeValue;
+        private LocalDateTime computedAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CohortRetention {
+        private String cohort; // First order month, yyyy-MM
+        private Long customers; // Customers acquired in the cohort month
+        private List<Long> activeCustomers; // Index = months since first order
+        private List<Double> retention; // Percentage of the cohort active, same indexes
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchTermStats {
+        private String term; // Normalized query
+        private Long searches; // Estimated searches over the period
+        private Long maxOverestimate; // searches - maxOverestimate is a lower bound
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CohortReport {
+        private List<CohortRetention> cohorts;
+        private Long totalCustomers;
+        private Integer maxMonths;
+        private LocalDateTime computedAt; // Last full rebuild
+        private LocalDateTime updatedAt; // Last incremental update
+        private Boolean building; // First build still running, cohorts empty until it finishes
+    }
+
+    /**
+     * Live KPI message pushed on /topic/admin/kpi. Deltas only carry the KPIs that changed.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class KpiUpdate {
+        private String type; // SNAPSHOT or DELTA
+        private LocalDate date;
+        private Long ordersToday;
+        private BigDecimal revenueToday;
+        private Long pendingOrders;
+        private Long lowStockProducts;
+        private Long sequence; // Increases with every message, lets clients detect gaps
+        private LocalDateTime timestamp;
+    }
 }
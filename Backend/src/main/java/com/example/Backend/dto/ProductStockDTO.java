@@ -0,0 +1,42 @@
+package com.example.Backend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One row of the product stock overview; status and value are computed by the query
+ */
+@Data
+@NoArgsConstructor
+public class ProductStockDTO {
+
+    // Stock levels at or below which a product is CRITICAL / LOW
+    public static final int CRITICAL_THRESHOLD = 5;
+    public static final int LOW_THRESHOLD = 10;
+
+    private UUID id;
+    private String name;
+    private String sku;
+    private Integer currentStock;
+    private BigDecimal price;
+    private BigDecimal value;
+    private String brand;
+    private String category;
+    private String status; // OUT_OF_STOCK, CRITICAL, LOW, OK
+
+    public ProductStockDTO(UUID id, String name, Integer currentStock, BigDecimal price, BigDecimal value,
+            String brand, String category, String status) {
+        this.id = id;
+        this.name = name;
+        this.sku = id.toString().substring(0, 8).toUpperCase();
+        this.currentStock = currentStock;
+        this.price = price;
+        this.value = value;
+        this.brand = brand;
+        this.category = category;
+        this.status = status;
+    }
+}
@@ -27,4 +27,5 @@ public class ReorderSettingDTO {
     
     private UUID preferredSupplierId;
     private Boolean autoReorder;
+    private Boolean autoApplyForecast;
 }
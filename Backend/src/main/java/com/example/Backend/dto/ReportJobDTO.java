@@ -0,0 +1,34 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Status of an asynchronous report generation job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+
+    private UUID jobId;
+    private String reportType;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private Integer progress; // 0-100
+    private UUID reportId; // Set once COMPLETED
+    private String error; // Set when FAILED
+    private UUID submittedBy; // First submitter
+    private Set<UUID> requestedBy; // Everyone who submitted it, including coalesced submissions
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
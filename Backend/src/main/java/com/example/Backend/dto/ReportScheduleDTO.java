@@ -0,0 +1,30 @@
+package com.example.Backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportScheduleDTO {
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    @NotBlank(message = "Report type is required")
+    private String reportType;
+
+    @NotBlank(message = "Cron expression is required")
+    private String cronExpression;
+
+    private String periodType; // PREVIOUS_DAY (default), PREVIOUS_WEEK, PREVIOUS_MONTH, MONTH_TO_DATE
+
+    private Map<String, Object> parameters;
+
+    private Boolean enabled;
+}
@@ -0,0 +1,35 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Report metadata for list views; the payload is only loaded when a report is opened
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSummaryDTO {
+
+    private UUID id;
+
+    private String reportType;
+
+    private String title;
+
+    private String description;
+
+    private String fileUrl;
+
+    private LocalDateTime periodStart;
+
+    private LocalDateTime periodEnd;
+
+    private UUID generatedBy;
+
+    private LocalDateTime createdAt;
+}
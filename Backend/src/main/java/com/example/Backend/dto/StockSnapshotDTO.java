@@ -0,0 +1,40 @@
+package com.example.Backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Objects for point-in-time stock queries
+ */
+public class StockSnapshotDTO {
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StockAt {
+        private UUID productId;
+        private LocalDateTime at;
+        private Integer stock;
+        private LocalDate snapshotDate; // Snapshot the answer started from, null if none
+        private LocalDateTime lastMovementAt; // Last movement applied after it, null if none
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Valuation {
+        private LocalDate date;
+        private Long products;
+        private Long totalUnits;
+        private BigDecimal totalValue;
+    }
+}
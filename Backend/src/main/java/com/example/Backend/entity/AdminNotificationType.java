@@ -12,5 +12,6 @@ public enum AdminNotificationType {
     DELIVERY_COMPLETED, // Delivery completed successfully
     DELIVERY_FAILED, // Delivery failed
     PAYMENT_RECEIVED, // Payment received
+    REPORT_READY, // Scheduled report generated
     SYSTEM_ALERT // System alerts
 }
@@ -0,0 +1,104 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Customer Metrics Entity - Recency/Frequency/Monetary scores per customer.
+ * Rows are rebuilt by the RFM batch job, never edited by hand.
+ */
+@Entity
+@Table(name = "customer_metrics", indexes = {
+        @Index(name = "idx_customer_metrics_segment", columnList = "segment")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerMetrics implements Serializable {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "UUID")
+    private UUID userId;
+
+    @Column(name = "recency_days", nullable = false)
+    private Integer recencyDays; // Days since last non-cancelled order
+
+    @Column(name = "frequency", nullable = false)
+    private Integer frequency; // Number of non-cancelled orders
+
+    @Column(name = "monetary", nullable = false, precision = 14, scale = 2)
+    private BigDecimal monetary; // Lifetime value (sum of non-cancelled orders)
+
+    @Column(name = "average_order_value", precision = 12, scale = 2)
+    private BigDecimal averageOrderValue;
+
+    @Column(name = "r_score", nullable = false)
+    private Integer recencyScore; // 1-5, 5 = most recent
+
+    @Column(name = "f_score", nullable = false)
+    private Integer frequencyScore; // 1-5, 5 = most frequent
+
+    @Column(name = "m_score", nullable = false)
+    private Integer monetaryScore; // 1-5, 5 = highest spend
+
+    @Column(name = "segment", nullable = false, length = 30)
+    private String segment;
+
+    @Column(name = "first_order_at")
+    private LocalDateTime firstOrderAt;
+
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // Segment constants
+    public static final String SEGMENT_CHAMPIONS = "CHAMPIONS";
+    public static final String SEGMENT_LOYAL = "LOYAL";
+    public static final String SEGMENT_POTENTIAL_LOYALIST = "POTENTIAL_LOYALIST";
+    public static final String SEGMENT_NEW = "NEW";
+    public static final String SEGMENT_AT_RISK = "AT_RISK";
+    public static final String SEGMENT_CANT_LOSE = "CANT_LOSE";
+    public static final String SEGMENT_HIBERNATING = "HIBERNATING";
+    public static final String SEGMENT_LOST = "LOST";
+
+    public String getRfmCode() {
+        return "" + recencyScore + frequencyScore + monetaryScore;
+    }
+
+    /**
+     * Map recency and frequency scores to a marketing segment (classic RFM grid)
+     */
+    public static String segmentFor(int recencyScore, int frequencyScore) {
+        if (recencyScore >= 4 && frequencyScore >= 4) {
+            return SEGMENT_CHAMPIONS;
+        }
+        if (recencyScore >= 3 && frequencyScore >= 3) {
+            return SEGMENT_LOYAL;
+        }
+        if (recencyScore >= 4 && frequencyScore <= 1) {
+            return SEGMENT_NEW;
+        }
+        if (recencyScore >= 3) {
+            return SEGMENT_POTENTIAL_LOYALIST;
+        }
+        if (frequencyScore >= 4) {
+            return SEGMENT_CANT_LOSE;
+        }
+        if (frequencyScore >= 3) {
+            return SEGMENT_AT_RISK;
+        }
+        if (recencyScore == 2) {
+            return SEGMENT_HIBERNATING;
+        }
+        return SEGMENT_LOST;
+    }
+}
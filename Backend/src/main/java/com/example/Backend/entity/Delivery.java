@@ -16,7 +16,9 @@ import java.util.UUID;
 @Entity
 @Table(name = "deliveries", indexes = {
         @Index(name = "idx_deliveries_order_id", columnList = "order_id"),
-        @Index(name = "idx_deliveries_status", columnList = "status")
+        @Index(name = "idx_deliveries_status", columnList = "status"),
+        @Index(name = "idx_deliveries_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_deliveries_driver_created_at", columnList = "driver_name, created_at")
 })
 @Data
 @NoArgsConstructor
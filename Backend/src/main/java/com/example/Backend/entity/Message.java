@@ -15,7 +15,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "messages", indexes = {
         @Index(name = "idx_messages_conversation_id", columnList = "conversation_id"),
-        @Index(name = "idx_messages_created_at", columnList = "created_at")
+        @Index(name = "idx_messages_created_at", columnList = "created_at"),
+        @Index(name = "idx_messages_conversation_created_at", columnList = "conversation_id, created_at")
 })
 @Data
 @NoArgsConstructor
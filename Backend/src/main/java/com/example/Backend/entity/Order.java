@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.OrderEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
@@ -8,7 +9,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -23,8 +26,10 @@ import java.util.UUID;
 @Table(name = "orders", indexes = {
         @Index(name = "idx_orders_user_id", columnList = "user_id"),
         @Index(name = "idx_orders_status", columnList = "status"),
-        @Index(name = "idx_orders_created_at", columnList = "created_at")
+        @Index(name = "idx_orders_created_at", columnList = "created_at"),
+        @Index(name = "idx_orders_user_created", columnList = "user_id, created_at")
 })
+@EntityListeners(OrderEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -84,6 +89,13 @@ public class Order implements Serializable {
     @JsonIgnore
     private Delivery delivery;
 
+    // Status as last read from / written to the database, used to detect status changes
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedStatus;
+
     // Order status constants
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_CONFIRMED = "CONFIRMED";
@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.ProductEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -21,8 +22,11 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "products", indexes = {
-        @Index(name = "idx_products_brand_model_year", columnList = "brand_id, model, year")
+        @Index(name = "idx_products_brand_model_year", columnList = "brand_id, model, year"),
+        @Index(name = "idx_products_category_created", columnList = "category_id, created_at"),
+        @Index(name = "idx_products_model", columnList = "model")
 })
+@EntityListeners(ProductEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,46 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Product Activity Daily Entity - Number of activities of one type on a product in a day.
+ * Written by the activity retention job before raw user_activities rows are deleted, so
+ * trending history outlives them. No foreign key to products, like stock snapshots.
+ */
+@Entity
+@Table(name = "product_activity_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_activity_daily_product_date_type",
+                columnNames = { "product_id", "activity_date", "activity_type" })
+}, indexes = {
+        @Index(name = "idx_product_activity_daily_date", columnList = "activity_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductActivityDaily implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "product_id", columnDefinition = "UUID", nullable = false)
+    private UUID productId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "activity_type", nullable = false, length = 30)
+    private ActivityType activityType;
+
+    @Column(name = "activity_count", nullable = false)
+    private Long activityCount;
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.PurchasingEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -21,7 +22,10 @@ import java.util.UUID;
  * Purchase Order Entity - Manages orders from suppliers
  */
 @Entity
-@Table(name = "purchase_orders")
+@Table(name = "purchase_orders", indexes = {
+        @Index(name = "idx_purchase_orders_supplier_date", columnList = "supplier_id, order_date")
+})
+@EntityListeners(PurchasingEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -79,6 +79,25 @@ public class ReorderSetting implements Serializable {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
 
+    // Demand forecast from sales history, refreshed nightly
+    @Column(name = "forecast_daily_demand")
+    private Double forecastDailyDemand;
+
+    @Column(name = "forecast_method", length = 20)
+    private String forecastMethod; // SES, CROSTON_SBA, NO_DEMAND or SHORT_HISTORY
+
+    @Column(name = "suggested_reorder_point")
+    private Integer suggestedReorderPoint;
+
+    @Column(name = "suggested_reorder_quantity")
+    private Integer suggestedReorderQuantity;
+
+    @Column(name = "forecast_at")
+    private LocalDateTime forecastAt;
+
+    @Column(name = "auto_apply_forecast")
+    private Boolean autoApplyForecast = false; // Overwrite reorder point/quantity with the suggestions
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -1,10 +1,14 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.util.GzipTextConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.io.Serializable;
@@ -36,12 +40,26 @@ public class Report implements Serializable {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    @Convert(converter = GzipTextConverter.class)
+    @Column(name = "payload", columnDefinition = "bytea")
+    private String data; // JSON formatted report data, stored gzip-compressed
+
+    // Uncompressed JSON of reports saved before payload compression, moved by ReportPayloadMigrator
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @Column(name = "data", columnDefinition = "TEXT")
-    private String data; // JSON formatted report data
+    private String legacyData;
 
     @Column(name = "file_url")
     private String fileUrl; // CSV/PDF export URL
 
+    @Column(name = "period_start")
+    private LocalDateTime periodStart; // Period covered by the report, null for snapshots
+
+    @Column(name = "period_end")
+    private LocalDateTime periodEnd;
+
     @Column(name = "generated_by", columnDefinition = "UUID")
     private UUID generatedBy; // Admin who generated the report
 
@@ -49,6 +67,10 @@ public class Report implements Serializable {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    public String getData() {
+        return data != null ? data : legacyData;
+    }
+
     // Report type constants
     public static final String TYPE_SALES = "SALES";
     public static final String TYPE_INVENTORY = "INVENTORY";
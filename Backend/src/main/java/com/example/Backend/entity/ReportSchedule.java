@@ -0,0 +1,94 @@
+package com.example.Backend.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Recurring report definition, run by ReportScheduleService on its cron expression
+ */
+@Entity
+@Table(name = "report_schedules", indexes = {
+        @Index(name = "idx_report_schedules_next_run", columnList = "enabled, next_run_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSchedule implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @NotBlank(message = "Name is required")
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @NotBlank(message = "Report type is required")
+    @Column(name = "report_type", nullable = false, length = 100)
+    private String reportType; // SALES, INVENTORY, USERS or a custom type
+
+    @NotBlank(message = "Cron expression is required")
+    @Column(name = "cron_expression", nullable = false, length = 100)
+    private String cronExpression; // Spring cron, e.g. "0 0 6 * * *"
+
+    @Column(name = "period_type", nullable = false, length = 30)
+    private String periodType = PERIOD_PREVIOUS_DAY;
+
+    @Column(name = "parameters", columnDefinition = "TEXT")
+    private String parameters; // JSON parameters for custom reports
+
+    @Column(name = "enabled", nullable = false)
+    private Boolean enabled = true;
+
+    @Column(name = "scheduled_at")
+    private LocalDateTime scheduledAt; // Next cron fire time, anchors the report period
+
+    @Column(name = "next_run_at")
+    private LocalDateTime nextRunAt; // scheduledAt plus this schedule's start jitter
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "last_report_id", columnDefinition = "UUID")
+    private UUID lastReportId;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    // Lease held by the node running this schedule
+    @JsonIgnore
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    @JsonIgnore
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "created_by", columnDefinition = "UUID")
+    private UUID createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Period type constants, relative to the scheduled time
+    public static final String PERIOD_PREVIOUS_DAY = "PREVIOUS_DAY";
+    public static final String PERIOD_PREVIOUS_WEEK = "PREVIOUS_WEEK";
+    public static final String PERIOD_PREVIOUS_MONTH = "PREVIOUS_MONTH";
+    public static final String PERIOD_MONTH_TO_DATE = "MONTH_TO_DATE";
+}
@@ -0,0 +1,44 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Search Term Daily Entity - Approximate number of product searches for a normalized query in
+ * a day, and how many of them found nothing. Only the day's most frequent queries are kept;
+ * rows are rewritten by the search analytics job while the day is in progress.
+ */
+@Entity
+@Table(name = "search_term_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_search_term_daily_term_date", columnNames = { "term", "search_date" })
+}, indexes = {
+        @Index(name = "idx_search_term_daily_date", columnList = "search_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchTermDaily implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "term", nullable = false, length = 100)
+    private String term; // Normalized query: lower case, punctuation and extra spaces removed
+
+    @Column(name = "search_date", nullable = false)
+    private LocalDate searchDate;
+
+    @Column(name = "search_count", nullable = false)
+    private Long searchCount;
+
+    @Column(name = "zero_result_count", nullable = false)
+    private Long zeroResultCount;
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.StockMovementEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -17,9 +18,11 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "stock_movements", indexes = {
-        @Index(name = "idx_stock_movements_product", columnList = "product_id"),
-        @Index(name = "idx_stock_movements_date", columnList = "movement_date")
+        @Index(name = "idx_stock_movements_product_date", columnList = "product_id, movement_date"),
+        @Index(name = "idx_stock_movements_date", columnList = "movement_date"),
+        @Index(name = "idx_stock_movements_type_date", columnList = "movement_type, movement_date")
 })
+@EntityListeners(StockMovementEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
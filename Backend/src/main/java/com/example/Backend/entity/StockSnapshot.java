@@ -0,0 +1,52 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stock Snapshot Entity - Stock of a product at the end of a day.
+ * Written by the nightly snapshot job; daily rows are pruned after a retention period,
+ * month-end rows are kept. No foreign key to products so history outlives deleted products.
+ */
+@Entity
+@Table(name = "stock_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_snapshots_product_date", columnNames = { "product_id", "snapshot_date" })
+}, indexes = {
+        @Index(name = "idx_stock_snapshots_date", columnList = "snapshot_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSnapshot implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "product_id", columnDefinition = "UUID", nullable = false)
+    private UUID productId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate; // Stock as of the end of this day
+
+    @Column(name = "stock_quantity", nullable = false)
+    private Integer stockQuantity;
+
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice; // Product price when the snapshot was taken
+
+    @Column(name = "stock_value", nullable = false, precision = 14, scale = 2)
+    private BigDecimal stockValue;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.PurchasingEntityListener;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -21,6 +22,7 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "suppliers")
+@EntityListeners(PurchasingEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
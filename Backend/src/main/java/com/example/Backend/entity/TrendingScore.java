@@ -0,0 +1,41 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Trending Score Entity - Periodic copy of the in-memory trending scores, reloaded on startup.
+ * Rows are replaced as a whole by the trending snapshot job, never edited by hand.
+ */
+@Entity
+@Table(name = "trending_scores", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_trending_scores_product_horizon", columnNames = { "product_id", "horizon_days" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingScore implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "product_id", columnDefinition = "UUID", nullable = false)
+    private UUID productId;
+
+    @Column(name = "horizon_days", nullable = false)
+    private Integer horizonDays;
+
+    @Column(name = "score", nullable = false)
+    private Double score; // Decayed activity score as of snapshotAt
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.entity;
 
+import com.example.Backend.event.UserActivityEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,6 +22,7 @@ import java.util.UUID;
         @Index(name = "idx_user_activities_type", columnList = "activity_type"),
         @Index(name = "idx_user_activities_created_at", columnList = "created_at")
 })
+@EntityListeners(UserActivityEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,47 @@
+package com.example.Backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * User Activity Daily Entity - Number of activities of one type by a user on a product in a day.
+ * Written by the activity retention job before raw user_activities rows are deleted, so
+ * preference profiles and co-purchases keep the user's older history.
+ */
+@Entity
+@Table(name = "user_activity_daily", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_activity_daily_user_product_date_type",
+                columnNames = { "user_id", "product_id", "activity_date", "activity_type" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityDaily implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "user_id", columnDefinition = "UUID", nullable = false)
+    private UUID userId;
+
+    @Column(name = "product_id", columnDefinition = "UUID", nullable = false)
+    private UUID productId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "activity_type", nullable = false, length = 30)
+    private ActivityType activityType;
+
+    @Column(name = "activity_count", nullable = false)
+    private Long activityCount;
+}
@@ -0,0 +1,62 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.Order;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * JPA listener turning order inserts and status updates into Spring application events.
+ * Hooked on the entity so that every path saving orders (checkout, admin, payments,
+ * deliveries) is covered without each service publishing by hand.
+ */
+@Component
+public class OrderEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostLoad
+    public void onLoad(Order order) {
+        order.setLoadedStatus(order.getStatus());
+    }
+
+    @PostPersist
+    public void onPersist(Order order) {
+        eventPublisher.publishEvent(new OrderPlacedEvent(
+                order.getId(),
+                userId(order),
+                order.getStatus(),
+                order.getTotalPrice(),
+                order.getCreatedAt()));
+        order.setLoadedStatus(order.getStatus());
+    }
+
+    @PostUpdate
+    public void onUpdate(Order order) {
+        String previousStatus = order.getLoadedStatus();
+        if (Objects.equals(previousStatus, order.getStatus())) {
+            return;
+        }
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(
+                order.getId(),
+                userId(order),
+                previousStatus,
+                order.getStatus(),
+                order.getTotalPrice(),
+                order.getCreatedAt()));
+        order.setLoadedStatus(order.getStatus());
+    }
+
+    private UUID userId(Order order) {
+        return order.getUser() != null ? order.getUser().getId() : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.Backend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a new order is persisted.
+ * Listeners should use @TransactionalEventListener so they only see committed orders.
+ */
+public record OrderPlacedEvent(
+        UUID orderId,
+        UUID userId,
+        String status,
+        BigDecimal totalPrice,
+        LocalDateTime createdAt) {
+}
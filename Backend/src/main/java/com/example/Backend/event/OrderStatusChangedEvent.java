@@ -0,0 +1,18 @@
+package com.example.Backend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when the status of an existing order changes, whatever service made the change.
+ * createdAt is the order creation time, i.e. the day the order counts towards in analytics.
+ */
+public record OrderStatusChangedEvent(
+        UUID orderId,
+        UUID userId,
+        String previousStatus,
+        String newStatus,
+        BigDecimal totalPrice,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.Backend.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a product is created, updated (including stock changes) or deleted.
+ */
+public record ProductChangedEvent(UUID productId) {
+}
@@ -0,0 +1,29 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener publishing a ProductChangedEvent whenever a product row is written, so
+ * in-memory product indexes can follow catalog edits.
+ */
+@Component
+public class ProductEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Product product) {
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+    }
+}
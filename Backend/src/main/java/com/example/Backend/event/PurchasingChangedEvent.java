@@ -0,0 +1,7 @@
+package com.example.Backend.event;
+
+/**
+ * Published when a purchase order or supplier is created, updated or deleted.
+ */
+public record PurchasingChangedEvent(Class<?> entityType) {
+}
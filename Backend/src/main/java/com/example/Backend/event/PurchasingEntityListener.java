@@ -0,0 +1,28 @@
+package com.example.Backend.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on purchase orders and suppliers, so inventory figures derived from them
+ * know when to refresh.
+ */
+@Component
+public class PurchasingEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PurchasingEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        eventPublisher.publishEvent(new PurchasingChangedEvent(entity.getClass()));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.StockMovement;
+import jakarta.persistence.PostPersist;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener publishing a StockMovementRecordedEvent for every stock movement saved,
+ * whether it comes from checkout, cancellations, purchase orders or manual adjustments.
+ */
+@Component
+public class StockMovementEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public StockMovementEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(StockMovement movement) {
+        eventPublisher.publishEvent(new StockMovementRecordedEvent(
+                movement.getId(),
+                movement.getProduct() != null ? movement.getProduct().getId() : null,
+                movement.getMovementType(),
+                movement.getQuantity() != null ? movement.getQuantity() : 0,
+                movement.getPreviousStock() != null ? movement.getPreviousStock() : 0,
+                movement.getNewStock() != null ? movement.getNewStock() : 0,
+                movement.getReferenceId(),
+                movement.getMovementDate()));
+    }
+}
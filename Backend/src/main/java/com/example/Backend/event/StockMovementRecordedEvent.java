@@ -0,0 +1,21 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.StockMovement;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a stock movement is persisted; previousStock/newStock give the stock
+ * level of the product before and after the movement.
+ */
+public record StockMovementRecordedEvent(
+        UUID movementId,
+        UUID productId,
+        StockMovement.MovementType movementType,
+        int quantity,
+        int previousStock,
+        int newStock,
+        UUID referenceId,
+        LocalDateTime movementDate) {
+}
@@ -0,0 +1,28 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.UserActivity;
+import jakarta.persistence.PostPersist;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener publishing a UserActivityRecordedEvent for every user activity saved.
+ */
+@Component
+public class UserActivityEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserActivityEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(UserActivity activity) {
+        eventPublisher.publishEvent(new UserActivityRecordedEvent(
+                activity.getUser() != null ? activity.getUser().getId() : null,
+                activity.getProduct() != null ? activity.getProduct().getId() : null,
+                activity.getActivityType(),
+                activity.getCreatedAt()));
+    }
+}
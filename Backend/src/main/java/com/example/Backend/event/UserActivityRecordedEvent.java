@@ -0,0 +1,17 @@
+package com.example.Backend.event;
+
+import com.example.Backend.entity.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a user activity is persisted; productId is null for activities
+ * not tied to a product (searches).
+ */
+public record UserActivityRecordedEvent(
+        UUID userId,
+        UUID productId,
+        ActivityType activityType,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,38 @@
+package com.example.Backend.repository;
+
+import com.example.Backend.entity.CustomerMetrics;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for precomputed RFM customer metrics
+ */
+@Repository
+public interface CustomerMetricsRepository extends JpaRepository<CustomerMetrics, UUID> {
+
+    /**
+     * Find customers of a segment, best spenders first
+     */
+    Page<CustomerMetrics> findBySegmentOrderByMonetaryDesc(String segment, Pageable pageable);
+
+    /**
+     * Segment distribution: segment, customer count, total monetary, returning customers
+     */
+    @Query("SELECT cm.segment, COUNT(cm), SUM(cm.monetary), " +
+            "SUM(CASE WHEN cm.frequency > 1 THEN 1 ELSE 0 END) " +
+            "FROM CustomerMetrics cm GROUP BY cm.segment")
+    List<Object[]> summarizeBySegment();
+
+    /**
+     * Time of the last completed RFM run
+     */
+    @Query("SELECT MAX(cm.computedAt) FROM CustomerMetrics cm")
+    LocalDateTime findLastComputedAt();
+}
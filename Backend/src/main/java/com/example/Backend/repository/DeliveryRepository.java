@@ -1,6 +1,8 @@
 package com.example.Backend.repository;
 
 import com.example.Backend.entity.Delivery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -29,17 +31,40 @@ public interface DeliveryRepository extends JpaRepository<Delivery, UUID> {
          */
         List<Delivery> findByStatus(String status);
 
+        /**
+         * Find deliveries by status with pagination
+         */
+        Page<Delivery> findByStatus(String status, Pageable pageable);
+
         /**
          * Find active deliveries (in transit or out for delivery)
          */
         @Query("SELECT d FROM Delivery d WHERE d.status IN ('IN_TRANSIT', 'OUT_FOR_DELIVERY')")
         List<Delivery> findActiveDeliveries();
 
+        /**
+         * Find active deliveries with pagination
+         */
+        @Query(value = "SELECT d FROM Delivery d WHERE d.status IN ('IN_TRANSIT', 'OUT_FOR_DELIVERY')",
+                        countQuery = "SELECT COUNT(d) FROM Delivery d WHERE d.status IN ('IN_TRANSIT', 'OUT_FOR_DELIVERY')")
+        Page<Delivery> findActiveDeliveries(Pageable pageable);
+
+        /**
+         * Count active deliveries (in transit or out for delivery)
+         */
+        @Query("SELECT COUNT(d) FROM Delivery d WHERE d.status IN ('IN_TRANSIT', 'OUT_FOR_DELIVERY')")
+        long countActiveDeliveries();
+
         /**
          * Find deliveries by driver
          */
         List<Delivery> findByDriverName(String driverName);
 
+        /**
+         * Find deliveries by driver name with pagination
+         */
+        Page<Delivery> findByDriverName(String driverName, Pageable pageable);
+
         /**
          * Find deliveries with estimated delivery before a date
          */
@@ -96,4 +96,12 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
                         "AND LOWER(m.content) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
         List<Message> searchInConversation(@Param("conversationId") UUID conversationId,
                         @Param("searchTerm") String searchTerm);
+
+        /**
+         * Search messages in a conversation with pagination
+         */
+        @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId " +
+                        "AND LOWER(m.content) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+        Page<Message> searchInConversation(@Param("conversationId") UUID conversationId,
+                        @Param("searchTerm") String searchTerm, Pageable pageable);
 }
@@ -117,6 +117,52 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
          */
         List<Order> findByCreatedAtAfter(LocalDateTime date);
 
+        /**
+         * Count distinct customers who ordered since a date
+         */
+        @Query("SELECT COUNT(DISTINCT o.user.id) FROM Order o WHERE o.createdAt >= :since")
+        long countDistinctCustomersSince(@Param("since") LocalDateTime since);
+
+        /**
+         * Count orders created between dates
+         */
+        long countByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+        /**
+         * Count orders created after a date
+         */
+        long countByCreatedAtAfter(LocalDateTime date);
+
+        /**
+         * Order count per status for orders created between dates: status, count
+         */
+        @Query("SELECT o.status, COUNT(o) FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate " +
+                        "GROUP BY o.status")
+        List<Object[]> countByStatusBetween(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        /**
+         * Orders placed in a period and their revenue excluding cancelled orders
+         */
+        @Query("SELECT COUNT(o), COALESCE(SUM(CASE WHEN o.status <> 'CANCELLED' THEN o.totalPrice ELSE 0 END), 0) " +
+                        "FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
+        List<Object[]> summarizeOrdersBetween(@Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
+        /**
+         * Sales aggregated per time bucket (unit: day, week, month, quarter, year).
+         * Returns bucket start date, order count and revenue, excluding cancelled orders
+         */
+        @Query(value = "SELECT CAST(date_trunc(:unit, o.created_at) AS date) AS bucket, " +
+                        "COUNT(*), COALESCE(SUM(o.total_price), 0) " +
+                        "FROM orders o " +
+                        "WHERE o.created_at >= :startDate AND o.created_at < :endDate " +
+                        "AND o.status <> 'CANCELLED' " +
+                        "GROUP BY bucket ORDER BY bucket", nativeQuery = true)
+        List<Object[]> aggregateSalesByBucket(@Param("unit") String unit,
+                        @Param("startDate") LocalDateTime startDate,
+                        @Param("endDate") LocalDateTime endDate);
+
         /**
          * Find orders requiring attention (pending payment or confirmation)
          */
@@ -1,19 +1,39 @@
 package com.example.Backend.repository;
 
+import com.example.Backend.dto.ProductStockDTO;
 import com.example.Backend.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+
+        // Product stock overview query, shared by the paged and streamed variants
+        String STOCK_OVERVIEW_SELECT = "SELECT new com.example.Backend.dto.ProductStockDTO(p.id, p.name, p.stock, " +
+                        "p.price, p.price * p.stock, b.name, c.name, " +
+                        "CASE WHEN p.stock <= 0 THEN 'OUT_OF_STOCK' " +
+                        "WHEN p.stock <= " + ProductStockDTO.CRITICAL_THRESHOLD + " THEN 'CRITICAL' " +
+                        "WHEN p.stock <= " + ProductStockDTO.LOW_THRESHOLD + " THEN 'LOW' ELSE 'OK' END) " +
+                        "FROM Product p LEFT JOIN p.brand b LEFT JOIN p.category c ";
+
+        String STOCK_OVERVIEW_WHERE = "WHERE (:minStock IS NULL OR p.stock >= :minStock) " +
+                        "AND (:maxStock IS NULL OR p.stock <= :maxStock) " +
+                        "AND (:categoryId IS NULL OR c.id = :categoryId)";
 
         /**
          * Find products by name (case-insensitive, partial match)
@@ -91,6 +111,26 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
         @Query("SELECT p FROM Product p WHERE p.stock > 0 ORDER BY p.createdAt DESC")
         Page<Product> findFeaturedProducts(Pageable pageable);
 
+        /**
+         * Find in-stock products of the given categories, newest first
+         */
+        @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.stock > 0 " +
+                        "ORDER BY p.createdAt DESC")
+        List<Product> findInStockByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds,
+                        Pageable pageable);
+
+        /**
+         * Find in-stock products of the given brands, newest first
+         */
+        @Query("SELECT p FROM Product p WHERE p.brand.id IN :brandIds AND p.stock > 0 ORDER BY p.createdAt DESC")
+        List<Product> findInStockByBrandIds(@Param("brandIds") Collection<Long> brandIds, Pageable pageable);
+
+        /**
+         * Find in-stock products for the given vehicle models, newest first
+         */
+        @Query("SELECT p FROM Product p WHERE p.model IN :models AND p.stock > 0 ORDER BY p.createdAt DESC")
+        List<Product> findInStockByModels(@Param("models") Collection<String> models, Pageable pageable);
+
         /**
          * Get distinct categories - returns category names
          */
@@ -121,6 +161,61 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
         @Query("SELECT COUNT(p) FROM Product p WHERE p.stock > 0")
         Long countInStock();
 
+        /**
+         * Count products below a stock threshold (same rule as the dashboard low stock figure)
+         */
+        long countByStockLessThan(Integer threshold);
+
+        /**
+         * Count out of stock products
+         */
+        @Query("SELECT COUNT(p) FROM Product p WHERE p.stock = 0")
+        long countOutOfStock();
+
+        /**
+         * Count low stock products (0 < stock <= threshold, same rule as findLowStock)
+         */
+        @Query("SELECT COUNT(p) FROM Product p WHERE p.stock > 0 AND p.stock <= :threshold")
+        long countLowStock(@Param("threshold") Integer threshold);
+
+        /**
+         * Stock summary in one scan: product count, stock value, out of stock (no stock or
+         * stock <= 0), low stock (0 < stock <= threshold) and healthy stock counts
+         */
+        @Query("SELECT COUNT(p), COALESCE(SUM(p.price * p.stock), 0), " +
+                        "COALESCE(SUM(CASE WHEN p.stock IS NULL OR p.stock <= 0 THEN 1 ELSE 0 END), 0), " +
+                        "COALESCE(SUM(CASE WHEN p.stock > 0 AND p.stock <= :threshold THEN 1 ELSE 0 END), 0), " +
+                        "COALESCE(SUM(CASE WHEN p.stock > :threshold THEN 1 ELSE 0 END), 0) " +
+                        "FROM Product p")
+        List<Object[]> summarizeStock(@Param("threshold") Integer threshold);
+
+        /**
+         * Product stock overview: stock status bucket and value computed in SQL, optionally
+         * restricted to a stock range (a status) and a category
+         */
+        @Query(value = STOCK_OVERVIEW_SELECT + STOCK_OVERVIEW_WHERE,
+                        countQuery = "SELECT COUNT(p) FROM Product p LEFT JOIN p.category c " + STOCK_OVERVIEW_WHERE)
+        Page<ProductStockDTO> findStockOverview(@Param("minStock") Integer minStock,
+                        @Param("maxStock") Integer maxStock,
+                        @Param("categoryId") Long categoryId,
+                        Pageable pageable);
+
+        /**
+         * Same as findStockOverview, streamed for full exports (needs an open transaction)
+         */
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+        @Query(STOCK_OVERVIEW_SELECT + STOCK_OVERVIEW_WHERE)
+        Stream<ProductStockDTO> streamStockOverview(@Param("minStock") Integer minStock,
+                        @Param("maxStock") Integer maxStock,
+                        @Param("categoryId") Long categoryId,
+                        Sort sort);
+
+        /**
+         * Get the price of a product
+         */
+        @Query("SELECT p.price FROM Product p WHERE p.id = :productId")
+        BigDecimal findPriceById(@Param("productId") UUID productId);
+
         /**
          * Count products by brand ID
          */
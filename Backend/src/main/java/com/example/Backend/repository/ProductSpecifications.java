@@ -0,0 +1,107 @@
+package com.example.Backend.repository;
+
+import com.example.Backend.entity.Product;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Catalog filters for {@link ProductRepository#findAll(Specification, org.springframework.data.domain.Pageable)}.
+ *
+ * Each filter only adds a predicate when its value is given, so there are no ":param IS NULL"
+ * checks on untyped null parameters (which PostgreSQL rejects as bytea).
+ */
+public final class ProductSpecifications {
+
+    // Accented letters lower() leaves in place, and what SearchAnalyticsService.normalize makes of them
+    private static final String ACCENTED = "àâäáãåçéèêëíìîïñóòôöõúùûüýÿ";
+    private static final String UNACCENTED = "aaaaaaceeeeiiiinooooouuuuyy";
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Products matching every given filter; null filters match everything
+     */
+    public static Specification<Product> filter(Long categoryId, Long brandId, BigDecimal minPrice,
+            BigDecimal maxPrice, String search, Boolean inStock) {
+        Specification<Product> spec = Specification.unrestricted();
+        if (categoryId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("category").get("id"), categoryId));
+        }
+        if (brandId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("brand").get("id"), brandId));
+        }
+        if (minPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+        }
+        if (maxPrice != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+        }
+        if (search != null) {
+            spec = spec.and(nameContains(search));
+        }
+        if (Boolean.TRUE.equals(inStock)) {
+            spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("stock"), 0));
+        }
+        return spec;
+    }
+
+    /**
+     * Products whose name contains the text, ignoring case
+     */
+    public static Specification<Product> nameContains(String text) {
+        String pattern = "%" + escapeLike(text.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    /**
+     * Orders by relevance, then name: the recent searches of the given popular queries (as
+     * normalized words) whose words all appear in the product name. Adds no predicate, and
+     * leaves count queries unordered; use with an unsorted Pageable.
+     */
+    public static Specification<Product> orderedByRelevance(Map<Set<String>, Long> termSearches) {
+        return (root, query, cb) -> {
+            if (Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType())) {
+                return null;
+            }
+            if (termSearches.isEmpty()) {
+                query.orderBy(cb.asc(root.get("name")));
+                return null;
+            }
+            Expression<String> nameWords = nameWords(root, cb);
+            Expression<Long> score = null;
+            for (Map.Entry<Set<String>, Long> term : termSearches.entrySet()) {
+                Predicate matches = cb.and(term.getKey().stream()
+                        .map(word -> cb.like(nameWords, "% " + escapeLike(word) + " %", '\\'))
+                        .toArray(Predicate[]::new));
+                Expression<Long> termScore = cb.<Long>selectCase()
+                        .when(matches, cb.literal(term.getValue()))
+                        .otherwise(cb.literal(0L));
+                score = score == null ? termScore : cb.sum(score, termScore);
+            }
+            query.orderBy(cb.desc(score), cb.asc(root.get("name")));
+            return null;
+        };
+    }
+
+    // The name as space-separated words between spaces, lower case and without accents
+    private static Expression<String> nameWords(Root<Product> root, CriteriaBuilder cb) {
+        Expression<String> name = cb.function("translate", String.class, cb.lower(root.get("name")),
+                cb.literal(ACCENTED), cb.literal(UNACCENTED));
+        Expression<String> words = cb.function("regexp_replace", String.class, name,
+                cb.literal("[^[:alnum:]]+"), cb.literal(" "), cb.literal("g"));
+        return cb.concat(cb.concat(" ", words), " ");
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
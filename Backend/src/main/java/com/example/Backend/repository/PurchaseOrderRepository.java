@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +38,11 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UU
      */
     List<PurchaseOrder> findBySupplierId(UUID supplierId);
 
+    /**
+     * Find purchase orders by supplier with pagination
+     */
+    Page<PurchaseOrder> findBySupplierId(UUID supplierId, Pageable pageable);
+
     /**
      * Find purchase orders by supplier and status
      */
@@ -91,6 +97,20 @@ public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, UU
     @Query("SELECT po FROM PurchaseOrder po WHERE po.status = 'PENDING' ORDER BY po.createdAt ASC")
     List<PurchaseOrder> findPendingApproval();
 
+    /**
+     * Products among the given ones that are on a purchase order in one of the statuses
+     */
+    @Query("SELECT DISTINCT i.product.id FROM PurchaseOrderItem i " +
+            "WHERE i.purchaseOrder.status IN :statuses AND i.product.id IN :productIds")
+    List<UUID> findProductIdsOnOrdersWithStatus(@Param("productIds") Collection<UUID> productIds,
+            @Param("statuses") Collection<POStatus> statuses);
+
+    /**
+     * Purchase order count per status: status, count
+     */
+    @Query("SELECT po.status, COUNT(po) FROM PurchaseOrder po GROUP BY po.status")
+    List<Object[]> countGroupByStatus();
+
     /**
      * Search purchase orders
      */
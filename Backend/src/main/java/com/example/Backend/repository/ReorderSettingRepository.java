@@ -2,9 +2,13 @@ package com.example.Backend.repository;
 
 import com.example.Backend.entity.ReorderSetting;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -61,4 +65,26 @@ public interface ReorderSettingRepository extends JpaRepository<ReorderSetting,
          * Count enabled reorder settings
          */
         Long countByIsEnabledTrue();
+
+        /**
+         * Auto-reorder settings at or below their reorder point, with product and supplier
+         */
+        @Query("SELECT rs FROM ReorderSetting rs JOIN FETCH rs.product p JOIN FETCH rs.preferredSupplier " +
+                        "WHERE rs.isEnabled = true AND rs.autoReorder = true AND p.stock <= rs.reorderPoint")
+        List<ReorderSetting> findAutoReorderCandidates();
+
+        /**
+         * Same as findAutoReorderCandidates, restricted to some products
+         */
+        @Query("SELECT rs FROM ReorderSetting rs JOIN FETCH rs.product p JOIN FETCH rs.preferredSupplier " +
+                        "WHERE rs.isEnabled = true AND rs.autoReorder = true AND p.stock <= rs.reorderPoint " +
+                        "AND p.id IN :productIds")
+        List<ReorderSetting> findAutoReorderCandidates(@Param("productIds") Collection<UUID> productIds);
+
+        /**
+         * Record when settings last triggered a reorder
+         */
+        @Modifying
+        @Query("UPDATE ReorderSetting rs SET rs.lastReorderDate = :date WHERE rs.id IN :ids")
+        int markReordered(@Param("ids") Collection<UUID> ids, @Param("date") LocalDateTime date);
 }
@@ -1,5 +1,6 @@
 package com.example.Backend.repository;
 
+import com.example.Backend.dto.ReportSummaryDTO;
 import com.example.Backend.entity.Report;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -71,6 +72,56 @@ public interface ReportRepository extends JpaRepository<Report, UUID> {
      */
     Long countByGeneratedBy(UUID adminId);
 
+    /**
+     * Report metadata without payload, in the order of the pageable
+     */
+    @Query(value = "SELECT new com.example.Backend.dto.ReportSummaryDTO(r.id, r.reportType, r.title, r.description, " +
+            "r.fileUrl, r.periodStart, r.periodEnd, r.generatedBy, r.createdAt) FROM Report r",
+            countQuery = "SELECT COUNT(r) FROM Report r")
+    Page<ReportSummaryDTO> findAllSummaries(Pageable pageable);
+
+    /**
+     * Report metadata by type without payload, in the order of the pageable
+     */
+    @Query(value = "SELECT new com.example.Backend.dto.ReportSummaryDTO(r.id, r.reportType, r.title, r.description, " +
+            "r.fileUrl, r.periodStart, r.periodEnd, r.generatedBy, r.createdAt) FROM Report r " +
+            "WHERE r.reportType = :reportType",
+            countQuery = "SELECT COUNT(r) FROM Report r WHERE r.reportType = :reportType")
+    Page<ReportSummaryDTO> findSummariesByReportType(@Param("reportType") String reportType, Pageable pageable);
+
+    /**
+     * Report metadata by creator without payload, in the order of the pageable
+     */
+    @Query(value = "SELECT new com.example.Backend.dto.ReportSummaryDTO(r.id, r.reportType, r.title, r.description, " +
+            "r.fileUrl, r.periodStart, r.periodEnd, r.generatedBy, r.createdAt) FROM Report r " +
+            "WHERE r.generatedBy = :adminId",
+            countQuery = "SELECT COUNT(r) FROM Report r WHERE r.generatedBy = :adminId")
+    Page<ReportSummaryDTO> findSummariesByGeneratedBy(@Param("adminId") UUID adminId, Pageable pageable);
+
+    /**
+     * Metadata of reports created since a date without payload, in the order of the pageable
+     */
+    @Query("SELECT new com.example.Backend.dto.ReportSummaryDTO(r.id, r.reportType, r.title, r.description, " +
+            "r.fileUrl, r.periodStart, r.periodEnd, r.generatedBy, r.createdAt) FROM Report r " +
+            "WHERE r.createdAt >= :since")
+    List<ReportSummaryDTO> findRecentSummaries(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Ids of reports whose payload is still stored uncompressed
+     */
+    @Query("SELECT r.id FROM Report r WHERE r.legacyData IS NOT NULL")
+    List<UUID> findIdsWithLegacyData(Pageable pageable);
+
+    /**
+     * Ids of reports of a type covering exactly the given period, most recent first
+     */
+    @Query("SELECT r.id FROM Report r WHERE r.reportType = :reportType AND r.periodStart = :periodStart " +
+            "AND r.periodEnd = :periodEnd ORDER BY r.createdAt DESC")
+    List<UUID> findIdsByTypeAndPeriod(@Param("reportType") String reportType,
+            @Param("periodStart") LocalDateTime periodStart,
+            @Param("periodEnd") LocalDateTime periodEnd,
+            Pageable pageable);
+
     /**
      * Get latest report of a specific type
      */
@@ -0,0 +1,39 @@
+package com.example.Backend.repository;
+
+import com.example.Backend.entity.ReportSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReportScheduleRepository extends JpaRepository<ReportSchedule, UUID> {
+
+    /**
+     * Find all schedules sorted by name
+     */
+    List<ReportSchedule> findAllByOrderByNameAsc();
+
+    /**
+     * Ids of enabled schedules that are due and not leased by a node
+     */
+    @Query("SELECT s.id FROM ReportSchedule s WHERE s.enabled = true AND s.nextRunAt <= :now " +
+            "AND (s.lockedUntil IS NULL OR s.lockedUntil < :now) ORDER BY s.nextRunAt")
+    List<UUID> findDueScheduleIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Take the lease on a due schedule; returns 1 when acquired, 0 when another node holds it
+     * or the schedule is no longer due
+     */
+    @Modifying
+    @Query("UPDATE ReportSchedule s SET s.lockedBy = :owner, s.lockedUntil = :until " +
+            "WHERE s.id = :id AND s.enabled = true AND s.nextRunAt <= :now " +
+            "AND (s.lockedUntil IS NULL OR s.lockedUntil < :now)")
+    int tryLock(@Param("id") UUID id, @Param("owner") String owner,
+            @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+}
@@ -34,6 +34,11 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, UU
      */
     List<StockMovement> findByMovementType(MovementType movementType);
 
+    /**
+     * Find stock movements by movement type with pagination
+     */
+    Page<StockMovement> findByMovementType(MovementType movementType, Pageable pageable);
+
     /**
      * Find stock movements by date range
      */
@@ -86,6 +91,37 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, UU
     @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId ORDER BY sm.movementDate DESC")
     List<StockMovement> getProductStockHistory(@Param("productId") UUID productId, Pageable pageable);
 
+    /**
+     * Find the latest movements of a product in [from, to), latest first
+     */
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId AND " +
+            "sm.movementDate >= :from AND sm.movementDate < :to ORDER BY sm.movementDate DESC")
+    List<StockMovement> findLatestInRange(
+            @Param("productId") UUID productId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    /**
+     * Find the latest movements of a product before a time, latest first
+     */
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId AND " +
+            "sm.movementDate < :to ORDER BY sm.movementDate DESC")
+    List<StockMovement> findLatestBefore(
+            @Param("productId") UUID productId,
+            @Param("to") LocalDateTime to,
+            Pageable pageable);
+
+    /**
+     * Find the earliest movements of a product at or after a time, earliest first
+     */
+    @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId AND " +
+            "sm.movementDate >= :from ORDER BY sm.movementDate ASC")
+    List<StockMovement> findEarliestFrom(
+            @Param("productId") UUID productId,
+            @Param("from") LocalDateTime from,
+            Pageable pageable);
+
     /**
      * Find stock movements performed by user
      */
@@ -0,0 +1,54 @@
+package com.example.Backend.repository;
+
+import com.example.Backend.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for end-of-day stock snapshots
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, UUID> {
+
+    /**
+     * Find the latest snapshot of a product taken before the given day
+     */
+    Optional<StockSnapshot> findTopByProductIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(
+            UUID productId, LocalDate before);
+
+    /**
+     * Most recent snapshot day
+     */
+    @Query("SELECT MAX(s.snapshotDate) FROM StockSnapshot s")
+    LocalDate findLatestSnapshotDate();
+
+    /**
+     * Valuation per snapshot day: date, product count, total units, total value
+     */
+    @Query("SELECT s.snapshotDate, COUNT(s), COALESCE(SUM(s.stockQuantity), 0), COALESCE(SUM(s.stockValue), 0) " +
+            "FROM StockSnapshot s WHERE s.snapshotDate IN :dates " +
+            "GROUP BY s.snapshotDate ORDER BY s.snapshotDate")
+    List<Object[]> summarizeByDates(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Snapshot days before the cutoff
+     */
+    @Query("SELECT DISTINCT s.snapshotDate FROM StockSnapshot s WHERE s.snapshotDate < :cutoff")
+    List<LocalDate> findSnapshotDatesBefore(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Delete every snapshot of the given days
+     */
+    @Modifying
+    @Query("DELETE FROM StockSnapshot s WHERE s.snapshotDate IN :dates")
+    int deleteBySnapshotDates(@Param("dates") Collection<LocalDate> dates);
+}
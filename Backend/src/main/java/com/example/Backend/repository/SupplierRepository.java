@@ -1,6 +1,8 @@
 package com.example.Backend.repository;
 
 import com.example.Backend.entity.Supplier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -39,6 +41,14 @@ public interface SupplierRepository extends JpaRepository<Supplier, UUID> {
             "LOWER(s.companyName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<Supplier> searchSuppliers(@Param("searchTerm") String searchTerm);
 
+    /**
+     * Search suppliers by name or company name with pagination
+     */
+    @Query("SELECT s FROM Supplier s WHERE " +
+            "LOWER(s.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+            "LOWER(s.companyName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    Page<Supplier> searchSuppliers(@Param("searchTerm") String searchTerm, Pageable pageable);
+
     /**
      * Find suppliers with rating above threshold
      */
@@ -0,0 +1,14 @@
+package com.example.Backend.repository;
+
+import com.example.Backend.entity.TrendingScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repository for the persisted copy of trending scores
+ */
+@Repository
+public interface TrendingScoreRepository extends JpaRepository<TrendingScore, UUID> {
+}
@@ -107,27 +107,4 @@ public interface UserActivityRepository extends JpaRepository<UserActivity, UUID
                         "AND ua.product.id != :productId AND ua.activityType = 'PURCHASE' " +
                         "GROUP BY ua.product.id ORDER BY freq DESC")
         List<Object[]> findAlsoBoughtProductIds(@Param("productId") UUID productId, Pageable pageable);
-
-        /**
-         * Check if user has already viewed a product recently (within timeframe)
-         */
-        @Query("SELECT COUNT(ua) > 0 FROM UserActivity ua " +
-                        "WHERE ua.user.id = :userId AND ua.product.id = :productId " +
-                        "AND ua.activityType = 'VIEW' AND ua.createdAt >= :since")
-        boolean hasRecentView(@Param("userId") UUID userId,
-                        @Param("productId") UUID productId,
-                        @Param("since") LocalDateTime since);
-
-        /**
-         * Delete old activities (for data retention)
-         */
-        void deleteByCreatedAtBefore(LocalDateTime before);
-
-        /**
-         * Get most searched terms
-         */
-        @Query("SELECT ua.searchQuery, COUNT(ua) as searchCount FROM UserActivity ua " +
-                        "WHERE ua.activityType = 'SEARCH' AND ua.searchQuery IS NOT NULL " +
-                        "GROUP BY ua.searchQuery ORDER BY searchCount DESC")
-        List<Object[]> findPopularSearchTerms(Pageable pageable);
 }
@@ -56,6 +56,22 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     List<User> findByCreatedAtAfter(LocalDateTime date);
 
+    /**
+     * Count users created after a specific date
+     */
+    long countByCreatedAtAfter(LocalDateTime date);
+
+    /**
+     * Count users created between dates
+     */
+    long countByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Count users per role: role name, count
+     */
+    @Query("SELECT u.role.name, COUNT(u) FROM User u GROUP BY u.role.name")
+    List<Object[]> countUsersByRole();
+
     /**
      * Search users by username or email or full name
      */
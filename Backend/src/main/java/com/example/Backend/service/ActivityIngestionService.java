@@ -0,0 +1,330 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffered, asynchronous ingestion of user activities.
+ *
+ * Endpoints put a compact record in a bounded buffer and return at once; a single writer
+ * thread drains the buffer and inserts activities in JDBC batches by id, without loading
+ * users or products. Activities on products that no longer exist are skipped by the insert
+ * itself. Once written, each activity is published as a UserActivityRecordedEvent so
+ * trending, preference profiles and the recommendation cache see it.
+ *
+ * Repeat views of a product by the same user within a few minutes are dropped before they
+ * are queued (see RecentViewFilter); a view counts as seen once it is checked, even if it is
+ * then shed. When the buffer is full, views are shed straight away; carts, purchases and
+ * other activities wait briefly for room (backpressure) and are rejected if none frees up.
+ */
+@Service
+@Slf4j
+public class ActivityIngestionService {
+
+    private static final String INSERT_SQL = "INSERT INTO user_activities (id, user_id, product_id, "
+            + "activity_type, session_id, search_query, category_id, metadata, created_at) "
+            + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ? "
+            + "WHERE CAST(? AS uuid) IS NULL OR EXISTS (SELECT 1 FROM products WHERE id = CAST(? AS uuid))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final RecentViewFilter recentViewFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<PendingActivity> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+
+    private final Counter accepted;
+    private final Counter shed;
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter skipped;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ActivityIngestionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            RecentViewFilter recentViewFilter,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${activities.ingest.buffer-capacity:50000}") int bufferCapacity,
+            @Value("${activities.ingest.batch-size:500}") int batchSize,
+            @Value("${activities.ingest.flush-interval:PT0.2S}") Duration flushInterval,
+            @Value("${activities.ingest.offer-timeout:PT0.05S}") Duration offerTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.recentViewFilter = recentViewFilter;
+        this.eventPublisher = eventPublisher;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+
+        this.accepted = counter(meterRegistry, "activities.ingest.events", "accepted");
+        this.shed = counter(meterRegistry, "activities.ingest.events", "shed");
+        this.rejected = counter(meterRegistry, "activities.ingest.events", "rejected");
+        this.written = counter(meterRegistry, "activities.ingest.events", "written");
+        this.skipped = counter(meterRegistry, "activities.ingest.events", "skipped");
+        this.failed = counter(meterRegistry, "activities.ingest.events", "failed");
+        this.batchTimer = Timer.builder("activities.ingest.batch")
+                .description("Time spent writing one batch of activities").register(meterRegistry);
+        Gauge.builder("activities.ingest.buffer.size", buffer, Collection::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "activity-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting activities and write out what is buffered
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queue one activity for writing
+     *
+     * @return false if it was dropped because the buffer is full; repeated views are not
+     *         written but count as queued
+     */
+    public boolean submit(PendingActivity activity) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        boolean view = activity.activityType() == ActivityType.VIEW && activity.productId() != null;
+        if (view && !recentViewFilter.recordIfFirst(activity.userId(), activity.productId())) {
+            // Already recorded within the dedup window: nothing to write
+            skipped.increment();
+            return true;
+        }
+        boolean queued;
+        if (activity.activityType() == ActivityType.VIEW) {
+            queued = buffer.offer(activity);
+        } else {
+            try {
+                queued = buffer.offer(activity, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+        }
+        if (queued) {
+            accepted.increment();
+        } else if (activity.activityType() == ActivityType.VIEW) {
+            shed.increment();
+        } else {
+            rejected.increment();
+        }
+        return queued;
+    }
+
+    /**
+     * Queue several activities, in order
+     *
+     * @return number of activities queued; the rest were dropped because the buffer was full
+     */
+    public int submitAll(List<PendingActivity> activities) {
+        int queued = 0;
+        for (PendingActivity activity : activities) {
+            if (submit(activity)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Pipeline statistics for the admin API
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("buffered", buffer.size());
+        stats.put("remainingCapacity", buffer.remainingCapacity());
+        stats.put("accepted", (long) accepted.count());
+        stats.put("shed", (long) shed.count());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("written", (long) written.count());
+        stats.put("skipped", (long) skipped.count());
+        stats.put("failed", (long) failed.count());
+        stats.put("meanBatchMs", batchTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("viewDedup", recentViewFilter.getStats());
+        return stats;
+    }
+
+    private void writeLoop() {
+        List<PendingActivity> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingActivity first = running
+                        ? buffer.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS)
+                        : buffer.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: keep looping until the buffer is empty
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (Exception e) {
+                failed.increment(batch.size());
+                log.error("Failed to write {} activities: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Collect up to a full batch, waiting at most the flush interval after the first activity
+    private void fill(List<PendingActivity> batch) {
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        buffer.drainTo(batch, batchSize - batch.size());
+        try {
+            while (running && batch.size() < batchSize) {
+                long remaining = deadline - System.nanoTime();
+                PendingActivity next = remaining > 0 ? buffer.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                buffer.drainTo(batch, batchSize - batch.size());
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: write what was collected, the loop drains the rest
+            if (running) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingActivity> batch) {
+        long started = System.nanoTime();
+        int[] counts;
+        try {
+            counts = transaction.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    ActivityIngestionService::bind))[0];
+        } catch (DataAccessException e) {
+            // A bad row (e.g. a user deleted meanwhile) fails the whole batch: retry one by one
+            log.warn("Activity batch failed, writing {} rows individually: {}", batch.size(), e.getMessage());
+            counts = writeIndividually(batch);
+        }
+
+        // 0: product gone, nothing inserted; failed rows were counted when they failed
+        List<UserActivityRecordedEvent> events = new ArrayList<>(batch.size());
+        int missingProducts = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] == 0) {
+                missingProducts++;
+            } else if (counts[i] != Statement.EXECUTE_FAILED) {
+                PendingActivity activity = batch.get(i);
+                events.add(new UserActivityRecordedEvent(activity.userId(), activity.productId(),
+                        activity.activityType(), activity.createdAt()));
+            }
+        }
+        written.increment(events.size());
+        skipped.increment(missingProducts);
+        batchTimer.record(Duration.ofNanos(System.nanoTime() - started));
+
+        // Outside any transaction, so listeners run right away on this thread
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private int[] writeIndividually(List<PendingActivity> activities) {
+        int[] counts = new int[activities.size()];
+        for (int i = 0; i < activities.size(); i++) {
+            PendingActivity activity = activities.get(i);
+            try {
+                counts[i] = jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, activity));
+            } catch (DataAccessException e) {
+                counts[i] = Statement.EXECUTE_FAILED;
+                failed.increment();
+                log.debug("Dropping activity {} of user {}: {}", activity.activityType(), activity.userId(),
+                        e.getMessage());
+            }
+        }
+        return counts;
+    }
+
+    private static void bind(PreparedStatement ps, PendingActivity activity) throws SQLException {
+        ps.setObject(1, activity.id());
+        ps.setObject(2, activity.userId());
+        ps.setObject(3, activity.productId(), Types.OTHER);
+        ps.setString(4, activity.activityType().name());
+        ps.setString(5, activity.sessionId());
+        ps.setString(6, activity.searchQuery());
+        ps.setObject(7, activity.categoryId(), Types.BIGINT);
+        ps.setString(8, activity.metadata());
+        ps.setTimestamp(9, Timestamp.valueOf(activity.createdAt()));
+        ps.setObject(10, activity.productId(), Types.OTHER);
+        ps.setObject(11, activity.productId(), Types.OTHER);
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String result) {
+        return Counter.builder(name).tag("result", result)
+                .description("User activities through the ingestion pipeline").register(registry);
+    }
+
+    /**
+     * An activity waiting to be written; the id is assigned up front so callers can return it
+     */
+    public record PendingActivity(
+            UUID id,
+            UUID userId,
+            UUID productId,
+            ActivityType activityType,
+            String sessionId,
+            String searchQuery,
+            Long categoryId,
+            String metadata,
+            LocalDateTime createdAt) {
+
+        public static PendingActivity of(UUID userId, UUID productId, ActivityType activityType) {
+            return new PendingActivity(UUID.randomUUID(), userId, productId, activityType,
+                    null, null, null, null, LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.Backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retention of raw user activities.
+ *
+ * Every night, each day older than the retention period is first rolled up into daily
+ * counts per product (product_activity_daily) and per user and product (user_activity_daily),
+ * one transaction per day and never twice for the same day. Raw rows of rolled-up days are
+ * then deleted day by day, oldest first, in small chunks in (created_at, id) order, each chunk
+ * its own statement, with a pause in between so the table stays usable. A run stops after a
+ * maximum duration and the next one carries on where it left off.
+ *
+ * Readers take rolled-up counts only for days before the oldest remaining raw activity, so a
+ * day must not be left partly deleted: the run time limit is only checked between days, and a
+ * day being deleted is finished even if that takes the run past its limit. A day left partly
+ * deleted by a failure or shutdown is undercounted until the next run finishes it.
+ */
+@Service
+@Slf4j
+public class ActivityRetentionService {
+
+    private static final UUID MIN_ID = new UUID(0, 0);
+
+    // Day after the last rolled-up day, or the first day with raw activities
+    private static final String NEXT_ROLLUP_DAY_SQL = "SELECT COALESCE("
+            + "(SELECT MAX(activity_date) + 1 FROM product_activity_daily), "
+            + "(SELECT CAST(MIN(created_at) AS date) FROM user_activities))";
+
+    private static final String ROLLUP_PRODUCTS_SQL = "INSERT INTO product_activity_daily (id, product_id, "
+            + "activity_date, activity_type, activity_count) "
+            + "SELECT gen_random_uuid(), product_id, ?, activity_type, COUNT(*) FROM user_activities "
+            + "WHERE product_id IS NOT NULL AND created_at >= ? AND created_at < ? "
+            + "GROUP BY product_id, activity_type "
+            + "ON CONFLICT (product_id, activity_date, activity_type) DO NOTHING";
+
+    private static final String ROLLUP_USERS_SQL = "INSERT INTO user_activity_daily (id, user_id, product_id, "
+            + "activity_date, activity_type, activity_count) "
+            + "SELECT gen_random_uuid(), user_id, product_id, ?, activity_type, COUNT(*) FROM user_activities "
+            + "WHERE product_id IS NOT NULL AND created_at >= ? AND created_at < ? "
+            + "GROUP BY user_id, product_id, activity_type "
+            + "ON CONFLICT (user_id, product_id, activity_date, activity_type) DO NOTHING";
+
+    private static final String NEXT_RAW_DAY_SQL = "SELECT CAST(MIN(created_at) AS date) FROM user_activities "
+            + "WHERE created_at >= ? AND created_at < ?";
+
+    // Deletes the next chunk after the last deleted (created_at, id); returns the number of rows
+    // deleted and the (created_at, id) of the last one
+    private static final String DELETE_CHUNK_SQL = "WITH chunk AS (SELECT id FROM user_activities "
+            + "WHERE created_at < ? AND created_at >= ? AND (created_at > ? OR id > ?) "
+            + "ORDER BY created_at, id LIMIT ?), "
+            + "deleted AS (DELETE FROM user_activities ua USING chunk WHERE ua.id = chunk.id "
+            + "RETURNING ua.created_at, ua.id) "
+            + "SELECT d.n, l.created_at, l.id FROM (SELECT COUNT(*) AS n FROM deleted) d "
+            + "LEFT JOIN LATERAL (SELECT created_at, id FROM deleted ORDER BY created_at DESC, id DESC LIMIT 1) l "
+            + "ON true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int rawRetentionDays;
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final Duration maxRunDuration;
+
+    private final Counter daysRolledUp;
+    private final Counter rowsDeleted;
+    private final Timer chunkTimer;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "activity-retention-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Progress of the current run, or the outcome of the last one
+    private volatile String phase = "IDLE";
+    private volatile LocalDate cutoff;
+    private volatile LocalDate currentDay;
+    private volatile long runDaysRolledUp;
+    private volatile long runRowsDeleted;
+    private volatile LocalDateTime runStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile String lastError;
+
+    public ActivityRetentionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${activities.retention.raw-days:90}") int rawRetentionDays,
+            @Value("${activities.retention.chunk-size:5000}") int chunkSize,
+            @Value("${activities.retention.chunk-pause:PT0.2S}") Duration chunkPause,
+            @Value("${activities.retention.max-run-duration:PT2H}") Duration maxRunDuration) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.rawRetentionDays = rawRetentionDays;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+        this.maxRunDuration = maxRunDuration;
+
+        this.daysRolledUp = Counter.builder("activities.retention.days.rolled.up")
+                .description("Days of raw activities rolled up into daily counts").register(meterRegistry);
+        this.rowsDeleted = Counter.builder("activities.retention.rows.deleted")
+                .description("Raw activities deleted after roll-up").register(meterRegistry);
+        this.chunkTimer = Timer.builder("activities.retention.chunk")
+                .description("Time spent deleting one chunk of raw activities").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Nightly roll-up and clean-up (cron configurable with activities.retention.cron)
+     */
+    @Scheduled(cron = "${activities.retention.cron:0 30 3 * * *}")
+    public void runNightly() {
+        if (!applyRetention()) {
+            log.info("Activity retention job already running or failed, nightly trigger skipped");
+        }
+    }
+
+    /**
+     * Start an on-demand run in the background
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean triggerRetention() {
+        if (running.get()) {
+            return false;
+        }
+        jobExecutor.submit(this::applyRetention);
+        return true;
+    }
+
+    /**
+     * Roll up every day before the retention cutoff not rolled up yet, then delete raw rows of
+     * rolled-up days
+     *
+     * @return false if another run was already in progress or the run failed
+     */
+    public boolean applyRetention() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        long started = System.currentTimeMillis();
+        long deadline = started + maxRunDuration.toMillis();
+        runStartedAt = LocalDateTime.now();
+        runDaysRolledUp = 0;
+        runRowsDeleted = 0;
+        lastError = null;
+        try {
+            LocalDate retainFrom = LocalDate.now().minusDays(rawRetentionDays);
+            cutoff = retainFrom;
+
+            phase = "ROLLING_UP";
+            LocalDate day = jdbcTemplate.queryForObject(NEXT_ROLLUP_DAY_SQL, LocalDate.class);
+            for (; day != null && day.isBefore(retainFrom); day = day.plusDays(1)) {
+                if (System.currentTimeMillis() > deadline || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                currentDay = day;
+                rollUpDay(day);
+                runDaysRolledUp++;
+                daysRolledUp.increment();
+            }
+
+            // Only days already rolled up may lose their raw rows
+            LocalDate deleteBefore = day == null || day.isAfter(retainFrom) ? retainFrom : day;
+            phase = "DELETING";
+            currentDay = null;
+            deleteBefore(deleteBefore, deadline);
+
+            log.info("Activity retention done: {} days rolled up, {} raw activities before {} deleted in {} ms",
+                    runDaysRolledUp, runRowsDeleted, deleteBefore, System.currentTimeMillis() - started);
+            return true;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Activity retention job failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            phase = "IDLE";
+            currentDay = null;
+            lastRunFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Progress of the current run, or the outcome of the last one, for the admin API
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("phase", phase);
+        status.put("rawRetentionDays", rawRetentionDays);
+        status.put("cutoff", cutoff);
+        status.put("currentDay", currentDay);
+        status.put("daysRolledUp", runDaysRolledUp);
+        status.put("rowsDeleted", runRowsDeleted);
+        status.put("startedAt", runStartedAt);
+        status.put("lastRunFinishedAt", lastRunFinishedAt);
+        status.put("lastError", lastError);
+        status.put("totalRowsDeleted", (long) rowsDeleted.count());
+        status.put("meanChunkMs", chunkTimer.mean(TimeUnit.MILLISECONDS));
+        return status;
+    }
+
+    private void rollUpDay(LocalDate day) {
+        Date date = Date.valueOf(day);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(ROLLUP_PRODUCTS_SQL, date, from, to);
+            jdbcTemplate.update(ROLLUP_USERS_SQL, date, from, to);
+        });
+    }
+
+    private void deleteBefore(LocalDate before, long deadline) throws InterruptedException {
+        Timestamp end = Timestamp.valueOf(before.atStartOfDay());
+        LocalDate day = jdbcTemplate.queryForObject(NEXT_RAW_DAY_SQL, LocalDate.class,
+                Timestamp.valueOf(LocalDate.EPOCH.atStartOfDay()), end);
+        while (day != null) {
+            if (System.currentTimeMillis() >= deadline) {
+                log.info("Activity retention stopped after its maximum run time, continuing next run");
+                return;
+            }
+            currentDay = day;
+            deleteDay(day);
+            day = jdbcTemplate.queryForObject(NEXT_RAW_DAY_SQL, LocalDate.class,
+                    Timestamp.valueOf(day.plusDays(1).atStartOfDay()), end);
+        }
+    }
+
+    // All raw rows of the day, whatever the deadline
+    private void deleteDay(LocalDate day) throws InterruptedException {
+        Timestamp before = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        Timestamp lastAt = Timestamp.valueOf(day.atStartOfDay());
+        UUID lastId = MIN_ID;
+        while (true) {
+            long startNanos = System.nanoTime();
+            Object[] chunk = jdbcTemplate.queryForObject(DELETE_CHUNK_SQL,
+                    (rs, rowNum) -> new Object[] { rs.getLong(1), rs.getTimestamp(2), rs.getObject(3, UUID.class) },
+                    before, lastAt, lastAt, lastId, chunkSize);
+            chunkTimer.record(Duration.ofNanos(System.nanoTime() - startNanos));
+            long deleted = (Long) chunk[0];
+            runRowsDeleted += deleted;
+            rowsDeleted.increment(deleted);
+            if (deleted < chunkSize) {
+                return;
+            }
+
+            // Continue after the last row deleted, so dead index entries aren't scanned again
+            lastAt = (Timestamp) chunk[1];
+            lastId = (UUID) chunk[2];
+            Thread.sleep(chunkPause.toMillis());
+        }
+    }
+}
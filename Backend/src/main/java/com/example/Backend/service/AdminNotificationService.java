@@ -170,6 +170,7 @@ public class AdminNotificationService {
             case DELIVERY_COMPLETED -> "local_shipping";
             case DELIVERY_FAILED -> "error";
             case PAYMENT_RECEIVED -> "payments";
+            case REPORT_READY -> "assessment";
             case SYSTEM_ALERT -> "warning";
         };
     }
@@ -238,4 +239,17 @@ public class AdminNotificationService {
                 deliveryId,
                 "/admin/delivery");
     }
+
+    /**
+     * Notify about a scheduled report being ready
+     */
+    public void notifyReportReady(String reportId, String scheduleName, String periodLabel) {
+        createNotification(
+                AdminNotificationType.REPORT_READY,
+                "Rapport disponible",
+                String.format("Le rapport \"%s\" (%s) est prêt", scheduleName, periodLabel),
+                reportId,
+                "/admin/reports/" + reportId,
+                Map.of("scheduleName", scheduleName, "period", periodLabel));
+    }
 }
@@ -0,0 +1,277 @@
+package com.example.Backend.service;
+
+import com.example.Backend.event.OrderPlacedEvent;
+import com.example.Backend.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for analytics queries, keyed by method, normalized date range and parameters.
+ *
+ * Closed historical ranges are kept for a long time: they only change when an old order changes
+ * status, and then only the entries whose range covers that order's date are dropped.
+ * Ranges that include today (and range-less "live" figures) are dropped on every new order or
+ * status change, with a short TTL as a safety net for changes that don't go through orders.
+ * A result computed while an order changed is not stored if the change falls in its range;
+ * results for other ranges are.
+ */
+@Service
+@Slf4j
+public class AnalyticsResultCache {
+
+    private final Map<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    // Invalidations kept to check results computed concurrently against; a result started before
+    // the oldest one kept is not stored
+    private static final int TRACKED_INVALIDATIONS = 1024;
+
+    // Bumped on every invalidation, which is also logged with the day it affects, so that results
+    // computed concurrently are not stored stale. Bumps and stores hold the lock, so a store either
+    // sees the invalidation or lands before it scans the entries.
+    private final AtomicLong generation = new AtomicLong();
+    private final Object storeLock = new Object();
+    private final Deque<Invalidation> invalidations = new ArrayDeque<>();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private final Duration historicalTtl;
+    private final Duration liveTtl;
+    private final int maxEntries;
+
+    public AnalyticsResultCache(
+            MeterRegistry meterRegistry,
+            @Value("${analytics.cache.historical-ttl:PT24H}") Duration historicalTtl,
+            @Value("${analytics.cache.live-ttl:PT10M}") Duration liveTtl,
+            @Value("${analytics.cache.max-entries:500}") int maxEntries) {
+        this.meterRegistry = meterRegistry;
+        this.historicalTtl = historicalTtl;
+        this.liveTtl = liveTtl;
+        this.maxEntries = maxEntries;
+
+        this.hits = Counter.builder("analytics.cache.requests").tag("result", "hit")
+                .description("Analytics cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("analytics.cache.requests").tag("result", "miss")
+                .description("Analytics cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("analytics.cache.evictions")
+                .description("Analytics cache entries dropped").register(meterRegistry);
+        Gauge.builder("analytics.cache.size", entries, Map::size).register(meterRegistry);
+        Gauge.builder("analytics.cache.hit.ratio", this, AnalyticsResultCache::getHitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a cached result for a range-less figure (dashboard totals, distributions)
+     */
+    public <T> T get(String method, Supplier<T> loader, Object... params) {
+        return get(method, null, null, loader, params);
+    }
+
+    /**
+     * Get a cached result for a date range, computing it with the loader on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String method, LocalDate startDate, LocalDate endDate, Supplier<T> loader, Object... params) {
+        CacheKey key = new CacheKey(method, startDate, endDate, normalize(params));
+        long now = System.currentTimeMillis();
+
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.expiresAt > now) {
+            entry.lastAccess = now;
+            hits.increment();
+            return (T) entry.value;
+        }
+
+        misses.increment();
+        long startGeneration = generation.get();
+        long startNanos = System.nanoTime();
+        T value = loader.get();
+        Timer.builder("analytics.cache.recompute")
+                .tag("method", method)
+                .description("Time spent computing analytics on cache misses")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+
+        // An order in the range changed while we were computing: serve the result but don't keep it
+        boolean live = key.includesToday(LocalDate.now());
+        long ttl = (live ? liveTtl : historicalTtl).toMillis();
+        makeRoom();
+        synchronized (storeLock) {
+            if (!invalidatedSince(key, startGeneration)) {
+                entries.put(key, new CacheEntry(value, System.currentTimeMillis() + ttl, now));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * New orders always land on today
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        invalidate(toDate(event.createdAt()));
+    }
+
+    /**
+     * A status change moves the order in or out of revenue figures for the day it was created
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidate(toDate(event.createdAt()));
+    }
+
+    /**
+     * Drop range-less entries and every entry whose range covers the given day
+     */
+    public void invalidate(LocalDate affectedDate) {
+        logInvalidation(affectedDate);
+        int removed = 0;
+        Iterator<Map.Entry<CacheKey, CacheEntry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey().covers(affectedDate)) {
+                it.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            evictions.increment(removed);
+            log.debug("Analytics cache: {} entries invalidated for {}", removed, affectedDate);
+        }
+    }
+
+    /**
+     * Drop everything
+     */
+    public void clear() {
+        logInvalidation(null);
+        evictions.increment(entries.size());
+        entries.clear();
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    /**
+     * Cache statistics for the admin API
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", (long) hits.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRatio", getHitRatio());
+        stats.put("evictions", (long) evictions.count());
+        return stats;
+    }
+
+    // A null day stands for everything
+    private void logInvalidation(LocalDate affectedDate) {
+        synchronized (storeLock) {
+            invalidations.addLast(new Invalidation(generation.incrementAndGet(), affectedDate));
+            if (invalidations.size() > TRACKED_INVALIDATIONS) {
+                invalidations.removeFirst();
+            }
+        }
+    }
+
+    // Called holding the store lock
+    private boolean invalidatedSince(CacheKey key, long startGeneration) {
+        if (generation.get() == startGeneration) {
+            return false;
+        }
+        if (invalidations.isEmpty() || invalidations.peekFirst().generation() > startGeneration + 1) {
+            // Some invalidations since the start are no longer tracked
+            return true;
+        }
+        Iterator<Invalidation> it = invalidations.descendingIterator();
+        while (it.hasNext()) {
+            Invalidation invalidation = it.next();
+            if (invalidation.generation() <= startGeneration) {
+                return false;
+            }
+            if (invalidation.date() == null || key.covers(invalidation.date())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAt <= now);
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        // Evict the least recently used entry
+        entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(e -> {
+                    entries.remove(e.getKey());
+                    evictions.increment();
+                });
+    }
+
+    private String normalize(Object[] params) {
+        if (params == null || params.length == 0) {
+            return "";
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        for (Object param : params) {
+            joiner.add(param instanceof String s ? s.trim().toUpperCase() : String.valueOf(param));
+        }
+        return joiner.toString();
+    }
+
+    private LocalDate toDate(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toLocalDate() : LocalDate.now();
+    }
+
+    private record CacheKey(String method, LocalDate startDate, LocalDate endDate, String params) {
+
+        boolean isRanged() {
+            return startDate != null && endDate != null;
+        }
+
+        boolean includesToday(LocalDate today) {
+            return !isRanged() || !endDate.isBefore(today);
+        }
+
+        boolean covers(LocalDate date) {
+            return !isRanged() || (!date.isBefore(startDate) && !date.isAfter(endDate));
+        }
+    }
+
+    private record Invalidation(long generation, LocalDate date) {
+    }
+
+    private static class CacheEntry {
+        private final Object value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        CacheEntry(Object value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -21,10 +21,17 @@ public interface AnalyticsService {
     AnalyticsDTO.ComprehensiveAnalytics getComprehensiveAnalytics(LocalDate startDate, LocalDate endDate);
 
     /**
-     * Get sales chart data for a date range
+     * Get sales chart data for a date range, bucketed by period
+     * (DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY)
      */
     List<AnalyticsDTO.SalesChartData> getSalesChartData(LocalDate startDate, LocalDate endDate, String period);
 
+    /**
+     * Get sales chart data, downsampled to at most maxPoints points (0 = no limit)
+     */
+    List<AnalyticsDTO.SalesChartData> getSalesChartData(LocalDate startDate, LocalDate endDate, String period,
+            int maxPoints);
+
     /**
      * Get category performance metrics
      */
@@ -36,7 +43,7 @@ public interface AnalyticsService {
     List<AnalyticsDTO.TopProduct> getTopProducts(int limit, LocalDate startDate, LocalDate endDate);
 
     /**
-     * Get revenue by period (daily, weekly, monthly)
+     * Get revenue by period (daily, weekly, monthly, quarterly, yearly)
      */
     List<AnalyticsDTO.RevenueByPeriod> getRevenueByPeriod(LocalDate startDate, LocalDate endDate, String period);
 
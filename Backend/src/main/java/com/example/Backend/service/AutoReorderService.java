@@ -0,0 +1,209 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.PurchaseOrderDTO;
+import com.example.Backend.entity.PurchaseOrder;
+import com.example.Backend.entity.ReorderSetting;
+import com.example.Backend.event.StockMovementRecordedEvent;
+import com.example.Backend.repository.PurchaseOrderRepository;
+import com.example.Backend.repository.ReorderSettingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Automatic reordering.
+ *
+ * Stock movements that lower a product's stock enqueue it as a reorder candidate. Once
+ * candidates have stopped arriving for a quiet period (or the oldest has waited too long), a
+ * background run keeps those at or below their reorder point, drops products already on an
+ * open purchase order, and creates one draft purchase order per preferred supplier with a
+ * line per product. Runs (scheduled or manual) never overlap, so the open-order check always
+ * sees the orders of the previous run.
+ */
+@Service
+@Slf4j
+public class AutoReorderService {
+
+    // Purchase orders still to be received; their products are not reordered again
+    private static final Set<PurchaseOrder.POStatus> OPEN_STATUSES = Set.of(
+            PurchaseOrder.POStatus.DRAFT, PurchaseOrder.POStatus.PENDING, PurchaseOrder.POStatus.APPROVED,
+            PurchaseOrder.POStatus.ORDERED, PurchaseOrder.POStatus.SHIPPED);
+
+    private static final int DEFAULT_LEAD_TIME_DAYS = 7;
+
+    private final ReorderSettingRepository reorderSettingRepository;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderService purchaseOrderService;
+    private final TransactionTemplate transaction;
+    private final Duration quietPeriod;
+    private final Duration maxWait;
+
+    // Held for a whole run: the open-order check and the order inserts are separate transactions
+    private final ReentrantLock reorderLock = new ReentrantLock();
+
+    // Guarded by this
+    private Set<UUID> pendingProducts = new HashSet<>();
+    private LocalDateTime firstPendingAt;
+    private LocalDateTime lastPendingAt;
+
+    public AutoReorderService(
+            ReorderSettingRepository reorderSettingRepository,
+            PurchaseOrderRepository purchaseOrderRepository,
+            PurchaseOrderService purchaseOrderService,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.reorder.quiet-period:PT2M}") Duration quietPeriod,
+            @Value("${inventory.reorder.max-wait:PT15M}") Duration maxWait) {
+        this.reorderSettingRepository = reorderSettingRepository;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.purchaseOrderService = purchaseOrderService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.quietPeriod = quietPeriod;
+        this.maxWait = maxWait;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementRecordedEvent event) {
+        if (event.productId() == null || event.newStock() >= event.previousStock()) {
+            return;
+        }
+        synchronized (this) {
+            LocalDateTime now = LocalDateTime.now();
+            if (pendingProducts.isEmpty()) {
+                firstPendingAt = now;
+            }
+            pendingProducts.add(event.productId());
+            lastPendingAt = now;
+        }
+    }
+
+    /**
+     * Reorder the pending candidates once they have settled
+     */
+    @Scheduled(fixedDelayString = "${inventory.reorder.check-ms:30000}")
+    public void processPending() {
+        Set<UUID> products;
+        synchronized (this) {
+            if (pendingProducts.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            boolean settled = lastPendingAt.plus(quietPeriod).isBefore(now);
+            boolean waitedTooLong = firstPendingAt.plus(maxWait).isBefore(now);
+            if (!settled && !waitedTooLong) {
+                return;
+            }
+            products = pendingProducts;
+            pendingProducts = new HashSet<>();
+        }
+        try {
+            reorder(products);
+        } catch (Exception e) {
+            log.error("Auto-reorder run failed, re-queueing {} products: {}", products.size(), e.getMessage(), e);
+            synchronized (this) {
+                if (pendingProducts.isEmpty()) {
+                    firstPendingAt = LocalDateTime.now();
+                    lastPendingAt = firstPendingAt;
+                }
+                pendingProducts.addAll(products);
+            }
+        }
+    }
+
+    /**
+     * Reorder every product currently at or below its reorder point
+     *
+     * @return purchase orders created
+     */
+    public List<PurchaseOrder> reorderAll() {
+        return reorder(null);
+    }
+
+    // Candidates among the given products (all when null), one purchase order per supplier
+    private List<PurchaseOrder> reorder(Collection<UUID> productIds) {
+        reorderLock.lock();
+        try {
+            return reorderLocked(productIds);
+        } finally {
+            reorderLock.unlock();
+        }
+    }
+
+    private List<PurchaseOrder> reorderLocked(Collection<UUID> productIds) {
+        Map<UUID, PurchaseOrderDTO> ordersBySupplier = new LinkedHashMap<>();
+        Map<UUID, List<UUID>> settingsBySupplier = new LinkedHashMap<>();
+
+        transaction.executeWithoutResult(status -> {
+            List<ReorderSetting> candidates = productIds == null
+                    ? reorderSettingRepository.findAutoReorderCandidates()
+                    : reorderSettingRepository.findAutoReorderCandidates(productIds);
+            if (candidates.isEmpty()) {
+                return;
+            }
+            Set<UUID> alreadyOrdered = new HashSet<>(purchaseOrderRepository.findProductIdsOnOrdersWithStatus(
+                    candidates.stream().map(setting -> setting.getProduct().getId()).toList(), OPEN_STATUSES));
+
+            for (ReorderSetting setting : candidates) {
+                if (alreadyOrdered.contains(setting.getProduct().getId())) {
+                    continue;
+                }
+                UUID supplierId = setting.getPreferredSupplier().getId();
+                PurchaseOrderDTO order = ordersBySupplier.computeIfAbsent(supplierId, id -> PurchaseOrderDTO.builder()
+                        .supplierId(id)
+                        .orderDate(LocalDate.now())
+                        .status(PurchaseOrder.POStatus.DRAFT.name())
+                        .items(new ArrayList<>())
+                        .build());
+                order.getItems().add(PurchaseOrderDTO.PurchaseOrderItemDTO.builder()
+                        .productId(setting.getProduct().getId())
+                        .quantity(setting.getReorderQuantity())
+                        .unitPrice(setting.getProduct().getPrice().doubleValue())
+                        .build());
+                // The longest lead time on the order sets its expected delivery
+                int leadTime = setting.getLeadTimeDays() != null ? setting.getLeadTimeDays() : DEFAULT_LEAD_TIME_DAYS;
+                LocalDate expected = LocalDate.now().plusDays(leadTime);
+                if (order.getExpectedDelivery() == null || expected.isAfter(order.getExpectedDelivery())) {
+                    order.setExpectedDelivery(expected);
+                }
+                settingsBySupplier.computeIfAbsent(supplierId, id -> new ArrayList<>()).add(setting.getId());
+            }
+        });
+
+        List<PurchaseOrder> created = new ArrayList<>();
+        for (Map.Entry<UUID, PurchaseOrderDTO> entry : ordersBySupplier.entrySet()) {
+            PurchaseOrderDTO order = entry.getValue();
+            order.setNotes("Auto-generated reorder for " + order.getItems().size() + " low stock product(s)");
+            try {
+                // One transaction per supplier, so a failing supplier doesn't block the others
+                PurchaseOrder po = transaction.execute(status -> {
+                    PurchaseOrder saved = purchaseOrderService.createPurchaseOrder(order);
+                    reorderSettingRepository.markReordered(settingsBySupplier.get(entry.getKey()),
+                            LocalDateTime.now());
+                    return saved;
+                });
+                created.add(po);
+                log.info("Auto-reorder created {} with {} lines for supplier {}",
+                        po.getPoNumber(), order.getItems().size(), entry.getKey());
+            } catch (Exception e) {
+                log.error("Failed to create auto-reorder PO for supplier {}: {}", entry.getKey(), e.getMessage(), e);
+            }
+        }
+        return created;
+    }
+}
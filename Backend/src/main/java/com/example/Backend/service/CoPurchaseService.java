@@ -0,0 +1,416 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.Order;
+import com.example.Backend.event.OrderPlacedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Customers also bought": item-item co-purchase similarity.
+ *
+ * Each customer's purchases (order items of non-cancelled orders plus PURCHASE activities)
+ * form one basket; two products co-occur once per customer who bought both, and their
+ * similarity is the cosine of the two buyer sets. Only the top neighbours of each product are
+ * kept, so a lookup is a read of one precomputed row. The matrix is rebuilt periodically from
+ * one sorted pass over purchases and kept current by new-order events in between.
+ */
+@Service
+@Slf4j
+public class CoPurchaseService {
+
+    private static final int FETCH_SIZE = 5000;
+
+    private static final String PURCHASES_SORTED_SQL = "SELECT o.user_id, oi.product_id FROM orders o "
+            + "JOIN order_items oi ON oi.order_id = o.id WHERE o.status <> 'CANCELLED' AND o.user_id IS NOT NULL "
+            + "UNION SELECT ua.user_id, ua.product_id FROM user_activities ua "
+            + "WHERE ua.activity_type = 'PURCHASE' AND ua.product_id IS NOT NULL "
+            + "UNION SELECT user_id, product_id FROM user_activity_daily WHERE activity_type = 'PURCHASE' "
+            + "ORDER BY 1";
+
+    private static final String ORDER_PRODUCTS_SQL = "SELECT DISTINCT product_id FROM order_items WHERE order_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final int topNeighbours;
+    private final int maxBasketSize;
+
+    // Read without locking; updates are guarded by this
+    private volatile CoPurchaseMatrix matrix;
+
+    // Guarded by this
+    private boolean rebuilding;
+    private final List<Object[]> pendingOrders = new ArrayList<>();
+
+    public CoPurchaseService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendations.also-bought.top-neighbours:20}") int topNeighbours,
+            @Value("${recommendations.also-bought.max-basket-size:200}") int maxBasketSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.topNeighbours = topNeighbours;
+        this.maxBasketSize = maxBasketSize;
+    }
+
+    /**
+     * Periodic full rebuild, first one shortly after startup
+     */
+    @Scheduled(initialDelayString = "${recommendations.also-bought.initial-delay-ms:30000}",
+            fixedDelayString = "${recommendations.also-bought.rebuild-ms:21600000}")
+    public void rebuildPeriodically() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the whole matrix from orders and purchase activities
+     *
+     * @return false if a rebuild was already running or it failed
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            if (rebuilding) {
+                return false;
+            }
+            rebuilding = true;
+        }
+
+        CoPurchaseMatrix rebuilt = null;
+        try {
+            long started = System.currentTimeMillis();
+            rebuilt = readMatrix();
+            log.info("Co-purchase matrix rebuilt: {} products, {} customers in {} ms",
+                    rebuilt.productCount(), rebuilt.customerCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Co-purchase rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null) {
+                    // Orders committed while streaming may already be in the matrix;
+                    // replaying them is safe because a customer's product is only counted once
+                    for (Object[] order : pendingOrders) {
+                        @SuppressWarnings("unchecked")
+                        List<UUID> products = (List<UUID>) order[1];
+                        rebuilt.rescore(rebuilt.record((UUID) order[0], products));
+                    }
+                    matrix = rebuilt;
+                }
+                pendingOrders.clear();
+                rebuilding = false;
+            }
+        }
+        return rebuilt != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.userId() == null || Order.STATUS_CANCELLED.equals(event.status())) {
+            return;
+        }
+        List<UUID> products = jdbcTemplate.queryForList(ORDER_PRODUCTS_SQL, UUID.class, event.orderId());
+        if (products.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (rebuilding) {
+                pendingOrders.add(new Object[] { event.userId(), products });
+            }
+            if (matrix != null) {
+                matrix.rescore(matrix.record(event.userId(), products));
+            }
+        }
+    }
+
+    /**
+     * Products most often bought by customers who bought the given product, best first
+     * (empty until the first build has completed)
+     */
+    public List<UUID> getAlsoBoughtIds(UUID productId, int limit) {
+        CoPurchaseMatrix current = matrix;
+        return current != null ? current.neighbours(productId, limit) : List.of();
+    }
+
+    /**
+     * An empty matrix with this service's settings
+     */
+    CoPurchaseMatrix newMatrix() {
+        return new CoPurchaseMatrix(topNeighbours, maxBasketSize);
+    }
+
+    /**
+     * A service serving the given matrix as is: it isn't scheduled and gets no order events
+     * (for scoring a past period, see RecommendationEvaluationService)
+     */
+    CoPurchaseService serving(CoPurchaseMatrix fixed) {
+        CoPurchaseService copy = new CoPurchaseService(jdbcTemplate, transactionManager, topNeighbours,
+                maxBasketSize);
+        copy.matrix = fixed;
+        return copy;
+    }
+
+    private CoPurchaseMatrix readMatrix() {
+        CoPurchaseMatrix result = newMatrix();
+        UUID[] customer = new UUID[1];
+        List<UUID> basket = new ArrayList<>();
+
+        // A transaction is needed for the PostgreSQL driver to honour the fetch size (cursor mode)
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PURCHASES_SORTED_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            UUID userId = rs.getObject(1, UUID.class);
+            if (!userId.equals(customer[0])) {
+                if (customer[0] != null) {
+                    result.record(customer[0], basket);
+                }
+                customer[0] = userId;
+                basket.clear();
+            }
+            basket.add(rs.getObject(2, UUID.class));
+        }));
+        if (customer[0] != null) {
+            result.record(customer[0], basket);
+        }
+        result.rescoreAll();
+        return result;
+    }
+
+    /**
+     * Sparse co-purchase counts with precomputed top neighbours per product. Products are
+     * mapped to dense int indices; counts and neighbour rows are primitive arrays. Writes must
+     * be serialized by the caller; {@link #neighbours} is safe to call concurrently with them.
+     */
+    static final class CoPurchaseMatrix {
+
+        private final int topNeighbours;
+        private final int maxBasketSize;
+
+        // Product <-> index
+        private final Map<UUID, Integer> index = new ConcurrentHashMap<>();
+        private volatile UUID[] products = new UUID[256];
+        private int productCount;
+
+        // Customer -> indices of products bought, sorted
+        private final Map<UUID, int[]> baskets = new HashMap<>();
+
+        // Per product: number of buyers, and co-purchase counts with other products
+        private int[] buyers = new int[256];
+        private IntCounts[] pairs = new IntCounts[256];
+
+        // Per product: top neighbours by cosine similarity, replaced whole on rescoring
+        private volatile Row[] rows = new Row[256];
+
+        CoPurchaseMatrix(int topNeighbours, int maxBasketSize) {
+            this.topNeighbours = topNeighbours;
+            this.maxBasketSize = maxBasketSize;
+        }
+
+        /**
+         * Record products bought by a customer; products the customer already had are ignored
+         *
+         * @return indices of products whose neighbour rows need rescoring
+         */
+        int[] record(UUID userId, Collection<UUID> productIds) {
+            int[] owned = baskets.getOrDefault(userId, new int[0]);
+            int[] added = productIds.stream()
+                    .mapToInt(this::indexOf)
+                    .filter(item -> Arrays.binarySearch(owned, item) < 0)
+                    .distinct()
+                    .toArray();
+            if (added.length == 0) {
+                return added;
+            }
+            int[] basket = Arrays.copyOf(owned, owned.length + added.length);
+            System.arraycopy(added, 0, basket, owned.length, added.length);
+            Arrays.sort(basket);
+            baskets.put(userId, basket);
+
+            for (int item : added) {
+                buyers[item]++;
+            }
+            // Resellers and test accounts buying everything would link every product to every other
+            if (basket.length > maxBasketSize) {
+                return added;
+            }
+            for (int i = 0; i < added.length; i++) {
+                for (int other : owned) {
+                    pairs(added[i]).increment(other);
+                    pairs(other).increment(added[i]);
+                }
+                for (int j = i + 1; j < added.length; j++) {
+                    pairs(added[i]).increment(added[j]);
+                    pairs(added[j]).increment(added[i]);
+                }
+            }
+            return basket;
+        }
+
+        void rescoreAll() {
+            for (int item = 0; item < productCount; item++) {
+                rows[item] = score(item);
+            }
+        }
+
+        // A new buyer also changes the similarity of rows not rescored here, slightly;
+        // the periodic rebuild catches up on that. Rows are immutable, readers see the old or new one.
+        void rescore(int[] items) {
+            for (int item : items) {
+                rows[item] = score(item);
+            }
+        }
+
+        List<UUID> neighbours(UUID productId, int limit) {
+            Integer item = index.get(productId);
+            Row[] currentRows = rows;
+            if (item == null || item >= currentRows.length || currentRows[item] == null) {
+                return List.of();
+            }
+            Row row = currentRows[item];
+            UUID[] currentProducts = products;
+            List<UUID> result = new ArrayList<>(Math.min(limit, row.items.length));
+            for (int i = 0; i < row.items.length && result.size() < limit; i++) {
+                UUID neighbour = row.items[i] < currentProducts.length ? currentProducts[row.items[i]] : null;
+                if (neighbour != null) {
+                    result.add(neighbour);
+                }
+            }
+            return result;
+        }
+
+        int productCount() {
+            return productCount;
+        }
+
+        int customerCount() {
+            return baskets.size();
+        }
+
+        private int indexOf(UUID productId) {
+            Integer existing = index.get(productId);
+            if (existing != null) {
+                return existing;
+            }
+            int item = productCount++;
+            if (item == products.length) {
+                int capacity = item * 2;
+                products = Arrays.copyOf(products, capacity);
+                buyers = Arrays.copyOf(buyers, capacity);
+                pairs = Arrays.copyOf(pairs, capacity);
+                rows = Arrays.copyOf(rows, capacity);
+            }
+            products[item] = productId;
+            index.put(productId, item);
+            return item;
+        }
+
+        private IntCounts pairs(int item) {
+            if (pairs[item] == null) {
+                pairs[item] = new IntCounts();
+            }
+            return pairs[item];
+        }
+
+        // Top neighbours by cosine similarity: co-buyers / sqrt(buyers(a) * buyers(b))
+        private Row score(int item) {
+            IntCounts counts = pairs[item];
+            if (counts == null || counts.size == 0) {
+                return null;
+            }
+            int[] topItems = new int[topNeighbours];
+            float[] topScores = new float[topNeighbours];
+            int kept = 0;
+            for (int slot = 0; slot < counts.keys.length; slot++) {
+                if (counts.keys[slot] == 0) {
+                    continue;
+                }
+                int other = counts.keys[slot] - 1;
+                float score = (float) (counts.values[slot] / Math.sqrt((double) buyers[item] * buyers[other]));
+                if (kept == topNeighbours && score <= topScores[kept - 1]) {
+                    continue;
+                }
+                // Insertion into the sorted top list, dropping the last one when full
+                int position = kept < topNeighbours ? kept++ : kept - 1;
+                while (position > 0 && topScores[position - 1] < score) {
+                    topItems[position] = topItems[position - 1];
+                    topScores[position] = topScores[position - 1];
+                    position--;
+                }
+                topItems[position] = other;
+                topScores[position] = score;
+            }
+            return new Row(Arrays.copyOf(topItems, kept), Arrays.copyOf(topScores, kept));
+        }
+
+        private record Row(int[] items, float[] scores) {
+        }
+    }
+
+    /**
+     * Open-addressing int -> int counter (keys stored plus one, zero marks a free slot)
+     */
+    static final class IntCounts {
+
+        private int[] keys = new int[8];
+        private int[] values = new int[8];
+        private int size;
+
+        void increment(int key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int slot = find(keys, key + 1);
+            if (keys[slot] == 0) {
+                keys[slot] = key + 1;
+                size++;
+            }
+            values[slot]++;
+        }
+
+        int get(int key) {
+            int slot = find(keys, key + 1);
+            return keys[slot] == 0 ? 0 : values[slot];
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int find(int[] keys, int storedKey) {
+            int mask = keys.length - 1;
+            int slot = (storedKey * 0x9E3779B9) >>> 1 & mask;
+            while (keys[slot] != 0 && keys[slot] != storedKey) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
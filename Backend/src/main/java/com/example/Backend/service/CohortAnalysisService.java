@@ -0,0 +1,333 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.entity.Order;
+import com.example.Backend.event.OrderPlacedEvent;
+import com.example.Backend.event.OrderStatusChangedEvent;
+import com.example.Backend.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cohort retention: customers are grouped by the month of their first non-cancelled order,
+ * and for each later month we count how many of them ordered again.
+ *
+ * The matrix is built from one pass over orders sorted by (user_id, created_at), streamed
+ * with a server-side cursor, then kept current by new-order events. Cancellations can't be
+ * subtracted safely, so they mark the matrix stale and the next refresh rebuilds it.
+ * The first build runs in the background at startup; until it finishes, reports are empty
+ * and flagged as building.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CohortAnalysisService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int DEFAULT_MAX_MONTHS = 12;
+
+    private static final String ORDERS_SORTED_SQL = "SELECT user_id, created_at FROM orders "
+            + "WHERE status <> 'CANCELLED' ORDER BY user_id, created_at";
+
+    // Guarded by this
+    private CohortMatrix matrix;
+    private boolean rebuilding;
+    private final List<Object[]> pendingOrders = new ArrayList<>();
+    private LocalDateTime computedAt;
+    private LocalDateTime updatedAt;
+
+    private final AtomicBoolean stale = new AtomicBoolean(false);
+    private final ExecutorService buildExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cohort-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * Build the matrix in the background once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        buildExecutor.submit(this::rebuild);
+    }
+
+    /**
+     * Full rebuild every night, in case something slipped past the events
+     */
+    @Scheduled(cron = "${analytics.cohort.cron:0 0 3 * * *}")
+    public void rebuildNightly() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild if a cancellation made the matrix stale
+     */
+    @Scheduled(fixedDelayString = "${analytics.cohort.stale-check-ms:900000}")
+    public void refreshIfStale() {
+        if (stale.get()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuild the whole matrix from the orders table
+     *
+     * @return false if a rebuild was already running
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            if (rebuilding) {
+                return false;
+            }
+            rebuilding = true;
+        }
+        stale.set(false);
+
+        CohortMatrix rebuilt = null;
+        try {
+            long started = System.currentTimeMillis();
+            rebuilt = readMatrix();
+            log.info("Cohort matrix rebuilt: {} customers in {} cohorts in {} ms",
+                    rebuilt.customerCount(), rebuilt.cohortCount(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            stale.set(true);
+            log.error("Cohort rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null) {
+                    // Orders committed while streaming may or may not be in the snapshot;
+                    // replaying them is safe because recording the same month twice is a no-op
+                    for (Object[] order : pendingOrders) {
+                        rebuilt.record((UUID) order[0], (Integer) order[1]);
+                    }
+                    matrix = rebuilt;
+                    computedAt = LocalDateTime.now();
+                    updatedAt = computedAt;
+                }
+                pendingOrders.clear();
+                rebuilding = false;
+            }
+        }
+        return rebuilt != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (event.userId() == null || Order.STATUS_CANCELLED.equals(event.status())) {
+            return;
+        }
+        int month = monthIndex(event.createdAt() != null ? event.createdAt() : LocalDateTime.now());
+        synchronized (this) {
+            if (rebuilding) {
+                pendingOrders.add(new Object[] { event.userId(), month });
+            }
+            if (matrix != null && matrix.record(event.userId(), month)) {
+                updatedAt = LocalDateTime.now();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (Order.STATUS_CANCELLED.equals(event.newStatus())
+                || Order.STATUS_CANCELLED.equals(event.previousStatus())) {
+            stale.set(true);
+        }
+    }
+
+    /**
+     * Get the retention matrix for cohorts between two months (inclusive, null = unbounded)
+     *
+     * @param maxMonths number of months after acquisition to report
+     */
+    public AnalyticsDTO.CohortReport getRetention(YearMonth from, YearMonth to, Integer maxMonths) {
+        int months = maxMonths != null && maxMonths > 0 ? maxMonths : DEFAULT_MAX_MONTHS;
+        int current = monthIndex(LocalDateTime.now());
+        int fromIndex = from != null ? monthIndex(from) : Integer.MIN_VALUE;
+        int toIndex = to != null ? monthIndex(to) : Integer.MAX_VALUE;
+
+        synchronized (this) {
+            List<AnalyticsDTO.CohortRetention> cohorts = new ArrayList<>();
+            long totalCustomers = 0;
+            for (Map.Entry<Integer, long[]> entry : currentMatrix().cohorts().entrySet()) {
+                int cohort = entry.getKey();
+                if (cohort < fromIndex || cohort > toIndex) {
+                    continue;
+                }
+                cohorts.add(toRetention(cohort, entry.getValue(), Math.min(months, current - cohort)));
+                totalCustomers += entry.getValue()[0];
+            }
+
+            return AnalyticsDTO.CohortReport.builder()
+                    .cohorts(cohorts)
+                    .totalCustomers(totalCustomers)
+                    .maxMonths(months)
+                    .computedAt(computedAt)
+                    .updatedAt(updatedAt)
+                    .building(matrix == null)
+                    .build();
+        }
+    }
+
+    /**
+     * Get retention of a single cohort (empty while the first build is running)
+     */
+    public AnalyticsDTO.CohortRetention getCohort(YearMonth cohortMonth, Integer maxMonths) {
+        int months = maxMonths != null && maxMonths > 0 ? maxMonths : DEFAULT_MAX_MONTHS;
+        int cohort = monthIndex(cohortMonth);
+        synchronized (this) {
+            long[] active = matrix != null ? matrix.cohorts().get(cohort) : new long[1];
+            if (active == null) {
+                throw new ResourceNotFoundException("No customers acquired in " + cohortMonth);
+            }
+            return toRetention(cohort, active, Math.min(months, monthIndex(LocalDateTime.now()) - cohort));
+        }
+    }
+
+    // Caller holds the lock
+    private CohortMatrix currentMatrix() {
+        return matrix != null ? matrix : new CohortMatrix();
+    }
+
+    private AnalyticsDTO.CohortRetention toRetention(int cohort, long[] active, int lastOffset) {
+        long customers = active[0];
+        List<Long> activeCustomers = new ArrayList<>();
+        List<Double> retention = new ArrayList<>();
+        for (int offset = 0; offset <= Math.max(lastOffset, 0); offset++) {
+            long count = offset < active.length ? active[offset] : 0L;
+            activeCustomers.add(count);
+            retention.add(customers > 0 ? Math.round(count * 1000.0 / customers) / 10.0 : 0.0);
+        }
+        return AnalyticsDTO.CohortRetention.builder()
+                .cohort(toYearMonth(cohort).toString())
+                .customers(customers)
+                .activeCustomers(activeCustomers)
+                .retention(retention)
+                .build();
+    }
+
+    private CohortMatrix readMatrix() {
+        CohortMatrix result = new CohortMatrix();
+        // A transaction is needed for the PostgreSQL driver to honour the fetch size (cursor mode)
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ORDERS_SORTED_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp createdAt = rs.getTimestamp(2);
+            if (createdAt != null) {
+                result.record(rs.getObject(1, UUID.class), monthIndex(createdAt.toLocalDateTime()));
+            }
+        }));
+        return result;
+    }
+
+    static int monthIndex(LocalDateTime dateTime) {
+        return dateTime.getYear() * 12 + dateTime.getMonthValue() - 1;
+    }
+
+    static int monthIndex(YearMonth yearMonth) {
+        return yearMonth.getYear() * 12 + yearMonth.getMonthValue() - 1;
+    }
+
+    static YearMonth toYearMonth(int monthIndex) {
+        return YearMonth.of(monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    /**
+     * Retention counts per cohort. Orders must be recorded in chronological order per customer,
+     * which holds both for the sorted scan and for live orders.
+     */
+    static final class CohortMatrix {
+
+        // Cohort month -> customers active per month offset (index 0 = cohort size)
+        private final Map<Integer, long[]> cohorts = new TreeMap<>();
+
+        // Customer -> cohort month (high 32 bits) and last month counted (low 32 bits)
+        private final Map<UUID, Long> customers = new HashMap<>();
+
+        /**
+         * Record an order of a customer in a month
+         *
+         * @return true if a count changed
+         */
+        boolean record(UUID userId, int month) {
+            Long packed = customers.get(userId);
+            if (packed == null) {
+                customers.put(userId, pack(month, month));
+                increment(month, 0);
+                return true;
+            }
+            int cohort = (int) (packed >> 32);
+            int lastMonth = (int) packed.longValue();
+            if (month <= lastMonth) {
+                return false;
+            }
+            customers.put(userId, pack(cohort, month));
+            increment(cohort, month - cohort);
+            return true;
+        }
+
+        Map<Integer, long[]> cohorts() {
+            return cohorts;
+        }
+
+        int customerCount() {
+            return customers.size();
+        }
+
+        int cohortCount() {
+            return cohorts.size();
+        }
+
+        private void increment(int cohort, int offset) {
+            long[] active = cohorts.get(cohort);
+            if (active == null) {
+                active = new long[Math.max(offset + 1, DEFAULT_MAX_MONTHS + 1)];
+            } else if (offset >= active.length) {
+                active = Arrays.copyOf(active, Math.max(offset + 1, active.length * 2));
+            }
+            active[offset]++;
+            cohorts.put(cohort, active);
+        }
+
+        private static long pack(int cohort, int lastMonth) {
+            return ((long) cohort << 32) | (lastMonth & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.entity.CustomerMetrics;
+import com.example.Backend.exception.ResourceNotFoundException;
+import com.example.Backend.repository.CustomerMetricsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch job computing RFM (Recency / Frequency / Monetary) scores per customer.
+ * Orders are aggregated per customer in a single pass over the orders table,
+ * split into user-id ranges read in parallel, and upserted into customer_metrics.
+ * Segment distribution is kept in memory so dashboards never touch raw orders.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerMetricsService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerMetricsRepository customerMetricsRepository;
+
+    // Orders are read in 16 user-id ranges (first hex digit of the UUID)
+    private static final int USER_ID_PARTITIONS = 16;
+    private static final int WORKER_THREADS = 4;
+    private static final int UPSERT_BATCH_SIZE = 1000;
+    private static final int SCORE_BUCKETS = 5;
+
+    private static final String AGGREGATE_ORDERS_SQL = "SELECT user_id, COUNT(*), COALESCE(SUM(total_price), 0), "
+            + "MIN(created_at), MAX(created_at) FROM orders "
+            + "WHERE status <> 'CANCELLED' AND user_id >= ?";
+
+    private static final String UPSERT_SQL = "INSERT INTO customer_metrics (user_id, recency_days, frequency, "
+            + "monetary, average_order_value, r_score, f_score, m_score, segment, first_order_at, last_order_at, "
+            + "computed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (user_id) DO UPDATE SET recency_days = EXCLUDED.recency_days, "
+            + "frequency = EXCLUDED.frequency, monetary = EXCLUDED.monetary, "
+            + "average_order_value = EXCLUDED.average_order_value, r_score = EXCLUDED.r_score, "
+            + "f_score = EXCLUDED.f_score, m_score = EXCLUDED.m_score, segment = EXCLUDED.segment, "
+            + "first_order_at = EXCLUDED.first_order_at, last_order_at = EXCLUDED.last_order_at, "
+            + "computed_at = EXCLUDED.computed_at";
+
+    private static final String DELETE_STALE_SQL = "DELETE FROM customer_metrics WHERE computed_at < ?";
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "rfm-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Latest segment distribution, replaced atomically after each run
+    private volatile AnalyticsDTO.RfmSummary summary;
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Nightly recomputation (cron configurable with analytics.rfm.cron)
+     */
+    @Scheduled(cron = "${analytics.rfm.cron:0 30 2 * * *}")
+    public void runNightly() {
+        if (!recompute()) {
+            log.info("RFM job already running, nightly trigger skipped");
+        }
+    }
+
+    /**
+     * Start an on-demand recomputation in the background
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean triggerRecompute() {
+        if (running.get()) {
+            return false;
+        }
+        jobExecutor.submit(this::recompute);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Recompute RFM metrics for every customer with at least one non-cancelled order
+     *
+     * @return false if another run was already in progress or the run failed
+     */
+    public boolean recompute() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+            List<CustomerAggregate> aggregates = readAggregates();
+            List<CustomerMetrics> metrics = score(aggregates, computedAt);
+            writeMetrics(metrics, computedAt);
+            summary = summarize(metrics, computedAt);
+
+            log.info("RFM metrics computed for {} customers in {} ms",
+                    metrics.size(), System.currentTimeMillis() - started);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("RFM job interrupted");
+            return false;
+        } catch (Exception e) {
+            log.error("RFM job failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get segment distribution (served from memory). Empty until the first run has completed;
+     * runs are only started by the schedule or the recompute endpoint.
+     */
+    public AnalyticsDTO.RfmSummary getSummary() {
+        AnalyticsDTO.RfmSummary current = summary;
+        if (current == null) {
+            current = loadSummaryFromTable();
+            summary = current;
+        }
+        return current;
+    }
+
+    /**
+     * Get RFM metrics of a single customer
+     */
+    public CustomerMetrics getCustomerMetrics(UUID userId) {
+        return customerMetricsRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("No RFM metrics for customer: " + userId));
+    }
+
+    /**
+     * Get customers of a segment, best spenders first
+     */
+    public Page<CustomerMetrics> getSegmentCustomers(String segment, Pageable pageable) {
+        return customerMetricsRepository.findBySegmentOrderByMonetaryDesc(segment.toUpperCase(), pageable);
+    }
+
+    // ==================== BATCH STEPS ====================
+
+    private List<CustomerAggregate> readAggregates() throws InterruptedException, ExecutionException {
+        List<Future<List<CustomerAggregate>>> partitions = new ArrayList<>();
+        try (ExecutorService readers = Executors.newFixedThreadPool(WORKER_THREADS)) {
+            for (int i = 0; i < USER_ID_PARTITIONS; i++) {
+                UUID lower = partitionBound(i);
+                UUID upper = i + 1 < USER_ID_PARTITIONS ? partitionBound(i + 1) : null;
+                partitions.add(readers.submit(() -> readPartition(lower, upper)));
+            }
+
+            List<CustomerAggregate> aggregates = new ArrayList<>();
+            for (Future<List<CustomerAggregate>> partition : partitions) {
+                aggregates.addAll(partition.get());
+            }
+            return aggregates;
+        }
+    }
+
+    private List<CustomerAggregate> readPartition(UUID lower, UUID upper) {
+        String sql = AGGREGATE_ORDERS_SQL + (upper != null ? " AND user_id < ?" : "") + " GROUP BY user_id";
+        Object[] args = upper != null ? new Object[] { lower, upper } : new Object[] { lower };
+
+        List<CustomerAggregate> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            Timestamp first = rs.getTimestamp(4);
+            Timestamp last = rs.getTimestamp(5);
+            if (last == null) {
+                return;
+            }
+            rows.add(new CustomerAggregate(
+                    rs.getObject(1, UUID.class),
+                    rs.getInt(2),
+                    rs.getBigDecimal(3),
+                    first != null ? first.toLocalDateTime() : last.toLocalDateTime(),
+                    last.toLocalDateTime()));
+        }, args);
+        return rows;
+    }
+
+    private List<CustomerMetrics> score(List<CustomerAggregate> aggregates, LocalDateTime computedAt) {
+        int n = aggregates.size();
+        double[] recency = new double[n];
+        double[] frequency = new double[n];
+        double[] monetary = new double[n];
+        for (int i = 0; i < n; i++) {
+            CustomerAggregate aggregate = aggregates.get(i);
+            recency[i] = Math.max(0, ChronoUnit.DAYS.between(aggregate.lastOrderAt, computedAt));
+            frequency[i] = aggregate.orders;
+            monetary[i] = aggregate.revenue.doubleValue();
+        }
+
+        int[] recencyScores = quintileScores(recency, false);
+        int[] frequencyScores = quintileScores(frequency, true);
+        int[] monetaryScores = quintileScores(monetary, true);
+
+        List<CustomerMetrics> metrics = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            CustomerAggregate aggregate = aggregates.get(i);
+            CustomerMetrics m = new CustomerMetrics();
+            m.setUserId(aggregate.userId);
+            m.setRecencyDays((int) recency[i]);
+            m.setFrequency(aggregate.orders);
+            m.setMonetary(aggregate.revenue);
+            m.setAverageOrderValue(aggregate.orders > 0
+                    ? aggregate.revenue.divide(BigDecimal.valueOf(aggregate.orders), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO);
+            m.setRecencyScore(recencyScores[i]);
+            m.setFrequencyScore(frequencyScores[i]);
+            m.setMonetaryScore(monetaryScores[i]);
+            m.setSegment(CustomerMetrics.segmentFor(recencyScores[i], frequencyScores[i]));
+            m.setFirstOrderAt(aggregate.firstOrderAt);
+            m.setLastOrderAt(aggregate.lastOrderAt);
+            m.setComputedAt(computedAt);
+            metrics.add(m);
+        }
+        return metrics;
+    }
+
+    private void writeMetrics(List<CustomerMetrics> metrics, LocalDateTime computedAt)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> batches = new ArrayList<>();
+        try (ExecutorService writers = Executors.newFixedThreadPool(WORKER_THREADS)) {
+            for (int from = 0; from < metrics.size(); from += UPSERT_BATCH_SIZE) {
+                List<CustomerMetrics> chunk = metrics.subList(from, Math.min(from + UPSERT_BATCH_SIZE, metrics.size()));
+                batches.add(writers.submit(() -> jdbcTemplate.batchUpdate(UPSERT_SQL, toBatchArgs(chunk))));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        }
+
+        // Customers whose orders were all cancelled since the last run
+        int removed = jdbcTemplate.update(DELETE_STALE_SQL, Timestamp.valueOf(computedAt));
+        if (removed > 0) {
+            log.debug("Removed {} stale customer metrics rows", removed);
+        }
+    }
+
+    private List<Object[]> toBatchArgs(List<CustomerMetrics> chunk) {
+        List<Object[]> args = new ArrayList<>(chunk.size());
+        for (CustomerMetrics m : chunk) {
+            args.add(new Object[] {
+                    m.getUserId(), m.getRecencyDays(), m.getFrequency(), m.getMonetary(),
+                    m.getAverageOrderValue(), m.getRecencyScore(), m.getFrequencyScore(),
+                    m.getMonetaryScore(), m.getSegment(),
+                    Timestamp.valueOf(m.getFirstOrderAt()), Timestamp.valueOf(m.getLastOrderAt()),
+                    Timestamp.valueOf(m.getComputedAt())
+            });
+        }
+        return args;
+    }
+
+    // ==================== SUMMARY ====================
+
+    private AnalyticsDTO.RfmSummary summarize(List<CustomerMetrics> metrics, LocalDateTime computedAt) {
+        Map<String, SegmentTotals> totals = new TreeMap<>();
+        for (CustomerMetrics m : metrics) {
+            SegmentTotals segment = totals.computeIfAbsent(m.getSegment(), k -> new SegmentTotals());
+            segment.customers++;
+            segment.revenue = segment.revenue.add(m.getMonetary());
+            if (m.getFrequency() > 1) {
+                segment.returning++;
+            }
+        }
+        return buildSummary(totals, computedAt);
+    }
+
+    private AnalyticsDTO.RfmSummary loadSummaryFromTable() {
+        Map<String, SegmentTotals> totals = new TreeMap<>();
+        for (Object[] row : customerMetricsRepository.summarizeBySegment()) {
+            SegmentTotals segment = new SegmentTotals();
+            segment.customers = ((Number) row[1]).longValue();
+            segment.revenue = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            segment.returning = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+            totals.put((String) row[0], segment);
+        }
+        return buildSummary(totals, customerMetricsRepository.findLastComputedAt());
+    }
+
+    private AnalyticsDTO.RfmSummary buildSummary(Map<String, SegmentTotals> totals, LocalDateTime computedAt) {
+        long totalCustomers = totals.values().stream().mapToLong(t -> t.customers).sum();
+        long returningCustomers = totals.values().stream().mapToLong(t -> t.returning).sum();
+        BigDecimal totalRevenue = totals.values().stream()
+                .map(t -> t.revenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        List<AnalyticsDTO.CustomerSegment> segments = totals.entrySet().stream()
+                .map(entry -> AnalyticsDTO.CustomerSegment.builder()
+                        .segment(entry.getKey())
+                        .customers(entry.getValue().customers)
+                        .percentage(totalCustomers > 0 ? entry.getValue().customers * 100.0 / totalCustomers : 0.0)
+                        .totalRevenue(entry.getValue().revenue)
+                        .averageLifetimeValue(average(entry.getValue().revenue, entry.getValue().customers))
+                        .build())
+                .sorted(Comparator.comparing(AnalyticsDTO.CustomerSegment::getCustomers).reversed())
+                .toList();
+
+        return AnalyticsDTO.RfmSummary.builder()
+                .segments(segments)
+                .totalCustomers(totalCustomers)
+                .returningCustomers(returningCustomers)
+                .totalRevenue(totalRevenue)
+                .averageLifetimeValue(average(totalRevenue, totalCustomers))
+                .computedAt(computedAt)
+                .build();
+    }
+
+    private static BigDecimal average(BigDecimal total, long count) {
+        return count > 0 ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    /**
+     * Score each value 1..5 by quintile. Ties share the score of their first rank.
+     */
+    static int[] quintileScores(double[] values, boolean higherIsBetter) {
+        int n = values.length;
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        int[] scores = new int[n];
+        for (int i = 0; i < n; i++) {
+            int rank = lowerBound(sorted, values[i]);
+            int bucket = (int) ((long) rank * SCORE_BUCKETS / n);
+            scores[i] = higherIsBetter ? bucket + 1 : SCORE_BUCKETS - bucket;
+        }
+        return scores;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Lower bound of a user-id partition: the first hex digit of the UUID.
+     * PostgreSQL compares UUIDs byte-wise, so these bounds split the index into ranges.
+     */
+    private static UUID partitionBound(int partition) {
+        return new UUID(((long) partition) << 60, 0L);
+    }
+
+    private static final class CustomerAggregate {
+        private final UUID userId;
+        private final int orders;
+        private final BigDecimal revenue;
+        private final LocalDateTime firstOrderAt;
+        private final LocalDateTime lastOrderAt;
+
+        private CustomerAggregate(UUID userId, int orders, BigDecimal revenue,
+                LocalDateTime firstOrderAt, LocalDateTime lastOrderAt) {
+            this.userId = userId;
+            this.orders = orders;
+            this.revenue = revenue;
+            this.firstOrderAt = firstOrderAt;
+            this.lastOrderAt = lastOrderAt;
+        }
+    }
+
+    private static final class SegmentTotals {
+        private long customers;
+        private long returning;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+}
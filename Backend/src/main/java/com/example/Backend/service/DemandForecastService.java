@@ -0,0 +1,258 @@
+package com.example.Backend.service;
+
+import com.example.Backend.util.DemandForecaster;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly demand forecast for reorder settings.
+ *
+ * Daily sales per product are streamed from stock_movements in product order; each
+ * product's series is forecast (see {@link DemandForecaster}) on a fork-join pool while the
+ * next products are still being read. The suggested reorder point covers forecast demand over
+ * the lead time plus safety stock for the configured service level, the suggested quantity
+ * covers a number of days of demand. Suggestions are stored next to the setting and copied
+ * over the reorder point and quantity only for settings with auto-apply enabled, and never
+ * from a product's first few sales (too short a history to forecast from).
+ */
+@Service
+@Slf4j
+public class DemandForecastService {
+
+    private static final int DEFAULT_LEAD_TIME_DAYS = 7;
+    private static final int FETCH_SIZE = 5000;
+    private static final int FORECAST_BATCH_SIZE = 500;
+
+    private static final String SETTINGS_SQL = "SELECT product_id, lead_time_days FROM reorder_settings "
+            + "WHERE is_enabled = true";
+
+    private static final String DAILY_SALES_SQL = "SELECT sm.product_id, CAST(sm.movement_date AS date), "
+            + "SUM(ABS(sm.quantity)) FROM stock_movements sm "
+            + "JOIN reorder_settings rs ON rs.product_id = sm.product_id AND rs.is_enabled = true "
+            + "WHERE sm.movement_type = 'SALE' AND sm.movement_date >= ? "
+            + "GROUP BY sm.product_id, CAST(sm.movement_date AS date) "
+            + "ORDER BY sm.product_id";
+
+    private static final String UPDATE_SQL = "UPDATE reorder_settings SET forecast_daily_demand = ?, "
+            + "forecast_method = ?, suggested_reorder_point = ?, suggested_reorder_quantity = ?, forecast_at = ?, "
+            + "reorder_point = CASE WHEN COALESCE(auto_apply_forecast, false) AND ? THEN ? ELSE reorder_point END, "
+            + "reorder_quantity = CASE WHEN COALESCE(auto_apply_forecast, false) AND ? THEN ? "
+            + "ELSE reorder_quantity END "
+            + "WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnly;
+    private final int historyDays;
+    private final double alpha;
+    private final double serviceLevel;
+    private final int coverDays;
+    private final ForkJoinPool forecastPool;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "demand-forecast-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DemandForecastService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.forecast.history-days:365}") int historyDays,
+            @Value("${inventory.forecast.alpha:0.1}") double alpha,
+            @Value("${inventory.forecast.service-level:0.95}") double serviceLevel,
+            @Value("${inventory.forecast.cover-days:30}") int coverDays,
+            @Value("${inventory.forecast.parallelism:0}") int parallelism) {
+        if (serviceLevel <= 0.5 || serviceLevel >= 1) {
+            throw new IllegalArgumentException("inventory.forecast.service-level must be in (0.5, 1)");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.historyDays = historyDays;
+        this.alpha = alpha;
+        this.serviceLevel = serviceLevel;
+        this.coverDays = coverDays;
+        // A dedicated pool keeps long forecasts off the common pool used by parallel streams elsewhere
+        this.forecastPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        forecastPool.shutdownNow();
+    }
+
+    /**
+     * Nightly forecast (cron configurable with inventory.forecast.cron)
+     */
+    @Scheduled(cron = "${inventory.forecast.cron:0 0 4 * * *}")
+    public void runNightly() {
+        if (!forecastAll()) {
+            log.info("Demand forecast already running, nightly trigger skipped");
+        }
+    }
+
+    /**
+     * Start an on-demand forecast in the background
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean triggerForecast() {
+        if (running.get()) {
+            return false;
+        }
+        jobExecutor.submit(this::forecastAll);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Forecast demand and refresh suggestions for every enabled reorder setting
+     *
+     * @return false if another run was already in progress or the run failed
+     */
+    public boolean forecastAll() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            LocalDate firstDay = today.minusDays(historyDays);
+
+            Map<UUID, Integer> leadTimes = new HashMap<>();
+            jdbcTemplate.query(SETTINGS_SQL, (RowCallbackHandler) rs -> {
+                int leadTime = rs.getInt(2);
+                leadTimes.put(rs.getObject(1, UUID.class), rs.wasNull() ? DEFAULT_LEAD_TIME_DAYS : leadTime);
+            });
+
+            List<Suggestion> suggestions = forecastSales(firstDay, today, leadTimes);
+            // Settings without any sale in the window get a zero-demand suggestion too
+            for (UUID productId : leadTimes.keySet()) {
+                suggestions.add(suggest(productId, new double[0], leadTimes.get(productId)));
+            }
+            write(suggestions, LocalDateTime.now());
+
+            log.info("Demand forecast computed for {} products in {} ms",
+                    suggestions.size(), System.currentTimeMillis() - started);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Demand forecast interrupted");
+            return false;
+        } catch (Exception e) {
+            log.error("Demand forecast failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Reads daily sales in product order, forecasting finished products in batches meanwhile.
+    // Products seen here are removed from leadTimes.
+    private List<Suggestion> forecastSales(LocalDate firstDay, LocalDate today, Map<UUID, Integer> leadTimes)
+            throws InterruptedException, ExecutionException {
+        int days = (int) ChronoUnit.DAYS.between(firstDay, today) + 1;
+        List<Future<List<Suggestion>>> batches = new ArrayList<>();
+        List<SalesSeries> batch = new ArrayList<>();
+        SalesSeries[] current = new SalesSeries[1];
+
+        // A transaction is needed for the PostgreSQL driver to honour the fetch size (cursor mode)
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DAILY_SALES_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(firstDay.atStartOfDay()));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            UUID productId = rs.getObject(1, UUID.class);
+            if (current[0] == null || !current[0].productId.equals(productId)) {
+                // Rows come in product order, so every product in the batch is complete by now
+                if (batch.size() == FORECAST_BATCH_SIZE) {
+                    batches.add(submit(new ArrayList<>(batch)));
+                    batch.clear();
+                }
+                Integer leadTime = leadTimes.remove(productId);
+                current[0] = new SalesSeries(productId, new double[days],
+                        leadTime != null ? leadTime : DEFAULT_LEAD_TIME_DAYS);
+                batch.add(current[0]);
+            }
+            int day = (int) ChronoUnit.DAYS.between(firstDay, rs.getDate(2).toLocalDate());
+            if (day >= 0 && day < days) {
+                current[0].demand[day] += rs.getDouble(3);
+            }
+        }));
+        if (!batch.isEmpty()) {
+            batches.add(submit(batch));
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (Future<List<Suggestion>> future : batches) {
+            suggestions.addAll(future.get());
+        }
+        return suggestions;
+    }
+
+    private Future<List<Suggestion>> submit(List<SalesSeries> batch) {
+        return forecastPool.submit(() -> batch.parallelStream()
+                .map(series -> suggest(series.productId, series.demand, series.leadTimeDays))
+                .toList());
+    }
+
+    private Suggestion suggest(UUID productId, double[] demand, int leadTimeDays) {
+        DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, alpha);
+        return new Suggestion(productId, forecast,
+                forecast.reorderPoint(leadTimeDays, serviceLevel), forecast.reorderQuantity(coverDays));
+    }
+
+    private void write(List<Suggestion> suggestions, LocalDateTime forecastAt) {
+        Timestamp timestamp = Timestamp.valueOf(forecastAt);
+        jdbcTemplate.batchUpdate(UPDATE_SQL, suggestions, FORECAST_BATCH_SIZE, (ps, suggestion) -> {
+            ps.setDouble(1, suggestion.forecast.dailyDemand());
+            ps.setString(2, suggestion.forecast.method());
+            ps.setInt(3, suggestion.reorderPoint);
+            ps.setInt(4, suggestion.reorderQuantity);
+            ps.setTimestamp(5, timestamp);
+            ps.setBoolean(6, suggestion.forecast.isReliable());
+            ps.setInt(7, suggestion.reorderPoint);
+            ps.setBoolean(8, suggestion.forecast.isReliable());
+            ps.setInt(9, suggestion.reorderQuantity);
+            ps.setObject(10, suggestion.productId);
+        });
+    }
+
+    private record SalesSeries(UUID productId, double[] demand, int leadTimeDays) {
+    }
+
+    private record Suggestion(UUID productId, DemandForecaster.Forecast forecast, int reorderPoint,
+            int reorderQuantity) {
+    }
+}
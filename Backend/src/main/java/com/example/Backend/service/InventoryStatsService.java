@@ -1,23 +1,49 @@
 package com.example.Backend.service;
 
+import com.example.Backend.dto.ProductStockDTO;
+import com.example.Backend.event.PurchasingChangedEvent;
+import com.example.Backend.event.StockMovementRecordedEvent;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.SupplierRepository;
 import com.example.Backend.repository.PurchaseOrderRepository;
 import com.example.Backend.repository.StockMovementRepository;
 import com.example.Backend.entity.PurchaseOrder;
-import com.example.Backend.entity.Product;
+import com.example.Backend.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
- * Service for calculating comprehensive inventory statistics
+ * Service for calculating comprehensive inventory statistics.
+ *
+ * Dashboard figures are kept in an in-memory snapshot: stock figures are loaded with one
+ * aggregate scan of the catalog and then moved by stock movement events, purchase order and
+ * supplier figures are reloaded (one GROUP BY) after a purchasing change. A periodic resync
+ * picks up what doesn't go through stock movements, such as price edits or new products;
+ * stock movements that arrive while it reads are applied on top of what it read.
  */
 @Service
 @RequiredArgsConstructor
@@ -25,106 +51,250 @@ import java.util.Map;
 @Transactional(readOnly = true)
 public class InventoryStatsService {
 
+    // Products above this stock level are healthy, same rule as the low stock alerts
+    private static final int LOW_STOCK_THRESHOLD = 10;
+
     private final ProductRepository productRepository;
     private final SupplierRepository supplierRepository;
     private final PurchaseOrderRepository purchaseOrderRepository;
     private final StockMovementRepository stockMovementRepository;
+    private final ObjectMapper objectMapper;
+
+    // Bumped by every purchasing event, so a reload racing with changes can be detected
+    private final AtomicLong purchasingEventCount = new AtomicLong();
+
+    // Guarded by this
+    private boolean stockLoaded;
+    private boolean purchasingLoaded;
+    private long totalProducts;
+    private BigDecimal totalValue = BigDecimal.ZERO;
+    private long outOfStockItems;
+    private long lowStockItems;
+    private long healthyStockItems;
+    private long totalMovements;
+    private long totalSuppliers;
+    private long activeSuppliers;
+    private Map<PurchaseOrder.POStatus, Long> purchaseOrderCounts = new EnumMap<>(PurchaseOrder.POStatus.class);
+    private LocalDateTime stockComputedAt;
+    // Bumped by every stock event; while stock reloads are reading, the events they may have missed
+    private long stockVersion;
+    private int stockReloadsReading;
+    private final List<StockChange> stockChangesDuringReload = new ArrayList<>();
 
     /**
      * Get comprehensive inventory statistics for dashboard
      */
     public Map<String, Object> getFullStats() {
+        boolean loadStock;
+        boolean loadPurchasing;
+        synchronized (this) {
+            loadStock = !stockLoaded;
+            loadPurchasing = !purchasingLoaded;
+        }
+        if (loadStock) {
+            refreshStock();
+        }
+        if (loadPurchasing) {
+            refreshPurchasing();
+        }
+
         Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("totalProducts", totalProducts);
+            stats.put("totalValue", totalValue);
+            stats.put("outOfStockItems", outOfStockItems);
+            stats.put("lowStockItems", lowStockItems);
+            stats.put("healthyStockItems", healthyStockItems);
+            stats.put("totalSuppliers", totalSuppliers);
+            stats.put("activeSuppliers", activeSuppliers);
+            stats.put("pendingPOs", purchaseOrderCounts.getOrDefault(PurchaseOrder.POStatus.PENDING, 0L));
+            stats.put("draftPOs", purchaseOrderCounts.getOrDefault(PurchaseOrder.POStatus.DRAFT, 0L));
+            stats.put("approvedPOs", purchaseOrderCounts.getOrDefault(PurchaseOrder.POStatus.APPROVED, 0L));
+            stats.put("receivedPOs", purchaseOrderCounts.getOrDefault(PurchaseOrder.POStatus.RECEIVED, 0L));
+            stats.put("totalMovements", totalMovements);
+            stats.put("computedAt", stockComputedAt);
+        }
+        return stats;
+    }
 
-        // Product counts
-        long totalProducts = productRepository.count();
-        stats.put("totalProducts", totalProducts);
-
-        // Stock value calculation (with null safety)
-        List<Product> allProducts = productRepository.findAll();
-        BigDecimal totalValue = allProducts.stream()
-                .filter(p -> p.getPrice() != null && p.getStock() != null)
-                .map(p -> p.getPrice().multiply(BigDecimal.valueOf(p.getStock())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.put("totalValue", totalValue);
-
-        // Stock status counts
-        long outOfStockItems = allProducts.stream()
-                .filter(p -> p.getStock() == null || p.getStock() <= 0)
-                .count();
-        stats.put("outOfStockItems", outOfStockItems);
-
-        long lowStockItems = allProducts.stream()
-                .filter(p -> p.getStock() != null && p.getStock() > 0 && p.getStock() <= 10)
-                .count();
-        stats.put("lowStockItems", lowStockItems);
-
-        long healthyStockItems = allProducts.stream()
-                .filter(p -> p.getStock() != null && p.getStock() > 10)
-                .count();
-        stats.put("healthyStockItems", healthyStockItems);
-
-        // Supplier counts
-        long totalSuppliers = supplierRepository.count();
-        long activeSuppliers = supplierRepository.countByIsActiveTrue();
-        stats.put("totalSuppliers", totalSuppliers);
-        stats.put("activeSuppliers", activeSuppliers);
-
-        // Purchase Order counts
-        long pendingPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.PENDING);
-        long draftPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.DRAFT);
-        long approvedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.APPROVED);
-        long receivedPOs = purchaseOrderRepository.countByStatus(PurchaseOrder.POStatus.RECEIVED);
-        stats.put("pendingPOs", pendingPOs);
-        stats.put("draftPOs", draftPOs);
-        stats.put("approvedPOs", approvedPOs);
-        stats.put("receivedPOs", receivedPOs);
-
-        // Stock movement counts (last 30 days could be added later)
-        long totalMovements = stockMovementRepository.count();
-        stats.put("totalMovements", totalMovements);
-
-        log.info("Inventory stats calculated: {} products, {} value, {} out of stock",
-                totalProducts, totalValue, outOfStockItems);
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onStockMovement(StockMovementRecordedEvent event) {
+        int stockDelta = event.newStock() - event.previousStock();
+        BigDecimal price = stockDelta != 0 && event.productId() != null
+                ? productRepository.findPriceById(event.productId())
+                : null;
+        BigDecimal valueDelta = price != null ? price.multiply(BigDecimal.valueOf(stockDelta)) : BigDecimal.ZERO;
+        synchronized (this) {
+            stockVersion++;
+            StockChange change = new StockChange(stockVersion, valueDelta, event.previousStock(), event.newStock());
+            if (stockReloadsReading > 0) {
+                stockChangesDuringReload.add(change);
+            }
+            if (stockLoaded) {
+                totalMovements++;
+                totalValue = totalValue.add(valueDelta);
+                moveBucket(change.previousStock(), -1);
+                moveBucket(change.newStock(), 1);
+            }
+        }
+    }
 
-        return stats;
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onPurchasingChanged(PurchasingChangedEvent event) {
+        purchasingEventCount.incrementAndGet();
+        synchronized (this) {
+            purchasingLoaded = false;
+        }
     }
 
     /**
-     * Get product stock overview with status indicators
+     * Reload the whole snapshot from the database
      */
-    public List<Map<String, Object>> getProductStockOverview() {
-        return productRepository.findAll().stream()
-                .map(p -> {
-                    Map<String, Object> item = new HashMap<>();
-                    item.put("id", p.getId());
-                    item.put("name", p.getName());
-                    item.put("sku", p.getId().toString().substring(0, 8).toUpperCase());
-
-                    int stock = p.getStock() != null ? p.getStock() : 0;
-                    BigDecimal price = p.getPrice() != null ? p.getPrice() : BigDecimal.ZERO;
-
-                    item.put("currentStock", stock);
-                    item.put("price", price);
-                    item.put("value", price.multiply(BigDecimal.valueOf(stock)));
-                    item.put("brand", p.getBrand() != null ? p.getBrand().getName() : null);
-                    item.put("category", p.getCategory() != null ? p.getCategory().getName() : null);
-
-                    // Status calculation (using local stock variable)
-                    String status;
-                    if (stock <= 0) {
-                        status = "OUT_OF_STOCK";
-                    } else if (stock <= 5) {
-                        status = "CRITICAL";
-                    } else if (stock <= 10) {
-                        status = "LOW";
-                    } else {
-                        status = "OK";
+    @Scheduled(fixedDelayString = "${inventory.stats.resync-ms:300000}",
+            initialDelayString = "${inventory.stats.resync-ms:300000}")
+    public void resync() {
+        refreshStock();
+        refreshPurchasing();
+    }
+
+    private void refreshStock() {
+        long summaryRead;
+        synchronized (this) {
+            stockReloadsReading++;
+            summaryRead = stockVersion;
+        }
+        try {
+            List<Object[]> rows = productRepository.summarizeStock(LOW_STOCK_THRESHOLD);
+            long movementsRead;
+            synchronized (this) {
+                movementsRead = stockVersion;
+            }
+            long movements = stockMovementRepository.count();
+            Object[] row = rows.isEmpty() ? new Object[] { 0L, BigDecimal.ZERO, 0L, 0L, 0L } : rows.get(0);
+
+            synchronized (this) {
+                totalProducts = ((Number) row[0]).longValue();
+                totalValue = row[1] instanceof BigDecimal value ? value : new BigDecimal(row[1].toString());
+                outOfStockItems = ((Number) row[2]).longValue();
+                lowStockItems = ((Number) row[3]).longValue();
+                healthyStockItems = ((Number) row[4]).longValue();
+                totalMovements = movements;
+                // A movement committed before its event was handled, so a query that started
+                // after that saw it; movements from after a query started may be missing from it
+                for (StockChange change : stockChangesDuringReload) {
+                    if (change.version() > summaryRead) {
+                        totalValue = totalValue.add(change.valueDelta());
+                        moveBucket(change.previousStock(), -1);
+                        moveBucket(change.newStock(), 1);
+                    }
+                    if (change.version() > movementsRead) {
+                        totalMovements++;
                     }
-                    item.put("status", status);
+                }
+                stockComputedAt = LocalDateTime.now();
+                stockLoaded = true;
+                log.debug("Inventory stats loaded: {} products, {} value, {} out of stock",
+                        totalProducts, totalValue, outOfStockItems);
+            }
+        } finally {
+            synchronized (this) {
+                if (--stockReloadsReading == 0) {
+                    stockChangesDuringReload.clear();
+                }
+            }
+        }
+    }
+
+    private void refreshPurchasing() {
+        long eventsBefore = purchasingEventCount.get();
+        Map<PurchaseOrder.POStatus, Long> counts = new EnumMap<>(PurchaseOrder.POStatus.class);
+        for (Object[] row : purchaseOrderRepository.countGroupByStatus()) {
+            counts.put((PurchaseOrder.POStatus) row[0], ((Number) row[1]).longValue());
+        }
+        long suppliers = supplierRepository.count();
+        long active = supplierRepository.countByIsActiveTrue();
+        synchronized (this) {
+            purchaseOrderCounts = counts;
+            totalSuppliers = suppliers;
+            activeSuppliers = active;
+            // A change during the read leaves the snapshot stale, so the next request reloads
+            purchasingLoaded = purchasingEventCount.get() == eventsBefore;
+        }
+    }
+
+    // Caller holds the lock
+    private void moveBucket(int stock, int delta) {
+        if (stock <= 0) {
+            outOfStockItems = Math.max(0, outOfStockItems + delta);
+        } else if (stock <= LOW_STOCK_THRESHOLD) {
+            lowStockItems = Math.max(0, lowStockItems + delta);
+        } else {
+            healthyStockItems = Math.max(0, healthyStockItems + delta);
+        }
+    }
+
+    private record StockChange(long version, BigDecimal valueDelta, int previousStock, int newStock) {
+    }
+
+    /**
+     * Get a page of the product stock overview, optionally filtered by status and category.
+     * Sortable by name, stock, price, value, status or category
+     */
+    public Page<ProductStockDTO> getProductStockOverview(String status, Long categoryId, Pageable pageable) {
+        Integer[] range = stockRange(status);
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                stockOverviewSort(pageable.getSort()));
+        return productRepository.findStockOverview(range[0], range[1], categoryId, sorted);
+    }
+
+    /**
+     * Write the product stock overview as NDJSON (one JSON object per line), row by row
+     */
+    public void exportProductStock(String status, Long categoryId, Sort sort, OutputStream out) throws IOException {
+        Integer[] range = stockRange(status);
+        try (Stream<ProductStockDTO> rows = productRepository.streamStockOverview(range[0], range[1], categoryId,
+                stockOverviewSort(sort));
+                SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (ProductStockDTO row : (Iterable<ProductStockDTO>) rows::iterator) {
+                writer.write(row);
+            }
+        }
+    }
+
+    // Stock range [min, max] of a status, nulls meaning unbounded
+    private static Integer[] stockRange(String status) {
+        if (status == null || status.isBlank()) {
+            return new Integer[] { null, null };
+        }
+        return switch (status.trim().toUpperCase()) {
+            case "OUT_OF_STOCK" -> new Integer[] { null, 0 };
+            case "CRITICAL" -> new Integer[] { 1, ProductStockDTO.CRITICAL_THRESHOLD };
+            case "LOW" -> new Integer[] { ProductStockDTO.CRITICAL_THRESHOLD + 1, ProductStockDTO.LOW_THRESHOLD };
+            case "OK" -> new Integer[] { ProductStockDTO.LOW_THRESHOLD + 1, null };
+            default -> throw new ValidationException("Unknown stock status: " + status
+                    + " (expected OUT_OF_STOCK, CRITICAL, LOW or OK)");
+        };
+    }
 
-                    return item;
-                })
-                .toList();
+    // Maps the overview's sort fields onto the query; status order follows stock level
+    private static Sort stockOverviewSort(Sort requested) {
+        if (requested == null || requested.isUnsorted()) {
+            return Sort.by("stock").and(Sort.by("name"));
+        }
+        Sort sort = Sort.unsorted();
+        for (Sort.Order order : requested) {
+            Sort next = switch (order.getProperty()) {
+                case "status", "stock", "currentStock" -> Sort.by(order.getDirection(), "stock");
+                case "name", "price" -> Sort.by(order.getDirection(), order.getProperty());
+                case "value" -> JpaSort.unsafe(order.getDirection(), "p.price * p.stock");
+                case "category" -> JpaSort.unsafe(order.getDirection(), "c.name");
+                case "brand" -> JpaSort.unsafe(order.getDirection(), "b.name");
+                default -> throw new ValidationException("Cannot sort product stock by " + order.getProperty());
+            };
+            sort = sort.and(next);
+        }
+        return sort;
     }
 }
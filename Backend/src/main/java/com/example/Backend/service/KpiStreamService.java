@@ -0,0 +1,301 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.entity.Order;
+import com.example.Backend.event.OrderPlacedEvent;
+import com.example.Backend.event.OrderStatusChangedEvent;
+import com.example.Backend.event.StockMovementRecordedEvent;
+import com.example.Backend.repository.OrderRepository;
+import com.example.Backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live dashboard KPIs (orders today, revenue today, pending orders, low stock products)
+ * kept in memory and pushed to /topic/admin/kpi.
+ *
+ * Counters are loaded once from the database and then moved by order and stock events, so
+ * the cost no longer grows with the number of open admin dashboards. Changes are coalesced
+ * and flushed as one small delta per push interval; clients get the full snapshot when they
+ * subscribe to /app/admin/kpi. A periodic resync corrects drift from changes that don't go
+ * through orders or stock movements (e.g. editing a product's stock directly). Events that
+ * arrive while the resync reads are applied on top of what it read, so the resync also
+ * completes under steady traffic.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KpiStreamService {
+
+    public static final String KPI_TOPIC = "/topic/admin/kpi";
+
+    // Same rule as the dashboard low stock figure
+    private static final int LOW_STOCK_THRESHOLD = 10;
+
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Guarded by this
+    private boolean loaded;
+    private LocalDate day;
+    private long ordersToday;
+    private BigDecimal revenueToday = BigDecimal.ZERO;
+    private long pendingOrders;
+    private long lowStockProducts;
+    private boolean ordersDirty;
+    private boolean revenueDirty;
+    private boolean pendingDirty;
+    private boolean lowStockDirty;
+    // Bumped by every event; while resyncs are reading, the events they may have missed
+    private long version;
+    private int resyncsReading;
+    private final List<VersionedDelta> eventsDuringResync = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            resync();
+        } catch (Exception e) {
+            log.warn("Could not load dashboard KPIs at startup: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Full KPI snapshot, sent to clients when they subscribe
+     */
+    public AnalyticsDTO.KpiUpdate getSnapshot() {
+        boolean needsLoad;
+        synchronized (this) {
+            needsLoad = !loaded;
+        }
+        if (needsLoad) {
+            resync();
+        }
+        synchronized (this) {
+            rollOverIfNeeded();
+            return AnalyticsDTO.KpiUpdate.builder()
+                    .type("SNAPSHOT")
+                    .date(day)
+                    .ordersToday(ordersToday)
+                    .revenueToday(revenueToday)
+                    .pendingOrders(pendingOrders)
+                    .lowStockProducts(lowStockProducts)
+                    .sequence(sequence.get())
+                    .timestamp(LocalDateTime.now())
+                    .build();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        long orders = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        if (isToday(event.createdAt())) {
+            orders = 1;
+            if (!Order.STATUS_CANCELLED.equals(event.status()) && event.totalPrice() != null) {
+                revenue = event.totalPrice();
+            }
+        }
+        long pending = Order.STATUS_PENDING.equals(event.status()) ? 1 : 0;
+        record(new Delta(orders, revenue, pending, 0));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        long pending = 0;
+        if (Order.STATUS_PENDING.equals(event.previousStatus())) {
+            pending--;
+        }
+        if (Order.STATUS_PENDING.equals(event.newStatus())) {
+            pending++;
+        }
+        BigDecimal revenue = BigDecimal.ZERO;
+        if (isToday(event.createdAt()) && event.totalPrice() != null) {
+            if (Order.STATUS_CANCELLED.equals(event.newStatus())) {
+                revenue = event.totalPrice().negate();
+            } else if (Order.STATUS_CANCELLED.equals(event.previousStatus())) {
+                revenue = event.totalPrice();
+            }
+        }
+        record(new Delta(0, revenue, pending, 0));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockMovement(StockMovementRecordedEvent event) {
+        boolean wasLow = event.previousStock() < LOW_STOCK_THRESHOLD;
+        boolean isLow = event.newStock() < LOW_STOCK_THRESHOLD;
+        if (wasLow == isLow) {
+            return;
+        }
+        record(new Delta(0, BigDecimal.ZERO, 0, isLow ? 1 : -1));
+    }
+
+    /**
+     * Push the KPIs that changed since the last push, if any
+     */
+    @Scheduled(fixedDelayString = "${analytics.kpi.push-interval-ms:1000}")
+    public void flush() {
+        AnalyticsDTO.KpiUpdate delta;
+        synchronized (this) {
+            rollOverIfNeeded();
+            if (!(ordersDirty || revenueDirty || pendingDirty || lowStockDirty)) {
+                return;
+            }
+            delta = AnalyticsDTO.KpiUpdate.builder()
+                    .type("DELTA")
+                    .date(day)
+                    .ordersToday(ordersDirty ? ordersToday : null)
+                    .revenueToday(revenueDirty ? revenueToday : null)
+                    .pendingOrders(pendingDirty ? pendingOrders : null)
+                    .lowStockProducts(lowStockDirty ? lowStockProducts : null)
+                    .sequence(sequence.incrementAndGet())
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            ordersDirty = false;
+            revenueDirty = false;
+            pendingDirty = false;
+            lowStockDirty = false;
+        }
+        try {
+            messagingTemplate.convertAndSend(KPI_TOPIC, delta);
+        } catch (Exception e) {
+            log.error("Error pushing KPI update: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reload all counters from the database; changed values go out with the next push
+     */
+    @Scheduled(fixedDelayString = "${analytics.kpi.resync-ms:300000}",
+            initialDelayString = "${analytics.kpi.resync-ms:300000}")
+    public void resync() {
+        LocalDate today = LocalDate.now();
+        long ordersRead;
+        synchronized (this) {
+            resyncsReading++;
+            ordersRead = version;
+        }
+        try {
+            List<Object[]> rows = orderRepository.summarizeOrdersBetween(
+                    today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+            long pendingRead = currentVersion();
+            Long pendingCount = orderRepository.countByStatus(Order.STATUS_PENDING);
+            long lowStockRead = currentVersion();
+            long lowStockCount = productRepository.countByStockLessThan(LOW_STOCK_THRESHOLD);
+
+            Object[] todayRow = rows.isEmpty() ? new Object[] { 0L, BigDecimal.ZERO } : rows.get(0);
+            long orders = ((Number) todayRow[0]).longValue();
+            BigDecimal revenue = todayRow[1] instanceof BigDecimal decimal ? decimal : BigDecimal.ZERO;
+            long pending = pendingCount != null ? pendingCount : 0L;
+            long lowStock = lowStockCount;
+
+            synchronized (this) {
+                // An event committed before its listener ran, so a query that started after the
+                // listener saw it; events from after a query started may be missing from it
+                for (VersionedDelta event : eventsDuringResync) {
+                    if (event.version() > ordersRead) {
+                        orders += event.delta().orders();
+                        revenue = revenue.add(event.delta().revenue());
+                    }
+                    if (event.version() > pendingRead) {
+                        pending += event.delta().pending();
+                    }
+                    if (event.version() > lowStockRead) {
+                        lowStock += event.delta().lowStock();
+                    }
+                }
+                orders = Math.max(0, orders);
+                revenue = revenue.max(BigDecimal.ZERO);
+                pending = Math.max(0, pending);
+                lowStock = Math.max(0, lowStock);
+
+                ordersDirty |= ordersToday != orders || !today.equals(day);
+                revenueDirty |= revenueToday.compareTo(revenue) != 0 || !today.equals(day);
+                pendingDirty |= pendingOrders != pending;
+                lowStockDirty |= lowStockProducts != lowStock;
+
+                day = today;
+                ordersToday = orders;
+                revenueToday = revenue;
+                pendingOrders = pending;
+                lowStockProducts = lowStock;
+                loaded = true;
+            }
+        } finally {
+            synchronized (this) {
+                if (--resyncsReading == 0) {
+                    eventsDuringResync.clear();
+                }
+            }
+        }
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    // Applies an event to the counters, and keeps it for resyncs that are reading
+    private synchronized void record(Delta delta) {
+        rollOverIfNeeded();
+        version++;
+        if (resyncsReading > 0) {
+            eventsDuringResync.add(new VersionedDelta(version, delta));
+        }
+        if (delta.orders() != 0) {
+            ordersToday = Math.max(0, ordersToday + delta.orders());
+            ordersDirty = true;
+        }
+        if (delta.revenue().signum() != 0) {
+            revenueToday = revenueToday.add(delta.revenue()).max(BigDecimal.ZERO);
+            revenueDirty = true;
+        }
+        if (delta.pending() != 0) {
+            pendingOrders = Math.max(0, pendingOrders + delta.pending());
+            pendingDirty = true;
+        }
+        if (delta.lowStock() != 0) {
+            lowStockProducts = Math.max(0, lowStockProducts + delta.lowStock());
+            lowStockDirty = true;
+        }
+    }
+
+    // Caller holds the lock
+    private void rollOverIfNeeded() {
+        LocalDate today = LocalDate.now();
+        if (day != null && !today.equals(day)) {
+            day = today;
+            ordersToday = 0;
+            revenueToday = BigDecimal.ZERO;
+            ordersDirty = true;
+            revenueDirty = true;
+        }
+    }
+
+    private boolean isToday(LocalDateTime dateTime) {
+        return dateTime == null || Objects.equals(dateTime.toLocalDate(), LocalDate.now());
+    }
+
+    // Change of each counter from one event
+    private record Delta(long orders, BigDecimal revenue, long pending, long lowStock) {
+    }
+
+    private record VersionedDelta(long version, Delta delta) {
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.Backend.service;
+
+import com.example.Backend.event.ProductChangedEvent;
+import com.example.Backend.util.HnswIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Content-based "similar products".
+ *
+ * Each product is embedded as a TF-IDF vector over the words of its name and description and
+ * its category, brand and fitment (own model and compatible models), hashed into a fixed number
+ * of dimensions. Vectors live in an in-memory HNSW graph, so a lookup is an approximate
+ * nearest-neighbour search that doesn't touch the database. Product changes re-embed just that
+ * product; the whole index is rebuilt daily to refresh term weights and drop replaced vectors.
+ */
+@Service
+@Slf4j
+public class ProductSimilarityService {
+
+    private static final int FETCH_SIZE = 2000;
+
+    private static final String PRODUCTS_SQL = "SELECT p.id, p.name, p.description, p.model, p.compatibility, "
+            + "p.stock, c.name, b.name FROM products p "
+            + "LEFT JOIN categories c ON c.id = p.category_id "
+            + "LEFT JOIN brands b ON b.id = p.brand_id";
+
+    private static final String PRODUCT_SQL = PRODUCTS_SQL + " WHERE p.id = ?";
+
+    private static final RowMapper<ProductDocument> DOCUMENT_MAPPER = (rs, rowNum) -> new ProductDocument(
+            rs.getObject(1, UUID.class),
+            TextVectorizer.terms(rs.getString(2), rs.getString(3), rs.getString(7), rs.getString(8),
+                    rs.getString(4), rs.getString(5)),
+            rs.getInt(6) > 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final int dimensions;
+    private final int maxLinks;
+    private final int efConstruction;
+    private final int efSearch;
+
+    // Searches share the read lock; updates and the swap to a rebuilt index take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private SimilarityIndex index;
+
+    // Guarded by this
+    private boolean rebuilding;
+    private final Set<UUID> pendingChanges = new LinkedHashSet<>();
+
+    public ProductSimilarityService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendations.similar.dimensions:256}") int dimensions,
+            @Value("${recommendations.similar.max-links:16}") int maxLinks,
+            @Value("${recommendations.similar.ef-construction:100}") int efConstruction,
+            @Value("${recommendations.similar.ef-search:64}") int efSearch) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.dimensions = dimensions;
+        this.maxLinks = maxLinks;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Periodic full rebuild, first one shortly after startup
+     */
+    @Scheduled(initialDelayString = "${recommendations.similar.initial-delay-ms:20000}",
+            fixedDelayString = "${recommendations.similar.rebuild-ms:86400000}")
+    public void rebuildPeriodically() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the whole index from the product catalog
+     *
+     * @return false if a rebuild was already running or it failed
+     */
+    public boolean rebuild() {
+        synchronized (this) {
+            if (rebuilding) {
+                return false;
+            }
+            rebuilding = true;
+        }
+
+        SimilarityIndex rebuilt = null;
+        try {
+            long started = System.currentTimeMillis();
+            rebuilt = new SimilarityIndex(dimensions, maxLinks, efConstruction, efSearch);
+            rebuilt.build(readDocuments());
+            log.info("Product similarity index rebuilt: {} products in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Product similarity rebuild failed: {}", e.getMessage(), e);
+            rebuilt = null;
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null) {
+                    // Products changed while reading may or may not be in the new index;
+                    // re-reading them is safe because an unchanged product is left as is
+                    for (UUID productId : pendingChanges) {
+                        rebuilt.apply(productId, loadDocument(productId));
+                    }
+                    lock.writeLock().lock();
+                    try {
+                        index = rebuilt;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+                pendingChanges.clear();
+                rebuilding = false;
+            }
+        }
+        return rebuilt != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        ProductDocument document = loadDocument(event.productId());
+        synchronized (this) {
+            if (rebuilding) {
+                pendingChanges.add(event.productId());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                index.apply(event.productId(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * In-stock products most similar to the given product, best first
+     * (empty until the first build has completed, or if the product is unknown)
+     */
+    public List<UUID> getSimilarIds(UUID productId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.similar(productId, limit) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ProductDocument> readDocuments() {
+        List<ProductDocument> documents = new ArrayList<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(PRODUCTS_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, (RowCallbackHandler) rs -> documents.add(DOCUMENT_MAPPER.mapRow(rs, 0))));
+        return documents;
+    }
+
+    private ProductDocument loadDocument(UUID productId) {
+        List<ProductDocument> found = jdbcTemplate.query(PRODUCT_SQL, DOCUMENT_MAPPER, productId);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Weighted terms of one product and whether it can be recommended
+     */
+    record ProductDocument(UUID productId, Map<String, Float> terms, boolean inStock) {
+    }
+
+    /**
+     * Products' TF-IDF vectors in an HNSW graph. Not thread safe; writes must be serialized by
+     * the caller and not overlap with searches.
+     */
+    static final class SimilarityIndex {
+
+        private final TextVectorizer vectorizer;
+        private final HnswIndex graph;
+        private final int efSearch;
+
+        private final Map<UUID, Integer> nodes = new HashMap<>();
+        private final List<UUID> products = new ArrayList<>();
+        private final Map<UUID, Map<String, Float>> termsByProduct = new HashMap<>();
+        private final BitSet inStock = new BitSet();
+
+        SimilarityIndex(int dimensions, int maxLinks, int efConstruction, int efSearch) {
+            this.vectorizer = new TextVectorizer(dimensions);
+            this.graph = new HnswIndex(dimensions, maxLinks, efConstruction, 42);
+            this.efSearch = efSearch;
+        }
+
+        /**
+         * Index a whole catalog; document frequencies are counted first so every vector is
+         * weighted alike
+         */
+        void build(Collection<ProductDocument> documents) {
+            documents.forEach(d -> vectorizer.count(d.terms()));
+            for (ProductDocument document : documents) {
+                insert(document);
+            }
+        }
+
+        /**
+         * Add, update or (with a null document) remove one product. A product whose terms
+         * didn't change only has its stock flag updated.
+         */
+        void apply(UUID productId, ProductDocument document) {
+            Map<String, Float> previous = termsByProduct.get(productId);
+            if (document != null && document.terms().equals(previous)) {
+                inStock.set(nodes.get(productId), document.inStock());
+                return;
+            }
+            if (previous != null) {
+                vectorizer.uncount(previous);
+                termsByProduct.remove(productId);
+                graph.remove(nodes.remove(productId));
+            }
+            if (document != null) {
+                vectorizer.count(document.terms());
+                insert(document);
+            }
+        }
+
+        List<UUID> similar(UUID productId, int limit) {
+            Integer node = nodes.get(productId);
+            if (node == null) {
+                return List.of();
+            }
+            int[] found = graph.search(graph.vector(node), limit, efSearch, n -> n != node && inStock.get(n));
+            List<UUID> result = new ArrayList<>(found.length);
+            for (int n : found) {
+                result.add(products.get(n));
+            }
+            return result;
+        }
+
+        int size() {
+            return nodes.size();
+        }
+
+        private void insert(ProductDocument document) {
+            float[] vector = vectorizer.embed(document.terms());
+            if (vector == null) {
+                return;
+            }
+            int node = graph.add(vector);
+            products.add(document.productId());
+            nodes.put(document.productId(), node);
+            termsByProduct.put(document.productId(), document.terms());
+            inStock.set(node, document.inStock());
+        }
+    }
+
+    /**
+     * Turns product text into weighted terms and terms into unit-length TF-IDF vectors. Terms
+     * are hashed into a fixed number of dimensions (with a hashed sign, so collisions cancel out
+     * on average rather than add up), which keeps vectors dense and compact whatever the
+     * vocabulary size.
+     */
+    static final class TextVectorizer {
+
+        private static final float NAME_WEIGHT = 2.0f;
+        private static final float DESCRIPTION_WEIGHT = 0.5f;
+        private static final float CATEGORY_WEIGHT = 1.5f;
+        private static final float BRAND_WEIGHT = 1.0f;
+        private static final float FITMENT_WEIGHT = 2.0f;
+
+        private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+        private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+        private static final Set<String> STOP_WORDS = Set.of(
+                "the", "and", "for", "with", "of", "to", "in", "on", "a", "an", "is", "or", "by",
+                "le", "la", "les", "de", "des", "du", "et", "pour", "avec", "en", "un", "une", "au", "aux");
+
+        private final int dimensions;
+        private final Map<String, Integer> documentFrequency = new HashMap<>();
+        private int documents;
+
+        TextVectorizer(int dimensions) {
+            this.dimensions = dimensions;
+        }
+
+        /**
+         * Weighted term frequencies of a product; categorical attributes get prefixed terms so
+         * they never collide with words of the text
+         */
+        static Map<String, Float> terms(String name, String description, String category, String brand,
+                String model, String compatibility) {
+            Map<String, Float> terms = new HashMap<>();
+            addWords(terms, name, NAME_WEIGHT);
+            addWords(terms, description, DESCRIPTION_WEIGHT);
+            addTerm(terms, "category:", category, CATEGORY_WEIGHT);
+            addTerm(terms, "brand:", brand, BRAND_WEIGHT);
+            addTerm(terms, "fits:", model, FITMENT_WEIGHT);
+            if (compatibility != null) {
+                for (String compatible : compatibility.split(",")) {
+                    addTerm(terms, "fits:", compatible, FITMENT_WEIGHT);
+                }
+            }
+            return terms;
+        }
+
+        void count(Map<String, Float> terms) {
+            documents++;
+            for (String term : terms.keySet()) {
+                documentFrequency.merge(term, 1, Integer::sum);
+            }
+        }
+
+        void uncount(Map<String, Float> terms) {
+            documents--;
+            for (String term : terms.keySet()) {
+                documentFrequency.computeIfPresent(term, (t, df) -> df > 1 ? df - 1 : null);
+            }
+        }
+
+        /**
+         * Unit-length vector of the terms, or null if there are none
+         */
+        float[] embed(Map<String, Float> terms) {
+            float[] vector = new float[dimensions];
+            for (Map.Entry<String, Float> term : terms.entrySet()) {
+                double idf = Math.log((1.0 + documents) / (1.0 + documentFrequency.getOrDefault(term.getKey(), 0)))
+                        + 1;
+                int hash = mix(term.getKey().hashCode());
+                float sign = (hash & 0x40000000) != 0 ? -1 : 1;
+                vector[Math.floorMod(hash, dimensions)] += (float) (sign * Math.log1p(term.getValue()) * idf);
+            }
+            double norm = 0;
+            for (float v : vector) {
+                norm += v * v;
+            }
+            if (norm == 0) {
+                return null;
+            }
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+            return vector;
+        }
+
+        private static void addWords(Map<String, Float> terms, String text, float weight) {
+            if (text == null) {
+                return;
+            }
+            for (String word : NON_WORD.split(normalize(text))) {
+                if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                    terms.merge(word, weight, Float::sum);
+                }
+            }
+        }
+
+        private static void addTerm(Map<String, Float> terms, String prefix, String value, float weight) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String normalized = NON_WORD.matcher(normalize(value)).replaceAll(" ").trim();
+            if (!normalized.isEmpty()) {
+                terms.merge(prefix + normalized, weight, Float::sum);
+            }
+        }
+
+        // Lower case without accents, so "Clio" and "clio", "Rénault" and "Renault" match
+        private static String normalize(String text) {
+            String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+            return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        }
+
+        // Murmur3 finalizer, so similar strings land in unrelated dimensions
+        private static int mix(int h) {
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+}
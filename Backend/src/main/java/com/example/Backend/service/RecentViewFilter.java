@@ -0,0 +1,80 @@
+package com.example.Backend.service;
+
+import com.example.Backend.util.ExpiringBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Suppresses repeated views of the same product by the same user within a short window,
+ * in memory instead of querying user_activities on every view.
+ *
+ * Backed by a time-bucketed Bloom filter: a view is never let through twice within the
+ * window, and at the configured false positive rate a first view is taken for a repeat and
+ * dropped. The filter is per instance and starts empty, so after a restart or on another
+ * instance a repeat view may be recorded once more.
+ */
+@Service
+public class RecentViewFilter {
+
+    private final ExpiringBloomFilter filter;
+    private final int expectedViewsPerBucket;
+    private final Counter firstViews;
+    private final Counter repeatViews;
+
+    public RecentViewFilter(
+            MeterRegistry meterRegistry,
+            @Value("${activities.dedup.window:PT5M}") Duration window,
+            @Value("${activities.dedup.buckets:5}") int buckets,
+            @Value("${activities.dedup.expected-views-per-bucket:200000}") int expectedViewsPerBucket,
+            @Value("${activities.dedup.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.filter = new ExpiringBloomFilter(window.toMillis(), buckets, expectedViewsPerBucket, falsePositiveRate);
+        this.expectedViewsPerBucket = expectedViewsPerBucket;
+        this.firstViews = Counter.builder("activities.dedup.views").tag("result", "first")
+                .description("Product views checked for repeats").register(meterRegistry);
+        this.repeatViews = Counter.builder("activities.dedup.views").tag("result", "repeat")
+                .description("Product views checked for repeats").register(meterRegistry);
+    }
+
+    /**
+     * Remember that the user viewed the product, unless they did within the window. Checking
+     * and remembering are one step, so of concurrent views of a product by a user only one is
+     * first. A first view stays remembered even if it is not written after all (e.g. shed
+     * because the ingestion buffer is full), so its repeats within the window are dropped too.
+     *
+     * @return true for a first view, false for a repeat
+     */
+    public boolean recordIfFirst(UUID userId, UUID productId) {
+        boolean first = filter.putIfAbsent(key1(userId, productId), key2(userId, productId),
+                System.currentTimeMillis());
+        (first ? firstViews : repeatViews).increment();
+        return first;
+    }
+
+    /**
+     * Filter statistics for the admin API
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("firstViews", (long) firstViews.count());
+        stats.put("repeatViews", (long) repeatViews.count());
+        stats.put("viewsInCurrentBucket", filter.keysInCurrentBucket(System.currentTimeMillis()));
+        stats.put("expectedViewsPerBucket", expectedViewsPerBucket);
+        stats.put("sizeInBytes", filter.sizeInBytes());
+        return stats;
+    }
+
+    private static long key1(UUID userId, UUID productId) {
+        return userId.getMostSignificantBits() * 31 + productId.getMostSignificantBits();
+    }
+
+    private static long key2(UUID userId, UUID productId) {
+        return userId.getLeastSignificantBits() * 31 + productId.getLeastSignificantBits();
+    }
+}
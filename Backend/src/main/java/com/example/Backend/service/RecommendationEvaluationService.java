@@ -0,0 +1,363 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.entity.Product;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.RecommendationRepository;
+import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.impl.RecommendationServiceImpl;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Offline evaluation of the recommendation strategies.
+ *
+ * Activity is split at a point in time. Preference profiles, co-purchases and trending scores
+ * are trained on what happened before, and the production recommender (RecommendationServiceImpl)
+ * is run on them, with the live similarity index and catalog, for k products per user. Results
+ * are scored against the products each user added to cart or bought afterwards, with
+ * precision@k, recall@k and catalog coverage. Activity is streamed, not held in memory; stock and
+ * featured products are as of now. One evaluation runs at a time, in the background.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RecommendationEvaluationService {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int MAX_K = 100;
+
+    private static final String ACTIVITIES_SQL = "SELECT user_id, product_id, activity_type, created_at "
+            + "FROM user_activities WHERE user_id IS NOT NULL AND product_id IS NOT NULL "
+            + "AND activity_type IN ('VIEW', 'ADD_TO_CART', 'PURCHASE') "
+            + "AND created_at >= ? AND created_at < ? ORDER BY created_at";
+
+    private static final String CATALOG_SQL = "SELECT id, category_id, brand_id, model FROM products";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final RecommendationRepository recommendationRepository;
+    private final CoPurchaseService coPurchaseService;
+    private final TrendingService trendingService;
+    private final ProductSimilarityService productSimilarityService;
+    private final UserPreferenceService userPreferenceService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "recommendation-evaluation-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Progress of the current run, or the outcome of the last one
+    private volatile String phase = "IDLE";
+    private volatile LocalDate runSplitDate;
+    private volatile int runTrainingDays;
+    private volatile int runTestDays;
+    private volatile int runK;
+    private volatile long runTrainingActivities;
+    private volatile long runTestActivities;
+    private volatile LocalDateTime runStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile String lastError;
+    private volatile List<StrategyResult> runResults;
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Start evaluating every strategy in the background, training on the days before the split
+     * date and testing on the days from it
+     *
+     * @return false if an evaluation is already running
+     */
+    public boolean triggerEvaluation(LocalDate splitDate, int trainingDays, int testDays, int k) {
+        if (trainingDays <= 0 || testDays <= 0) {
+            throw new IllegalArgumentException("Training and test periods must be at least one day");
+        }
+        if (k <= 0 || k > MAX_K) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_K);
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runSplitDate = splitDate;
+        runTrainingDays = trainingDays;
+        runTestDays = testDays;
+        runK = k;
+        runTrainingActivities = 0;
+        runTestActivities = 0;
+        runStartedAt = LocalDateTime.now();
+        lastError = null;
+        runResults = null;
+        phase = "STARTING";
+        jobExecutor.submit(() -> evaluate(splitDate, trainingDays, testDays, k));
+        return true;
+    }
+
+    /**
+     * Progress of the current evaluation, or the outcome of the last one, for the admin API
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("phase", phase);
+        status.put("split", runSplitDate);
+        status.put("trainingDays", runTrainingDays);
+        status.put("testDays", runTestDays);
+        status.put("k", runK);
+        status.put("trainingActivities", runTrainingActivities);
+        status.put("testActivities", runTestActivities);
+        status.put("startedAt", runStartedAt);
+        status.put("lastRunFinishedAt", lastRunFinishedAt);
+        status.put("lastError", lastError);
+        status.put("results", runResults);
+        return status;
+    }
+
+    /**
+     * An untrained evaluator of the production recommender, for activity before splitAt
+     */
+    Evaluator newEvaluator(Collection<CatalogItem> catalog, long splitAt) {
+        return new Evaluator(catalog, splitAt);
+    }
+
+    private void evaluate(LocalDate splitDate, int trainingDays, int testDays, int k) {
+        long started = System.currentTimeMillis();
+        try {
+            Timestamp splitAt = Timestamp.valueOf(splitDate.atStartOfDay());
+            Evaluator evaluator = newEvaluator(readCatalog(), splitAt.getTime());
+
+            phase = "TRAINING";
+            streamInteractions(Timestamp.valueOf(splitDate.minusDays(trainingDays).atStartOfDay()), splitAt,
+                    interaction -> {
+                        evaluator.train(interaction);
+                        runTrainingActivities++;
+                    });
+
+            phase = "TESTING";
+            streamInteractions(splitAt, Timestamp.valueOf(splitDate.plusDays(testDays).atStartOfDay()),
+                    interaction -> {
+                        evaluator.test(interaction);
+                        runTestActivities++;
+                    });
+
+            // One read-only session for all the recommender's product reads
+            phase = "SCORING";
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            runResults = readOnly.execute(status -> evaluator.results(k));
+            log.info("Recommendations evaluated at {}: {} training and {} test activities in {} ms",
+                    splitDate, runTrainingActivities, runTestActivities, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("Recommendation evaluation failed: {}", e.getMessage(), e);
+        } finally {
+            phase = "IDLE";
+            lastRunFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    // A transaction is needed for the PostgreSQL driver to honour the fetch size (cursor mode)
+    private void streamInteractions(Timestamp from, Timestamp to, Consumer<Interaction> consumer) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ACTIVITIES_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, from);
+            ps.setTimestamp(2, to);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(new Interaction(
+                rs.getObject(1, UUID.class),
+                rs.getObject(2, UUID.class),
+                ActivityType.valueOf(rs.getString(3)),
+                rs.getTimestamp(4).getTime()))));
+    }
+
+    private List<CatalogItem> readCatalog() {
+        return jdbcTemplate.query(CATALOG_SQL, (rs, rowNum) -> new CatalogItem(
+                rs.getObject(1, UUID.class),
+                nullableLong(rs, 2),
+                nullableLong(rs, 3),
+                rs.getString(4)));
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    public enum Strategy {
+        PERSONALIZED, SIMILAR, ALSO_BOUGHT, TRENDING
+    }
+
+    /**
+     * One user action on a product
+     */
+    public record Interaction(UUID userId, UUID productId, ActivityType type, long at) {
+    }
+
+    /**
+     * Attributes of a product that preference profiles are built from
+     */
+    public record CatalogItem(UUID productId, Long categoryId, Long brandId, String model) {
+    }
+
+    /**
+     * Scores of one strategy, averaged over the users evaluated
+     */
+    public record StrategyResult(Strategy strategy, int users, int k, double precision, double recall,
+            double coverage) {
+    }
+
+    /**
+     * The production recommender on models trained from one activity history: training
+     * activities are fed in time order, then test activities. Once training is over,
+     * recommending doesn't change the models, so a trained evaluator can also be used to
+     * benchmark the strategies. Not thread safe.
+     */
+    public final class Evaluator {
+
+        private static final int TRENDING_DAYS = 7;
+
+        private final long splitAt;
+        private final Map<UUID, CatalogItem> catalog = new HashMap<>();
+
+        private final Map<UUID, UserPreferenceService.Profile> profiles = new HashMap<>();
+        private final Map<UUID, UUID> lastProduct = new HashMap<>();
+        private final CoPurchaseService.CoPurchaseMatrix coPurchase = coPurchaseService.newMatrix();
+        private final TrendingService trending;
+
+        // Products each user with a training history added to cart or bought in the test period
+        private final Map<UUID, Set<UUID>> relevant = new HashMap<>();
+
+        private RecommendationService recommender;
+
+        private Evaluator(Collection<CatalogItem> items, long splitAt) {
+            this.splitAt = splitAt;
+            for (CatalogItem item : items) {
+                catalog.put(item.productId(), item);
+            }
+            this.trending = trendingService.detachedCopy(splitAt);
+        }
+
+        /**
+         * Learn from one activity before the split
+         */
+        public void train(Interaction interaction) {
+            if (recommender != null) {
+                throw new IllegalStateException("Training is over once testing or recommending has started");
+            }
+            CatalogItem item = catalog.get(interaction.productId());
+            if (item == null) {
+                return;
+            }
+            profiles.computeIfAbsent(interaction.userId(), u -> new UserPreferenceService.Profile(splitAt))
+                    .record(interaction.type(), item.productId(), item.categoryId(), item.brandId(),
+                            item.model(), interaction.at());
+            lastProduct.put(interaction.userId(), item.productId());
+            trending.record(item.productId(), interaction.type(), interaction.at());
+            if (interaction.type() == ActivityType.PURCHASE) {
+                coPurchase.record(interaction.userId(), List.of(item.productId()));
+            }
+        }
+
+        /**
+         * Note one activity after the split
+         */
+        public void test(Interaction interaction) {
+            recommender();
+            if (interaction.type() != ActivityType.VIEW && lastProduct.containsKey(interaction.userId())) {
+                relevant.computeIfAbsent(interaction.userId(), u -> new HashSet<>()).add(interaction.productId());
+            }
+        }
+
+        /**
+         * Up to k products for a user with a training history, as the recommender serves them
+         */
+        public List<UUID> recommend(Strategy strategy, UUID userId, int k) {
+            RecommendationService service = recommender();
+            UUID last = lastProduct.get(userId);
+            if (last == null) {
+                // The live profile would be loaded instead, with activity from after the split
+                return List.of();
+            }
+            List<Product> products = switch (strategy) {
+                case PERSONALIZED -> service.getPersonalizedRecommendations(userId, k);
+                case SIMILAR -> service.getSimilarProducts(last, k);
+                case ALSO_BOUGHT -> service.getAlsoBoughtProducts(last, k);
+                case TRENDING -> service.getTrendingProducts(TRENDING_DAYS, k);
+            };
+            return products.stream().map(Product::getId).toList();
+        }
+
+        /**
+         * Users with a training history
+         */
+        public Set<UUID> users() {
+            return Collections.unmodifiableSet(lastProduct.keySet());
+        }
+
+        /**
+         * Score every strategy on the users who had a training history and added to cart or
+         * bought something in the test activities
+         */
+        public List<StrategyResult> results(int k) {
+            List<StrategyResult> results = new ArrayList<>();
+            for (Strategy strategy : Strategy.values()) {
+                double precision = 0;
+                double recall = 0;
+                Set<UUID> recommended = new HashSet<>();
+                for (Map.Entry<UUID, Set<UUID>> user : relevant.entrySet()) {
+                    List<UUID> recommendations = recommend(strategy, user.getKey(), k);
+                    recommended.addAll(recommendations);
+                    long hits = recommendations.stream().filter(user.getValue()::contains).count();
+                    precision += (double) hits / k;
+                    recall += (double) hits / user.getValue().size();
+                }
+                int users = relevant.size();
+                results.add(new StrategyResult(strategy, users, k,
+                        users == 0 ? 0 : precision / users,
+                        users == 0 ? 0 : recall / users,
+                        catalog.isEmpty() ? 0 : (double) recommended.size() / catalog.size()));
+            }
+            return results;
+        }
+
+        // Wired like the live recommender, on this evaluator's models; built when training is over
+        private RecommendationService recommender() {
+            if (recommender == null) {
+                coPurchase.rescoreAll();
+                UserPreferenceService preferences = userPreferenceService.serving(profiles);
+                recommender = new RecommendationServiceImpl(productRepository, userRepository,
+                        recommendationRepository, coPurchaseService.serving(coPurchase), trending,
+                        productSimilarityService, preferences, RecommendationResultCache.passThrough(preferences));
+            }
+            return recommender;
+        }
+    }
+}
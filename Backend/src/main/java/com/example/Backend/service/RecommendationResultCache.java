@@ -0,0 +1,374 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.entity.Product;
+import com.example.Backend.event.ProductChangedEvent;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of personalized recommendations, keyed by user and result size.
+ *
+ * Results only depend on the user's preference profile and the catalog, so a user's entry is
+ * kept until its TTL runs out or one of their activities changes what they should see: a
+ * product they viewed, carted or bought is among the results, or their strongest categories,
+ * brands or vehicle models changed. Results hold product entities, so a product change (price,
+ * stock, deletion) drops the entries showing that product. Users active recently are warmed in
+ * the background so their next page load is a hit.
+ */
+@Service
+@Slf4j
+public class RecommendationResultCache {
+
+    private static final Set<ActivityType> PROFILE_ACTIVITIES =
+            EnumSet.of(ActivityType.VIEW, ActivityType.ADD_TO_CART, ActivityType.PURCHASE);
+
+    private static final String RECENT_USERS_SQL = "SELECT user_id FROM user_activities "
+            + "WHERE user_id IS NOT NULL AND created_at >= ? "
+            + "GROUP BY user_id ORDER BY MAX(created_at) DESC LIMIT ?";
+
+    private static final int VERSION_STRIPES = 1024;
+    private static final int TRACKED_PRODUCT_CHANGES = 1024;
+
+    private final Map<UUID, UserEntry> entries = new ConcurrentHashMap<>();
+
+    // Bumped by every profile activity of the users hashing to a stripe. Bumps and stores run
+    // inside entries.compute for the user, so a result computed before an activity is never
+    // stored after the activity was handled.
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    // Latest product changes, oldest first, so a result computed across a change to one of its
+    // products isn't stored. Guarded by itself, like productChangeCount.
+    private final Deque<ProductChange> productChanges = new ArrayDeque<>();
+    private long productChangeCount;
+
+    private final UserPreferenceService userPreferenceService;
+    private final ObjectProvider<RecommendationService> recommendationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer recompute;
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Duration warmUpWindow;
+    private final int warmUpUsers;
+    private final int[] warmUpLimits;
+
+    public RecommendationResultCache(
+            UserPreferenceService userPreferenceService,
+            ObjectProvider<RecommendationService> recommendationService,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${recommendations.cache.ttl:PT15M}") Duration ttl,
+            @Value("${recommendations.cache.max-entries:10000}") int maxEntries,
+            @Value("${recommendations.cache.warm-up-window:PT1H}") Duration warmUpWindow,
+            @Value("${recommendations.cache.warm-up-users:500}") int warmUpUsers,
+            @Value("${recommendations.cache.warm-up-limits:10,8}") int[] warmUpLimits) {
+        this.userPreferenceService = userPreferenceService;
+        this.recommendationService = recommendationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.warmUpWindow = warmUpWindow;
+        this.warmUpUsers = warmUpUsers;
+        this.warmUpLimits = warmUpLimits;
+
+        this.hits = Counter.builder("recommendations.cache.requests").tag("result", "hit")
+                .description("Recommendation cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("recommendations.cache.requests").tag("result", "miss")
+                .description("Recommendation cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("recommendations.cache.evictions")
+                .description("Users dropped from the recommendation cache").register(meterRegistry);
+        this.recompute = Timer.builder("recommendations.cache.recompute")
+                .description("Time spent computing personalized recommendations on cache misses")
+                .register(meterRegistry);
+        Gauge.builder("recommendations.cache.size", entries, Map::size).register(meterRegistry);
+        Gauge.builder("recommendations.cache.hit.ratio", this, RecommendationResultCache::getHitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A cache that keeps nothing, for a recommender built outside the application context
+     * (see RecommendationEvaluationService); its meters aren't published
+     */
+    static RecommendationResultCache passThrough(UserPreferenceService userPreferenceService) {
+        return new RecommendationResultCache(userPreferenceService, null, null, new SimpleMeterRegistry(),
+                Duration.ZERO, 0, Duration.ZERO, 0, new int[0]);
+    }
+
+    /**
+     * Get a user's cached recommendations, computing them with the loader on a miss
+     */
+    public List<Product> get(UUID userId, int limit, Supplier<List<Product>> loader) {
+        long now = System.currentTimeMillis();
+        UserEntry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt > now) {
+            List<Product> cached = entry.results.get(limit);
+            if (cached != null) {
+                entry.lastAccess = now;
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        long version = versions.get(stripe(userId));
+        long productChangesBefore = productChangeCount();
+        List<List<?>> signature = userPreferenceService.getProfile(userId).signature();
+        long startNanos = System.nanoTime();
+        List<Product> value = List.copyOf(loader.get());
+        recompute.record(Duration.ofNanos(System.nanoTime() - startNanos));
+
+        store(userId, limit, value, signature, now, version, productChangesBefore);
+        return value;
+    }
+
+    /**
+     * Drop a user's entry when the activity makes their cached results wrong or outdated.
+     * Runs after {@link UserPreferenceService#onActivity} so the profile includes the activity.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(UserActivityRecordedEvent event) {
+        if (event.userId() == null || !PROFILE_ACTIVITIES.contains(event.activityType())) {
+            return;
+        }
+        List<List<?>> signature = entries.containsKey(event.userId())
+                ? userPreferenceService.getProfile(event.userId()).signature()
+                : null;
+        entries.compute(event.userId(), (userId, entry) -> {
+            // Results being computed right now predate this activity
+            versions.incrementAndGet(stripe(userId));
+            if (entry == null) {
+                return null;
+            }
+            // Viewed, carted and bought products are not recommended, so a shown one must go
+            boolean shown = event.productId() != null && entry.contains(event.productId());
+            if (shown || !entry.signature.equals(signature)) {
+                evictions.increment();
+                return null;
+            }
+            return entry;
+        });
+    }
+
+    /**
+     * Drop the entries showing a product that changed, so recommendations don't show a stale
+     * price or stock
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        synchronized (productChanges) {
+            productChangeCount++;
+            productChanges.addLast(new ProductChange(productChangeCount, event.productId()));
+            if (productChanges.size() > TRACKED_PRODUCT_CHANGES) {
+                productChanges.removeFirst();
+            }
+        }
+        entries.values().removeIf(entry -> {
+            boolean shown = entry.contains(event.productId());
+            if (shown) {
+                evictions.increment();
+            }
+            return shown;
+        });
+    }
+
+    /**
+     * Drop a user's cached recommendations
+     */
+    public void invalidate(UUID userId) {
+        if (entries.remove(userId) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Drop everything
+     */
+    public void clear() {
+        evictions.increment(entries.size());
+        entries.clear();
+    }
+
+    /**
+     * Compute recommendations in the background for users active recently and not cached yet
+     * (interval configurable with recommendations.cache.warm-up-ms)
+     */
+    @Scheduled(initialDelayString = "${recommendations.cache.warm-up-initial-delay-ms:60000}",
+            fixedDelayString = "${recommendations.cache.warm-up-ms:300000}")
+    public void warmUp() {
+        try {
+            long started = System.currentTimeMillis();
+            Timestamp since = Timestamp.valueOf(LocalDateTime.now().minus(warmUpWindow));
+            List<UUID> users = jdbcTemplate.queryForList(RECENT_USERS_SQL, UUID.class, since, warmUpUsers);
+
+            RecommendationService service = recommendationService.getObject();
+            int warmed = 0;
+            for (UUID userId : users) {
+                for (int limit : warmUpLimits) {
+                    if (!isCached(userId, limit)) {
+                        service.getPersonalizedRecommendations(userId, limit);
+                        warmed++;
+                    }
+                }
+            }
+            if (warmed > 0) {
+                log.info("Recommendation cache warmed: {} results for {} recently active users in {} ms",
+                        warmed, users.size(), System.currentTimeMillis() - started);
+            }
+        } catch (Exception e) {
+            log.error("Recommendation cache warm-up failed: {}", e.getMessage(), e);
+        }
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    /**
+     * Cache statistics for the admin API
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", (long) hits.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRatio", getHitRatio());
+        stats.put("evictions", (long) evictions.count());
+        stats.put("meanRecomputeMs", recompute.mean(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    private boolean isCached(UUID userId, int limit) {
+        UserEntry entry = entries.get(userId);
+        return entry != null && entry.expiresAt > System.currentTimeMillis() && entry.results.containsKey(limit);
+    }
+
+    private void store(UUID userId, int limit, List<Product> value, List<List<?>> signature, long now,
+            long version, long productChangesBefore) {
+        if (!entries.containsKey(userId)) {
+            makeRoom();
+        }
+        entries.compute(userId, (id, current) -> {
+            // The user did something, or a product shown changed, while we were computing: serve the
+            // result but don't keep it
+            if (versions.get(stripe(id)) != version || productChangedSince(productChangesBefore, value)) {
+                return current;
+            }
+            // Results for another size are only kept if computed from the same preferences
+            if (current == null || current.expiresAt <= now || !current.signature.equals(signature)) {
+                return new UserEntry(signature, Map.of(limit, value), now + ttl.toMillis(), now);
+            }
+            Map<Integer, List<Product>> results = new HashMap<>(current.results);
+            results.put(limit, value);
+            return new UserEntry(signature, results, current.expiresAt, now);
+        });
+    }
+
+    private long productChangeCount() {
+        synchronized (productChanges) {
+            return productChangeCount;
+        }
+    }
+
+    // True if one of the products changed after the given count, or if changes that old were dropped
+    private boolean productChangedSince(long count, List<Product> products) {
+        synchronized (productChanges) {
+            if (productChangeCount == count) {
+                return false;
+            }
+            if (productChanges.isEmpty() || productChanges.peekFirst().count() > count + 1) {
+                return true;
+            }
+            Set<UUID> ids = new HashSet<>();
+            products.forEach(product -> ids.add(product.getId()));
+            for (Iterator<ProductChange> it = productChanges.descendingIterator(); it.hasNext();) {
+                ProductChange change = it.next();
+                if (change.count() <= count) {
+                    break;
+                }
+                if (ids.contains(change.productId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), VERSION_STRIPES);
+    }
+
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAt <= now);
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        // Evict the least recently used user
+        entries.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(e -> {
+                    entries.remove(e.getKey());
+                    evictions.increment();
+                });
+    }
+
+    private record ProductChange(long count, UUID productId) {
+    }
+
+    private static class UserEntry {
+        private final List<List<?>> signature;
+        private final Map<Integer, List<Product>> results;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        UserEntry(List<List<?>> signature, Map<Integer, List<Product>> results, long expiresAt, long lastAccess) {
+            this.signature = signature;
+            this.results = Map.copyOf(results);
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean contains(UUID productId) {
+            for (List<Product> products : results.values()) {
+                for (Product product : products) {
+                    if (productId.equals(product.getId())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
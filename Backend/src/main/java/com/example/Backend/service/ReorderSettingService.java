@@ -16,6 +16,7 @@ public interface ReorderSettingService {
     Optional<ReorderSetting> getByProductId(UUID productId);
     Page<ReorderSetting> getAllReorderSettings(Pageable pageable);
     List<ReorderSetting> getProductsBelowReorderPoint();
+    ReorderSetting applyForecast(UUID id);
     void deleteReorderSetting(UUID id);
     void checkAndTriggerAutoReorders();
 }
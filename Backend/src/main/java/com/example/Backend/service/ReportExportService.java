@@ -0,0 +1,346 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.Report;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams reports as CSV or XLSX.
+ *
+ * Summary figures come from the stored report data; detail rows (order lines, products, users)
+ * are read straight from the database with a server-side cursor and written one by one, so
+ * memory stays flat whatever the number of rows. XLSX uses POI's SXSSF writer, which keeps only
+ * a small window of rows in memory and flushes the rest to a temporary file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportExportService {
+
+    public static final String FORMAT_CSV = "CSV";
+    public static final String FORMAT_XLSX = "XLSX";
+
+    private static final int FETCH_SIZE = 2000;
+    private static final int XLSX_ROW_WINDOW = 200;
+    private static final int XLSX_MAX_ROWS_PER_SHEET = 1_000_000; // Excel limit is 1,048,576
+
+    private static final String SALES_LINES_SQL = "SELECT o.id, o.created_at, o.status, o.payment_status, "
+            + "o.user_id, p.id, p.name, oi.quantity, oi.price, oi.quantity * oi.price "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.id "
+            + "JOIN products p ON p.id = oi.product_id "
+            + "WHERE o.created_at BETWEEN ? AND ? ORDER BY o.created_at, o.id";
+
+    private static final String PRODUCTS_SQL = "SELECT p.id, p.name, c.name, b.name, p.model, p.stock, p.price, "
+            + "p.stock * p.price FROM products p "
+            + "LEFT JOIN categories c ON c.id = p.category_id "
+            + "LEFT JOIN brands b ON b.id = p.brand_id ORDER BY p.name";
+
+    private static final String USERS_SQL = "SELECT u.id, u.username, r.name, u.created_at, COUNT(o.id), "
+            + "COALESCE(SUM(o.total_price) FILTER (WHERE o.status <> 'CANCELLED'), 0) "
+            + "FROM users u JOIN roles r ON r.id = u.role_id "
+            + "LEFT JOIN orders o ON o.user_id = u.id "
+            + "WHERE u.created_at BETWEEN ? AND ? "
+            + "GROUP BY u.id, u.username, r.name, u.created_at ORDER BY u.created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Normalize and validate the requested format
+     */
+    public String resolveFormat(String format) {
+        String normalized = format == null ? FORMAT_CSV : format.trim().toUpperCase();
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_XLSX.equals(normalized)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (expected csv or xlsx)");
+        }
+        return normalized;
+    }
+
+    public String contentType(String format) {
+        return FORMAT_XLSX.equals(format)
+                ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                : "text/csv; charset=UTF-8";
+    }
+
+    public String fileName(Report report, String format) {
+        String date = report.getCreatedAt() != null ? report.getCreatedAt().toLocalDate().toString() : "report";
+        return report.getReportType().toLowerCase() + "-report-" + date + "." + format.toLowerCase();
+    }
+
+    /**
+     * Write the report to the output stream. CSV contains the detail rows when the report type
+     * has any, otherwise the summary; XLSX contains a Summary sheet followed by the details.
+     */
+    public void export(Report report, String format, OutputStream out) throws IOException {
+        DetailQuery details = detailQueryFor(report);
+        if (FORMAT_XLSX.equals(format)) {
+            writeXlsx(report, details, out);
+        } else {
+            writeCsv(report, details, out);
+        }
+    }
+
+    // ==================== CSV ====================
+
+    private void writeCsv(Report report, DetailQuery details, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM so that Excel opens UTF-8 files correctly
+        writer.write('\uFEFF');
+        if (details == null) {
+            writeCsvRow(writer, List.of("Metric", "Value"));
+            for (String[] entry : summaryRows(report)) {
+                writeCsvRow(writer, Arrays.asList(entry[0], entry[1]));
+            }
+        } else {
+            writeCsvRow(writer, List.of(details.headers()));
+            streamRows(details, values -> {
+                try {
+                    writeCsvRow(writer, values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        String text = value.toString();
+        // Spreadsheets evaluate cells starting with these characters as formulas
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    // ==================== XLSX ====================
+
+    private void writeXlsx(Report report, DetailQuery details, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle.setFont(bold);
+
+            SXSSFSheet summary = workbook.createSheet("Summary");
+            writeXlsxRow(summary.createRow(0), List.of("Metric", "Value"), headerStyle);
+            int rowIndex = 1;
+            for (String[] entry : summaryRows(report)) {
+                writeXlsxRow(summary.createRow(rowIndex++), Arrays.asList(entry[0], entry[1]), null);
+            }
+
+            if (details != null) {
+                XlsxDetailWriter detailWriter = new XlsxDetailWriter(workbook, details, headerStyle);
+                streamRows(details, detailWriter::write);
+            }
+
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.close(); // Also deletes the temporary files
+        }
+    }
+
+    private static void writeXlsxRow(Row row, List<?> values, CellStyle style) {
+        for (int i = 0; i < values.size(); i++) {
+            Cell cell = row.createCell(i);
+            Object value = values.get(i);
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value != null) {
+                cell.setCellValue(value.toString());
+            }
+            if (style != null) {
+                cell.setCellStyle(style);
+            }
+        }
+    }
+
+    /**
+     * Writes detail rows, starting a new sheet when one is full
+     */
+    private static final class XlsxDetailWriter {
+        private final SXSSFWorkbook workbook;
+        private final DetailQuery details;
+        private final CellStyle headerStyle;
+        private SXSSFSheet sheet;
+        private int sheetCount;
+        private int rowIndex;
+
+        private XlsxDetailWriter(SXSSFWorkbook workbook, DetailQuery details, CellStyle headerStyle) {
+            this.workbook = workbook;
+            this.details = details;
+            this.headerStyle = headerStyle;
+            newSheet();
+        }
+
+        private void write(List<Object> values) {
+            if (rowIndex > XLSX_MAX_ROWS_PER_SHEET) {
+                newSheet();
+            }
+            writeXlsxRow(sheet.createRow(rowIndex++), values, null);
+        }
+
+        private void newSheet() {
+            sheetCount++;
+            String name = sheetCount == 1 ? details.sheetName() : details.sheetName() + " " + sheetCount;
+            sheet = workbook.createSheet(name);
+            writeXlsxRow(sheet.createRow(0), List.of(details.headers()), headerStyle);
+            rowIndex = 1;
+        }
+    }
+
+    // ==================== DATA ====================
+
+    /**
+     * Detail rows available for a report, or null when it only has summary figures
+     */
+    private DetailQuery detailQueryFor(Report report) {
+        String type = report.getReportType() != null ? report.getReportType().toUpperCase() : "";
+        boolean hasPeriod = report.getPeriodStart() != null && report.getPeriodEnd() != null;
+        Object[] period = hasPeriod
+                ? new Object[] { Timestamp.valueOf(report.getPeriodStart()),
+                        Timestamp.valueOf(report.getPeriodEnd()) }
+                : null;
+
+        return switch (type) {
+            case Report.TYPE_SALES -> hasPeriod ? new DetailQuery("Order lines",
+                    new String[] { "Order ID", "Order Date", "Status", "Payment Status", "Customer ID",
+                            "Product ID", "Product", "Quantity", "Unit Price", "Line Total" },
+                    SALES_LINES_SQL, period) : null;
+            case Report.TYPE_INVENTORY -> new DetailQuery("Products",
+                    new String[] { "Product ID", "Name", "Category", "Brand", "Model", "Stock", "Price",
+                            "Stock Value" },
+                    PRODUCTS_SQL, new Object[0]);
+            case Report.TYPE_USERS -> hasPeriod ? new DetailQuery("Users",
+                    new String[] { "User ID", "Username", "Role", "Registered At", "Orders", "Total Spent" },
+                    USERS_SQL, period) : null;
+            default -> null;
+        };
+    }
+
+    private void streamRows(DetailQuery query, RowConsumer consumer) {
+        // A transaction is needed for the PostgreSQL driver to honour the fetch size (cursor mode)
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(query.sql());
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < query.args().length; i++) {
+                ps.setObject(i + 1, query.args()[i]);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(readRow(rs, query.headers().length))));
+    }
+
+    private static List<Object> readRow(ResultSet rs, int columns) throws SQLException {
+        List<Object> values = new ArrayList<>(columns);
+        for (int i = 1; i <= columns; i++) {
+            Object value = rs.getObject(i);
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime().toString();
+            } else if (value != null && !(value instanceof Number)) {
+                value = value.toString();
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Flatten the stored JSON data into (path, value) pairs, e.g. ordersByStatus.PENDING
+     */
+    private List<String[]> summaryRows(Report report) {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "Report", report.getTitle() });
+        if (report.getPeriodStart() != null && report.getPeriodEnd() != null) {
+            rows.add(new String[] { "Period start", report.getPeriodStart().toString() });
+            rows.add(new String[] { "Period end", report.getPeriodEnd().toString() });
+        }
+        rows.add(new String[] { "Generated at",
+                report.getCreatedAt() != null ? report.getCreatedAt().toString() : "" });
+        if (report.getData() == null || report.getData().isBlank()) {
+            return rows;
+        }
+        try {
+            flatten("", objectMapper.readTree(report.getData()), rows);
+        } catch (IOException e) {
+            log.warn("Report {} has unreadable data: {}", report.getId(), e.getMessage());
+        }
+        return rows;
+    }
+
+    private void flatten(String path, JsonNode node, List<String[]> rows) {
+        if (node.isObject()) {
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                flatten(path.isEmpty() ? field.getKey() : path + "." + field.getKey(), field.getValue(), rows);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.size(); i++) {
+                flatten(path + "[" + i + "]", node.get(i), rows);
+            }
+        } else {
+            rows.add(new String[] { path, node.isNull() ? "" : node.asText() });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(List<Object> values);
+    }
+
+    private record DetailQuery(String sheetName, String[] headers, String sql, Object[] args) {
+    }
+}
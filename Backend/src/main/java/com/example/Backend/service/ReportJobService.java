@@ -0,0 +1,267 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.ReportJobDTO;
+import com.example.Backend.entity.Report;
+import com.example.Backend.exception.ResourceNotFoundException;
+import com.example.Backend.repository.ReportRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous report generation.
+ *
+ * Submitting returns a job immediately; a bounded worker pool generates the report and the
+ * job exposes status and progress. Jobs with the same type, period and parameters are
+ * coalesced: while one is queued or running, or completed and still fresh, submitting again
+ * returns that job instead of computing the report twice, and the job is listed for everyone
+ * who requested it. Jobs live in memory only.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    // Finished jobs stay queryable this long
+    private static final Duration JOB_RETENTION = Duration.ofHours(6);
+
+    private final ReportService reportService;
+    private final ReportRepository reportRepository;
+    private final ThreadPoolExecutor workers;
+    private final Duration historicalTtl;
+    private final Duration liveTtl;
+
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    // Parameter key -> job currently serving it (queued, running or completed and fresh)
+    private final Map<String, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(
+            ReportService reportService,
+            ReportRepository reportRepository,
+            @Value("${reports.jobs.workers:2}") int workerCount,
+            @Value("${reports.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${reports.jobs.historical-ttl:PT24H}") Duration historicalTtl,
+            @Value("${reports.jobs.live-ttl:PT5M}") Duration liveTtl) {
+        this.reportService = reportService;
+        this.reportRepository = reportRepository;
+        this.historicalTtl = historicalTtl;
+        this.liveTtl = liveTtl;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "report-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Submit a report, or join an identical job that is pending or recently completed
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the queue is full
+     */
+    public ReportJobDTO submit(String reportType, LocalDateTime startDate, LocalDateTime endDate,
+            Map<String, Object> parameters, UUID submittedBy) {
+        if (reportType == null || reportType.isBlank()) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("A valid period is required (startDate <= endDate)");
+        }
+        String type = reportType.trim().toUpperCase();
+        String key = jobKey(type, startDate, endDate, parameters);
+
+        // A cached report that was deleted since can't be served anymore
+        ReportJob cached = jobsByKey.get(key);
+        if (cached != null && STATUS_COMPLETED.equals(cached.status)
+                && !reportRepository.existsById(cached.reportId)) {
+            jobsByKey.remove(key, cached);
+        }
+
+        // Only decide here: the remapping function may not have side effects
+        ReportJob[] created = new ReportJob[1];
+        ReportJob job = jobsByKey.compute(key, (k, existing) -> {
+            if (existing != null && existing.isReusable()) {
+                created[0] = null;
+                return existing;
+            }
+            created[0] = new ReportJob(k, type, startDate, endDate, parameters, submittedBy);
+            return created[0];
+        });
+
+        if (job != created[0]) {
+            job.addRequester(submittedBy);
+            return job.toDTO();
+        }
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            // Others may have joined it already, so it stays visible as failed
+            job.error = "Report queue is full";
+            job.status = STATUS_FAILED;
+            job.completedAt = LocalDateTime.now();
+            jobsByKey.remove(key, job);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Get job status and progress
+     */
+    public ReportJobDTO getJob(UUID jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job not found: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Get jobs, most recent first: those submitted or joined by the given user, or all jobs when
+     * submittedBy is null
+     */
+    public List<ReportJobDTO> getJobs(UUID submittedBy) {
+        return jobs.values().stream()
+                .filter(job -> submittedBy == null || job.requesters.contains(submittedBy))
+                .sorted(Comparator.comparing((ReportJob job) -> job.submittedAt).reversed())
+                .map(ReportJob::toDTO)
+                .toList();
+    }
+
+    /**
+     * Forget finished jobs past retention and completed results past their TTL
+     */
+    @Scheduled(fixedDelay = 600000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        jobsByKey.values().removeIf(job -> !job.isReusable());
+        jobs.values().removeIf(job -> job.completedAt != null
+                && job.completedAt.plus(JOB_RETENTION).isBefore(now));
+    }
+
+    private void run(ReportJob job) {
+        job.status = STATUS_RUNNING;
+        job.startedAt = LocalDateTime.now();
+        job.progress = 5;
+        try {
+            Report report = reportService.generateReport(job.reportType, job.startDate, job.endDate,
+                    job.parameters, job.submittedBy, percent -> job.progress = percent);
+            job.reportId = report.getId();
+            job.progress = 100;
+            // Reports on closed periods won't change; others are reused only briefly
+            Duration ttl = job.endDate.isBefore(LocalDateTime.now()) ? historicalTtl : liveTtl;
+            job.expiresAt = LocalDateTime.now().plus(ttl);
+            job.status = STATUS_COMPLETED;
+            log.info("Report job {} ({}) completed in {} ms", job.id, job.reportType,
+                    Duration.between(job.startedAt, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = STATUS_FAILED;
+            jobsByKey.remove(job.key, job);
+            log.error("Report job {} ({}) failed: {}", job.id, job.reportType, e.getMessage(), e);
+        } finally {
+            job.completedAt = LocalDateTime.now();
+        }
+    }
+
+    private static String jobKey(String type, LocalDateTime startDate, LocalDateTime endDate,
+            Map<String, Object> parameters) {
+        // TreeMap gives a stable parameter order
+        String params = parameters == null || parameters.isEmpty() ? "" : new TreeMap<>(parameters).toString();
+        return type + "|" + startDate + "|" + endDate + "|" + params;
+    }
+
+    private static final class ReportJob {
+        private final UUID id = UUID.randomUUID();
+        private final String key;
+        private final String reportType;
+        private final LocalDateTime startDate;
+        private final LocalDateTime endDate;
+        private final Map<String, Object> parameters;
+        private final UUID submittedBy;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        // The first submitter and everyone whose submission was coalesced into this job
+        private final Set<UUID> requesters = ConcurrentHashMap.newKeySet();
+
+        private volatile String status = STATUS_QUEUED;
+        private volatile int progress;
+        private volatile UUID reportId;
+        private volatile String error;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        private volatile LocalDateTime expiresAt;
+
+        private ReportJob(String key, String reportType, LocalDateTime startDate, LocalDateTime endDate,
+                Map<String, Object> parameters, UUID submittedBy) {
+            this.key = key;
+            this.reportType = reportType;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.parameters = parameters;
+            this.submittedBy = submittedBy;
+            addRequester(submittedBy);
+        }
+
+        private void addRequester(UUID userId) {
+            if (userId != null) {
+                requesters.add(userId);
+            }
+        }
+
+        private boolean isReusable() {
+            return switch (status) {
+                case STATUS_QUEUED, STATUS_RUNNING -> true;
+                case STATUS_COMPLETED -> expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+                default -> false;
+            };
+        }
+
+        private ReportJobDTO toDTO() {
+            return ReportJobDTO.builder()
+                    .jobId(id)
+                    .reportType(reportType)
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .status(status)
+                    .progress(progress)
+                    .reportId(reportId)
+                    .error(error)
+                    .submittedBy(submittedBy)
+                    .requestedBy(Set.copyOf(requesters))
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.Report;
+import com.example.Backend.repository.ReportRepository;
+import com.example.Backend.util.GzipTextConverter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves report payloads saved as plain TEXT into the compressed payload column, in small
+ * batches after startup. Reports stay readable throughout: Report.getData() falls back to
+ * the legacy column until a row has been moved.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportPayloadMigrator {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final ReportRepository reportRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        try {
+            migrate();
+        } catch (Exception e) {
+            log.warn("Report payload migration stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compress all remaining legacy payloads
+     *
+     * @return number of reports migrated
+     */
+    public int migrate() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+        long plainBytes = 0;
+        long compressedBytes = 0;
+
+        while (true) {
+            long[] sizes = new long[2];
+            Integer count = transaction.execute(status -> {
+                List<UUID> ids = reportRepository.findIdsWithLegacyData(PageRequest.of(0, BATCH_SIZE));
+                for (Report report : reportRepository.findAllById(ids)) {
+                    // getData() prefers an existing payload and falls back to the legacy text
+                    String json = report.getData();
+                    report.setData(json);
+                    report.setLegacyData(null);
+                    sizes[0] += json.getBytes(StandardCharsets.UTF_8).length;
+                    sizes[1] += GzipTextConverter.compress(json).length;
+                }
+                return ids.size();
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+            migrated += count;
+            plainBytes += sizes[0];
+            compressedBytes += sizes[1];
+        }
+
+        if (migrated > 0) {
+            log.info("Compressed {} report payloads: {} KB -> {} KB", migrated,
+                    plainBytes / 1024, compressedBytes / 1024);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.ReportScheduleDTO;
+import com.example.Backend.entity.AdminNotificationType;
+import com.example.Backend.entity.Report;
+import com.example.Backend.entity.ReportSchedule;
+import com.example.Backend.exception.ResourceNotFoundException;
+import com.example.Backend.exception.ValidationException;
+import com.example.Backend.repository.ReportRepository;
+import com.example.Backend.repository.ReportScheduleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Recurring reports.
+ *
+ * Every node polls for due schedules, but a schedule only runs on the node that takes its
+ * lease (an atomic UPDATE on the schedule row), so running several instances doesn't
+ * generate reports twice. A node that dies mid-run loses the lease when it expires. Each
+ * schedule starts at a stable offset after its cron time, so definitions sharing the same
+ * cron don't all hit the database at once. For built-in report types, which take no
+ * parameters, a closed period that already has a report of the same type (from another
+ * schedule, a retry or a manual run) reuses it instead of generating it again. Rolling
+ * periods such as month to date are regenerated in full: past days' orders still change
+ * payment status and status, so an earlier run's totals can't be extended with new days.
+ */
+@Service
+@Slf4j
+public class ReportScheduleService {
+
+    private static final Set<String> PERIOD_TYPES = Set.of(ReportSchedule.PERIOD_PREVIOUS_DAY,
+            ReportSchedule.PERIOD_PREVIOUS_WEEK, ReportSchedule.PERIOD_PREVIOUS_MONTH,
+            ReportSchedule.PERIOD_MONTH_TO_DATE);
+
+    // Built-in reports ignore parameters, so any report of the same type and period is the same
+    // report. Other types are built from their parameters, which reports don't record.
+    private static final Set<String> REUSABLE_TYPES = Set.of(Report.TYPE_SALES, Report.TYPE_INVENTORY,
+            Report.TYPE_USERS, "PRODUCTS");
+
+    private final ReportScheduleRepository scheduleRepository;
+    private final ReportRepository reportRepository;
+    private final ReportService reportService;
+    private final AdminNotificationService notificationService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final Duration lease;
+    private final Duration maxJitter;
+    private final String nodeId;
+
+    public ReportScheduleService(
+            ReportScheduleRepository scheduleRepository,
+            ReportRepository reportRepository,
+            ReportService reportService,
+            AdminNotificationService notificationService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${reports.schedules.lease:PT30M}") Duration lease,
+            @Value("${reports.schedules.max-jitter:PT10M}") Duration maxJitter) {
+        this.scheduleRepository = scheduleRepository;
+        this.reportRepository = reportRepository;
+        this.reportService = reportService;
+        this.notificationService = notificationService;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.lease = lease;
+        this.maxJitter = maxJitter;
+        // pid@host, plus a random suffix in case two containers share both
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "#"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Get all schedules
+     */
+    @Transactional(readOnly = true)
+    public List<ReportSchedule> getSchedules() {
+        return scheduleRepository.findAllByOrderByNameAsc();
+    }
+
+    /**
+     * Get schedule by ID
+     */
+    @Transactional(readOnly = true)
+    public ReportSchedule getSchedule(UUID id) {
+        return scheduleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Report schedule not found: " + id));
+    }
+
+    /**
+     * Create a schedule; its first run is the next cron time
+     */
+    @Transactional
+    public ReportSchedule createSchedule(ReportScheduleDTO dto, UUID createdBy) {
+        ReportSchedule schedule = new ReportSchedule();
+        schedule.setCreatedBy(createdBy);
+        apply(schedule, dto);
+        schedule = scheduleRepository.save(schedule);
+        // The jitter depends on the generated id
+        planNextRun(schedule, LocalDateTime.now());
+        return schedule;
+    }
+
+    /**
+     * Update a schedule and recompute its next run
+     */
+    @Transactional
+    public ReportSchedule updateSchedule(UUID id, ReportScheduleDTO dto) {
+        ReportSchedule schedule = getSchedule(id);
+        apply(schedule, dto);
+        planNextRun(schedule, LocalDateTime.now());
+        return scheduleRepository.save(schedule);
+    }
+
+    /**
+     * Delete a schedule (reports it produced are kept)
+     */
+    @Transactional
+    public void deleteSchedule(UUID id) {
+        scheduleRepository.delete(getSchedule(id));
+    }
+
+    /**
+     * Make a schedule due now, for the period ending now; the next poll picks it up.
+     * Disabled schedules are never polled, so they are rejected.
+     */
+    @Transactional
+    public ReportSchedule runNow(UUID id) {
+        ReportSchedule schedule = getSchedule(id);
+        if (!Boolean.TRUE.equals(schedule.getEnabled())) {
+            throw new ValidationException("Report schedule is disabled: " + id);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        schedule.setScheduledAt(now);
+        schedule.setNextRunAt(now);
+        return scheduleRepository.save(schedule);
+    }
+
+    /**
+     * Run the schedules that are due, one at a time, on whichever node leases them
+     */
+    @Scheduled(fixedDelayString = "${reports.schedules.poll-ms:60000}",
+            initialDelayString = "${reports.schedules.poll-ms:60000}")
+    public void runDueSchedules() {
+        List<UUID> due = scheduleRepository.findDueScheduleIds(LocalDateTime.now());
+        for (UUID id : due) {
+            if (tryLock(id)) {
+                run(id);
+            }
+        }
+    }
+
+    private boolean tryLock(UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transaction.execute(
+                status -> scheduleRepository.tryLock(id, nodeId, now, now.plus(lease)));
+        return updated != null && updated == 1;
+    }
+
+    private void run(UUID id) {
+        ReportSchedule schedule = scheduleRepository.findById(id).orElse(null);
+        if (schedule == null) {
+            return;
+        }
+        LocalDateTime anchor = schedule.getScheduledAt() != null ? schedule.getScheduledAt() : LocalDateTime.now();
+        LocalDateTime[] period = period(schedule.getPeriodType(), anchor);
+        String periodLabel = period[0].toLocalDate() + " - " + period[1].minusNanos(1).toLocalDate();
+
+        UUID reportId = null;
+        String error = null;
+        try {
+            reportId = findReusableReport(schedule.getReportType(), period);
+            if (reportId != null) {
+                log.info("Report schedule '{}' reuses report {} for {}", schedule.getName(), reportId, periodLabel);
+            } else {
+                Report report = reportService.generateReport(schedule.getReportType(), period[0], period[1],
+                        readParameters(schedule.getParameters()), schedule.getCreatedBy(), percent -> {
+                        });
+                reportId = report.getId();
+                log.info("Report schedule '{}' generated report {} for {}", schedule.getName(), reportId, periodLabel);
+            }
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            log.error("Report schedule '{}' failed: {}", schedule.getName(), error, e);
+        }
+
+        if (!complete(id, reportId, error)) {
+            // Our lease expired and another node took over; it will notify
+            return;
+        }
+        try {
+            if (error == null) {
+                notificationService.notifyReportReady(reportId.toString(), schedule.getName(), periodLabel);
+            } else {
+                notificationService.createNotification(AdminNotificationType.SYSTEM_ALERT,
+                        "Échec du rapport planifié",
+                        String.format("Le rapport \"%s\" (%s) n'a pas pu être généré : %s",
+                                schedule.getName(), periodLabel, error),
+                        id.toString(), "/admin/reports");
+            }
+        } catch (Exception e) {
+            log.warn("Could not notify admins about report schedule '{}': {}", schedule.getName(), e.getMessage());
+        }
+    }
+
+    // Records the outcome, plans the next run and releases the lease, if we still hold it
+    private boolean complete(UUID id, UUID reportId, String error) {
+        Boolean completed = transaction.execute(status -> {
+            ReportSchedule schedule = scheduleRepository.findById(id).orElse(null);
+            if (schedule == null || !nodeId.equals(schedule.getLockedBy())) {
+                log.warn("Lost the lease on report schedule {} before completing it", id);
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            schedule.setLastRunAt(now);
+            if (reportId != null) {
+                schedule.setLastReportId(reportId);
+            }
+            schedule.setLastError(error);
+            schedule.setLockedBy(null);
+            schedule.setLockedUntil(null);
+            // Missed runs (e.g. while the application was down) collapse into the next one
+            planNextRun(schedule, now);
+            scheduleRepository.save(schedule);
+            return true;
+        });
+        return Boolean.TRUE.equals(completed);
+    }
+
+    private UUID findReusableReport(String reportType, LocalDateTime[] period) {
+        if (!REUSABLE_TYPES.contains(reportType.toUpperCase())) {
+            return null;
+        }
+        if (period[1].isAfter(LocalDateTime.now())) {
+            // Open period, the data is still changing
+            return null;
+        }
+        List<UUID> ids = reportRepository.findIdsByTypeAndPeriod(reportType.toUpperCase(), period[0], period[1],
+                PageRequest.of(0, 1));
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    private void apply(ReportSchedule schedule, ReportScheduleDTO dto) {
+        String periodType = dto.getPeriodType() == null || dto.getPeriodType().isBlank()
+                ? ReportSchedule.PERIOD_PREVIOUS_DAY
+                : dto.getPeriodType().trim().toUpperCase();
+        if (!PERIOD_TYPES.contains(periodType)) {
+            throw new ValidationException("Unsupported period type: " + dto.getPeriodType()
+                    + " (supported: " + PERIOD_TYPES + ")");
+        }
+        if (!CronExpression.isValidExpression(dto.getCronExpression())) {
+            throw new ValidationException("Invalid cron expression: " + dto.getCronExpression());
+        }
+        schedule.setName(dto.getName());
+        schedule.setReportType(dto.getReportType().trim().toUpperCase());
+        schedule.setCronExpression(dto.getCronExpression().trim());
+        schedule.setPeriodType(periodType);
+        schedule.setParameters(writeParameters(dto.getParameters()));
+        if (dto.getEnabled() != null) {
+            schedule.setEnabled(dto.getEnabled());
+        }
+    }
+
+    private void planNextRun(ReportSchedule schedule, LocalDateTime after) {
+        LocalDateTime next = CronExpression.parse(schedule.getCronExpression()).next(after);
+        schedule.setScheduledAt(next);
+        schedule.setNextRunAt(next == null ? null : next.plusSeconds(jitterSeconds(schedule.getId())));
+    }
+
+    // Stable per schedule, so a schedule always starts at the same offset after its cron time
+    private long jitterSeconds(UUID scheduleId) {
+        long max = maxJitter.toSeconds();
+        return scheduleId == null || max <= 0 ? 0 : Math.floorMod(scheduleId.hashCode(), max);
+    }
+
+    /**
+     * Report period [start, end) for a schedule fired at the given time
+     */
+    static LocalDateTime[] period(String periodType, LocalDateTime anchor) {
+        LocalDate day = anchor.toLocalDate();
+        return switch (periodType) {
+            case ReportSchedule.PERIOD_PREVIOUS_WEEK -> {
+                LocalDate monday = day.with(DayOfWeek.MONDAY);
+                yield new LocalDateTime[] { monday.minusWeeks(1).atStartOfDay(), monday.atStartOfDay() };
+            }
+            case ReportSchedule.PERIOD_PREVIOUS_MONTH -> {
+                LocalDate first = day.withDayOfMonth(1);
+                yield new LocalDateTime[] { first.minusMonths(1).atStartOfDay(), first.atStartOfDay() };
+            }
+            case ReportSchedule.PERIOD_MONTH_TO_DATE ->
+                    new LocalDateTime[] { day.withDayOfMonth(1).atStartOfDay(), anchor };
+            default -> new LocalDateTime[] { day.minusDays(1).atStartOfDay(), day.atStartOfDay() };
+        };
+    }
+
+    private String writeParameters(Map<String, Object> parameters) {
+        if (parameters == null || parameters.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Invalid report parameters");
+        }
+    }
+
+    private Map<String, Object> readParameters(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable report schedule parameters: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.service;
 
+import com.example.Backend.dto.ReportSummaryDTO;
 import com.example.Backend.entity.Report;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.IntConsumer;
 
 public interface ReportService {
 
@@ -50,6 +52,20 @@ public interface ReportService {
     Report generateCustomReport(String reportType, LocalDateTime startDate,
             LocalDateTime endDate, Map<String, Object> parameters);
 
+    /**
+     * Generate and save a report of any type, reporting progress (0-100) as steps complete
+     * 
+     * @param reportType  SALES, INVENTORY, USERS or a custom type
+     * @param startDate   Start date
+     * @param endDate     End date
+     * @param parameters  Additional parameters (custom reports)
+     * @param generatedBy Admin requesting the report (may be null)
+     * @param progress    Progress callback
+     * @return Generated report
+     */
+    Report generateReport(String reportType, LocalDateTime startDate, LocalDateTime endDate,
+            Map<String, Object> parameters, UUID generatedBy, IntConsumer progress);
+
     /**
      * Get report by ID
      * 
@@ -59,38 +75,38 @@ public interface ReportService {
     Report getReportById(UUID reportId);
 
     /**
-     * Get all reports
+     * Get all reports (metadata only)
      * 
      * @param pageable Pagination parameters
-     * @return Page of reports
+     * @return Page of report summaries
      */
-    Page<Report> getAllReports(Pageable pageable);
+    Page<ReportSummaryDTO> getAllReports(Pageable pageable);
 
     /**
-     * Get reports by type
+     * Get reports by type (metadata only)
      * 
      * @param reportType Report type
      * @param pageable   Pagination parameters
-     * @return Page of reports
+     * @return Page of report summaries
      */
-    Page<Report> getReportsByType(String reportType, Pageable pageable);
+    Page<ReportSummaryDTO> getReportsByType(String reportType, Pageable pageable);
 
     /**
-     * Get reports created by admin
+     * Get reports created by admin (metadata only)
      * 
      * @param adminId  Admin ID
      * @param pageable Pagination parameters
-     * @return Page of reports
+     * @return Page of report summaries
      */
-    Page<Report> getReportsByCreator(UUID adminId, Pageable pageable);
+    Page<ReportSummaryDTO> getReportsByCreator(UUID adminId, Pageable pageable);
 
     /**
-     * Get recent reports
+     * Get recent reports (metadata only)
      * 
      * @param limit Number of reports
-     * @return List of recent reports
+     * @return List of recent report summaries
      */
-    List<Report> getRecentReports(int limit);
+    List<ReportSummaryDTO> getRecentReports(int limit);
 
     /**
      * Delete report
@@ -0,0 +1,321 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.util.SpaceSavingSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Popular and zero-result product searches.
+ *
+ * Queries are normalized (case, accents, punctuation and spacing) so variants count as one,
+ * and counted per day in fixed-size Space-Saving sketches: one for all searches, one for
+ * searches that found nothing. Counts are approximate but exact for frequent queries, which
+ * are the ones merchandising looks at. Days are kept in memory and periodically saved to
+ * search_term_daily, which is reloaded on startup.
+ *
+ * Counts are per instance: each instance counts the searches it serves, and saving a day
+ * replaces the saved counts of its terms, so with several instances search_term_daily holds
+ * whichever instance saved a term last rather than the sum.
+ *
+ * Recent popularity also feeds search ranking: among the products matching a query, those
+ * matching popular queries that refine it (e.g. "brake pads" for "brake") come first.
+ */
+@Service
+@Slf4j
+public class SearchAnalyticsService {
+
+    private static final int MAX_TERM_LENGTH = 100;
+    private static final int MAX_RESULTS = 1000;
+    private static final long POPULAR_REFRESH_MS = 60_000;
+    private static final int MAX_RELATED_TERMS = 20;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final String LOAD_SQL = "SELECT term, search_date, search_count, zero_result_count "
+            + "FROM search_term_daily WHERE search_date >= ?";
+
+    private static final String UPSERT_SQL = "INSERT INTO search_term_daily (id, term, search_date, search_count, "
+            + "zero_result_count) VALUES (?, ?, ?, ?, ?) ON CONFLICT (term, search_date) DO UPDATE SET "
+            + "search_count = EXCLUDED.search_count, zero_result_count = EXCLUDED.zero_result_count";
+
+    private static final String PRUNE_SQL = "DELETE FROM search_term_daily WHERE search_date < ?";
+
+    private final Map<LocalDate, DayCounts> days = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int capacity;
+    private final int retentionDays;
+    private final int rankingDays;
+    private final int rankingTerms;
+    private final Counter foundSearches;
+    private final Counter zeroResultSearches;
+
+    private volatile PopularTerms popular = new PopularTerms(0, List.of());
+
+    public SearchAnalyticsService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${search.analytics.capacity:1000}") int capacity,
+            @Value("${search.analytics.days:90}") int retentionDays,
+            @Value("${search.analytics.ranking-days:7}") int rankingDays,
+            @Value("${search.analytics.ranking-terms:200}") int rankingTerms) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.retentionDays = retentionDays;
+        this.rankingDays = rankingDays;
+        this.rankingTerms = rankingTerms;
+        this.foundSearches = Counter.builder("search.queries").tag("result", "found")
+                .description("Product searches by outcome").register(meterRegistry);
+        this.zeroResultSearches = Counter.builder("search.queries").tag("result", "zero")
+                .description("Product searches by outcome").register(meterRegistry);
+    }
+
+    /**
+     * Reload the saved daily counts. A day is saved with the top terms of both sketches, up to
+     * twice the capacity, so each sketch gets back only its own top terms: adding more would
+     * evict some and inflate the counts of others on every restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            Date since = Date.valueOf(LocalDate.now().minusDays(retentionDays - 1L));
+            Map<LocalDate, List<SavedTerm>> saved = new HashMap<>();
+            jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> saved
+                    .computeIfAbsent(rs.getDate(2).toLocalDate(), d -> new ArrayList<>())
+                    .add(new SavedTerm(rs.getString(1), rs.getLong(3), rs.getLong(4))), since);
+            int rows = 0;
+            for (Map.Entry<LocalDate, List<SavedTerm>> entry : saved.entrySet()) {
+                DayCounts day = days.computeIfAbsent(entry.getKey(), d -> new DayCounts(capacity));
+                synchronized (day) {
+                    restore(day.searches, entry.getValue(), SavedTerm::searches);
+                    restore(day.zeroResults, entry.getValue(), SavedTerm::zeroResults);
+                }
+                rows += entry.getValue().size();
+            }
+            log.info("Search analytics restored: {} terms over {} days", rows, saved.size());
+        } catch (Exception e) {
+            log.error("Failed to restore search analytics: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Count a product search and whether it found anything
+     */
+    public void recordSearch(String query, long results) {
+        String term = normalize(query);
+        if (term == null) {
+            return;
+        }
+        DayCounts day = days.computeIfAbsent(LocalDate.now(), d -> new DayCounts(capacity));
+        synchronized (day) {
+            day.searches.add(term, 1);
+            if (results == 0) {
+                day.zeroResults.add(term, 1);
+            }
+            day.dirty = true;
+        }
+        (results == 0 ? zeroResultSearches : foundSearches).increment();
+    }
+
+    /**
+     * Most searched queries over the last days, most frequent first
+     */
+    public List<AnalyticsDTO.SearchTermStats> getPopularQueries(int days, int limit) {
+        return top(days, limit, false);
+    }
+
+    /**
+     * Most searched queries that found no product over the last days, most frequent first
+     */
+    public List<AnalyticsDTO.SearchTermStats> getZeroResultQueries(int days, int limit) {
+        return top(days, limit, true);
+    }
+
+    /**
+     * The most searched popular queries that refine a query (at most 20), with their recent
+     * searches: those containing every word of the query, as their normalized words. Empty if
+     * none does.
+     */
+    public Map<Set<String>, Long> relatedTerms(String query) {
+        String term = normalize(query);
+        if (term == null) {
+            return Map.of();
+        }
+        Set<String> queryWords = words(term);
+        Map<Set<String>, Long> related = new LinkedHashMap<>();
+        for (PopularTerm popularTerm : popularTerms()) {
+            if (related.size() == MAX_RELATED_TERMS) {
+                break;
+            }
+            if (popularTerm.words().containsAll(queryWords)) {
+                related.merge(popularTerm.words(), popularTerm.searches(), Long::sum);
+            }
+        }
+        return related;
+    }
+
+    /**
+     * Save the counts of days changed since the last save and drop days past retention
+     * (interval configurable with search.analytics.flush-ms)
+     */
+    @Scheduled(initialDelayString = "${search.analytics.flush-ms:300000}",
+            fixedDelayString = "${search.analytics.flush-ms:300000}")
+    public void flush() {
+        try {
+            LocalDate oldest = LocalDate.now().minusDays(retentionDays - 1L);
+            days.keySet().removeIf(day -> day.isBefore(oldest));
+
+            List<Object[]> rows = new ArrayList<>();
+            for (Map.Entry<LocalDate, DayCounts> entry : days.entrySet()) {
+                DayCounts day = entry.getValue();
+                synchronized (day) {
+                    if (!day.dirty) {
+                        continue;
+                    }
+                    Date date = Date.valueOf(entry.getKey());
+                    Set<String> terms = new LinkedHashSet<>();
+                    day.searches.top(capacity).forEach(e -> terms.add(e.key()));
+                    day.zeroResults.top(capacity).forEach(e -> terms.add(e.key()));
+                    for (String term : terms) {
+                        long zero = day.zeroResults.estimate(term);
+                        rows.add(new Object[] { UUID.randomUUID(), term, date,
+                                Math.max(day.searches.estimate(term), zero), zero });
+                    }
+                    day.dirty = false;
+                }
+            }
+
+            transaction.executeWithoutResult(status -> {
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+                }
+                jdbcTemplate.update(PRUNE_SQL, Date.valueOf(oldest));
+            });
+            log.debug("Search analytics saved: {} terms", rows.size());
+        } catch (Exception e) {
+            log.error("Failed to save search analytics: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lower case, without accents, punctuation or repeated spaces, at most 100 characters;
+     * null if nothing is left
+     */
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        String text = Normalizer.normalize(query, Normalizer.Form.NFKD);
+        text = ACCENTS.matcher(text).replaceAll("").toLowerCase(Locale.ROOT);
+        text = SEPARATORS.matcher(text).replaceAll(" ").trim();
+        if (text.length() > MAX_TERM_LENGTH) {
+            text = text.substring(0, MAX_TERM_LENGTH).trim();
+        }
+        return text.isEmpty() ? null : text;
+    }
+
+    private void restore(SpaceSavingSketch sketch, List<SavedTerm> terms, ToLongFunction<SavedTerm> count) {
+        terms.stream()
+                .filter(term -> count.applyAsLong(term) > 0)
+                .sorted(Comparator.comparingLong(count).reversed())
+                .limit(capacity)
+                .forEach(term -> sketch.add(term.term(), count.applyAsLong(term)));
+    }
+
+    private static Set<String> words(String normalized) {
+        return new HashSet<>(Arrays.asList(normalized.split(" ")));
+    }
+
+    private List<AnalyticsDTO.SearchTermStats> top(int dayCount, int limit, boolean zeroResultsOnly) {
+        if (dayCount <= 0 || dayCount > retentionDays) {
+            throw new IllegalArgumentException("days must be between 1 and " + retentionDays);
+        }
+        if (limit <= 0 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_RESULTS);
+        }
+        // Term -> { estimated searches, possible overestimate }
+        Map<String, long[]> totals = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        for (int d = 0; d < dayCount; d++) {
+            DayCounts day = days.get(today.minusDays(d));
+            if (day == null) {
+                continue;
+            }
+            synchronized (day) {
+                SpaceSavingSketch sketch = zeroResultsOnly ? day.zeroResults : day.searches;
+                for (SpaceSavingSketch.Entry entry : sketch.top(capacity)) {
+                    long[] total = totals.computeIfAbsent(entry.key(), k -> new long[2]);
+                    total[0] += entry.count();
+                    total[1] += entry.error();
+                }
+            }
+        }
+        return totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(e -> AnalyticsDTO.SearchTermStats.builder()
+                        .term(e.getKey())
+                        .searches(e.getValue()[0])
+                        .maxOverestimate(e.getValue()[1])
+                        .build())
+                .toList();
+    }
+
+    // Popular queries of the ranking period, recomputed at most once a minute
+    private List<PopularTerm> popularTerms() {
+        PopularTerms current = popular;
+        long now = System.currentTimeMillis();
+        if (now - current.computedAt() < POPULAR_REFRESH_MS) {
+            return current.terms();
+        }
+        List<PopularTerm> terms = top(Math.min(rankingDays, retentionDays), rankingTerms, false).stream()
+                .map(stats -> new PopularTerm(words(stats.getTerm()), stats.getSearches()))
+                .toList();
+        popular = new PopularTerms(now, terms);
+        return terms;
+    }
+
+    private record PopularTerm(Set<String> words, long searches) {
+    }
+
+    private record SavedTerm(String term, long searches, long zeroResults) {
+    }
+
+    private record PopularTerms(long computedAt, List<PopularTerm> terms) {
+    }
+
+    private static class DayCounts {
+        private final SpaceSavingSketch searches;
+        private final SpaceSavingSketch zeroResults;
+        private boolean dirty;
+
+        DayCounts(int capacity) {
+            this.searches = new SpaceSavingSketch(capacity);
+            this.zeroResults = new SpaceSavingSketch(capacity);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.StockSnapshotDTO;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.StockMovement;
+import com.example.Backend.entity.StockSnapshot;
+import com.example.Backend.exception.ResourceNotFoundException;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.StockMovementRepository;
+import com.example.Backend.repository.StockSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * End-of-day stock snapshots.
+ *
+ * Every night the stock of each product at the end of the previous day is written to
+ * stock_snapshots, catching up on any days missed while the application was down. A day is
+ * derived from the previous day's snapshot and that day's movements only, so the job never
+ * rescans the ledger. Stock at an arbitrary time starts from the nearest earlier snapshot
+ * and looks at the movements since; month-end valuation reads one snapshot day. This relies
+ * on every stock change being recorded as a movement, admin edits included (as adjustments).
+ */
+@Service
+@Slf4j
+public class StockSnapshotService {
+
+    // Lower bound for the very first snapshot, which has no previous day to start from
+    private static final LocalDateTime LEDGER_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Stock at the end of the day: last movement of the day, else the previous snapshot, else the
+    // stock before the first later movement, else current stock. Products created later are skipped.
+    private static final String SNAPSHOT_DAY_SQL = "INSERT INTO stock_snapshots (id, product_id, snapshot_date, "
+            + "stock_quantity, unit_price, stock_value, created_at) "
+            + "SELECT gen_random_uuid(), p.id, ?, q.stock, p.price, q.stock * p.price, ? FROM products p "
+            + "CROSS JOIN LATERAL (SELECT COALESCE("
+            + "(SELECT sm.new_stock FROM stock_movements sm WHERE sm.product_id = p.id "
+            + "AND sm.movement_date >= ? AND sm.movement_date < ? ORDER BY sm.movement_date DESC LIMIT 1), "
+            + "(SELECT ss.stock_quantity FROM stock_snapshots ss WHERE ss.product_id = p.id "
+            + "AND ss.snapshot_date = ?), "
+            + "(SELECT sm.previous_stock FROM stock_movements sm WHERE sm.product_id = p.id "
+            + "AND sm.movement_date >= ? ORDER BY sm.movement_date LIMIT 1), "
+            + "p.stock) AS stock) q "
+            + "WHERE p.created_at IS NULL OR p.created_at < ? "
+            + "ON CONFLICT (product_id, snapshot_date) DO NOTHING";
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int dailyRetentionDays;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "stock-snapshot-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockSnapshotService(
+            StockSnapshotRepository stockSnapshotRepository,
+            StockMovementRepository stockMovementRepository,
+            ProductRepository productRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${inventory.snapshots.daily-retention-days:90}") int dailyRetentionDays) {
+        this.stockSnapshotRepository = stockSnapshotRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.dailyRetentionDays = dailyRetentionDays;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Nightly snapshot of the previous day (cron configurable with inventory.snapshots.cron)
+     */
+    @Scheduled(cron = "${inventory.snapshots.cron:0 10 0 * * *}")
+    public void runNightly() {
+        if (!takeSnapshots()) {
+            log.info("Stock snapshot job already running, nightly trigger skipped");
+        }
+    }
+
+    /**
+     * Start an on-demand snapshot catch-up in the background
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean triggerSnapshots() {
+        if (running.get()) {
+            return false;
+        }
+        jobExecutor.submit(this::takeSnapshots);
+        return true;
+    }
+
+    /**
+     * Snapshot every completed day since the last snapshot, then prune old daily snapshots
+     *
+     * @return false if another run was already in progress or the run failed
+     */
+    public boolean takeSnapshots() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            LocalDate latest = stockSnapshotRepository.findLatestSnapshotDate();
+            LocalDate day = latest != null ? latest.plusDays(1) : yesterday;
+
+            for (; !day.isAfter(yesterday); day = day.plusDays(1)) {
+                long started = System.currentTimeMillis();
+                int rows = snapshotDay(day, latest != null);
+                log.info("Stock snapshot for {} written: {} products in {} ms",
+                        day, rows, System.currentTimeMillis() - started);
+                latest = day;
+            }
+
+            LocalDate cutoff = LocalDate.now().minusDays(dailyRetentionDays);
+            List<LocalDate> prunable = prunableDays(stockSnapshotRepository.findSnapshotDatesBefore(cutoff), cutoff);
+            if (!prunable.isEmpty()) {
+                Integer pruned = transaction.execute(status -> stockSnapshotRepository.deleteBySnapshotDates(prunable));
+                log.info("Pruned {} daily stock snapshots over {} days before {}", pruned, prunable.size(), cutoff);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("Stock snapshot job failed: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Days whose snapshots can go: before the cutoff and not the last day of a month, which
+     * month-end valuation keeps reading
+     */
+    static List<LocalDate> prunableDays(List<LocalDate> days, LocalDate cutoff) {
+        return days.stream()
+                .filter(day -> day.isBefore(cutoff) && day.getDayOfMonth() != day.lengthOfMonth())
+                .sorted()
+                .toList();
+    }
+
+    private int snapshotDay(LocalDate day, boolean hasPreviousDay) {
+        Timestamp dayStart = Timestamp.valueOf(hasPreviousDay ? day.atStartOfDay() : LEDGER_START);
+        Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        return jdbcTemplate.update(SNAPSHOT_DAY_SQL,
+                Date.valueOf(day), Timestamp.valueOf(LocalDateTime.now()),
+                dayStart, dayEnd,
+                Date.valueOf(day.minusDays(1)),
+                dayEnd, dayEnd);
+    }
+
+    /**
+     * Stock of a product at a point in time
+     */
+    public StockSnapshotDTO.StockAt getStockAt(UUID productId, LocalDateTime at) {
+        // A snapshot of day D holds the stock at the start of D + 1
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findTopByProductIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(productId, at.toLocalDate());
+
+        // Movements record the resulting stock, so only the last one since the snapshot is needed
+        List<StockMovement> latest = snapshot.isPresent()
+                ? stockMovementRepository.findLatestInRange(productId,
+                        snapshot.get().getSnapshotDate().plusDays(1).atStartOfDay(), at, PageRequest.of(0, 1))
+                : stockMovementRepository.findLatestBefore(productId, at, PageRequest.of(0, 1));
+
+        StockSnapshotDTO.StockAt.StockAtBuilder result = StockSnapshotDTO.StockAt.builder()
+                .productId(productId)
+                .at(at)
+                .snapshotDate(snapshot.map(StockSnapshot::getSnapshotDate).orElse(null));
+        if (!latest.isEmpty()) {
+            return result.stock(latest.get(0).getNewStock())
+                    .lastMovementAt(latest.get(0).getMovementDate())
+                    .build();
+        }
+        if (snapshot.isPresent()) {
+            return result.stock(snapshot.get().getStockQuantity()).build();
+        }
+
+        // Before any snapshot and movement: stock before the first later movement, else current stock
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+        List<StockMovement> next = stockMovementRepository.findEarliestFrom(productId, at, PageRequest.of(0, 1));
+        return result.stock(next.isEmpty() ? product.getStock() : next.get(0).getPreviousStock()).build();
+    }
+
+    /**
+     * Inventory valuation at the end of a day, from that day's snapshot
+     */
+    public StockSnapshotDTO.Valuation getValuation(LocalDate date) {
+        List<StockSnapshotDTO.Valuation> valuations = summarize(List.of(date));
+        if (valuations.isEmpty()) {
+            throw new ResourceNotFoundException("No stock snapshot for " + date);
+        }
+        return valuations.get(0);
+    }
+
+    /**
+     * Month-end inventory valuations for a range of months, months without a snapshot omitted
+     */
+    public List<StockSnapshotDTO.Valuation> getMonthEndValuations(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' month must not be after 'to' month");
+        }
+        List<LocalDate> monthEnds = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            monthEnds.add(month.atEndOfMonth());
+        }
+        return summarize(monthEnds);
+    }
+
+    private List<StockSnapshotDTO.Valuation> summarize(List<LocalDate> dates) {
+        return stockSnapshotRepository.summarizeByDates(dates).stream()
+                .map(row -> StockSnapshotDTO.Valuation.builder()
+                        .date((LocalDate) row[0])
+                        .products(((Number) row[1]).longValue())
+                        .totalUnits(((Number) row[2]).longValue())
+                        .totalValue((BigDecimal) row[3])
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,418 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.TrendingScore;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.TrendingScoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Trending products, computed in memory from activity events.
+ *
+ * Every view, add-to-cart and purchase adds to the product's score, and scores decay
+ * exponentially; each horizon (e.g. 1, 7 and 30 days) decays with a half-life of half its
+ * length. The best products per horizon are kept sorted as they change and, together with the
+ * product rows, refreshed every few seconds, so serving trending products touches neither
+ * user_activities nor products. Scores are copied to trending_scores periodically and reloaded
+ * on startup.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    static final Map<ActivityType, Double> ACTIVITY_WEIGHTS = Map.of(
+            ActivityType.VIEW, 1.0,
+            ActivityType.ADD_TO_CART, 3.0,
+            ActivityType.PURCHASE, 5.0);
+
+    private static final String INSERT_SCORE_SQL = "INSERT INTO trending_scores (id, product_id, horizon_days, "
+            + "score, snapshot_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Daily activity counts, used once when there are no saved scores yet; days whose raw rows
+    // were removed by the retention job come from their roll-up
+    private static final String BOOTSTRAP_SQL = "SELECT product_id, activity_type, CAST(created_at AS date), "
+            + "COUNT(*) FROM user_activities WHERE product_id IS NOT NULL "
+            + "AND activity_type IN ('VIEW', 'ADD_TO_CART', 'PURCHASE') AND created_at >= ? "
+            + "GROUP BY product_id, activity_type, CAST(created_at AS date) "
+            + "UNION ALL SELECT product_id, activity_type, activity_date, activity_count FROM product_activity_daily "
+            + "WHERE activity_type IN ('VIEW', 'ADD_TO_CART', 'PURCHASE') AND activity_date >= ? "
+            + "AND activity_date < COALESCE((SELECT CAST(MIN(created_at) AS date) FROM user_activities), "
+            + "CURRENT_DATE + 1)";
+
+    private final ProductRepository productRepository;
+    private final TrendingScoreRepository trendingScoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int[] horizonDays;
+    private final int capacity;
+    private final TrendingCounters counters;
+
+    // Per horizon: trending products in stock, topped up with featured ones; replaced whole
+    private volatile List<List<Product>> trendingProducts = List.of();
+
+    public TrendingService(
+            ProductRepository productRepository,
+            TrendingScoreRepository trendingScoreRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendations.trending.horizons-days:1,7,30}") int[] horizonDays,
+            @Value("${recommendations.trending.capacity:50}") int capacity) {
+        this.productRepository = productRepository;
+        this.trendingScoreRepository = trendingScoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.horizonDays = horizonDays;
+        this.capacity = capacity;
+        this.counters = new TrendingCounters(horizonDays, capacity, System.currentTimeMillis());
+    }
+
+    /**
+     * Reload saved scores, or rebuild them from recent activity on first start
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        try {
+            List<TrendingScore> saved = trendingScoreRepository.findAll();
+            for (TrendingScore score : saved) {
+                counters.add(score.getProductId(), counters.horizonIndex(score.getHorizonDays()),
+                        score.getScore(), toMillis(score.getSnapshotAt()));
+            }
+            if (saved.isEmpty()) {
+                bootstrapFromActivities();
+            }
+            log.info("Trending scores restored: {} saved rows, {} products", saved.size(), counters.size());
+        } catch (Exception e) {
+            log.error("Failed to restore trending scores: {}", e.getMessage(), e);
+        }
+        refreshProducts();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(UserActivityRecordedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        record(event.productId(), event.activityType(),
+                event.createdAt() != null ? toMillis(event.createdAt()) : System.currentTimeMillis());
+    }
+
+    /**
+     * Count one activity on a product at the given time, for every horizon
+     */
+    void record(UUID productId, ActivityType type, long at) {
+        Double weight = ACTIVITY_WEIGHTS.get(type);
+        if (weight == null) {
+            return;
+        }
+        for (int horizon = 0; horizon < horizonDays.length; horizon++) {
+            counters.add(productId, horizon, weight, at);
+        }
+    }
+
+    /**
+     * A service with this one's horizons and capacity and no scores yet, decaying from the given
+     * time; it isn't scheduled and gets no activity events, so it only counts what it is given
+     * (for scoring a past period, see RecommendationEvaluationService)
+     */
+    TrendingService detachedCopy(long landmark) {
+        TrendingService copy = new TrendingService(productRepository, trendingScoreRepository, jdbcTemplate,
+                transaction.getTransactionManager(), horizonDays, capacity);
+        // Scores of activity long before now would underflow against a landmark of now
+        copy.counters.rebase(landmark);
+        return copy;
+    }
+
+    /**
+     * Trending products for the horizon closest to the given number of days, best first
+     */
+    public List<Product> getTrendingProducts(int days, int limit) {
+        List<List<Product>> current = trendingProducts;
+        if (current.isEmpty()) {
+            // Only before the first refresh has completed
+            current = refreshProducts();
+        }
+        List<Product> products = current.get(counters.horizonIndex(days));
+        return products.subList(0, Math.min(limit, products.size()));
+    }
+
+    /**
+     * Reload the product rows of the current top products (stock, prices, ranking changes)
+     */
+    @Scheduled(fixedDelayString = "${recommendations.trending.refresh-ms:15000}")
+    public void refresh() {
+        refreshProducts();
+    }
+
+    private List<List<Product>> refreshProducts() {
+        List<List<UUID>> topIds = new ArrayList<>();
+        Set<UUID> allIds = new HashSet<>();
+        for (int horizon = 0; horizon < horizonDays.length; horizon++) {
+            List<UUID> ids = counters.top(horizon, capacity);
+            topIds.add(ids);
+            allIds.addAll(ids);
+        }
+        Map<UUID, Product> productsById = productRepository.findAllById(allIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> featured = productRepository.findFeaturedProducts(PageRequest.of(0, capacity)).getContent();
+
+        List<List<Product>> refreshed = new ArrayList<>();
+        for (List<UUID> ids : topIds) {
+            List<Product> products = new ArrayList<>();
+            Set<UUID> added = new HashSet<>();
+            for (UUID id : ids) {
+                Product product = productsById.get(id);
+                if (product != null && product.getStock() > 0) {
+                    products.add(product);
+                    added.add(id);
+                }
+            }
+            // Not enough trending data: fall back to featured products
+            for (Product product : featured) {
+                if (products.size() >= capacity) {
+                    break;
+                }
+                if (product.getStock() > 0 && added.add(product.getId())) {
+                    products.add(product);
+                }
+            }
+            refreshed.add(List.copyOf(products));
+        }
+        trendingProducts = List.copyOf(refreshed);
+        return trendingProducts;
+    }
+
+    /**
+     * Save the current scores so a restart doesn't start from zero
+     */
+    @Scheduled(initialDelayString = "${recommendations.trending.snapshot-ms:300000}",
+            fixedDelayString = "${recommendations.trending.snapshot-ms:300000}")
+    public void snapshot() {
+        long now = System.currentTimeMillis();
+        List<TrendingCounters.Score> scores = counters.rebase(now);
+        Timestamp snapshotAt = new Timestamp(now);
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM trending_scores");
+                jdbcTemplate.batchUpdate(INSERT_SCORE_SQL, scores, 1000, (ps, score) -> {
+                    ps.setObject(1, UUID.randomUUID());
+                    ps.setObject(2, score.productId());
+                    ps.setInt(3, horizonDays[score.horizon()]);
+                    ps.setDouble(4, score.score());
+                    ps.setTimestamp(5, snapshotAt);
+                });
+            });
+            log.debug("Trending snapshot saved: {} scores", scores.size());
+        } catch (Exception e) {
+            log.error("Failed to save trending snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    private void bootstrapFromActivities() {
+        int longest = Arrays.stream(horizonDays).max().orElse(7);
+        LocalDate since = LocalDate.now().minusDays(longest * 2L);
+        jdbcTemplate.query(BOOTSTRAP_SQL, (RowCallbackHandler) rs -> {
+            Double weight = ACTIVITY_WEIGHTS.get(ActivityType.valueOf(rs.getString(2)));
+            // Spread over the day: count the whole day at noon
+            long at = toMillis(rs.getDate(3).toLocalDate().atTime(12, 0));
+            for (int horizon = 0; horizon < horizonDays.length; horizon++) {
+                counters.add(rs.getObject(1, UUID.class), horizon, weight * rs.getLong(4), at);
+            }
+        }, Timestamp.valueOf(since.atStartOfDay()), Date.valueOf(since));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Exponentially decayed scores per product and horizon, with the best products per horizon.
+     *
+     * Scores use forward decay: an event at time t adds weight * 2^((t - landmark) / halfLife), so
+     * older scores never need updating and the ranking only changes for the product that got the
+     * event. The landmark is moved forward on {@link #rebase}, which also drops faded products.
+     * Writes are synchronized; {@link #top} reads an immutable array without locking.
+     */
+    static final class TrendingCounters {
+
+        // Faded products are dropped below this decayed score
+        private static final double MIN_SCORE = 0.01;
+
+        private final int[] horizonDays;
+        private final double[] decayPerMs;
+        private final int capacity;
+
+        // Guarded by this
+        private long landmark;
+        private final Map<UUID, Integer> index = new HashMap<>();
+        private UUID[] products = new UUID[256];
+        private double[][] scores;
+        private int size;
+
+        // Per horizon, best first; the outer array is replaced whole on every change
+        private volatile UUID[][] top;
+
+        TrendingCounters(int[] horizonDays, int capacity, long now) {
+            this.horizonDays = horizonDays;
+            this.capacity = capacity;
+            this.decayPerMs = new double[horizonDays.length];
+            for (int h = 0; h < horizonDays.length; h++) {
+                double halfLifeMs = horizonDays[h] * 86_400_000d / 2;
+                decayPerMs[h] = Math.log(2) / halfLifeMs;
+            }
+            this.landmark = now;
+            this.scores = new double[horizonDays.length][256];
+            this.top = new UUID[horizonDays.length][0];
+        }
+
+        record Score(UUID productId, int horizon, double score) {
+        }
+
+        /**
+         * Horizon closest to the given number of days
+         */
+        int horizonIndex(int days) {
+            int best = 0;
+            for (int h = 1; h < horizonDays.length; h++) {
+                if (Math.abs(horizonDays[h] - days) < Math.abs(horizonDays[best] - days)) {
+                    best = h;
+                }
+            }
+            return best;
+        }
+
+        synchronized void add(UUID productId, int horizon, double weight, long at) {
+            int item = indexOf(productId);
+            scores[horizon][item] += weight * Math.exp(decayPerMs[horizon] * (at - landmark));
+
+            UUID[] current = top[horizon];
+            boolean member = Arrays.asList(current).contains(productId);
+            if (!member && current.length == capacity
+                    && scores[horizon][item] <= scores[horizon][index.get(current[current.length - 1])]) {
+                return;
+            }
+            UUID[] candidates = member ? current.clone() : Arrays.copyOf(current, current.length + 1);
+            if (!member) {
+                candidates[current.length] = productId;
+            }
+            double[] horizonScores = scores[horizon];
+            Arrays.sort(candidates, Comparator.comparingDouble((UUID id) -> -horizonScores[index.get(id)]));
+            publishTop(horizon, candidates.length > capacity ? Arrays.copyOf(candidates, capacity) : candidates);
+        }
+
+        List<UUID> top(int horizon, int limit) {
+            UUID[] current = top[horizon];
+            return List.of(Arrays.copyOf(current, Math.min(limit, current.length)));
+        }
+
+        /**
+         * Decayed score of a product as of now
+         */
+        synchronized double score(UUID productId, int horizon, long now) {
+            Integer item = index.get(productId);
+            return item == null ? 0 : scores[horizon][item] * Math.exp(-decayPerMs[horizon] * (now - landmark));
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Move the landmark to now, drop faded products and return the remaining decayed scores
+         */
+        synchronized List<Score> rebase(long now) {
+            double[] factors = new double[horizonDays.length];
+            for (int h = 0; h < horizonDays.length; h++) {
+                factors[h] = Math.exp(-decayPerMs[h] * (now - landmark));
+            }
+
+            List<Score> kept = new ArrayList<>();
+            UUID[] keptProducts = new UUID[products.length];
+            double[][] keptScores = new double[horizonDays.length][products.length];
+            int keptSize = 0;
+            index.clear();
+            for (int item = 0; item < size; item++) {
+                boolean alive = false;
+                for (int h = 0; h < horizonDays.length; h++) {
+                    alive |= scores[h][item] * factors[h] >= MIN_SCORE;
+                }
+                if (!alive) {
+                    continue;
+                }
+                keptProducts[keptSize] = products[item];
+                for (int h = 0; h < horizonDays.length; h++) {
+                    keptScores[h][keptSize] = scores[h][item] * factors[h];
+                    kept.add(new Score(products[item], h, keptScores[h][keptSize]));
+                }
+                index.put(products[item], keptSize++);
+            }
+            products = keptProducts;
+            scores = keptScores;
+            size = keptSize;
+            landmark = now;
+
+            // Rescaling keeps the order; a dropped top product scored above everything outside
+            // the top list, so those were dropped too and filtering the list is enough
+            for (int h = 0; h < horizonDays.length; h++) {
+                double[] horizonScores = scores[h];
+                UUID[] ranked = Arrays.stream(top[h])
+                        .filter(index::containsKey)
+                        .sorted(Comparator.comparingDouble((UUID id) -> -horizonScores[index.get(id)]))
+                        .toArray(UUID[]::new);
+                publishTop(h, ranked);
+            }
+            return kept;
+        }
+
+        private void publishTop(int horizon, UUID[] ranked) {
+            UUID[][] next = top.clone();
+            next[horizon] = ranked;
+            top = next;
+        }
+
+        private int indexOf(UUID productId) {
+            Integer existing = index.get(productId);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == products.length) {
+                products = Arrays.copyOf(products, size * 2);
+                for (int h = 0; h < horizonDays.length; h++) {
+                    scores[h] = Arrays.copyOf(scores[h], size * 2);
+                }
+            }
+            products[size] = productId;
+            index.put(productId, size);
+            return size++;
+        }
+    }
+}
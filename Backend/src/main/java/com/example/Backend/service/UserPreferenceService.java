@@ -0,0 +1,351 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user preference profiles for personalized recommendations.
+ *
+ * A profile holds weighted affinities for categories, brands and vehicle models, plus the
+ * products viewed recently. It is built from the user's latest activities on first use, then
+ * kept in memory and updated by each new activity; purchases weigh more than views, and older
+ * activity counts less (half-life of 30 days). Profiles are evicted after a TTL or when the
+ * cache is full, least recently used first.
+ */
+@Service
+@Slf4j
+public class UserPreferenceService {
+
+    private static final Map<ActivityType, Double> ACTIVITY_WEIGHTS = Map.of(
+            ActivityType.VIEW, 1.0,
+            ActivityType.RECOMMENDATION_CLICK, 1.5,
+            ActivityType.ADD_TO_CART, 3.0,
+            ActivityType.PURCHASE, 5.0);
+
+    /** Categories, brands and vehicle models of a profile that recommendations are drawn from */
+    public static final int PREFERENCE_DEPTH = 3;
+
+    private static final double HALF_LIFE_MS = Duration.ofDays(30).toMillis();
+    private static final int RECENT_VIEWS = 50;
+    private static final int HISTORY_LIMIT = 500;
+    private static final int VERSION_STRIPES = 1024;
+
+    private static final String HISTORY_SQL = "SELECT ua.activity_type, ua.product_id, ua.created_at, "
+            + "p.category_id, p.brand_id, p.model FROM user_activities ua "
+            + "JOIN products p ON p.id = ua.product_id "
+            + "WHERE ua.user_id = ? ORDER BY ua.created_at DESC LIMIT " + HISTORY_LIMIT;
+
+    // Older history rolled up by the retention job, for days before the user's oldest raw activity
+    private static final String DAILY_HISTORY_SQL = "SELECT d.activity_type, d.product_id, d.activity_date, "
+            + "d.activity_count, p.category_id, p.brand_id, p.model FROM user_activity_daily d "
+            + "JOIN products p ON p.id = d.product_id "
+            + "WHERE d.user_id = ? AND d.activity_date < COALESCE("
+            + "(SELECT CAST(MIN(created_at) AS date) FROM user_activities WHERE user_id = ?), CURRENT_DATE + 1) "
+            + "ORDER BY d.activity_date DESC LIMIT ?";
+
+    private static final String PRODUCT_ATTRIBUTES_SQL = "SELECT category_id, brand_id, model FROM products "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMillis;
+    private final int maxProfiles;
+
+    private final Map<UUID, CachedProfile> profiles = new ConcurrentHashMap<>();
+
+    // Bumped by every activity of the users hashing to a stripe. Bumps and stores run inside
+    // profiles.compute for the user, so a profile loaded before an activity is never cached
+    // after the activity was handled.
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    public UserPreferenceService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${recommendations.profiles.ttl:PT30M}") Duration ttl,
+            @Value("${recommendations.profiles.max-entries:10000}") int maxProfiles) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMillis = ttl.toMillis();
+        this.maxProfiles = maxProfiles;
+    }
+
+    /**
+     * Get the preference profile of a user, building it from activity history if not cached
+     */
+    public Profile getProfile(UUID userId) {
+        long now = System.currentTimeMillis();
+        CachedProfile cached = profiles.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            cached.lastAccess = now;
+            return cached.profile;
+        }
+        long version = versions.get(stripe(userId));
+        Profile profile = loadProfile(userId, now);
+        makeRoom();
+        profiles.compute(userId, (id, current) -> {
+            // An activity arrived while we were loading and may be missing: serve the profile but don't keep it
+            return versions.get(stripe(id)) == version ? new CachedProfile(profile, now + ttlMillis, now) : current;
+        });
+        return profile;
+    }
+
+    /**
+     * Fold a new activity into the user's profile, if it is cached. Runs first, so listeners
+     * reading the profile see the activity.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onActivity(UserActivityRecordedEvent event) {
+        if (event.userId() == null || event.productId() == null
+                || !ACTIVITY_WEIGHTS.containsKey(event.activityType())) {
+            return;
+        }
+        // Profiles being loaded right now may predate this activity
+        CachedProfile cached = profiles.compute(event.userId(), (userId, current) -> {
+            versions.incrementAndGet(stripe(userId));
+            return current;
+        });
+        if (cached == null) {
+            // Built with this activity included the next time it's needed
+            return;
+        }
+        List<Object[]> attributes = jdbcTemplate.query(PRODUCT_ATTRIBUTES_SQL,
+                (rs, rowNum) -> new Object[] { nullableLong(rs, 1), nullableLong(rs, 2), rs.getString(3) },
+                event.productId());
+        if (attributes.isEmpty()) {
+            return;
+        }
+        Object[] product = attributes.get(0);
+        long at = event.createdAt() != null ? Timestamp.valueOf(event.createdAt()).getTime()
+                : System.currentTimeMillis();
+        cached.profile.record(event.activityType(), event.productId(), (Long) product[0], (Long) product[1],
+                (String) product[2], at);
+    }
+
+    /**
+     * A service serving the given profiles, which never expire; other users are loaded as usual
+     * (for scoring a past period, see RecommendationEvaluationService)
+     */
+    UserPreferenceService serving(Map<UUID, Profile> fixed) {
+        UserPreferenceService copy = new UserPreferenceService(jdbcTemplate, Duration.ofMillis(ttlMillis),
+                maxProfiles);
+        long now = System.currentTimeMillis();
+        fixed.forEach((userId, profile) -> copy.profiles.put(userId, new CachedProfile(profile, Long.MAX_VALUE,
+                now)));
+        return copy;
+    }
+
+    /**
+     * Forget a user's profile
+     */
+    public void evict(UUID userId) {
+        profiles.remove(userId);
+    }
+
+    private Profile loadProfile(UUID userId, long now) {
+        List<Object[]> rows = new ArrayList<>();
+        jdbcTemplate.query(HISTORY_SQL, (RowCallbackHandler) rs -> rows.add(new Object[] {
+                ActivityType.valueOf(rs.getString(1)),
+                rs.getObject(2, UUID.class),
+                rs.getTimestamp(3),
+                nullableLong(rs, 4),
+                nullableLong(rs, 5),
+                rs.getString(6) }), userId);
+
+        // Oldest first, so the most recent views end up last in the recent-view set
+        Profile profile = new Profile(now);
+        if (rows.size() < HISTORY_LIMIT) {
+            loadDailyHistory(profile, userId, HISTORY_LIMIT - rows.size());
+        }
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            Object[] row = rows.get(i);
+            ActivityType type = (ActivityType) row[0];
+            if (!ACTIVITY_WEIGHTS.containsKey(type)) {
+                continue;
+            }
+            Timestamp createdAt = (Timestamp) row[2];
+            profile.record(type, (UUID) row[1], (Long) row[3], (Long) row[4], (String) row[5],
+                    createdAt != null ? createdAt.getTime() : now);
+        }
+        return profile;
+    }
+
+    private void loadDailyHistory(Profile profile, UUID userId, int limit) {
+        List<Object[]> days = new ArrayList<>();
+        jdbcTemplate.query(DAILY_HISTORY_SQL, (RowCallbackHandler) rs -> days.add(new Object[] {
+                ActivityType.valueOf(rs.getString(1)),
+                rs.getObject(2, UUID.class),
+                rs.getDate(3).toLocalDate(),
+                rs.getLong(4),
+                nullableLong(rs, 5),
+                nullableLong(rs, 6),
+                rs.getString(7) }), userId, userId, limit);
+
+        for (int i = days.size() - 1; i >= 0; i--) {
+            Object[] day = days.get(i);
+            ActivityType type = (ActivityType) day[0];
+            if (!ACTIVITY_WEIGHTS.containsKey(type)) {
+                continue;
+            }
+            // Spread over the day: count the whole day at noon
+            long at = Timestamp.valueOf(((LocalDate) day[2]).atTime(12, 0)).getTime();
+            for (long n = 0; n < (Long) day[3]; n++) {
+                profile.record(type, (UUID) day[1], (Long) day[4], (Long) day[5], (String) day[6], at);
+            }
+        }
+    }
+
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        profiles.values().removeIf(p -> p.expiresAt <= now);
+        if (profiles.size() < maxProfiles) {
+            return;
+        }
+        // Evict the least recently used profile
+        profiles.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .ifPresent(e -> profiles.remove(e.getKey()));
+    }
+
+    private static int stripe(UUID userId) {
+        return Math.floorMod(userId.hashCode(), VERSION_STRIPES);
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static final class CachedProfile {
+        private final Profile profile;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private CachedProfile(Profile profile, long expiresAt, long lastAccess) {
+            this.profile = profile;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Weighted category, brand and vehicle model affinities of one user. Weights use forward
+     * decay from the time the profile was built, so recording a newer activity never requires
+     * touching older weights.
+     */
+    public static final class Profile {
+
+        private final long landmark;
+
+        // Guarded by this
+        private final Map<Long, Double> categories = new HashMap<>();
+        private final Map<Long, Double> brands = new HashMap<>();
+        private final Map<String, Double> models = new HashMap<>();
+        private final LinkedHashSet<UUID> recentViews = new LinkedHashSet<>();
+        private long version;
+
+        Profile(long landmark) {
+            this.landmark = landmark;
+        }
+
+        synchronized void record(ActivityType type, UUID productId, Long categoryId, Long brandId, String model,
+                long at) {
+            double weight = ACTIVITY_WEIGHTS.get(type) * Math.pow(2, (at - landmark) / HALF_LIFE_MS);
+            if (categoryId != null) {
+                categories.merge(categoryId, weight, Double::sum);
+            }
+            if (brandId != null) {
+                brands.merge(brandId, weight, Double::sum);
+            }
+            if (model != null && !model.isBlank()) {
+                models.merge(model, weight, Double::sum);
+            }
+            if (type == ActivityType.VIEW) {
+                // Re-inserting moves the product to the most recent end
+                recentViews.remove(productId);
+                recentViews.add(productId);
+                if (recentViews.size() > RECENT_VIEWS) {
+                    recentViews.remove(recentViews.iterator().next());
+                }
+            }
+            version++;
+        }
+
+        public synchronized List<Long> topCategories(int n) {
+            return top(categories, n);
+        }
+
+        public synchronized List<Long> topBrands(int n) {
+            return top(brands, n);
+        }
+
+        public synchronized List<String> topModels(int n) {
+            return top(models, n);
+        }
+
+        /**
+         * Affinity of a product with the given attributes, relative to the user's other products
+         */
+        public synchronized double affinity(Long categoryId, Long brandId, String model) {
+            return (categoryId != null ? categories.getOrDefault(categoryId, 0.0) : 0)
+                    + (brandId != null ? brands.getOrDefault(brandId, 0.0) : 0)
+                    + (model != null ? models.getOrDefault(model, 0.0) : 0);
+        }
+
+        /**
+         * Strongest categories, brands and vehicle models; recommendations only change
+         * materially when this does
+         */
+        public synchronized List<List<?>> signature() {
+            return List.of(top(categories, PREFERENCE_DEPTH), top(brands, PREFERENCE_DEPTH),
+                    top(models, PREFERENCE_DEPTH));
+        }
+
+        /**
+         * Products viewed recently, most recent last
+         */
+        public synchronized Set<UUID> recentViews() {
+            return new LinkedHashSet<>(recentViews);
+        }
+
+        public synchronized boolean isEmpty() {
+            return categories.isEmpty() && brands.isEmpty() && models.isEmpty();
+        }
+
+        /**
+         * Incremented on every recorded activity
+         */
+        public synchronized long version() {
+            return version;
+        }
+
+        private static <K> List<K> top(Map<K, Double> weights, int n) {
+            return weights.entrySet().stream()
+                    .sorted(Map.Entry.<K, Double>comparingByValue().reversed())
+                    .limit(n)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
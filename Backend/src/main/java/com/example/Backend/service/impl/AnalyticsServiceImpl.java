@@ -3,12 +3,15 @@ package com.example.Backend.service.impl;
 import com.example.Backend.dto.AnalyticsDTO;
 import com.example.Backend.entity.Order;
 import com.example.Backend.entity.Product;
-import com.example.Backend.entity.User;
+import com.example.Backend.exception.ValidationException;
 import com.example.Backend.repository.OrderRepository;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.ReclamationRepository;
 import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.AnalyticsResultCache;
 import com.example.Backend.service.AnalyticsService;
+import com.example.Backend.service.CustomerMetricsService;
+import com.example.Backend.util.TimeSeriesDownsampler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,6 +19,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -31,11 +35,20 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         private final ProductRepository productRepository;
         private final UserRepository userRepository;
         private final ReclamationRepository reclamationRepository;
+        private final CustomerMetricsService customerMetricsService;
+        private final AnalyticsResultCache analyticsCache;
 
         private static final int LOW_STOCK_THRESHOLD = 10;
+        private static final int DEFAULT_MAX_CHART_POINTS = 500;
+        private static final Set<String> SUPPORTED_PERIODS = Set.of("DAILY", "WEEKLY", "MONTHLY", "QUARTERLY",
+                        "YEARLY");
 
         @Override
         public AnalyticsDTO.DashboardStats getDashboardStats() {
+                return analyticsCache.get("dashboardStats", this::computeDashboardStats);
+        }
+
+        private AnalyticsDTO.DashboardStats computeDashboardStats() {
                 LocalDate today = LocalDate.now();
                 LocalDateTime startOfDay = today.atStartOfDay();
                 LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
@@ -105,7 +118,12 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         @Override
         public AnalyticsDTO.DashboardStats getDashboardStatsWithGrowth() {
-                AnalyticsDTO.DashboardStats currentStats = getDashboardStats();
+                return analyticsCache.get("dashboardStatsWithGrowth", this::computeDashboardStatsWithGrowth);
+        }
+
+        private AnalyticsDTO.DashboardStats computeDashboardStatsWithGrowth() {
+                // Fresh instance: the growth fields are set on it below
+                AnalyticsDTO.DashboardStats currentStats = computeDashboardStats();
 
                 // Calculate previous period stats (30 days ago)
                 LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
@@ -156,29 +174,63 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         @Override
         public List<AnalyticsDTO.SalesChartData> getSalesChartData(LocalDate startDate, LocalDate endDate,
                         String period) {
-                LocalDateTime start = startDate.atStartOfDay();
-                LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+                return getSalesChartData(startDate, endDate, period, DEFAULT_MAX_CHART_POINTS);
+        }
 
-                // Use fetch join to avoid lazy loading issues
-                List<Order> orders = orderRepository.findByCreatedAtBetweenWithItems(start, end);
+        @Override
+        public List<AnalyticsDTO.SalesChartData> getSalesChartData(LocalDate startDate, LocalDate endDate,
+                        String period, int maxPoints) {
+                return analyticsCache.get("salesChart", startDate, endDate,
+                                () -> computeSalesChartData(startDate, endDate, period, maxPoints), period, maxPoints);
+        }
 
-                Map<LocalDate, List<Order>> ordersByDate = orders.stream()
-                                .filter(order -> !"CANCELLED".equals(order.getStatus()))
-                                .collect(Collectors.groupingBy(order -> order.getCreatedAt().toLocalDate()));
+        private List<AnalyticsDTO.SalesChartData> computeSalesChartData(LocalDate startDate, LocalDate endDate,
+                        String period, int maxPoints) {
+                List<AnalyticsDTO.SalesChartData> chartData = aggregateSales(startDate, endDate, period);
+                if (maxPoints <= 0 || chartData.size() <= maxPoints) {
+                        return chartData;
+                }
 
-                List<AnalyticsDTO.SalesChartData> chartData = new ArrayList<>();
+                // Long ranges: keep the visually significant points only
+                double[] x = new double[chartData.size()];
+                double[] y = new double[chartData.size()];
+                for (int i = 0; i < chartData.size(); i++) {
+                        x[i] = chartData.get(i).getDate().toEpochDay();
+                        y[i] = chartData.get(i).getRevenue().doubleValue();
+                }
+                int[] keep = TimeSeriesDownsampler.lttb(x, y, Math.max(maxPoints, 3));
 
-                for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-                        List<Order> dayOrders = ordersByDate.getOrDefault(date, Collections.emptyList());
+                List<AnalyticsDTO.SalesChartData> sampled = new ArrayList<>(keep.length);
+                for (int index : keep) {
+                        sampled.add(chartData.get(index));
+                }
+                return sampled;
+        }
 
-                        BigDecimal dayRevenue = dayOrders.stream()
-                                        .map(Order::getTotalPrice)
-                                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+        /**
+         * Aggregate non-cancelled orders per bucket in the database and fill empty buckets with zeros
+         */
+        private List<AnalyticsDTO.SalesChartData> aggregateSales(LocalDate startDate, LocalDate endDate,
+                        String period) {
+                String bucketPeriod = normalizePeriod(period);
+                List<Object[]> rows = orderRepository.aggregateSalesByBucket(
+                                truncUnit(bucketPeriod),
+                                startDate.atStartOfDay(),
+                                endDate.plusDays(1).atStartOfDay());
+
+                Map<LocalDate, Object[]> rowsByBucket = new HashMap<>();
+                for (Object[] row : rows) {
+                        rowsByBucket.put(toLocalDate(row[0]), row);
+                }
 
+                List<AnalyticsDTO.SalesChartData> chartData = new ArrayList<>();
+                for (LocalDate bucket = bucketStart(startDate, bucketPeriod); !bucket.isAfter(endDate);
+                                bucket = nextBucket(bucket, bucketPeriod)) {
+                        Object[] row = rowsByBucket.get(bucket);
                         chartData.add(AnalyticsDTO.SalesChartData.builder()
-                                        .date(date)
-                                        .revenue(dayRevenue)
-                                        .orders((long) dayOrders.size())
+                                        .date(bucket)
+                                        .revenue(row != null ? toBigDecimal(row[2]) : BigDecimal.ZERO)
+                                        .orders(row != null ? ((Number) row[1]).longValue() : 0L)
                                         .build());
                 }
 
@@ -187,6 +239,11 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         @Override
         public List<AnalyticsDTO.CategoryPerformance> getCategoryPerformance(LocalDate startDate, LocalDate endDate) {
+                return analyticsCache.get("categoryPerformance", startDate, endDate,
+                                () -> computeCategoryPerformance(startDate, endDate));
+        }
+
+        private List<AnalyticsDTO.CategoryPerformance> computeCategoryPerformance(LocalDate startDate, LocalDate endDate) {
                 LocalDateTime start = startDate.atStartOfDay();
                 LocalDateTime end = endDate.plusDays(1).atStartOfDay();
 
@@ -265,6 +322,11 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         @Override
         public List<AnalyticsDTO.TopProduct> getTopProducts(int limit, LocalDate startDate, LocalDate endDate) {
+                return analyticsCache.get("topProducts", startDate, endDate,
+                                () -> computeTopProducts(limit, startDate, endDate), limit);
+        }
+
+        private List<AnalyticsDTO.TopProduct> computeTopProducts(int limit, LocalDate startDate, LocalDate endDate) {
                 LocalDateTime start = startDate.atStartOfDay();
                 LocalDateTime end = endDate.plusDays(1).atStartOfDay();
 
@@ -330,12 +392,20 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         @Override
         public List<AnalyticsDTO.RevenueByPeriod> getRevenueByPeriod(LocalDate startDate, LocalDate endDate,
                         String period) {
-                // Implementation for weekly/monthly grouping
-                return getSalesChartData(startDate, endDate, period).stream()
+                return analyticsCache.get("revenueByPeriod", startDate, endDate,
+                                () -> computeRevenueByPeriod(startDate, endDate, period), period);
+        }
+
+        private List<AnalyticsDTO.RevenueByPeriod> computeRevenueByPeriod(LocalDate startDate, LocalDate endDate,
+                        String period) {
+                String bucketPeriod = normalizePeriod(period);
+                return aggregateSales(startDate, endDate, bucketPeriod).stream()
                                 .map(data -> AnalyticsDTO.RevenueByPeriod.builder()
-                                                .period(period)
-                                                .startDate(data.getDate())
-                                                .endDate(data.getDate())
+                                                .period(bucketPeriod)
+                                                .startDate(data.getDate().isBefore(startDate) ? startDate
+                                                                : data.getDate())
+                                                .endDate(minDate(nextBucket(data.getDate(), bucketPeriod)
+                                                                .minusDays(1), endDate))
                                                 .totalRevenue(data.getRevenue())
                                                 .totalOrders(data.getOrders())
                                                 .averageOrderValue(data.getOrders() > 0
@@ -349,40 +419,27 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         @Override
         public AnalyticsDTO.CustomerAnalytics getCustomerAnalytics() {
+                return analyticsCache.get("customerAnalytics", this::computeCustomerAnalytics);
+        }
+
+        private AnalyticsDTO.CustomerAnalytics computeCustomerAnalytics() {
                 LocalDate today = LocalDate.now();
                 LocalDateTime startOfToday = today.atStartOfDay();
                 LocalDateTime startOfWeek = today.minusWeeks(1).atStartOfDay();
                 LocalDateTime startOfMonth = today.minusMonths(1).atStartOfDay();
                 LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
 
-                List<User> allUsers = userRepository.findAll();
-                long totalCustomers = allUsers.size();
-
-                long newCustomersToday = allUsers.stream()
-                                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(startOfToday))
-                                .count();
-
-                long newCustomersThisWeek = allUsers.stream()
-                                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(startOfWeek))
-                                .count();
-
-                long newCustomersThisMonth = allUsers.stream()
-                                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(startOfMonth))
-                                .count();
+                long totalCustomers = userRepository.count();
+                long newCustomersToday = userRepository.countByCreatedAtAfter(startOfToday);
+                long newCustomersThisWeek = userRepository.countByCreatedAtAfter(startOfWeek);
+                long newCustomersThisMonth = userRepository.countByCreatedAtAfter(startOfMonth);
 
                 // Active customers (ordered in last 30 days)
-                Set<UUID> activeCustomerIds = orderRepository.findByCreatedAtAfter(thirtyDaysAgo).stream()
-                                .map(order -> order.getUser().getId())
-                                .collect(Collectors.toSet());
-                long activeCustomers = activeCustomerIds.size();
-
-                // Returning customers (customers with more than 1 order)
-                Map<UUID, Long> orderCountByCustomer = orderRepository.findAll().stream()
-                                .collect(Collectors.groupingBy(order -> order.getUser().getId(),
-                                                Collectors.counting()));
-                long returningCustomers = orderCountByCustomer.values().stream()
-                                .filter(count -> count > 1)
-                                .count();
+                long activeCustomers = orderRepository.countDistinctCustomersSince(thirtyDaysAgo);
+
+                // Returning customers and lifetime value come from the RFM batch job
+                AnalyticsDTO.RfmSummary rfm = customerMetricsService.getSummary();
+                long returningCustomers = rfm.getReturningCustomers();
 
                 // Retention rate
                 Double retentionRate = totalCustomers > 0
@@ -390,13 +447,9 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                                 : 0.0;
 
                 // Customer lifetime value (simplified)
-                BigDecimal totalRevenue = orderRepository.findAll().stream()
-                                .filter(order -> !"CANCELLED".equals(order.getStatus()))
-                                .map(Order::getTotalPrice)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
                 BigDecimal customerLifetimeValue = totalCustomers > 0
-                                ? totalRevenue.divide(BigDecimal.valueOf(totalCustomers), 2, RoundingMode.HALF_UP)
+                                ? rfm.getTotalRevenue().divide(BigDecimal.valueOf(totalCustomers), 2,
+                                                RoundingMode.HALF_UP)
                                 : BigDecimal.ZERO;
 
                 return AnalyticsDTO.CustomerAnalytics.builder()
@@ -413,6 +466,10 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         @Override
         public List<AnalyticsDTO.OrderStatusDistribution> getOrderStatusDistribution() {
+                return analyticsCache.get("orderStatusDistribution", this::computeOrderStatusDistribution);
+        }
+
+        private List<AnalyticsDTO.OrderStatusDistribution> computeOrderStatusDistribution() {
                 List<Order> allOrders = orderRepository.findAll();
                 long totalOrders = allOrders.size();
 
@@ -512,6 +569,76 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                                 .collect(Collectors.toList());
         }
 
+        private String normalizePeriod(String period) {
+                String normalized = period == null ? "DAILY" : period.trim().toUpperCase();
+                if (!SUPPORTED_PERIODS.contains(normalized)) {
+                        throw new ValidationException("Unsupported period: " + period
+                                        + " (expected one of " + SUPPORTED_PERIODS + ")");
+                }
+                return normalized;
+        }
+
+        /**
+         * PostgreSQL date_trunc unit for a period
+         */
+        private String truncUnit(String period) {
+                return switch (period) {
+                        case "WEEKLY" -> "week";
+                        case "MONTHLY" -> "month";
+                        case "QUARTERLY" -> "quarter";
+                        case "YEARLY" -> "year";
+                        default -> "day";
+                };
+        }
+
+        /**
+         * Start of the bucket containing a date; must match date_trunc (ISO weeks start on Monday)
+         */
+        private LocalDate bucketStart(LocalDate date, String period) {
+                return switch (period) {
+                        case "WEEKLY" -> date.with(DayOfWeek.MONDAY);
+                        case "MONTHLY" -> date.withDayOfMonth(1);
+                        case "QUARTERLY" -> date.withMonth(((date.getMonthValue() - 1) / 3) * 3 + 1)
+                                        .withDayOfMonth(1);
+                        case "YEARLY" -> date.withDayOfYear(1);
+                        default -> date;
+                };
+        }
+
+        private LocalDate nextBucket(LocalDate bucket, String period) {
+                return switch (period) {
+                        case "WEEKLY" -> bucket.plusWeeks(1);
+                        case "MONTHLY" -> bucket.plusMonths(1);
+                        case "QUARTERLY" -> bucket.plusMonths(3);
+                        case "YEARLY" -> bucket.plusYears(1);
+                        default -> bucket.plusDays(1);
+                };
+        }
+
+        private LocalDate minDate(LocalDate a, LocalDate b) {
+                return a.isBefore(b) ? a : b;
+        }
+
+        private LocalDate toLocalDate(Object value) {
+                if (value instanceof LocalDate date) {
+                        return date;
+                }
+                if (value instanceof java.sql.Date date) {
+                        return date.toLocalDate();
+                }
+                if (value instanceof java.sql.Timestamp timestamp) {
+                        return timestamp.toLocalDateTime().toLocalDate();
+                }
+                return ((LocalDateTime) value).toLocalDate();
+        }
+
+        private BigDecimal toBigDecimal(Object value) {
+                if (value instanceof BigDecimal decimal) {
+                        return decimal;
+                }
+                return value == null ? BigDecimal.ZERO : new BigDecimal(value.toString());
+        }
+
         private Double calculateGrowth(Long current, Long previous) {
                 if (previous == null || previous == 0)
                         return 0.0;
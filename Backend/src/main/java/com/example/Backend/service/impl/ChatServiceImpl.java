@@ -13,11 +13,12 @@ import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.service.GeminiService;
 import lombok.extern.slf4j.Slf4j;
 import com.example.Backend.service.ChatService;
+import com.example.Backend.util.PageRequests;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -217,10 +218,8 @@ public class ChatServiceImpl implements ChatService {
             throw new EntityNotFoundException("Conversation not found with id: " + conversationId);
         }
 
-        List<Message> results = messageRepository.searchInConversation(conversationId, searchTerm);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), results.size());
-        return new PageImpl<>(results.subList(start, end), pageable, results.size());
+        return messageRepository.searchInConversation(conversationId, searchTerm,
+                PageRequests.withDefaultSort(pageable, Sort.by(Sort.Direction.DESC, "createdAt")));
     }
 
     @Override
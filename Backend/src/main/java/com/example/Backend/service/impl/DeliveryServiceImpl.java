@@ -8,12 +8,13 @@ import com.example.Backend.repository.OrderRepository;
 import com.example.Backend.service.DeliveryService;
 import com.example.Backend.service.DeliverySimulationService;
 import com.example.Backend.service.EmailService;
+import com.example.Backend.util.PageRequests;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +34,8 @@ public class DeliveryServiceImpl implements DeliveryService {
     private final EmailService emailService;
     private final DeliverySimulationService simulationService;
 
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+
     public DeliveryServiceImpl(
             DeliveryRepository deliveryRepository,
             OrderRepository orderRepository,
@@ -96,10 +99,7 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Override
     @Transactional(readOnly = true)
     public Page<Delivery> getDeliveriesByStatus(String status, Pageable pageable) {
-        List<Delivery> deliveries = deliveryRepository.findByStatus(status);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), deliveries.size());
-        return new PageImpl<>(deliveries.subList(start, end), pageable, deliveries.size());
+        return deliveryRepository.findByStatus(status, PageRequests.withDefaultSort(pageable, NEWEST_FIRST));
     }
 
     @Override
@@ -111,19 +111,13 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Override
     @Transactional(readOnly = true)
     public Page<Delivery> getActiveDeliveries(Pageable pageable) {
-        List<Delivery> deliveries = deliveryRepository.findActiveDeliveries();
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), deliveries.size());
-        return new PageImpl<>(deliveries.subList(start, end), pageable, deliveries.size());
+        return deliveryRepository.findActiveDeliveries(PageRequests.withDefaultSort(pageable, NEWEST_FIRST));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<Delivery> getDeliveriesByCourier(String courierName, Pageable pageable) {
-        List<Delivery> deliveries = deliveryRepository.findByDriverName(courierName);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), deliveries.size());
-        return new PageImpl<>(deliveries.subList(start, end), pageable, deliveries.size());
+        return deliveryRepository.findByDriverName(courierName, PageRequests.withDefaultSort(pageable, NEWEST_FIRST));
     }
 
     @Override
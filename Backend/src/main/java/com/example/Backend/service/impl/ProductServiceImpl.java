@@ -4,22 +4,27 @@ import com.example.Backend.dto.ProductDTO;
 import com.example.Backend.entity.Brand;
 import com.example.Backend.entity.Category;
 import com.example.Backend.entity.Product;
+import com.example.Backend.entity.StockMovement;
 import com.example.Backend.repository.BrandRepository;
 import com.example.Backend.repository.CategoryRepository;
 import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.ProductSpecifications;
+import com.example.Backend.repository.StockMovementRepository;
 import com.example.Backend.service.ProductService;
+import com.example.Backend.service.SearchAnalyticsService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -30,6 +35,8 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final SearchAnalyticsService searchAnalyticsService;
 
     @Override
     public Product createProduct(ProductDTO productDTO) {
@@ -97,6 +104,7 @@ public class ProductServiceImpl implements ProductService {
             product.setBrand(brand);
         }
 
+        int previousStock = stockOf(product);
         product.setStock(productDTO.getStockQuantity());
         product.setImageUrl(productDTO.getImageUrl());
 
@@ -105,7 +113,9 @@ public class ProductServiceImpl implements ProductService {
             product.setCompatibility(productDTO.getVehicleCompatibility().toString());
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        logStockAdjustment(saved, previousStock, "Stock edited with the product");
+        return saved;
     }
 
     @Override
@@ -133,8 +143,12 @@ public class ProductServiceImpl implements ProductService {
     public Page<Product> searchProducts(String searchTerm, String category, String brand,
             String model, BigDecimal minPrice, BigDecimal maxPrice,
             Pageable pageable) {
-        return productRepository.searchProducts(searchTerm, category, brand, model,
+        Page<Product> products = productRepository.searchProducts(searchTerm, category, brand, model,
                 minPrice, maxPrice, pageable);
+        if (pageable.getPageNumber() == 0) {
+            searchAnalyticsService.recordSearch(searchTerm, products.getTotalElements());
+        }
+        return products;
     }
 
     // Removed - incompatible with new entity structure
@@ -217,6 +231,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public Product updateStock(UUID id, Integer quantity) {
         Product product = getProductById(id);
+        int previousStock = stockOf(product);
 
         if (quantity > 0) {
             product.increaseStock(quantity);
@@ -224,7 +239,34 @@ public class ProductServiceImpl implements ProductService {
             product.decreaseStock(Math.abs(quantity));
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        logStockAdjustment(saved, previousStock, "Stock updated");
+        return saved;
+    }
+
+    /**
+     * Record a stock edit as an adjustment, so the movement ledger (and the stock snapshots
+     * derived from it) keeps matching product stock
+     */
+    private void logStockAdjustment(Product product, int previousStock, String notes) {
+        int newStock = stockOf(product);
+        if (newStock == previousStock) {
+            return;
+        }
+        StockMovement movement = new StockMovement();
+        movement.setProduct(product);
+        movement.setMovementType(StockMovement.MovementType.ADJUSTMENT);
+        movement.setQuantity(newStock - previousStock);
+        movement.setPreviousStock(previousStock);
+        movement.setNewStock(newStock);
+        movement.setReferenceType("ADJUSTMENT");
+        movement.setNotes(notes);
+        movement.setPerformedBy("ADMIN");
+        stockMovementRepository.save(movement);
+    }
+
+    private static int stockOf(Product product) {
+        return product.getStock() != null ? product.getStock() : 0;
     }
 
     @Override
@@ -237,75 +279,25 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public Page<Product> filterProducts(Long categoryId, Long brandId, BigDecimal minPrice,
             BigDecimal maxPrice, String search, Boolean inStock, Pageable pageable) {
-
-        // Get all products and filter in memory to avoid bytea issue
-        // Note: Ideally this should be done in the database with a dynamic query
-        // (Specification)
-        // But for now we update the in-memory filtering to use entity relationships
-        List<Product> allProducts = productRepository.findAll();
-
-        // Apply filters
-        List<Product> filtered = allProducts.stream()
-                .filter(p -> categoryId == null
-                        || (p.getCategory() != null && p.getCategory().getId().equals(categoryId)))
-                .filter(p -> brandId == null || (p.getBrand() != null && p.getBrand().getId().equals(brandId)))
-                .filter(p -> minPrice == null || p.getPrice().compareTo(minPrice) >= 0)
-                .filter(p -> maxPrice == null || p.getPrice().compareTo(maxPrice) <= 0)
-                .filter(p -> search == null || p.getName().toLowerCase().contains(search.toLowerCase()))
-                .filter(p -> inStock == null || !inStock || p.isInStock())
-                .collect(java.util.stream.Collectors.toList());
-
-        // Apply sorting
-        if (pageable.getSort().isSorted()) {
-            filtered = applySorting(filtered, pageable.getSort());
-        }
-
-        // Apply pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), filtered.size());
-        List<Product> pageContent = (start > end) ? java.util.Collections.emptyList() : filtered.subList(start, end);
-
-        return new org.springframework.data.domain.PageImpl<>(
-                pageContent,
-                pageable,
-                filtered.size());
-    }
-
-    /**
-     * Apply sorting to a list of products
-     */
-    private List<Product> applySorting(List<Product> products, Sort sort) {
-        java.util.Comparator<Product> comparator = null;
-
-        for (Sort.Order order : sort) {
-            java.util.Comparator<Product> currentComparator = null;
-
-            switch (order.getProperty()) {
-                case "name":
-                    currentComparator = java.util.Comparator.comparing(Product::getName,
-                            String.CASE_INSENSITIVE_ORDER);
-                    break;
-                case "price":
-                    currentComparator = java.util.Comparator.comparing(Product::getPrice);
-                    break;
-                case "createdAt":
-                    currentComparator = java.util.Comparator.comparing(Product::getCreatedAt);
-                    break;
-                default:
-                    currentComparator = java.util.Comparator.comparing(Product::getName);
-            }
-
-            if (order.getDirection() == Sort.Direction.DESC) {
-                currentComparator = currentComparator.reversed();
-            }
-
-            comparator = comparator == null ? currentComparator : comparator.thenComparing(currentComparator);
+        Specification<Product> filter = ProductSpecifications.filter(categoryId, brandId, minPrice, maxPrice,
+                search, inStock);
+        Pageable paging = pageable;
+        if (pageable.getSort().getOrderFor("relevance") != null) {
+            // Ranked in the query; the spec orders the rows itself, by name without a search
+            Map<Set<String>, Long> related = search != null ? searchAnalyticsService.relatedTerms(search) : Map.of();
+            filter = filter.and(ProductSpecifications.orderedByRelevance(related));
+            paging = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
         }
-
-        if (comparator != null) {
-            products.sort(comparator);
+        Page<Product> page = productRepository.findAll(filter, paging);
+
+        // Count each search once, on its first page, by the products its text matches
+        if (search != null && pageable.getPageNumber() == 0) {
+            boolean textOnly = categoryId == null && brandId == null && minPrice == null && maxPrice == null
+                    && !Boolean.TRUE.equals(inStock);
+            long textMatches = textOnly ? page.getTotalElements()
+                    : productRepository.count(ProductSpecifications.nameContains(search));
+            searchAnalyticsService.recordSearch(search, textMatches);
         }
-
-        return products;
+        return page;
     }
 }
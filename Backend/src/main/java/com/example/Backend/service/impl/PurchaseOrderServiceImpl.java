@@ -10,10 +10,12 @@ import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.PurchaseOrderRepository;
 import com.example.Backend.repository.SupplierRepository;
 import com.example.Backend.service.PurchaseOrderService;
+import com.example.Backend.util.PageRequests;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -117,13 +119,8 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
     @Override
     @Transactional(readOnly = true)
     public Page<PurchaseOrder> getPurchaseOrdersBySupplier(UUID supplierId, Pageable pageable) {
-        List<PurchaseOrder> pos = purchaseOrderRepository.findBySupplierId(supplierId);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), pos.size());
-        return new org.springframework.data.domain.PageImpl<>(
-                pos.subList(start, end),
-                pageable,
-                pos.size());
+        return purchaseOrderRepository.findBySupplierId(supplierId,
+                PageRequests.withDefaultSort(pageable, Sort.by(Sort.Direction.DESC, "orderDate")));
     }
 
     @Override
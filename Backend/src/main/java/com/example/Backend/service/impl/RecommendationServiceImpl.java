@@ -3,9 +3,13 @@ package com.example.Backend.service.impl;
 import com.example.Backend.entity.*;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.RecommendationRepository;
-import com.example.Backend.repository.UserActivityRepository;
 import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.CoPurchaseService;
+import com.example.Backend.service.ProductSimilarityService;
+import com.example.Backend.service.RecommendationResultCache;
 import com.example.Backend.service.RecommendationService;
+import com.example.Backend.service.TrendingService;
+import com.example.Backend.service.UserPreferenceService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,7 +17,6 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,70 +32,63 @@ public class RecommendationServiceImpl implements RecommendationService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final RecommendationRepository recommendationRepository;
-    private final UserActivityRepository activityRepository;
+    private final CoPurchaseService coPurchaseService;
+    private final TrendingService trendingService;
+    private final ProductSimilarityService productSimilarityService;
+    private final UserPreferenceService userPreferenceService;
+    private final RecommendationResultCache recommendationCache;
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getPersonalizedRecommendations(UUID userId, int limit) {
         log.info("Getting personalized recommendations for user: {}", userId);
+        return recommendationCache.get(userId, limit, () -> computePersonalizedRecommendations(userId, limit));
+    }
 
-        // Get user's category preferences from activity
-        List<Object[]> categoryPrefs = activityRepository.findUserCategoryPreferences(userId);
-        List<Object[]> brandPrefs = activityRepository.findUserBrandPreferences(userId);
-
-        // Get recently viewed products to exclude
-        List<UUID> recentlyViewed = activityRepository.findRecentlyViewedProductIds(
-                userId, PageRequest.of(0, 50));
-        Set<UUID> viewedSet = new HashSet<>(recentlyViewed);
-
-        // Build recommendations based on preferences
-        List<Product> recommendations = new ArrayList<>();
-
-        // 1. Products from preferred categories
-        if (!categoryPrefs.isEmpty()) {
-            Long topCategoryId = (Long) categoryPrefs.get(0)[0];
-            List<Product> categoryProducts = productRepository
-                    .findFeaturedProducts(PageRequest.of(0, limit * 2)).getContent()
-                    .stream()
-                    .filter(p -> p.getCategory() != null &&
-                            topCategoryId.equals(p.getCategory().getId()) &&
-                            !viewedSet.contains(p.getId()) &&
-                            p.getStock() > 0)
-                    .limit(limit / 2)
-                    .collect(Collectors.toList());
-            recommendations.addAll(categoryProducts);
+    private List<Product> computePersonalizedRecommendations(UUID userId, int limit) {
+        UserPreferenceService.Profile profile = userPreferenceService.getProfile(userId);
+        Set<UUID> recentlyViewed = profile.recentViews();
+
+        // Candidates from the user's strongest categories, brands and vehicle models; each
+        // query is fetched deep enough to survive the recently-viewed exclusion
+        PageRequest candidatePage = PageRequest.of(0, limit * 2 + recentlyViewed.size());
+        Map<UUID, Product> candidates = new LinkedHashMap<>();
+        List<Long> topCategories = profile.topCategories(UserPreferenceService.PREFERENCE_DEPTH);
+        if (!topCategories.isEmpty()) {
+            productRepository.findInStockByCategoryIds(topCategories, candidatePage)
+                    .forEach(p -> candidates.putIfAbsent(p.getId(), p));
         }
-
-        // 2. Products from preferred brands
-        if (!brandPrefs.isEmpty() && recommendations.size() < limit) {
-            Long topBrandId = (Long) brandPrefs.get(0)[0];
-            int remaining = limit - recommendations.size();
-            Set<UUID> alreadyAdded = recommendations.stream()
-                    .map(Product::getId).collect(Collectors.toSet());
-
-            List<Product> brandProducts = productRepository
-                    .findFeaturedProducts(PageRequest.of(0, limit * 2)).getContent()
-                    .stream()
-                    .filter(p -> p.getBrand() != null &&
-                            topBrandId.equals(p.getBrand().getId()) &&
-                            !viewedSet.contains(p.getId()) &&
-                            !alreadyAdded.contains(p.getId()) &&
-                            p.getStock() > 0)
-                    .limit(remaining)
-                    .collect(Collectors.toList());
-            recommendations.addAll(brandProducts);
+        List<Long> topBrands = profile.topBrands(UserPreferenceService.PREFERENCE_DEPTH);
+        if (!topBrands.isEmpty()) {
+            productRepository.findInStockByBrandIds(topBrands, candidatePage)
+                    .forEach(p -> candidates.putIfAbsent(p.getId(), p));
+        }
+        List<String> topModels = profile.topModels(UserPreferenceService.PREFERENCE_DEPTH);
+        if (!topModels.isEmpty()) {
+            productRepository.findInStockByModels(topModels, candidatePage)
+                    .forEach(p -> candidates.putIfAbsent(p.getId(), p));
         }
 
-        // 3. Fill with featured products if needed
+        // Best affinity first; newest first among equals, as fetched
+        List<Product> recommendations = candidates.values().stream()
+                .filter(p -> !recentlyViewed.contains(p.getId()) && p.getStock() > 0)
+                .sorted(Comparator.comparingDouble((Product p) -> profile.affinity(
+                        p.getCategory() != null ? p.getCategory().getId() : null,
+                        p.getBrand() != null ? p.getBrand().getId() : null,
+                        p.getModel())).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        // Fill with featured products if needed
         if (recommendations.size() < limit) {
             Set<UUID> alreadyAdded = recommendations.stream()
                     .map(Product::getId).collect(Collectors.toSet());
             int remaining = limit - recommendations.size();
 
             List<Product> featured = productRepository
-                    .findFeaturedProducts(PageRequest.of(0, remaining + 10)).getContent()
+                    .findFeaturedProducts(PageRequest.of(0, limit + recentlyViewed.size())).getContent()
                     .stream()
-                    .filter(p -> !viewedSet.contains(p.getId()) &&
+                    .filter(p -> !recentlyViewed.contains(p.getId()) &&
                             !alreadyAdded.contains(p.getId()) &&
                             p.getStock() > 0)
                     .limit(remaining)
@@ -100,7 +96,7 @@ public class RecommendationServiceImpl implements RecommendationService {
             recommendations.addAll(featured);
         }
 
-        log.info("Returning {} personalized recommendations for user: {}",
+        log.info("Computed {} personalized recommendations for user: {}",
                 recommendations.size(), userId);
         return recommendations;
     }
@@ -110,63 +106,32 @@ public class RecommendationServiceImpl implements RecommendationService {
     public List<Product> getSimilarProducts(UUID productId, int limit) {
         log.info("Getting similar products for: {}", productId);
 
-        Product sourceProduct = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
-
-        List<Product> similar = new ArrayList<>();
-
-        // 1. Same category products
-        if (sourceProduct.getCategory() != null) {
-            List<Product> sameCategory = productRepository
-                    .findFeaturedProducts(PageRequest.of(0, limit * 3)).getContent()
-                    .stream()
-                    .filter(p -> !p.getId().equals(productId) &&
-                            p.getCategory() != null &&
-                            p.getCategory().getId().equals(sourceProduct.getCategory().getId()) &&
-                            p.getStock() > 0)
-                    .limit(limit / 2)
-                    .collect(Collectors.toList());
-            similar.addAll(sameCategory);
-        }
-
-        // 2. Same brand products
-        if (sourceProduct.getBrand() != null && similar.size() < limit) {
-            Set<UUID> alreadyAdded = similar.stream()
-                    .map(Product::getId).collect(Collectors.toSet());
-            int remaining = limit - similar.size();
-
-            List<Product> sameBrand = productRepository
-                    .findFeaturedProducts(PageRequest.of(0, limit * 3)).getContent()
-                    .stream()
-                    .filter(p -> !p.getId().equals(productId) &&
-                            !alreadyAdded.contains(p.getId()) &&
-                            p.getBrand() != null &&
-                            p.getBrand().getId().equals(sourceProduct.getBrand().getId()) &&
-                            p.getStock() > 0)
-                    .limit(remaining)
-                    .collect(Collectors.toList());
-            similar.addAll(sameBrand);
-        }
-
-        // 3. Similar price range (within 30%)
-        if (sourceProduct.getPrice() != null && similar.size() < limit) {
-            Set<UUID> alreadyAdded = similar.stream()
-                    .map(Product::getId).collect(Collectors.toSet());
-            double minPrice = sourceProduct.getPrice().doubleValue() * 0.7;
-            double maxPrice = sourceProduct.getPrice().doubleValue() * 1.3;
-            int remaining = limit - similar.size();
-
-            List<Product> similarPrice = productRepository
-                    .findByPriceBetween(
-                            java.math.BigDecimal.valueOf(minPrice),
-                            java.math.BigDecimal.valueOf(maxPrice))
-                    .stream()
-                    .filter(p -> !p.getId().equals(productId) &&
-                            !alreadyAdded.contains(p.getId()) &&
-                            p.getStock() > 0)
-                    .limit(remaining)
-                    .collect(Collectors.toList());
-            similar.addAll(similarPrice);
+        // Nearest neighbours by content, in stock when indexed
+        List<UUID> similarIds = productSimilarityService.getSimilarIds(productId, limit);
+
+        Map<UUID, Product> productsById = productRepository.findAllById(similarIds).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        List<Product> similar = similarIds.stream()
+                .map(productsById::get)
+                .filter(p -> p != null && p.getStock() > 0)
+                .limit(limit)
+                .collect(Collectors.toList());
+
+        // Index not built yet or product just added: fall back to the newest of the same category
+        if (similar.size() < limit) {
+            Product sourceProduct = productRepository.findById(productId)
+                    .orElseThrow(() -> new EntityNotFoundException("Product not found: " + productId));
+            if (sourceProduct.getCategory() != null) {
+                Set<UUID> alreadyAdded = similar.stream()
+                        .map(Product::getId).collect(Collectors.toSet());
+                int remaining = limit - similar.size();
+
+                productRepository.findInStockByCategoryIds(List.of(sourceProduct.getCategory().getId()),
+                                PageRequest.of(0, limit + 1)).stream()
+                        .filter(p -> !p.getId().equals(productId) && !alreadyAdded.contains(p.getId()))
+                        .limit(remaining)
+                        .forEach(similar::add);
+            }
         }
 
         log.info("Returning {} similar products for: {}", similar.size(), productId);
@@ -178,17 +143,16 @@ public class RecommendationServiceImpl implements RecommendationService {
     public List<Product> getAlsoBoughtProducts(UUID productId, int limit) {
         log.info("Getting also-bought products for: {}", productId);
 
-        // Get products frequently bought together from activity data
-        List<Object[]> alsoBoughtData = activityRepository.findAlsoBoughtProductIds(
-                productId, PageRequest.of(0, limit));
+        // Precomputed co-purchase neighbours, extra ones in case some are out of stock
+        List<UUID> alsoBoughtIds = coPurchaseService.getAlsoBoughtIds(productId, limit * 2);
 
-        List<Product> alsoBought = new ArrayList<>();
-        for (Object[] data : alsoBoughtData) {
-            UUID alsoProductId = (UUID) data[0];
-            productRepository.findById(alsoProductId)
-                    .filter(p -> p.getStock() > 0)
-                    .ifPresent(alsoBought::add);
-        }
+        Map<UUID, Product> productsById = productRepository.findAllById(alsoBoughtIds).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        List<Product> alsoBought = alsoBoughtIds.stream()
+                .map(productsById::get)
+                .filter(p -> p != null && p.getStock() > 0)
+                .limit(limit)
+                .collect(Collectors.toList());
 
         // If not enough data, fall back to similar products
         if (alsoBought.size() < limit) {
@@ -207,38 +171,9 @@ public class RecommendationServiceImpl implements RecommendationService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<Product> getTrendingProducts(int days, int limit) {
-        log.info("Getting trending products for last {} days", days);
-
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        List<Object[]> trendingData = activityRepository.findTrendingProductIds(
-                since, PageRequest.of(0, limit));
-
-        List<Product> trending = new ArrayList<>();
-        for (Object[] data : trendingData) {
-            UUID trendingProductId = (UUID) data[0];
-            productRepository.findById(trendingProductId)
-                    .filter(p -> p.getStock() > 0)
-                    .ifPresent(trending::add);
-        }
-
-        // Fall back to featured products if not enough trending data
-        if (trending.size() < limit) {
-            Set<UUID> alreadyAdded = trending.stream()
-                    .map(Product::getId).collect(Collectors.toSet());
-            int remaining = limit - trending.size();
-
-            productRepository.findFeaturedProducts(PageRequest.of(0, remaining + 5))
-                    .getContent()
-                    .stream()
-                    .filter(p -> !alreadyAdded.contains(p.getId()) && p.getStock() > 0)
-                    .limit(remaining)
-                    .forEach(trending::add);
-        }
-
-        log.info("Returning {} trending products", trending.size());
-        return trending;
+        // Served from memory, see TrendingService
+        return trendingService.getTrendingProducts(days, limit);
     }
 
     @Override
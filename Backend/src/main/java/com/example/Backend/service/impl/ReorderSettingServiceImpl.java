@@ -2,18 +2,21 @@ package com.example.Backend.service.impl;
 
 import com.example.Backend.dto.ReorderSettingDTO;
 import com.example.Backend.entity.Product;
+import com.example.Backend.entity.PurchaseOrder;
 import com.example.Backend.entity.ReorderSetting;
 import com.example.Backend.entity.Supplier;
 import com.example.Backend.exception.ResourceNotFoundException;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.ReorderSettingRepository;
 import com.example.Backend.repository.SupplierRepository;
+import com.example.Backend.service.AutoReorderService;
 import com.example.Backend.service.ReorderSettingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -30,7 +33,7 @@ public class ReorderSettingServiceImpl implements ReorderSettingService {
     private final ReorderSettingRepository reorderSettingRepository;
     private final ProductRepository productRepository;
     private final SupplierRepository supplierRepository;
-    private final com.example.Backend.service.PurchaseOrderService purchaseOrderService;
+    private final AutoReorderService autoReorderService;
 
     @Override
     public ReorderSetting createReorderSetting(ReorderSettingDTO dto) {
@@ -50,6 +53,7 @@ public class ReorderSettingServiceImpl implements ReorderSettingService {
         setting.setReorderPoint(dto.getReorderPoint());
         setting.setReorderQuantity(dto.getReorderQuantity());
         setting.setAutoReorder(dto.getAutoReorder() != null ? dto.getAutoReorder() : false);
+        setting.setAutoApplyForecast(dto.getAutoApplyForecast() != null ? dto.getAutoApplyForecast() : false);
         setting.setIsEnabled(true);
 
         if (dto.getPreferredSupplierId() != null) {
@@ -72,6 +76,9 @@ public class ReorderSettingServiceImpl implements ReorderSettingService {
         if (dto.getAutoReorder() != null) {
             setting.setAutoReorder(dto.getAutoReorder());
         }
+        if (dto.getAutoApplyForecast() != null) {
+            setting.setAutoApplyForecast(dto.getAutoApplyForecast());
+        }
 
         if (dto.getPreferredSupplierId() != null) {
             Supplier supplier = supplierRepository.findById(dto.getPreferredSupplierId())
@@ -109,6 +116,21 @@ public class ReorderSettingServiceImpl implements ReorderSettingService {
         return reorderSettingRepository.findProductsNeedingReorder();
     }
 
+    @Override
+    public ReorderSetting applyForecast(UUID id) {
+        ReorderSetting setting = getById(id);
+        if (setting.getSuggestedReorderPoint() == null || setting.getSuggestedReorderQuantity() == null) {
+            throw new IllegalArgumentException("No demand forecast available for this reorder setting yet");
+        }
+        log.info("Applying forecast to reorder setting {}: point {} -> {}, quantity {} -> {}", id,
+                setting.getReorderPoint(), setting.getSuggestedReorderPoint(),
+                setting.getReorderQuantity(), setting.getSuggestedReorderQuantity());
+
+        setting.setReorderPoint(setting.getSuggestedReorderPoint());
+        setting.setReorderQuantity(setting.getSuggestedReorderQuantity());
+        return reorderSettingRepository.save(setting);
+    }
+
     @Override
     public void deleteReorderSetting(UUID id) {
         log.info("Deleting reorder setting: {}", id);
@@ -118,41 +140,12 @@ public class ReorderSettingServiceImpl implements ReorderSettingService {
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void checkAndTriggerAutoReorders() {
         log.info("Checking for products that need auto-reorder");
 
-        List<ReorderSetting> belowReorderPoint = getProductsBelowReorderPoint();
-
-        for (ReorderSetting setting : belowReorderPoint) {
-            if (setting.getAutoReorder() && setting.getPreferredSupplier() != null) {
-                log.info("Auto-reorder triggered for product: {} from supplier: {}",
-                        setting.getProduct().getName(),
-                        setting.getPreferredSupplier().getName());
-
-                // Create Purchase Order DTO
-                com.example.Backend.dto.PurchaseOrderDTO poDTO = new com.example.Backend.dto.PurchaseOrderDTO();
-                poDTO.setSupplierId(setting.getPreferredSupplier().getId());
-                poDTO.setOrderDate(java.time.LocalDate.now());
-                poDTO.setExpectedDelivery(java.time.LocalDate.now().plusDays(7)); // Default 7 days delivery
-                poDTO.setStatus("DRAFT");
-                poDTO.setNotes("Auto-generated reorder for low stock product: " + setting.getProduct().getName());
-
-                // Create Item DTO
-                com.example.Backend.dto.PurchaseOrderDTO.PurchaseOrderItemDTO itemDTO = new com.example.Backend.dto.PurchaseOrderDTO.PurchaseOrderItemDTO();
-                itemDTO.setProductId(setting.getProduct().getId());
-                itemDTO.setQuantity(setting.getReorderQuantity());
-                itemDTO.setUnitPrice(setting.getProduct().getPrice().doubleValue());
-
-                poDTO.setItems(java.util.Collections.singletonList(itemDTO));
-
-                // Create Purchase Order
-                try {
-                    purchaseOrderService.createPurchaseOrder(poDTO);
-                    log.info("Successfully created auto-reorder PO for product: {}", setting.getProduct().getName());
-                } catch (Exception e) {
-                    log.error("Failed to create auto-reorder PO for product: {}", setting.getProduct().getName(), e);
-                }
-            }
-        }
+        // Consolidated into one purchase order per supplier, skipping products already on order
+        List<PurchaseOrder> created = autoReorderService.reorderAll();
+        log.info("Auto-reorder check created {} purchase order(s)", created.size());
     }
 }
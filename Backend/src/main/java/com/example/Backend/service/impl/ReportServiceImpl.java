@@ -1,5 +1,6 @@
 package com.example.Backend.service.impl;
 
+import com.example.Backend.dto.ReportSummaryDTO;
 import com.example.Backend.entity.Report;
 import com.example.Backend.repository.DeliveryRepository;
 import com.example.Backend.repository.OrderRepository;
@@ -15,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.IntConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -37,19 +40,68 @@ public class ReportServiceImpl implements ReportService {
     private final DeliveryRepository deliveryRepository;
     private final ObjectMapper objectMapper;
 
+    private static final IntConsumer NO_PROGRESS = percent -> {
+    };
+    private static final List<String> ORDER_STATUSES = List.of("PENDING", "CONFIRMED", "SHIPPED", "DELIVERED",
+            "CANCELLED");
+    private static final List<String> USER_ROLES = List.of("CLIENT", "SUPPORT", "ADMIN", "SUPER_ADMIN");
+
     @Override
     @Transactional
     public Report generateSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
+        return generateReport(Report.TYPE_SALES, startDate, endDate, null, null, NO_PROGRESS);
+    }
+
+    @Override
+    @Transactional
+    public Report generateProductReport(LocalDateTime startDate, LocalDateTime endDate) {
+        return generateReport(Report.TYPE_INVENTORY, startDate, endDate, null, null, NO_PROGRESS);
+    }
+
+    @Override
+    @Transactional
+    public Report generateUserReport(LocalDateTime startDate, LocalDateTime endDate) {
+        return generateReport(Report.TYPE_USERS, startDate, endDate, null, null, NO_PROGRESS);
+    }
+
+    @Override
+    @Transactional
+    public Report generateCustomReport(String reportType, LocalDateTime startDate,
+            LocalDateTime endDate, Map<String, Object> parameters) {
+        return generateReport(reportType, startDate, endDate, parameters, null, NO_PROGRESS);
+    }
+
+    @Override
+    @Transactional
+    public Report generateReport(String reportType, LocalDateTime startDate, LocalDateTime endDate,
+            Map<String, Object> parameters, UUID generatedBy, IntConsumer progress) {
+        Report report = switch (reportType.toUpperCase()) {
+            case Report.TYPE_SALES -> buildSalesReport(startDate, endDate, progress);
+            case Report.TYPE_INVENTORY, "PRODUCTS" -> buildProductReport(progress);
+            case Report.TYPE_USERS -> buildUserReport(startDate, endDate, progress);
+            default -> buildCustomReport(reportType, startDate, endDate, parameters);
+        };
+        report.setGeneratedBy(generatedBy);
+        report.setPeriodStart(startDate);
+        report.setPeriodEnd(endDate);
+        report.setCreatedAt(LocalDateTime.now());
+
+        Report saved = reportRepository.save(report);
+        progress.accept(100);
+        return saved;
+    }
+
+    private Report buildSalesReport(LocalDateTime startDate, LocalDateTime endDate, IntConsumer progress) {
         Map<String, Object> reportData = new HashMap<>();
 
         // Calculate total revenue
         BigDecimal totalRevenue = orderRepository.calculateRevenueBetween(startDate, endDate);
         reportData.put("totalRevenue", totalRevenue);
+        progress.accept(20);
 
         // Count orders in period
-        List<com.example.Backend.entity.Order> ordersInPeriod = orderRepository.findByCreatedAtBetween(startDate,
-                endDate);
-        reportData.put("orderCount", ordersInPeriod.size());
+        reportData.put("orderCount", orderRepository.countByCreatedAtBetween(startDate, endDate));
+        progress.accept(40);
 
         // Get top selling products
         List<com.example.Backend.entity.Product> topProducts = productRepository.findTopSellingProducts(
@@ -57,28 +109,28 @@ public class ReportServiceImpl implements ReportService {
         reportData.put("topSellingProducts", topProducts.stream()
                 .map(p -> Map.of("name", p.getName(), "price", p.getPrice(), "stock", p.getStock()))
                 .toList());
+        progress.accept(70);
 
-        // Order statistics by status
-        reportData.put("ordersByStatus", Map.of(
-                "PENDING", orderRepository.countByStatus("PENDING"),
-                "CONFIRMED", orderRepository.countByStatus("CONFIRMED"),
-                "SHIPPED", orderRepository.countByStatus("SHIPPED"),
-                "DELIVERED", orderRepository.countByStatus("DELIVERED"),
-                "CANCELLED", orderRepository.countByStatus("CANCELLED")));
+        // Order statistics by status for the period, in one grouped query
+        Map<String, Long> ordersByStatus = new HashMap<>();
+        for (String status : ORDER_STATUSES) {
+            ordersByStatus.put(status, 0L);
+        }
+        for (Object[] row : orderRepository.countByStatusBetween(startDate, endDate)) {
+            ordersByStatus.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        reportData.put("ordersByStatus", ordersByStatus);
+        progress.accept(90);
 
         Report report = new Report();
         report.setReportType(Report.TYPE_SALES);
         report.setTitle("Sales Report: " + startDate.toLocalDate() + " to " + endDate.toLocalDate());
         report.setDescription("Comprehensive sales analysis including revenue, orders, and top products");
         report.setData(convertToJson(reportData));
-        report.setCreatedAt(LocalDateTime.now());
-
-        return reportRepository.save(report);
+        return report;
     }
 
-    @Override
-    @Transactional
-    public Report generateProductReport(LocalDateTime startDate, LocalDateTime endDate) {
+    private Report buildProductReport(IntConsumer progress) {
         Map<String, Object> reportData = new HashMap<>();
 
         // Total products
@@ -89,8 +141,8 @@ public class ReportServiceImpl implements ReportService {
         reportData.put("inStockProducts", inStockCount);
 
         // Out of stock
-        List<com.example.Backend.entity.Product> outOfStock = productRepository.findOutOfStock();
-        reportData.put("outOfStockProducts", outOfStock.size());
+        reportData.put("outOfStockProducts", productRepository.countOutOfStock());
+        progress.accept(40);
 
         // Low stock products
         List<com.example.Backend.entity.Product> lowStock = productRepository.findLowStock(10);
@@ -98,58 +150,58 @@ public class ReportServiceImpl implements ReportService {
                 .map(p -> p.getName() + " (Stock: " + p.getStock() + ")")
                 .toList();
         reportData.put("lowStockProducts", lowStockProducts);
+        progress.accept(70);
 
         // Products by category
         reportData.put("categories", productRepository.findDistinctCategories());
+        progress.accept(90);
 
         Report report = new Report();
         report.setReportType(Report.TYPE_INVENTORY);
         report.setTitle("Product Inventory Report");
         report.setDescription("Product inventory status and stock levels");
         report.setData(convertToJson(reportData));
-        report.setCreatedAt(LocalDateTime.now());
-
-        return reportRepository.save(report);
+        return report;
     }
 
-    @Override
-    @Transactional
-    public Report generateUserReport(LocalDateTime startDate, LocalDateTime endDate) {
+    private Report buildUserReport(LocalDateTime startDate, LocalDateTime endDate, IntConsumer progress) {
         Map<String, Object> reportData = new HashMap<>();
 
         // Total users
         reportData.put("totalUsers", userRepository.count());
 
         // New users in period
-        List<com.example.Backend.entity.User> newUsers = userRepository.findByCreatedAtAfter(startDate);
-        reportData.put("newUsersInPeriod", newUsers.size());
+        reportData.put("newUsersInPeriod", userRepository.countByCreatedAtBetween(startDate, endDate));
+        progress.accept(30);
 
         // Active users (users with recent orders)
-        int activeUsers = userRepository.findActiveUsers(endDate.minusDays(30)).size();
-        reportData.put("activeUsers", activeUsers);
+        reportData.put("activeUsers", orderRepository.countDistinctCustomersSince(endDate.minusDays(30)));
+        progress.accept(60);
 
         // Users by role
-        reportData.put("usersByRole", Map.of(
-                "CLIENT", userRepository.countByRoleName("CLIENT"),
-                "SUPPORT", userRepository.countByRoleName("SUPPORT"),
-                "ADMIN", userRepository.countByRoleName("ADMIN"),
-                "SUPER_ADMIN", userRepository.countByRoleName("SUPER_ADMIN")));
+        Map<String, Long> usersByRole = new HashMap<>();
+        for (String role : USER_ROLES) {
+            usersByRole.put(role, 0L);
+        }
+        for (Object[] row : userRepository.countUsersByRole()) {
+            if (row[0] != null && usersByRole.containsKey((String) row[0])) {
+                usersByRole.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        reportData.put("usersByRole", usersByRole);
+        progress.accept(90);
 
         Report report = new Report();
         report.setReportType(Report.TYPE_USERS);
         report.setTitle("User Activity Report");
         report.setDescription("User registration and activity statistics");
         report.setData(convertToJson(reportData));
-        report.setCreatedAt(LocalDateTime.now());
-
-        return reportRepository.save(report);
+        return report;
     }
 
-    @Override
-    @Transactional
-    public Report generateCustomReport(String reportType, LocalDateTime startDate,
+    private Report buildCustomReport(String reportType, LocalDateTime startDate,
             LocalDateTime endDate, Map<String, Object> parameters) {
-        Map<String, Object> reportData = new HashMap<>(parameters);
+        Map<String, Object> reportData = new HashMap<>(parameters != null ? parameters : Map.of());
         reportData.put("startDate", startDate.toString());
         reportData.put("endDate", endDate.toString());
 
@@ -158,9 +210,7 @@ public class ReportServiceImpl implements ReportService {
         report.setTitle("Custom Report: " + reportType);
         report.setDescription("Custom generated report");
         report.setData(convertToJson(reportData));
-        report.setCreatedAt(LocalDateTime.now());
-
-        return reportRepository.save(report);
+        return report;
     }
 
     @Override
@@ -172,32 +222,28 @@ public class ReportServiceImpl implements ReportService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Report> getAllReports(Pageable pageable) {
-        return reportRepository.findAllReportsSortedByDate(pageable);
+    public Page<ReportSummaryDTO> getAllReports(Pageable pageable) {
+        return reportRepository.findAllSummaries(pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Report> getReportsByType(String reportType, Pageable pageable) {
-        return reportRepository.findByReportTypeOrderByCreatedAtDesc(reportType, pageable);
+    public Page<ReportSummaryDTO> getReportsByType(String reportType, Pageable pageable) {
+        return reportRepository.findSummariesByReportType(reportType, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Report> getReportsByCreator(UUID adminId, Pageable pageable) {
-        List<Report> reports = reportRepository.findByGeneratedBy(adminId);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), reports.size());
-        return new org.springframework.data.domain.PageImpl<>(
-                reports.subList(start, end), pageable, reports.size());
+    public Page<ReportSummaryDTO> getReportsByCreator(UUID adminId, Pageable pageable) {
+        return reportRepository.findSummariesByGeneratedBy(adminId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Report> getRecentReports(int limit) {
+    public List<ReportSummaryDTO> getRecentReports(int limit) {
         LocalDateTime since = LocalDateTime.now().minusDays(30);
-        List<Report> reports = reportRepository.findRecentReports(since);
-        return reports.stream().limit(limit).toList();
+        return reportRepository.findRecentSummaries(since, PageRequest.of(0, Math.max(1, limit),
+                Sort.by(Sort.Direction.DESC, "createdAt")));
     }
 
     @Override
@@ -222,12 +268,12 @@ public class ReportServiceImpl implements ReportService {
         // Product statistics
         stats.put("totalProducts", productRepository.count());
         stats.put("productsInStock", productRepository.countInStock());
-        stats.put("outOfStockProducts", productRepository.findOutOfStock().size());
-        stats.put("lowStockProducts", productRepository.findLowStock(10).size());
+        stats.put("outOfStockProducts", productRepository.countOutOfStock());
+        stats.put("lowStockProducts", productRepository.countLowStock(10));
         
         // User statistics
         stats.put("totalUsers", userRepository.count());
-        stats.put("activeUsers", userRepository.findActiveUsers(LocalDateTime.now().minusDays(30)).size());
+        stats.put("activeUsers", orderRepository.countDistinctCustomersSince(LocalDateTime.now().minusDays(30)));
         
         // Reclamation statistics
         stats.put("totalReclamations", reclamationRepository.count());
@@ -235,13 +281,13 @@ public class ReportServiceImpl implements ReportService {
         
         // Delivery statistics
         stats.put("totalDeliveries", deliveryRepository.count());
-        stats.put("activeDeliveries", deliveryRepository.findActiveDeliveries().size());
+        stats.put("activeDeliveries", deliveryRepository.countActiveDeliveries());
         stats.put("deliveredCount", deliveryRepository.countByStatus("DELIVERED"));
         
         // Recent activity (last 7 days)
         LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
-        stats.put("ordersLastWeek", orderRepository.findRecentOrders(lastWeek).size());
-        stats.put("usersLastWeek", userRepository.findByCreatedAtAfter(lastWeek).size());
+        stats.put("ordersLastWeek", orderRepository.countByCreatedAtAfter(lastWeek));
+        stats.put("usersLastWeek", userRepository.countByCreatedAtAfter(lastWeek));
         
         return stats;
     }    /**
@@ -7,6 +7,7 @@ import com.example.Backend.exception.ResourceNotFoundException;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.StockMovementRepository;
 import com.example.Backend.service.StockMovementService;
+import com.example.Backend.util.PageRequests;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -114,13 +115,8 @@ public class StockMovementServiceImpl implements StockMovementService {
             default:
                 movementType = StockMovement.MovementType.valueOf(type.toUpperCase());
         }
-        List<StockMovement> movements = stockMovementRepository.findByMovementType(movementType);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), movements.size());
-        return new org.springframework.data.domain.PageImpl<>(
-                movements.subList(start, end),
-                pageable,
-                movements.size());
+        return stockMovementRepository.findByMovementType(movementType,
+                PageRequests.withDefaultSort(pageable, Sort.by(Sort.Direction.DESC, "movementDate")));
     }
 
     @Override
@@ -5,10 +5,12 @@ import com.example.Backend.entity.Supplier;
 import com.example.Backend.exception.ResourceNotFoundException;
 import com.example.Backend.repository.SupplierRepository;
 import com.example.Backend.service.SupplierService;
+import com.example.Backend.util.PageRequests;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -75,14 +77,8 @@ public class SupplierServiceImpl implements SupplierService {
     @Override
     @Transactional(readOnly = true)
     public Page<Supplier> searchSuppliers(String keyword, Pageable pageable) {
-        // Use the existing searchSuppliers method and convert to Page
-        List<Supplier> suppliers = supplierRepository.searchSuppliers(keyword);
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), suppliers.size());
-        return new org.springframework.data.domain.PageImpl<>(
-                suppliers.subList(start, end),
-                pageable,
-                suppliers.size());
+        return supplierRepository.searchSuppliers(keyword,
+                PageRequests.withDefaultSort(pageable, Sort.by("name")));
     }
 
     @Override
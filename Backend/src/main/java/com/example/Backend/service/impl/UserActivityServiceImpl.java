@@ -8,6 +8,7 @@ import com.example.Backend.entity.UserActivity;
 import com.example.Backend.repository.ProductRepository;
 import com.example.Backend.repository.UserActivityRepository;
 import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.RecentViewFilter;
 import com.example.Backend.service.UserActivityService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -33,9 +34,7 @@ public class UserActivityServiceImpl implements UserActivityService {
     private final UserActivityRepository activityRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-
-    // Minimum time between duplicate view events (5 minutes)
-    private static final int DUPLICATE_VIEW_MINUTES = 5;
+    private final RecentViewFilter recentViewFilter;
 
     @Override
     @Transactional
@@ -65,8 +64,7 @@ public class UserActivityServiceImpl implements UserActivityService {
     @Transactional
     public UserActivity trackProductView(UUID userId, UUID productId, String sessionId) {
         // Prevent duplicate views within short timeframe
-        LocalDateTime since = LocalDateTime.now().minusMinutes(DUPLICATE_VIEW_MINUTES);
-        if (activityRepository.hasRecentView(userId, productId, since)) {
+        if (!recentViewFilter.recordIfFirst(userId, productId)) {
             log.debug("Skipping duplicate view for product {} by user {}", productId, userId);
             return null;
         }
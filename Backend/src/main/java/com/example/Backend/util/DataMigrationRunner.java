@@ -1,5 +1,6 @@
 package com.example.Backend.util;
 
+import com.example.Backend.entity.AdminNotificationType;
 import com.example.Backend.entity.Brand;
 import com.example.Backend.entity.Category;
 import com.example.Backend.repository.BrandRepository;
@@ -7,8 +8,15 @@ import com.example.Backend.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Component
@@ -17,10 +25,14 @@ public class DataMigrationRunner implements CommandLineRunner {
 
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     @Transactional
     public void run(String... args) {
+        refreshEnumCheckConstraints();
+
         log.info("=== Checking Categories and Brands ===");
 
         long categoryCount = categoryRepository.count();
@@ -35,6 +47,30 @@ public class DataMigrationRunner implements CommandLineRunner {
         createDefaultData();
     }
 
+    /**
+     * Hibernate creates a CHECK constraint listing the enum values when it creates a table,
+     * but ddl-auto=update never refreshes it, so values added later would be rejected.
+     * Recreates it with the current values. Runs in its own transactions: on PostgreSQL a
+     * failed statement aborts the transaction it runs in, which would make the seeding below
+     * fail too.
+     */
+    private void refreshEnumCheckConstraints() {
+        String types = Arrays.stream(AdminNotificationType.values())
+                .map(type -> "'" + type.name() + "'")
+                .collect(Collectors.joining(", "));
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            separate.executeWithoutResult(status -> jdbcTemplate.execute("ALTER TABLE IF EXISTS admin_notifications "
+                    + "DROP CONSTRAINT IF EXISTS admin_notifications_type_check"));
+            // Separately, so rows with a removed type only leave the table unchecked
+            separate.executeWithoutResult(status -> jdbcTemplate.execute("ALTER TABLE IF EXISTS admin_notifications "
+                    + "ADD CONSTRAINT admin_notifications_type_check CHECK (type IN (" + types + "))"));
+        } catch (Exception e) {
+            log.warn("Could not refresh enum check constraint: {}", e.getMessage());
+        }
+    }
+
     @Transactional
     private void createDefaultData() {
         // Create default categories
@@ -0,0 +1,161 @@
+package com.example.Backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Daily demand forecasting for reorder points.
+ *
+ * Products that sell most days get simple exponential smoothing. Spare parts that sell
+ * once in a while (average interval between sales above 1.32 days, the Syntetos-Boylan
+ * cut-off) get Croston's method with the Syntetos-Boylan bias correction, which smooths the
+ * sale sizes and the intervals between sales separately instead of dragging the level
+ * towards zero after every quiet day.
+ *
+ * The history starts at the first sale: days before it (product not listed or not sold yet)
+ * say nothing about its demand and would make a new product look intermittent and slow.
+ * Until a product has sold on a few days over a few weeks there is too little history to
+ * tell a steady seller from a one-off order, so no rate is forecast (SHORT_HISTORY).
+ */
+public final class DemandForecaster {
+
+    public static final String METHOD_SES = "SES";
+    public static final String METHOD_CROSTON = "CROSTON_SBA";
+    public static final String METHOD_NO_DEMAND = "NO_DEMAND";
+    public static final String METHOD_SHORT_HISTORY = "SHORT_HISTORY";
+
+    private static final double INTERMITTENT_INTERVAL = 1.32;
+    // Days since the first sale, and days with sales, needed to forecast at all
+    static final int MIN_HISTORY_DAYS = 28;
+    static final int MIN_DEMAND_DAYS = 3;
+
+    private DemandForecaster() {
+    }
+
+    /**
+     * Forecast daily demand rate and standard deviation of one-day forecast errors
+     */
+    public record Forecast(String method, double dailyDemand, double dailyStdDev) {
+
+        /**
+         * Whether the forecast is based on enough history to replace hand-set reorder settings
+         */
+        public boolean isReliable() {
+            return !METHOD_SHORT_HISTORY.equals(method);
+        }
+
+        /**
+         * Stock covering demand over the lead time at the given service level
+         */
+        public int reorderPoint(int leadTimeDays, double serviceLevel) {
+            double safetyStock = inverseNormal(serviceLevel) * dailyStdDev * Math.sqrt(leadTimeDays);
+            return (int) Math.ceil(dailyDemand * leadTimeDays + Math.max(0, safetyStock));
+        }
+
+        /**
+         * Quantity covering demand for the given number of days, at least one unit
+         */
+        public int reorderQuantity(int coverDays) {
+            return Math.max(1, (int) Math.ceil(dailyDemand * coverDays));
+        }
+    }
+
+    /**
+     * Forecast from daily demand, oldest day first
+     *
+     * @param demand daily quantities (zero on days without sales)
+     * @param alpha  smoothing constant, typically 0.05 - 0.2
+     */
+    public static Forecast forecast(double[] demand, double alpha) {
+        int firstSale = 0;
+        while (firstSale < demand.length && demand[firstSale] <= 0) {
+            firstSale++;
+        }
+        if (firstSale == demand.length) {
+            return new Forecast(METHOD_NO_DEMAND, 0, 0);
+        }
+        double[] history = Arrays.copyOfRange(demand, firstSale, demand.length);
+
+        int demandDays = 0;
+        for (double quantity : history) {
+            if (quantity > 0) {
+                demandDays++;
+            }
+        }
+        if (history.length < MIN_HISTORY_DAYS || demandDays < MIN_DEMAND_DAYS) {
+            return new Forecast(METHOD_SHORT_HISTORY, 0, 0);
+        }
+        double averageInterval = (double) history.length / demandDays;
+        return averageInterval > INTERMITTENT_INTERVAL ? croston(history, alpha) : ses(history, alpha);
+    }
+
+    static Forecast ses(double[] demand, double alpha) {
+        // Start from the mean of the first week so early errors aren't dominated by one day
+        int warmUp = Math.min(7, demand.length);
+        double level = 0;
+        for (int i = 0; i < warmUp; i++) {
+            level += demand[i] / warmUp;
+        }
+        double squaredErrors = 0;
+        for (double quantity : demand) {
+            double error = quantity - level;
+            squaredErrors += error * error;
+            level += alpha * error;
+        }
+        return new Forecast(METHOD_SES, level, Math.sqrt(squaredErrors / demand.length));
+    }
+
+    // Intervals are measured between sales, so the first one is known at the second sale
+    static Forecast croston(double[] demand, double alpha) {
+        double size = -1;
+        double interval = -1;
+        int daysSinceDemand = 0;
+        double squaredErrors = 0;
+        int errorCount = 0;
+        for (double quantity : demand) {
+            if (size >= 0) {
+                daysSinceDemand++;
+                if (interval > 0) {
+                    double error = quantity - rate(size, interval, alpha);
+                    squaredErrors += error * error;
+                    errorCount++;
+                }
+            }
+            if (quantity > 0) {
+                if (size < 0) {
+                    size = quantity;
+                } else if (interval < 0) {
+                    size += alpha * (quantity - size);
+                    interval = daysSinceDemand;
+                } else {
+                    size += alpha * (quantity - size);
+                    interval += alpha * (daysSinceDemand - interval);
+                }
+                daysSinceDemand = 0;
+            }
+        }
+        if (interval < 0) {
+            // A single sale: spread it over the days since
+            interval = Math.max(1, daysSinceDemand + 1);
+        }
+        double stdDev = errorCount > 0 ? Math.sqrt(squaredErrors / errorCount) : size;
+        return new Forecast(METHOD_CROSTON, rate(size, interval, alpha), stdDev);
+    }
+
+    // Syntetos-Boylan approximation: Croston's size / interval ratio is biased upwards
+    private static double rate(double size, double interval, double alpha) {
+        return (1 - alpha / 2) * size / interval;
+    }
+
+    /**
+     * Standard normal quantile for p in (0.5, 1), e.g. 1.645 for a 95% service level
+     * (Abramowitz and Stegun 26.2.23, absolute error below 4.5e-4)
+     */
+    public static double inverseNormal(double p) {
+        if (p <= 0.5) {
+            return 0;
+        }
+        double t = Math.sqrt(-2 * Math.log(1 - Math.min(p, 0.999999)));
+        return t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+                / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.Backend.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-bucketed Bloom filter answering "was this key seen within the window?" without storing
+ * the keys. The window is split into buckets of equal length; keys are added to the bucket of
+ * the current time and looked up in every bucket still inside the window, and a bucket is
+ * cleared and reused once it falls out. A key is therefore remembered for at least the window
+ * and at most one bucket longer.
+ *
+ * There are no false negatives inside the window. False positives (a new key reported as
+ * seen) happen at about the configured rate as long as each bucket gets no more than the
+ * expected number of keys, and grow beyond it. Keys are two longs, e.g. the halves of a
+ * UUID pair folded together by the caller.
+ *
+ * Thread safe: bits are set atomically and a bucket is cleared under a lock by the first
+ * thread entering a new time slot. A key added by a thread still in the previous slot while
+ * its bucket is being reused may be lost. {@link #putIfAbsent} checks and adds under a lock
+ * striped by key, so of concurrent calls for one key only one adds it.
+ */
+public class ExpiringBloomFilter {
+
+    private final long bucketMillis;
+    private final int hashes;
+    private final int bitsPerBucket;
+    // One more bucket than the window needs, so the oldest live one can be partly expired
+    private final AtomicLongArray[] buckets;
+    private final AtomicLongArray bucketSlots;
+    private final AtomicIntegerArray bucketKeys;
+    private final Object[] keyLocks = new Object[64];
+
+    /**
+     * @param windowMillis          how long a key is remembered
+     * @param bucketCount           number of buckets the window is split into
+     * @param expectedKeysPerBucket keys added per bucket the false positive rate is sized for
+     * @param falsePositiveRate     target probability that an unseen key is reported as seen
+     */
+    public ExpiringBloomFilter(long windowMillis, int bucketCount, int expectedKeysPerBucket,
+            double falsePositiveRate) {
+        if (windowMillis <= 0 || bucketCount <= 0 || expectedKeysPerBucket <= 0
+                || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter parameters");
+        }
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+        int live = bucketCount + 1;
+
+        // A lookup checks every live bucket, so each gets a share of the target rate
+        double bucketRate = falsePositiveRate / live;
+        long bits = (long) Math.ceil(-expectedKeysPerBucket * Math.log(bucketRate) / (Math.log(2) * Math.log(2)));
+        this.bitsPerBucket = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, (bits + 63) / 64 * 64));
+        this.hashes = Math.max(1, (int) Math.round((double) bitsPerBucket / expectedKeysPerBucket * Math.log(2)));
+
+        this.buckets = new AtomicLongArray[live];
+        this.bucketSlots = new AtomicLongArray(live);
+        this.bucketKeys = new AtomicIntegerArray(live);
+        for (int i = 0; i < live; i++) {
+            buckets[i] = new AtomicLongArray(bitsPerBucket / 64);
+            bucketSlots.set(i, Long.MIN_VALUE);
+        }
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Whether the key was added within the window (or is a false positive)
+     */
+    public boolean mightContain(long key1, long key2, long nowMillis) {
+        return contains(Math.floorDiv(nowMillis, bucketMillis), hash1(key1, key2), hash2(key1, key2));
+    }
+
+    /**
+     * Remember the key from now until the window has passed
+     */
+    public void put(long key1, long key2, long nowMillis) {
+        add(Math.floorDiv(nowMillis, bucketMillis), hash1(key1, key2), hash2(key1, key2));
+    }
+
+    /**
+     * Remember the key unless it was added within the window, as one step for the key
+     *
+     * @return true if the key was added, false if it was already there (or is a false positive)
+     */
+    public boolean putIfAbsent(long key1, long key2, long nowMillis) {
+        long slot = Math.floorDiv(nowMillis, bucketMillis);
+        long h1 = hash1(key1, key2);
+        long h2 = hash2(key1, key2);
+        synchronized (keyLocks[(int) Math.floorMod(h1, (long) keyLocks.length)]) {
+            if (contains(slot, h1, h2)) {
+                return false;
+            }
+            add(slot, h1, h2);
+            return true;
+        }
+    }
+
+    /**
+     * Keys added to the current bucket; past the expected number the false positive rate grows
+     */
+    public int keysInCurrentBucket(long nowMillis) {
+        long slot = Math.floorDiv(nowMillis, bucketMillis);
+        int b = (int) Math.floorMod(slot, (long) buckets.length);
+        return bucketSlots.get(b) == slot ? bucketKeys.get(b) : 0;
+    }
+
+    /**
+     * Memory used by the bit arrays
+     */
+    public long sizeInBytes() {
+        return (long) buckets.length * bitsPerBucket / 8;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    private boolean contains(long slot, long h1, long h2) {
+        for (int b = 0; b < buckets.length; b++) {
+            long bucketSlot = bucketSlots.get(b);
+            if (bucketSlot > slot - buckets.length && bucketSlot <= slot && allSet(buckets[b], h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void add(long slot, long h1, long h2) {
+        AtomicLongArray bits = bucketFor(slot);
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = bits.get(bit >>> 6);
+            } while ((word & mask) == 0 && !bits.compareAndSet(bit >>> 6, word, word | mask));
+        }
+    }
+
+    private AtomicLongArray bucketFor(long slot) {
+        int b = (int) Math.floorMod(slot, (long) buckets.length);
+        if (bucketSlots.get(b) != slot) {
+            rollOver(b, slot);
+        }
+        bucketKeys.incrementAndGet(b);
+        return buckets[b];
+    }
+
+    // The bucket being reused is older than the window, so readers never miss a live key
+    private synchronized void rollOver(int b, long slot) {
+        if (bucketSlots.get(b) >= slot) {
+            return;
+        }
+        AtomicLongArray bits = buckets[b];
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0);
+        }
+        bucketKeys.set(b, 0);
+        bucketSlots.set(b, slot);
+    }
+
+    private boolean allSet(AtomicLongArray bits, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int index(long hash) {
+        return (int) ((hash >>> 1) % bitsPerBucket);
+    }
+
+    private static long hash1(long key1, long key2) {
+        return mix(key1 ^ Long.rotateLeft(key2, 32));
+    }
+
+    private static long hash2(long key1, long key2) {
+        return mix(key2 + 0x9E3779B97F4A7C15L * key1) | 1;
+    }
+
+    // Murmur3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
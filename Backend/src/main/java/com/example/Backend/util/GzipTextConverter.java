@@ -0,0 +1,49 @@
+package com.example.Backend.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores a large text attribute as gzip-compressed bytes (bytea).
+ * Report payloads are small, repetitive JSON (about 1 KB, below the size PostgreSQL compresses
+ * TEXT on its own) and shrink about 2.5x; see ReportStorageBenchmarkTest.
+ */
+@Converter
+public class GzipTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return text == null ? null : compress(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : decompress(bytes);
+    }
+
+    public static byte[] compress(String text) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, text.length() / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress text", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static String decompress(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decompress text", e);
+        }
+    }
+}
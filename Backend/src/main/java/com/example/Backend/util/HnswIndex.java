@@ -0,0 +1,303 @@
+package com.example.Backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Approximate nearest-neighbour index over unit-length float vectors, ranking by dot product
+ * (cosine similarity). Implements HNSW (hierarchical navigable small world graphs): each node
+ * is linked to its closest nodes on level 0 and, with exponentially decreasing probability,
+ * on higher levels; a search descends greedily from the sparse top level and explores level
+ * 0 around the best node found.
+ *
+ * Vectors are stored row by row in a single float array and nodes are dense ints in insertion
+ * order. Removed nodes stay in the graph as waypoints and are only left out of results, so
+ * the index should be rebuilt once many have been removed. Not thread safe: searches may run
+ * concurrently with each other but not with {@link #add} or {@link #remove}.
+ */
+public class HnswIndex {
+
+    private static final int[] NO_LINKS = new int[0];
+
+    private static final Comparator<Candidate> BEST_FIRST =
+            Comparator.comparingDouble((Candidate c) -> c.similarity()).reversed();
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(c -> c.similarity());
+
+    private final int dimensions;
+    private final int maxLinks;
+    private final int maxLinksLevel0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final Random random;
+
+    private float[] vectors;
+    // Node -> level -> linked nodes, each array replaced whole when links change
+    private int[][][] links;
+    private final BitSet removed = new BitSet();
+    private int size;
+    private int removedCount;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /**
+     * @param dimensions     length of the vectors
+     * @param maxLinks       links per node on upper levels (twice as many on level 0)
+     * @param efConstruction candidates considered when linking a new node
+     * @param seed           seed for level assignment, for reproducible graphs
+     */
+    public HnswIndex(int dimensions, int maxLinks, int efConstruction, long seed) {
+        if (dimensions <= 0 || maxLinks < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dimensions = dimensions;
+        this.maxLinks = maxLinks;
+        this.maxLinksLevel0 = maxLinks * 2;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(maxLinks);
+        this.random = new Random(seed);
+        this.vectors = new float[dimensions * 64];
+        this.links = new int[64][][];
+    }
+
+    /**
+     * Add a unit-length vector
+     *
+     * @return the node of the vector
+     */
+    public int add(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + vector.length);
+        }
+        int node = size;
+        ensureCapacity(node + 1);
+        System.arraycopy(vector, 0, vectors, node * dimensions, dimensions);
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelFactor);
+        links[node] = new int[level + 1][];
+        Arrays.fill(links[node], NO_LINKS);
+        size++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return node;
+        }
+
+        int nearest = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            nearest = greedy(vector, nearest, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            List<Candidate> found = searchLayer(vector, nearest, efConstruction, l, null);
+            int[] selected = selectNeighbours(found, maxLinks);
+            links[node][l] = selected;
+            for (int neighbour : selected) {
+                link(neighbour, node, l);
+            }
+            nearest = found.get(0).node();
+        }
+        if (level > topLevel) {
+            topLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /**
+     * Leave a node out of search results from now on
+     */
+    public void remove(int node) {
+        if (node >= 0 && node < size && !removed.get(node)) {
+            removed.set(node);
+            removedCount++;
+        }
+    }
+
+    /**
+     * Nodes most similar to the query, best first
+     *
+     * @param k      maximum number of nodes to return
+     * @param ef     candidates explored on level 0; higher is more accurate and slower
+     * @param accept optional filter on the nodes returned
+     */
+    public int[] search(float[] query, int k, int ef, IntPredicate accept) {
+        if (entryPoint < 0 || k <= 0) {
+            return NO_LINKS;
+        }
+        int nearest = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            nearest = greedy(query, nearest, l);
+        }
+        IntPredicate live = accept == null ? n -> !removed.get(n) : n -> !removed.get(n) && accept.test(n);
+        List<Candidate> found = searchLayer(query, nearest, Math.max(ef, k), 0, live);
+        int[] result = new int[Math.min(k, found.size())];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = found.get(i).node();
+        }
+        return result;
+    }
+
+    /**
+     * Copy of the vector of a node
+     */
+    public float[] vector(int node) {
+        return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+    }
+
+    public float similarity(float[] query, int node) {
+        float sum = 0;
+        int offset = node * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            sum += query[i] * vectors[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Number of nodes, including removed ones
+     */
+    public int size() {
+        return size;
+    }
+
+    public int removedCount() {
+        return removedCount;
+    }
+
+    public boolean isRemoved(int node) {
+        return removed.get(node);
+    }
+
+    private float similarity(int a, int b) {
+        float sum = 0;
+        int offsetA = a * dimensions;
+        int offsetB = b * dimensions;
+        for (int i = 0; i < dimensions; i++) {
+            sum += vectors[offsetA + i] * vectors[offsetB + i];
+        }
+        return sum;
+    }
+
+    private int greedy(float[] query, int start, int level) {
+        int best = start;
+        float bestSimilarity = similarity(query, start);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbour : links[best][level]) {
+                float s = similarity(query, neighbour);
+                if (s > bestSimilarity) {
+                    bestSimilarity = s;
+                    best = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Best-first exploration of one level; only accepted nodes are returned but all are traversed
+    private List<Candidate> searchLayer(float[] query, int start, int ef, int level, IntPredicate accept) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(WORST_FIRST);
+
+        Candidate first = new Candidate(start, similarity(query, start));
+        visited.set(start);
+        candidates.add(first);
+        if (accept == null || accept.test(start)) {
+            results.add(first);
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.similarity() < results.peek().similarity()) {
+                break;
+            }
+            for (int neighbour : links[current.node()][level]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float s = similarity(query, neighbour);
+                if (results.size() < ef || s > results.peek().similarity()) {
+                    Candidate next = new Candidate(neighbour, s);
+                    candidates.add(next);
+                    if (accept == null || accept.test(neighbour)) {
+                        results.add(next);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> found = new ArrayList<>(results);
+        found.sort(BEST_FIRST);
+        return found;
+    }
+
+    // Keep candidates closer to the node than to any neighbour already kept, so links point in
+    // diverse directions; top up with the closest discarded ones
+    private int[] selectNeighbours(List<Candidate> candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.size())];
+        boolean[] kept = new boolean[candidates.size()];
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < selected.length; i++) {
+            Candidate candidate = candidates.get(i);
+            boolean diverse = true;
+            for (int j = 0; j < count; j++) {
+                if (similarity(candidate.node(), selected[j]) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate.node();
+                kept[i] = true;
+            }
+        }
+        for (int i = 0; i < candidates.size() && count < selected.length; i++) {
+            if (!kept[i]) {
+                selected[count++] = candidates.get(i).node();
+            }
+        }
+        return selected;
+    }
+
+    private void link(int from, int to, int level) {
+        int[] current = links[from][level];
+        int max = level == 0 ? maxLinksLevel0 : maxLinks;
+        if (current.length < max) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = to;
+            links[from][level] = extended;
+            return;
+        }
+        List<Candidate> candidates = new ArrayList<>(current.length + 1);
+        for (int neighbour : current) {
+            candidates.add(new Candidate(neighbour, similarity(from, neighbour)));
+        }
+        candidates.add(new Candidate(to, similarity(from, to)));
+        candidates.sort(BEST_FIRST);
+        links[from][level] = selectNeighbours(candidates, max);
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes <= links.length) {
+            return;
+        }
+        int capacity = Math.max(nodes, links.length * 2);
+        links = Arrays.copyOf(links, capacity);
+        vectors = Arrays.copyOf(vectors, capacity * dimensions);
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+}
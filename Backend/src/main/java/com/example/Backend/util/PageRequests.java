@@ -0,0 +1,30 @@
+package com.example.Backend.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Helpers for paged repository queries.
+ *
+ * Pages must come from the database (a repository method taking a Pageable), never from
+ * slicing a full list in memory; InMemoryPagingTest fails the build on the latter. Queries
+ * behind a paged endpoint need a deterministic order backed by an index, so that deep pages
+ * are stable and don't sort the whole table: use withDefaultSort when the caller may not
+ * ask for one.
+ */
+public final class PageRequests {
+
+    private PageRequests() {
+    }
+
+    /**
+     * The pageable itself when it is sorted, otherwise the same page ordered by defaultSort
+     */
+    public static Pageable withDefaultSort(Pageable pageable, Sort defaultSort) {
+        if (pageable.isUnpaged() || pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), defaultSort);
+    }
+}
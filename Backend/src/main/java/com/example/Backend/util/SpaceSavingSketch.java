@@ -0,0 +1,114 @@
+package com.example.Backend.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Approximate top-K counts of a stream of keys in fixed memory (the Space-Saving algorithm).
+ *
+ * At most capacity keys are tracked. A key not tracked yet replaces the one with the lowest
+ * count and inherits that count as its possible overestimate, so every count is an upper
+ * bound and count - error a lower bound of the true count. Any key seen more than
+ * total / capacity times is guaranteed to be tracked. Not thread safe.
+ */
+public class SpaceSavingSketch {
+
+    private static final Comparator<Counter> LOWEST_FIRST =
+            Comparator.comparingLong((Counter c) -> c.count).thenComparing(c -> c.key);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(LOWEST_FIRST);
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Count a key n times
+     */
+    public void add(String key, long n) {
+        if (n <= 0) {
+            return;
+        }
+        total += n;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count += n;
+            byCount.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(key, n, 0);
+        } else {
+            Counter lowest = byCount.pollFirst();
+            counters.remove(lowest.key);
+            counter = new Counter(key, lowest.count + n, lowest.count);
+        }
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Up to k keys with the highest counts, highest first
+     */
+    public List<Entry> top(int k) {
+        List<Entry> result = new ArrayList<>(Math.min(k, counters.size()));
+        Iterator<Counter> it = byCount.descendingIterator();
+        while (it.hasNext() && result.size() < k) {
+            Counter counter = it.next();
+            result.add(new Entry(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    /**
+     * Estimated count of a key, 0 if not tracked
+     */
+    public long estimate(String key) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter.count : 0;
+    }
+
+    /**
+     * Number of keys tracked
+     */
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Sum of all counts added, tracked or not
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * A tracked key; its true count is between count - error and count
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private final String key;
+        private long count;
+        private final long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.Backend.util;
+
+/**
+ * Largest-Triangle-Three-Buckets (LTTB) downsampling for chart series.
+ * Keeps the first and last points and, for every bucket in between, the point
+ * forming the largest triangle with its neighbours, so peaks and dips survive.
+ */
+public final class TimeSeriesDownsampler {
+
+    private TimeSeriesDownsampler() {
+    }
+
+    /**
+     * Select the indexes of the points to keep.
+     *
+     * @param x         ascending x values (e.g. epoch days)
+     * @param y         y values, same length as x
+     * @param threshold maximum number of points to return
+     * @return ascending indexes into x/y; all indexes when the series is already small enough
+     */
+    public static int[] lttb(double[] x, double[] y, int threshold) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must have the same length");
+        }
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        int count = 0;
+        selected[count++] = 0;
+
+        // Bucket size for the points between first and last
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket, used as the third triangle vertex
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // Current bucket
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a])
+                        - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            selected[count++] = next;
+            a = next;
+        }
+
+        selected[count] = n - 1;
+        return selected;
+    }
+}
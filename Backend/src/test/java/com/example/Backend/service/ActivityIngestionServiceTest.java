@@ -0,0 +1,254 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ActivityIngestionServiceTest {
+
+	private final StubJdbcTemplate jdbc = new StubJdbcTemplate();
+	private final List<UserActivityRecordedEvent> published = new CopyOnWriteArrayList<>();
+	private ActivityIngestionService service;
+
+	@AfterEach
+	void stop() throws InterruptedException {
+		jdbc.hold.countDown();
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void writesFullBatchesAndTheRemainderAfterTheFlushInterval() {
+		start(100, 3, Duration.ofMillis(300), Duration.ofMillis(50));
+		for (int i = 0; i < 7; i++) {
+			assertTrue(service.submit(activity(ActivityType.ADD_TO_CART)));
+		}
+
+		await(() -> published.size() == 7);
+		assertEquals(List.of(3, 3, 1), jdbc.batches.stream().map(List::size).toList());
+		assertEquals(7L, service.getStats().get("written"));
+	}
+
+	@Test
+	void writesAPartialBatchOnceTheFlushIntervalHasPassed() {
+		start(100, 500, Duration.ofMillis(200), Duration.ofMillis(50));
+		long submitted = System.nanoTime();
+		service.submit(activity(ActivityType.PURCHASE));
+
+		await(() -> published.size() == 1);
+		long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+		// Waited for more activities to fill the batch, but not for a full one
+		assertTrue(waitedMs >= 150, "written after " + waitedMs + " ms");
+		assertEquals(List.of(1), jdbc.batches.stream().map(List::size).toList());
+	}
+
+	@Test
+	void shedsViewsAndRejectsOtherActivitiesWhenTheBufferIsFull() {
+		fillBuffer(Duration.ofMillis(50));
+
+		ActivityIngestionService.PendingActivity view = activity(ActivityType.VIEW);
+		assertFalse(service.submit(view));
+		long started = System.nanoTime();
+		assertFalse(service.submit(activity(ActivityType.ADD_TO_CART)));
+		// Waited for room before giving up
+		assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(40));
+		assertEquals(1L, service.getStats().get("shed"));
+		assertEquals(1L, service.getStats().get("rejected"));
+
+		jdbc.hold.countDown();
+		await(() -> published.size() == 3);
+		// The shed view still counts as seen, so its repeat is dropped
+		assertTrue(service.submit(ActivityIngestionService.PendingActivity.of(view.userId(), view.productId(),
+				ActivityType.VIEW)));
+		assertEquals(1L, service.getStats().get("skipped"));
+		assertEquals(1L, service.getStats().get("shed"));
+	}
+
+	@Test
+	void waitsForRoomBeforeRejectingOtherActivities() throws InterruptedException {
+		fillBuffer(Duration.ofSeconds(5));
+
+		Thread release = new Thread(() -> {
+			sleep(100);
+			jdbc.hold.countDown();
+		});
+		release.start();
+		assertTrue(service.submit(activity(ActivityType.PURCHASE)));
+		release.join();
+
+		await(() -> published.size() == 4);
+		assertEquals(0L, service.getStats().get("rejected"));
+	}
+
+	@Test
+	void dropsRepeatViewsBeforeQueueing() {
+		start(100, 500, Duration.ofMillis(20), Duration.ofMillis(50));
+		ActivityIngestionService.PendingActivity view = activity(ActivityType.VIEW);
+		assertTrue(service.submit(view));
+		assertTrue(service.submit(ActivityIngestionService.PendingActivity.of(view.userId(), view.productId(),
+				ActivityType.VIEW)));
+
+		await(() -> published.size() == 1);
+		assertEquals(1L, service.getStats().get("accepted"));
+		assertEquals(1L, service.getStats().get("skipped"));
+	}
+
+	@Test
+	void letsOneOfConcurrentRepeatViewsThrough() throws InterruptedException {
+		start(10_000, 500, Duration.ofMillis(20), Duration.ofMillis(50));
+		ActivityIngestionService.PendingActivity view = activity(ActivityType.VIEW);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					go.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int i = 0; i < 100; i++) {
+					service.submit(ActivityIngestionService.PendingActivity.of(view.userId(), view.productId(),
+							ActivityType.VIEW));
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		go.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		await(() -> published.size() == 1);
+		assertEquals(1L, service.getStats().get("accepted"));
+		assertEquals(799L, service.getStats().get("skipped"));
+	}
+
+	@Test
+	void writesRowByRowAfterABatchFails() {
+		jdbc.failBatches = true;
+		// Second row fails (user deleted meanwhile), third inserts nothing (product deleted)
+		jdbc.rowResult = call -> switch (call) {
+			case 1 -> throw new DataIntegrityViolationException("user_activities_user_id_fkey");
+			case 2 -> 0;
+			default -> 1;
+		};
+		start(100, 4, Duration.ofMillis(300), Duration.ofMillis(50));
+		List<ActivityIngestionService.PendingActivity> activities = List.of(activity(ActivityType.PURCHASE),
+				activity(ActivityType.PURCHASE), activity(ActivityType.PURCHASE), activity(ActivityType.PURCHASE));
+		assertEquals(4, service.submitAll(activities));
+
+		await(() -> jdbc.rowWrites.get() == 4);
+		await(() -> published.size() == 2);
+		assertEquals(activities.get(0).userId(), published.get(0).userId());
+		assertEquals(activities.get(3).userId(), published.get(1).userId());
+		assertEquals(2L, service.getStats().get("written"));
+		assertEquals(1L, service.getStats().get("failed"));
+		assertEquals(1L, service.getStats().get("skipped"));
+	}
+
+	// One activity held by the writer, blocked in its insert, and a buffer of two full behind it
+	private void fillBuffer(Duration offerTimeout) {
+		jdbc.hold = new CountDownLatch(1);
+		start(2, 1, Duration.ofMillis(10), offerTimeout);
+		assertTrue(service.submit(activity(ActivityType.ADD_TO_CART)));
+		try {
+			assertTrue(jdbc.firstBatch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new AssertionError(e);
+		}
+		assertTrue(service.submit(activity(ActivityType.ADD_TO_CART)));
+		assertTrue(service.submit(activity(ActivityType.ADD_TO_CART)));
+	}
+
+	private void start(int bufferCapacity, int batchSize, Duration flushInterval, Duration offerTimeout) {
+		RecentViewFilter filter = new RecentViewFilter(new SimpleMeterRegistry(), Duration.ofMinutes(5), 5, 1000,
+				0.001);
+		service = new ActivityIngestionService(jdbc, mock(PlatformTransactionManager.class), filter,
+				event -> published.add((UserActivityRecordedEvent) event), new SimpleMeterRegistry(),
+				bufferCapacity, batchSize, flushInterval, offerTimeout);
+		service.start();
+	}
+
+	private static ActivityIngestionService.PendingActivity activity(ActivityType type) {
+		return ActivityIngestionService.PendingActivity.of(UUID.randomUUID(), UUID.randomUUID(), type);
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out");
+			sleep(5);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Records the batches and single-row inserts the service issues; batches can be held back
+	 * or made to fail
+	 */
+	private static final class StubJdbcTemplate extends JdbcTemplate {
+
+		private final List<List<ActivityIngestionService.PendingActivity>> batches = new CopyOnWriteArrayList<>();
+		private final CountDownLatch firstBatch = new CountDownLatch(1);
+		private final AtomicInteger rowWrites = new AtomicInteger();
+		private volatile CountDownLatch hold = new CountDownLatch(0);
+		private volatile boolean failBatches;
+		private volatile IntUnaryOperator rowResult = call -> 1;
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> pss) {
+			batches.add(List.copyOf((Collection<ActivityIngestionService.PendingActivity>) batchArgs));
+			firstBatch.countDown();
+			try {
+				hold.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (failBatches) {
+				throw new DataIntegrityViolationException("user_activities_user_id_fkey");
+			}
+			int[] counts = new int[batchArgs.size()];
+			Arrays.fill(counts, 1);
+			return new int[][] { counts };
+		}
+
+		@Override
+		public int update(String sql, PreparedStatementSetter pss) {
+			return rowResult.applyAsInt(rowWrites.getAndIncrement());
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.example.Backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActivityRetentionServiceTest {
+
+	private static final int RETENTION_DAYS = 30;
+	private static final LocalDate CUTOFF = LocalDate.now().minusDays(RETENTION_DAYS);
+
+	private final FakeJdbcTemplate jdbc = new FakeJdbcTemplate();
+
+	@Test
+	void rollsUpEachDayBeforeTheCutoffOnceThenDeletesItsRawRows() {
+		for (int day = -3; day <= 1; day++) {
+			jdbc.addActivities(CUTOFF.plusDays(day), 3);
+		}
+		ActivityRetentionService service = service(2, Duration.ofHours(1));
+
+		assertTrue(service.applyRetention());
+		assertEquals(List.of(CUTOFF.minusDays(3), CUTOFF.minusDays(2), CUTOFF.minusDays(1)), jdbc.rolledUp);
+		assertEquals(Map.of(CUTOFF, 3L, CUTOFF.plusDays(1), 3L), jdbc.rowsPerDay());
+		assertEquals(9L, service.getStatus().get("rowsDeleted"));
+
+		// Nothing left to roll up until the cutoff moves
+		assertTrue(service.applyRetention());
+		assertEquals(3, jdbc.rolledUp.size());
+		assertEquals(0L, service.getStatus().get("daysRolledUp"));
+	}
+
+	@Test
+	void deletesOnlyRolledUpDaysWhenRollUpRunsOutOfTime() {
+		for (int day = -4; day < 0; day++) {
+			jdbc.addActivities(CUTOFF.plusDays(day), 3);
+		}
+		jdbc.rollUpMillis = 80;
+		ActivityRetentionService service = service(2, Duration.ofMillis(50));
+
+		assertTrue(service.applyRetention());
+		assertEquals(List.of(CUTOFF.minusDays(4)), jdbc.rolledUp);
+		// Out of time before deleting anything; days not rolled up are never deleted
+		assertEquals(4, jdbc.rowsPerDay().size());
+
+		jdbc.rollUpMillis = 0;
+		assertTrue(service(2, Duration.ofHours(1)).applyRetention());
+		assertEquals(4, jdbc.rolledUp.size());
+		assertTrue(jdbc.rows.isEmpty());
+	}
+
+	@Test
+	void finishesTheDayBeingDeletedAndResumesWithTheNextRun() {
+		for (int day = -3; day < 0; day++) {
+			jdbc.addActivities(CUTOFF.plusDays(day), 5);
+		}
+		// Three chunks and two pauses per day: past the time limit halfway through the first day
+		ActivityRetentionService service = service(2, Duration.ofMillis(40));
+		jdbc.rolledUp.addAll(List.of(CUTOFF.minusDays(3), CUTOFF.minusDays(2), CUTOFF.minusDays(1)));
+
+		assertTrue(service.applyRetention());
+		assertEquals(Map.of(CUTOFF.minusDays(2), 5L, CUTOFF.minusDays(1), 5L), jdbc.rowsPerDay());
+
+		assertTrue(service.applyRetention());
+		assertEquals(Map.of(CUTOFF.minusDays(1), 5L), jdbc.rowsPerDay());
+		// Each chunk continued after the last row deleted, and each day started afresh
+		assertEquals(List.of(2L, 2L, 1L, 2L, 2L, 1L), jdbc.chunkSizes);
+		assertEquals(5L, service.getStatus().get("rowsDeleted"));
+	}
+
+	private ActivityRetentionService service(int chunkSize, Duration maxRunDuration) {
+		return new ActivityRetentionService(jdbc, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+				RETENTION_DAYS, chunkSize, Duration.ofMillis(30), maxRunDuration);
+	}
+
+	private record Row(LocalDateTime createdAt, UUID id) {
+	}
+
+	/**
+	 * user_activities and the product roll-up in memory, answering the retention job's statements
+	 */
+	private static final class FakeJdbcTemplate extends JdbcTemplate {
+
+		private static final Comparator<Row> KEYSET = Comparator.comparing(Row::createdAt).thenComparing(Row::id);
+
+		private final TreeSet<Row> rows = new TreeSet<>(KEYSET);
+		private final List<LocalDate> rolledUp = new ArrayList<>();
+		private final List<Long> chunkSizes = new ArrayList<>();
+		private long nextId = 1;
+		private volatile long rollUpMillis;
+
+		void addActivities(LocalDate day, int count) {
+			for (int i = 0; i < count; i++) {
+				rows.add(new Row(day.atTime(10, i), new UUID(0, nextId++)));
+			}
+		}
+
+		Map<LocalDate, Long> rowsPerDay() {
+			return rows.stream()
+					.collect(Collectors.groupingBy(r -> r.createdAt().toLocalDate(), Collectors.counting()));
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, Class<T> requiredType) {
+			// Next day to roll up
+			LocalDate next = !rolledUp.isEmpty() ? rolledUp.get(rolledUp.size() - 1).plusDays(1)
+					: rows.isEmpty() ? null : rows.first().createdAt().toLocalDate();
+			return (T) next;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+			// Oldest raw day in [from, to)
+			LocalDateTime from = ((Timestamp) args[0]).toLocalDateTime();
+			LocalDateTime to = ((Timestamp) args[1]).toLocalDateTime();
+			return (T) rows.stream().map(Row::createdAt).filter(at -> !at.isBefore(from) && at.isBefore(to))
+					.findFirst().map(LocalDateTime::toLocalDate).orElse(null);
+		}
+
+		@Override
+		public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+			LocalDateTime before = ((Timestamp) args[0]).toLocalDateTime();
+			Row last = new Row(((Timestamp) args[1]).toLocalDateTime(), (UUID) args[3]);
+			int limit = (Integer) args[4];
+			List<Row> chunk = rows.tailSet(last, false).stream()
+					.filter(r -> r.createdAt().isBefore(before)).limit(limit).toList();
+			chunk.forEach(rows::remove);
+			chunkSizes.add((long) chunk.size());
+
+			ResultSet rs = mock(ResultSet.class);
+			try {
+				when(rs.getLong(1)).thenReturn((long) chunk.size());
+				if (!chunk.isEmpty()) {
+					Row deleted = chunk.get(chunk.size() - 1);
+					when(rs.getTimestamp(2)).thenReturn(Timestamp.valueOf(deleted.createdAt()));
+					when(rs.getObject(3, UUID.class)).thenReturn(deleted.id());
+				}
+				return rowMapper.mapRow(rs, 0);
+			} catch (SQLException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		@Override
+		public int update(String sql, Object... args) {
+			if (sql.startsWith("INSERT INTO product_activity_daily")) {
+				try {
+					Thread.sleep(rollUpMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				rolledUp.add(((Date) args[0]).toLocalDate());
+			}
+			return 1;
+		}
+	}
+}
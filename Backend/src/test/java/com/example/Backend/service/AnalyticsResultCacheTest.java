@@ -0,0 +1,117 @@
+package com.example.Backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsResultCacheTest {
+
+	private static final LocalDate TODAY = LocalDate.now();
+	private static final LocalDate MARCH_1 = TODAY.minusYears(1).withMonth(3).withDayOfMonth(1);
+	private static final LocalDate MARCH_31 = MARCH_1.withDayOfMonth(31);
+
+	private final AnalyticsResultCache cache = new AnalyticsResultCache(new SimpleMeterRegistry(),
+			Duration.ofHours(24), Duration.ofMinutes(10), 100);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void servesRepeatedLookupsFromCache() {
+		assertEquals(1, march("SALES"));
+		assertEquals(1, march("sales "));
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void keepsClosedRangesThatDoNotCoverTheChangedDay() {
+		march("SALES");
+		cache.invalidate(MARCH_31.plusDays(1));
+		cache.invalidate(MARCH_1.minusDays(1));
+
+		march("SALES");
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void dropsRangesCoveringTheChangedDay() {
+		march("SALES");
+		cache.invalidate(MARCH_31);
+
+		march("SALES");
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void dropsRangelessEntriesOnAnyChange() {
+		cache.get("totals", loads::incrementAndGet);
+		cache.invalidate(MARCH_1);
+
+		cache.get("totals", loads::incrementAndGet);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void doesNotStoreResultsComputedAcrossAnInvalidation() {
+		// The order changes while the figures are being computed from the old data
+		Integer stale = cache.get("sales", MARCH_1, MARCH_31, () -> {
+			cache.invalidate(MARCH_1);
+			return loads.incrementAndGet();
+		}, "SALES");
+		assertEquals(1, stale);
+
+		assertEquals(2, march("SALES"));
+		assertEquals(2, march("SALES"));
+	}
+
+	@Test
+	void storesResultsWhoseRangeAConcurrentChangeDoesNotCover() {
+		// Orders keep coming in today while March is being computed
+		Integer march = cache.get("sales", MARCH_1, MARCH_31, () -> {
+			cache.invalidate(TODAY);
+			return loads.incrementAndGet();
+		}, "SALES");
+		assertEquals(1, march);
+		assertEquals(1, march("SALES"));
+
+		// A range-less figure is affected by any change
+		cache.get("totals", () -> {
+			cache.invalidate(TODAY);
+			return loads.incrementAndGet();
+		});
+		cache.get("totals", loads::incrementAndGet);
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void doesNotStoreResultsWhenConcurrentChangesAreNoLongerTracked() {
+		Integer stale = cache.get("sales", MARCH_1, MARCH_31, () -> {
+			cache.invalidate(MARCH_1);
+			for (int i = 0; i < 2000; i++) {
+				cache.invalidate(TODAY);
+			}
+			return loads.incrementAndGet();
+		}, "SALES");
+		assertEquals(1, stale);
+
+		assertEquals(2, march("SALES"));
+	}
+
+	@Test
+	void clearDropsEverything() {
+		march("SALES");
+		cache.get("totals", loads::incrementAndGet);
+		cache.clear();
+
+		march("SALES");
+		cache.get("totals", loads::incrementAndGet);
+		assertEquals(4, loads.get());
+	}
+
+	private int march(String param) {
+		return cache.get("sales", MARCH_1, MARCH_31, loads::incrementAndGet, param);
+	}
+}
@@ -0,0 +1,196 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.PurchaseOrderDTO;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.PurchaseOrder;
+import com.example.Backend.entity.ReorderSetting;
+import com.example.Backend.entity.Supplier;
+import com.example.Backend.event.StockMovementRecordedEvent;
+import com.example.Backend.repository.PurchaseOrderRepository;
+import com.example.Backend.repository.ReorderSettingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AutoReorderServiceTest {
+
+	private final Supplier brakes = supplier();
+	private final Supplier filters = supplier();
+	private final ReorderSetting pads = setting(brakes, 20, 5);
+	private final ReorderSetting discs = setting(brakes, 10, 12);
+	private final ReorderSetting oilFilter = setting(filters, 50, null);
+
+	private final ReorderSettingRepository settings = mock(ReorderSettingRepository.class);
+	private final PurchaseOrderRepository purchaseOrders = mock(PurchaseOrderRepository.class);
+	private final PurchaseOrderService purchaseOrderService = mock(PurchaseOrderService.class);
+
+	// Products on purchase orders created so far, as the open-order check would find them
+	private final Set<UUID> onOrder = ConcurrentHashMap.newKeySet();
+	private final List<PurchaseOrderDTO> created = new CopyOnWriteArrayList<>();
+
+	AutoReorderServiceTest() {
+		List<ReorderSetting> candidates = List.of(pads, discs, oilFilter);
+		when(settings.findAutoReorderCandidates()).thenReturn(candidates);
+		when(settings.findAutoReorderCandidates(anyCollection())).thenAnswer(invocation -> {
+			Collection<UUID> productIds = invocation.getArgument(0);
+			return candidates.stream().filter(s -> productIds.contains(s.getProduct().getId())).toList();
+		});
+		when(purchaseOrders.findProductIdsOnOrdersWithStatus(anyCollection(), anyCollection()))
+				.thenAnswer(invocation -> {
+					Collection<UUID> productIds = invocation.getArgument(0);
+					return productIds.stream().filter(onOrder::contains).toList();
+				});
+		when(purchaseOrderService.createPurchaseOrder(any())).thenAnswer(invocation -> {
+			PurchaseOrderDTO order = invocation.getArgument(0);
+			// Slow enough for an overlapping run to read the open orders before this one is saved
+			Thread.sleep(50);
+			order.getItems().forEach(item -> onOrder.add(item.getProductId()));
+			created.add(order);
+			PurchaseOrder po = new PurchaseOrder();
+			po.setPoNumber("PO-" + created.size());
+			return po;
+		});
+	}
+
+	@Test
+	void createsOnePurchaseOrderPerSupplier() {
+		List<PurchaseOrder> orders = service(Duration.ofMinutes(2), Duration.ofMinutes(15)).reorderAll();
+
+		assertEquals(2, orders.size());
+		PurchaseOrderDTO brakeOrder = orderFor(brakes);
+		assertEquals(List.of(pads.getProduct().getId(), discs.getProduct().getId()),
+				brakeOrder.getItems().stream().map(PurchaseOrderDTO.PurchaseOrderItemDTO::getProductId).toList());
+		assertEquals(List.of(20, 10),
+				brakeOrder.getItems().stream().map(PurchaseOrderDTO.PurchaseOrderItemDTO::getQuantity).toList());
+		// The longest lead time sets the expected delivery; 7 days without one
+		assertEquals(LocalDate.now().plusDays(12), brakeOrder.getExpectedDelivery());
+		assertEquals(LocalDate.now().plusDays(7), orderFor(filters).getExpectedDelivery());
+		verify(settings).markReordered(eq(List.of(pads.getId(), discs.getId())), any());
+		verify(settings).markReordered(eq(List.of(oilFilter.getId())), any());
+	}
+
+	@Test
+	void skipsProductsAlreadyOnOrder() {
+		onOrder.add(discs.getProduct().getId());
+
+		service(Duration.ofMinutes(2), Duration.ofMinutes(15)).reorderAll();
+
+		assertEquals(List.of(pads.getProduct().getId()), orderFor(brakes).getItems().stream()
+				.map(PurchaseOrderDTO.PurchaseOrderItemDTO::getProductId).toList());
+	}
+
+	@Test
+	void overlappingRunsOrderEachProductOnce() throws Exception {
+		AutoReorderService service = service(Duration.ofMinutes(2), Duration.ofMinutes(15));
+		ExecutorService runs = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<List<PurchaseOrder>>> results = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				results.add(runs.submit(service::reorderAll));
+			}
+			int orders = 0;
+			for (Future<List<PurchaseOrder>> result : results) {
+				orders += result.get().size();
+			}
+			assertEquals(2, orders);
+		} finally {
+			runs.shutdownNow();
+		}
+	}
+
+	@Test
+	void waitsForTheQuietPeriod() throws InterruptedException {
+		AutoReorderService service = service(Duration.ofMillis(300), Duration.ofHours(1));
+		service.onStockMovement(sale(pads));
+
+		service.processPending();
+		assertTrue(created.isEmpty());
+
+		Thread.sleep(400);
+		service.processPending();
+		assertEquals(1, created.size());
+		// Only the products that moved are considered
+		assertEquals(List.of(pads.getProduct().getId()), orderFor(brakes).getItems().stream()
+				.map(PurchaseOrderDTO.PurchaseOrderItemDTO::getProductId).toList());
+	}
+
+	@Test
+	void stopsWaitingAfterTheMaximumWait() throws InterruptedException {
+		AutoReorderService service = service(Duration.ofHours(1), Duration.ofMillis(300));
+		// Movements keep coming, so the quiet period never elapses
+		service.onStockMovement(sale(pads));
+		service.processPending();
+		Thread.sleep(150);
+		service.onStockMovement(sale(oilFilter));
+		service.processPending();
+		assertTrue(created.isEmpty());
+
+		Thread.sleep(250);
+		service.onStockMovement(sale(discs));
+		service.processPending();
+		assertEquals(2, created.size());
+	}
+
+	@Test
+	void ignoresMovementsThatDoNotLowerStock() throws InterruptedException {
+		AutoReorderService service = service(Duration.ofMillis(1), Duration.ofMillis(1));
+		service.onStockMovement(new StockMovementRecordedEvent(UUID.randomUUID(), pads.getProduct().getId(),
+				null, 10, 5, 15, null, null));
+
+		Thread.sleep(20);
+		service.processPending();
+		assertTrue(created.isEmpty());
+		verify(settings, never()).findAutoReorderCandidates(anyCollection());
+	}
+
+	private AutoReorderService service(Duration quietPeriod, Duration maxWait) {
+		return new AutoReorderService(settings, purchaseOrders, purchaseOrderService,
+				mock(PlatformTransactionManager.class), quietPeriod, maxWait);
+	}
+
+	private PurchaseOrderDTO orderFor(Supplier supplier) {
+		return created.stream().filter(order -> order.getSupplierId().equals(supplier.getId()))
+				.findFirst().orElseThrow();
+	}
+
+	private static StockMovementRecordedEvent sale(ReorderSetting setting) {
+		return new StockMovementRecordedEvent(UUID.randomUUID(), setting.getProduct().getId(), null, -1, 5, 4,
+				null, null);
+	}
+
+	private static Supplier supplier() {
+		Supplier supplier = new Supplier();
+		supplier.setId(UUID.randomUUID());
+		return supplier;
+	}
+
+	private static ReorderSetting setting(Supplier supplier, int quantity, Integer leadTimeDays) {
+		Product product = new Product();
+		product.setId(UUID.randomUUID());
+		product.setPrice(BigDecimal.TEN);
+		ReorderSetting setting = new ReorderSetting();
+		setting.setId(UUID.randomUUID());
+		setting.setProduct(product);
+		setting.setPreferredSupplier(supplier);
+		setting.setReorderQuantity(quantity);
+		setting.setLeadTimeDays(leadTimeDays);
+		return setting;
+	}
+}
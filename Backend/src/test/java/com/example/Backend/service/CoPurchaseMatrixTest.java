@@ -0,0 +1,74 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoPurchaseMatrixTest {
+
+	private final UUID filter = UUID.randomUUID();
+	private final UUID oil = UUID.randomUUID();
+	private final UUID wipers = UUID.randomUUID();
+	private final UUID battery = UUID.randomUUID();
+
+	@Test
+	void ranksNeighboursByCosineSimilarity() {
+		CoPurchaseService.CoPurchaseMatrix matrix = new CoPurchaseService.CoPurchaseMatrix(10, 200);
+
+		matrix.record(UUID.randomUUID(), List.of(filter, oil));
+		matrix.record(UUID.randomUUID(), List.of(filter, oil));
+		matrix.record(UUID.randomUUID(), List.of(filter, wipers));
+		matrix.record(UUID.randomUUID(), List.of(battery));
+		matrix.rescoreAll();
+
+		assertEquals(List.of(oil, wipers), matrix.neighbours(filter, 5));
+		assertEquals(List.of(oil), matrix.neighbours(filter, 1));
+		assertEquals(List.of(), matrix.neighbours(battery, 5));
+		assertEquals(List.of(), matrix.neighbours(UUID.randomUUID(), 5));
+	}
+
+	@Test
+	void repeatPurchasesAreCountedOnce() {
+		CoPurchaseService.CoPurchaseMatrix matrix = new CoPurchaseService.CoPurchaseMatrix(10, 200);
+		UUID customer = UUID.randomUUID();
+
+		matrix.record(customer, List.of(filter, oil));
+		matrix.rescoreAll();
+
+		// Second order adds wipers only: rows of everything in the basket change
+		int[] dirty = matrix.record(customer, List.of(filter, oil, wipers));
+		assertEquals(3, dirty.length);
+		matrix.rescore(dirty);
+		assertEquals(0, matrix.record(customer, List.of(oil)).length);
+
+		assertEquals(2, matrix.neighbours(filter, 5).size());
+		assertTrue(matrix.neighbours(wipers, 5).containsAll(List.of(filter, oil)));
+	}
+
+	@Test
+	void largeBasketsAddNoPairs() {
+		CoPurchaseService.CoPurchaseMatrix matrix = new CoPurchaseService.CoPurchaseMatrix(10, 2);
+
+		matrix.record(UUID.randomUUID(), List.of(filter, oil, wipers));
+		matrix.rescoreAll();
+
+		assertEquals(List.of(), matrix.neighbours(filter, 5));
+	}
+
+	@Test
+	void countsGrowPastInitialCapacity() {
+		CoPurchaseService.IntCounts counts = new CoPurchaseService.IntCounts();
+		for (int key = 0; key < 1000; key++) {
+			for (int i = 0; i <= key % 3; i++) {
+				counts.increment(key);
+			}
+		}
+
+		assertEquals(1, counts.get(0));
+		assertEquals(3, counts.get(998));
+		assertEquals(0, counts.get(5000));
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CohortMatrixTest {
+
+	private static final int JAN = CohortAnalysisService.monthIndex(YearMonth.of(2025, 1));
+
+	@Test
+	void countsEachCustomerOncePerMonth() {
+		CohortAnalysisService.CohortMatrix matrix = new CohortAnalysisService.CohortMatrix();
+		UUID alice = UUID.randomUUID();
+		UUID bob = UUID.randomUUID();
+
+		// Sorted by customer then time, as streamed from the database
+		matrix.record(alice, JAN);
+		matrix.record(alice, JAN);
+		matrix.record(alice, JAN + 2);
+		matrix.record(bob, JAN);
+		matrix.record(bob, JAN + 1);
+
+		long[] january = matrix.cohorts().get(JAN);
+		assertEquals(2, january[0]);
+		assertEquals(1, january[1]);
+		assertEquals(1, january[2]);
+		assertEquals(2, matrix.customerCount());
+	}
+
+	@Test
+	void replayingAnOrderIsANoOp() {
+		CohortAnalysisService.CohortMatrix matrix = new CohortAnalysisService.CohortMatrix();
+		UUID customer = UUID.randomUUID();
+
+		assertTrue(matrix.record(customer, JAN + 3));
+		assertFalse(matrix.record(customer, JAN + 3));
+		assertTrue(matrix.record(customer, JAN + 5));
+
+		assertEquals(1, matrix.cohortCount());
+		assertEquals(1, matrix.cohorts().get(JAN + 3)[2]);
+	}
+
+	@Test
+	void monthIndexRoundTrips() {
+		YearMonth month = YearMonth.of(2024, 12);
+		assertEquals(month, CohortAnalysisService.toYearMonth(CohortAnalysisService.monthIndex(month)));
+	}
+}
@@ -0,0 +1,164 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fails when a method builds a Page from a list it slices itself (subList, or skip/limit on a
+ * stream), directly or through helper methods of the same class; such endpoints cost
+ * O(table) per page. Use a repository method taking a Pageable instead.
+ */
+class InMemoryPagingTest {
+
+	private static final Path SOURCES = Path.of("src/main/java");
+
+	private static final Pattern METHOD_START = Pattern.compile(
+			"\\n\\s*(public|protected|private|static)[^;={]*\\([^;{]*\\)[^;{]*\\{");
+
+	// Page types, simple or fully qualified
+	private static final Pattern BUILDS_PAGE = Pattern.compile(
+			"\\b(PageImpl|SliceImpl|PageableExecutionUtils\\s*\\.\\s*getPage)\\b");
+	private static final Pattern SLICES_LIST = Pattern.compile("\\.\\s*(subList|skip)\\s*\\(");
+
+	// Methods known to page in memory on purpose; none so far
+	private static final Set<String> ALLOWED = Set.of();
+
+	@Test
+	void pagesComeFromTheDatabase() throws IOException {
+		List<String> offenders = new ArrayList<>();
+		try (Stream<Path> files = Files.walk(SOURCES)) {
+			for (Path file : files.filter(path -> path.toString().endsWith(".java")).toList()) {
+				String className = file.getFileName().toString().replace(".java", "");
+				offenders.addAll(offenders(className, Files.readString(file)));
+			}
+		}
+		assertTrue(offenders.isEmpty(), "Pages sliced in memory: " + offenders);
+	}
+
+	@Test
+	void detectsSlicedPages() {
+		String source = """
+				class Sample {
+				    public Page<Item> getItems(Pageable pageable) {
+				        List<Item> items = repository.findAll();
+				        return new PageImpl<>(items.subList(0, 10), pageable, items.size());
+				    }
+				}
+				""";
+		assertEquals(List.of("Sample.getItems"), offenders("Sample", source));
+	}
+
+	@Test
+	void detectsStreamPagingAndQualifiedNames() {
+		String source = """
+				class Sample {
+				    public Page<Item> getItems(Pageable pageable) {
+				        List<Item> items = repository.findAll();
+				        List<Item> content = items.stream()
+				                .skip(pageable.getOffset())
+				                .limit(pageable.getPageSize())
+				                .toList();
+				        return new org.springframework.data.domain.PageImpl<>(content, pageable, items.size());
+				    }
+				}
+				""";
+		assertEquals(List.of("Sample.getItems"), offenders("Sample", source));
+	}
+
+	@Test
+	void detectsSlicingInHelperMethods() {
+		String source = """
+				class Sample {
+				    public Page<Item> getItems(Pageable pageable) {
+				        List<Item> items = repository.findAll();
+				        return new PageImpl<>(slice(items, pageable), pageable, items.size());
+				    }
+
+				    private List<Item> slice(List<Item> items, Pageable pageable) {
+				        int start = (int) pageable.getOffset();
+				        return items.subList(start, Math.min(start + pageable.getPageSize(), items.size()));
+				    }
+
+				    public List<Item> getFirstItems() {
+				        return repository.findAll().subList(0, 5);
+				    }
+				}
+				""";
+		assertEquals(List.of("Sample.getItems", "Sample.slice"), offenders("Sample", source));
+	}
+
+	// Methods that slice or build a page, and do the other themselves or through a helper
+	private static List<String> offenders(String className, String source) {
+		Map<String, String> bodies = methods(source);
+		List<String> offenders = new ArrayList<>();
+		for (Map.Entry<String, String> method : bodies.entrySet()) {
+			String name = className + "." + method.getKey();
+			String body = method.getValue();
+			boolean buildsPage = BUILDS_PAGE.matcher(body).find();
+			boolean slicesList = SLICES_LIST.matcher(body).find();
+			if (ALLOWED.contains(name) || !buildsPage && !slicesList) {
+				continue;
+			}
+			if ((buildsPage || reaches(className, method.getKey(), bodies, BUILDS_PAGE, new HashSet<>()))
+					&& (slicesList || reaches(className, method.getKey(), bodies, SLICES_LIST, new HashSet<>()))) {
+				offenders.add(name);
+			}
+		}
+		return offenders;
+	}
+
+	// Whether a method calls, directly or not, a method of the same class matching the pattern,
+	// in either direction: callees doing it for the method, or callers doing it with its result
+	private static boolean reaches(String className, String method, Map<String, String> bodies, Pattern pattern,
+			Set<String> visited) {
+		if (!visited.add(method)) {
+			return false;
+		}
+		for (Map.Entry<String, String> other : bodies.entrySet()) {
+			if (other.getKey().equals(method) || ALLOWED.contains(className + "." + other.getKey())) {
+				continue;
+			}
+			boolean related = calls(bodies.get(method), other.getKey()) || calls(other.getValue(), method);
+			if (related && (pattern.matcher(other.getValue()).find()
+					|| reaches(className, other.getKey(), bodies, pattern, visited))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean calls(String body, String method) {
+		return Pattern.compile("(?:(?<![\\w.])|(?<=this\\.))" + Pattern.quote(method) + "\\s*\\(").matcher(body).find();
+	}
+
+	// Method name to body text up to the next method declaration (overloads merged)
+	private static Map<String, String> methods(String source) {
+		Map<String, String> methods = new LinkedHashMap<>();
+		Matcher matcher = METHOD_START.matcher(source);
+		List<int[]> starts = new ArrayList<>();
+		while (matcher.find()) {
+			starts.add(new int[] { matcher.start(), matcher.end() });
+		}
+		for (int i = 0; i < starts.size(); i++) {
+			String header = source.substring(starts.get(i)[0], starts.get(i)[1]);
+			String name = header.substring(0, header.indexOf('(')).trim().replaceAll(".*\\s", "");
+			int end = i + 1 < starts.size() ? starts.get(i + 1)[0] : source.length();
+			methods.merge(name, source.substring(starts.get(i)[1], end), String::concat);
+		}
+		return methods;
+	}
+}
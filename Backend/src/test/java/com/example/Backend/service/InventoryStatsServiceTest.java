@@ -0,0 +1,66 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.StockMovement;
+import com.example.Backend.event.StockMovementRecordedEvent;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.PurchaseOrderRepository;
+import com.example.Backend.repository.StockMovementRepository;
+import com.example.Backend.repository.SupplierRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class InventoryStatsServiceTest {
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final StockMovementRepository stockMovementRepository = mock(StockMovementRepository.class);
+	private final InventoryStatsService service = new InventoryStatsService(productRepository,
+			mock(SupplierRepository.class), mock(PurchaseOrderRepository.class), stockMovementRepository,
+			new ObjectMapper());
+
+	@Test
+	void resyncKeepsStockMovementsThatArriveWhileItReads() {
+		when(productRepository.findPriceById(any())).thenReturn(new BigDecimal("2"));
+		summary(10, "500", 1, 2, 7);
+		when(stockMovementRepository.count()).thenReturn(40L);
+		service.resync();
+
+		// A sale commits while the next resync scans the catalog, so the scan may miss it
+		when(productRepository.summarizeStock(anyInt())).thenAnswer(inv -> {
+			service.onStockMovement(movement(12, 8));
+			return summaryRow(10, "500", 1, 2, 7);
+		});
+		// The movement count after the scan does include it
+		when(stockMovementRepository.count()).thenReturn(41L);
+		service.resync();
+
+		Map<String, Object> stats = service.getFullStats();
+		assertEquals(0, new BigDecimal("492").compareTo((BigDecimal) stats.get("totalValue")));
+		assertEquals(3L, stats.get("lowStockItems"));
+		assertEquals(6L, stats.get("healthyStockItems"));
+		assertEquals(41L, stats.get("totalMovements"));
+	}
+
+	private void summary(long products, String value, long out, long low, long healthy) {
+		when(productRepository.summarizeStock(anyInt())).thenReturn(summaryRow(products, value, out, low, healthy));
+	}
+
+	private static List<Object[]> summaryRow(long products, String value, long out, long low, long healthy) {
+		return List.<Object[]>of(new Object[] { products, new BigDecimal(value), out, low, healthy });
+	}
+
+	private static StockMovementRecordedEvent movement(int previousStock, int newStock) {
+		return new StockMovementRecordedEvent(UUID.randomUUID(), UUID.randomUUID(), StockMovement.MovementType.SALE,
+				newStock - previousStock, previousStock, newStock, null, LocalDateTime.now());
+	}
+}
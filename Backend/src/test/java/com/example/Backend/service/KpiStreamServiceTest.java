@@ -0,0 +1,80 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import com.example.Backend.entity.Order;
+import com.example.Backend.entity.StockMovement;
+import com.example.Backend.event.OrderPlacedEvent;
+import com.example.Backend.event.StockMovementRecordedEvent;
+import com.example.Backend.repository.OrderRepository;
+import com.example.Backend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class KpiStreamServiceTest {
+
+	private final OrderRepository orderRepository = mock(OrderRepository.class);
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final KpiStreamService service = new KpiStreamService(orderRepository, productRepository,
+			mock(SimpMessagingTemplate.class));
+
+	@Test
+	void resyncKeepsEventsThatArriveWhileItReads() {
+		database(5, "100", 2, 4);
+		service.resync();
+
+		// Another order commits while the next resync sums today's orders, so the sum may miss it
+		when(orderRepository.summarizeOrdersBetween(any(), any())).thenAnswer(inv -> {
+			service.onOrderPlaced(order(Order.STATUS_PENDING, "10"));
+			return List.<Object[]>of(new Object[] { 7L, new BigDecimal("150") });
+		});
+		// The queries after it do see it, and a stock movement commits during the last one
+		when(orderRepository.countByStatus(Order.STATUS_PENDING)).thenReturn(3L);
+		when(productRepository.countByStockLessThan(anyInt())).thenAnswer(inv -> {
+			service.onStockMovement(new StockMovementRecordedEvent(UUID.randomUUID(), UUID.randomUUID(),
+					StockMovement.MovementType.SALE, -5, 12, 7, null, LocalDateTime.now()));
+			return 6L;
+		});
+		service.resync();
+
+		AnalyticsDTO.KpiUpdate snapshot = service.getSnapshot();
+		assertEquals(8, snapshot.getOrdersToday());
+		assertEquals(0, new BigDecimal("160").compareTo(snapshot.getRevenueToday()));
+		assertEquals(3, snapshot.getPendingOrders());
+		assertEquals(7, snapshot.getLowStockProducts());
+	}
+
+	@Test
+	void eventsBeforeTheReadAreNotCountedTwice() {
+		database(5, "100", 2, 4);
+		service.resync();
+		service.onOrderPlaced(order(Order.STATUS_PENDING, "10"));
+
+		database(6, "110", 3, 4);
+		service.resync();
+
+		AnalyticsDTO.KpiUpdate snapshot = service.getSnapshot();
+		assertEquals(6, snapshot.getOrdersToday());
+		assertEquals(3, snapshot.getPendingOrders());
+	}
+
+	private void database(long orders, String revenue, long pending, long lowStock) {
+		when(orderRepository.summarizeOrdersBetween(any(), any()))
+				.thenReturn(List.<Object[]>of(new Object[] { orders, new BigDecimal(revenue) }));
+		when(orderRepository.countByStatus(Order.STATUS_PENDING)).thenReturn(pending);
+		when(productRepository.countByStockLessThan(anyInt())).thenReturn(lowStock);
+	}
+
+	private static OrderPlacedEvent order(String status, String total) {
+		return new OrderPlacedEvent(UUID.randomUUID(), UUID.randomUUID(), status, new BigDecimal(total),
+				LocalDateTime.now());
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.Product;
+import com.example.Backend.repository.BrandRepository;
+import com.example.Backend.repository.CategoryRepository;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.StockMovementRepository;
+import com.example.Backend.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ProductSearchCountTest {
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final SearchAnalyticsService searchAnalyticsService = mock(SearchAnalyticsService.class);
+	private final ProductServiceImpl service = new ProductServiceImpl(productRepository,
+			mock(CategoryRepository.class), mock(BrandRepository.class), mock(StockMovementRepository.class),
+			searchAnalyticsService);
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void searchesEmptiedByOtherFiltersAreCountedByTheirTextMatches() {
+		when(productRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(Page.empty());
+		when(productRepository.count(any(Specification.class))).thenReturn(3L);
+		Pageable relevance = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "relevance").and(Sort.by("name")));
+
+		service.filterProducts(null, null, null, new BigDecimal("5"), "brake", null, relevance);
+
+		verify(searchAnalyticsService).recordSearch("brake", 3);
+		// Relevance is ranked by the query itself, not passed on as a property sort
+		verify(productRepository).findAll(any(Specification.class),
+				argThat((Pageable p) -> p.getSort().isUnsorted() && p.getPageSize() == 20));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void textOnlySearchesReuseThePageTotal() {
+		when(productRepository.findAll(any(Specification.class), any(Pageable.class)))
+				.thenReturn(new PageImpl<>(List.of(new Product()), PageRequest.of(0, 1), 7));
+
+		service.filterProducts(null, null, null, null, "brake", null, PageRequest.of(0, 1, Sort.by("name")));
+
+		verify(searchAnalyticsService).recordSearch("brake", 7);
+		verify(productRepository, never()).count(any(Specification.class));
+	}
+}
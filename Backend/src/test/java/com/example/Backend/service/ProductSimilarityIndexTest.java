@@ -0,0 +1,71 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSimilarityIndexTest {
+
+	private final UUID clioPads = UUID.randomUUID();
+	private final UUID clioDiscs = UUID.randomUUID();
+	private final UUID golfPads = UUID.randomUUID();
+	private final UUID wipers = UUID.randomUUID();
+
+	@Test
+	void ranksByCategoryBrandAndFitment() {
+		ProductSimilarityService.SimilarityIndex index = newIndex();
+
+		assertEquals(List.of(clioDiscs, golfPads, wipers), index.similar(clioPads, 5));
+		assertEquals(List.of(clioDiscs), index.similar(clioPads, 1));
+		assertEquals(List.of(), index.similar(UUID.randomUUID(), 5));
+	}
+
+	@Test
+	void followsStockAndCatalogChanges() {
+		ProductSimilarityService.SimilarityIndex index = newIndex();
+
+		index.apply(clioDiscs, document(clioDiscs, "Brake discs", "Brakes", "Bosch", "Clio", false));
+		assertEquals(golfPads, index.similar(clioPads, 5).get(0));
+
+		// Refitted for the Golf: now closer to the Golf pads than anything else
+		index.apply(wipers, document(wipers, "Brake pads", "Brakes", "Valeo", "Golf", true));
+		assertEquals(wipers, index.similar(golfPads, 5).get(0));
+
+		index.apply(golfPads, null);
+		assertEquals(List.of(), index.similar(golfPads, 5));
+		assertFalse(index.similar(clioPads, 5).contains(golfPads));
+		assertEquals(3, index.size());
+	}
+
+	@Test
+	void termsIgnoreCaseAccentsAndStopWords() {
+		Map<String, Float> terms = ProductSimilarityService.TextVectorizer.terms(
+				"Plaquettes de frein", "Frein avant", "Freinage", "Rénault", "Clio", "clio, Mégane");
+
+		assertEquals(2.5f, terms.get("frein"));
+		assertNull(terms.get("de"));
+		assertEquals(1.0f, terms.get("brand:renault"));
+		assertEquals(4.0f, terms.get("fits:clio"));
+		assertEquals(2.0f, terms.get("fits:megane"));
+	}
+
+	private ProductSimilarityService.SimilarityIndex newIndex() {
+		ProductSimilarityService.SimilarityIndex index = new ProductSimilarityService.SimilarityIndex(256, 8, 50, 32);
+		index.build(List.of(
+				document(clioPads, "Brake pads", "Brakes", "Bosch", "Clio", true),
+				document(clioDiscs, "Brake discs", "Brakes", "Bosch", "Clio", true),
+				document(golfPads, "Brake pads", "Brakes", "Valeo", "Golf", true),
+				document(wipers, "Wiper blades", "Visibility", "Valeo", "Golf", true)));
+		return index;
+	}
+
+	private static ProductSimilarityService.ProductDocument document(UUID id, String name, String category,
+			String brand, String model, boolean inStock) {
+		return new ProductSimilarityService.ProductDocument(id,
+				ProductSimilarityService.TextVectorizer.terms(name, null, category, brand, model, null), inStock);
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.ProductDTO;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.StockMovement;
+import com.example.Backend.repository.BrandRepository;
+import com.example.Backend.repository.CategoryRepository;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.StockMovementRepository;
+import com.example.Backend.service.impl.ProductServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductStockAdjustmentTest {
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final StockMovementRepository stockMovementRepository = mock(StockMovementRepository.class);
+	private final ProductServiceImpl service = new ProductServiceImpl(productRepository,
+			mock(CategoryRepository.class), mock(BrandRepository.class), stockMovementRepository,
+			mock(SearchAnalyticsService.class));
+	private final Product product = new Product();
+
+	ProductStockAdjustmentTest() {
+		product.setId(UUID.randomUUID());
+		product.setName("Brake pads");
+		product.setPrice(BigDecimal.TEN);
+		product.setStock(10);
+		when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+		when(productRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+	}
+
+	@Test
+	void stockUpdatesAreRecordedAsAdjustments() {
+		service.updateStock(product.getId(), -3);
+
+		StockMovement movement = savedMovement();
+		assertEquals(StockMovement.MovementType.ADJUSTMENT, movement.getMovementType());
+		assertEquals(-3, movement.getQuantity());
+		assertEquals(10, movement.getPreviousStock());
+		assertEquals(7, movement.getNewStock());
+	}
+
+	@Test
+	void productEditsRecordStockChangesOnly() {
+		ProductDTO edit = new ProductDTO();
+		edit.setName("Brake pads, front");
+		edit.setPrice(BigDecimal.TEN);
+		edit.setStockQuantity(10);
+		service.updateProduct(product.getId(), edit);
+		verify(stockMovementRepository, never()).save(any());
+
+		edit.setStockQuantity(25);
+		service.updateProduct(product.getId(), edit);
+
+		StockMovement movement = savedMovement();
+		assertEquals(15, movement.getQuantity());
+		assertEquals(10, movement.getPreviousStock());
+		assertEquals(25, movement.getNewStock());
+	}
+
+	private StockMovement savedMovement() {
+		ArgumentCaptor<StockMovement> captor = ArgumentCaptor.forClass(StockMovement.class);
+		verify(stockMovementRepository).save(captor.capture());
+		return captor.getValue();
+	}
+}
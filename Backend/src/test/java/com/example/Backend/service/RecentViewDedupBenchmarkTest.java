@@ -0,0 +1,166 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Database load of view tracking on a synthetic browsing load, before (recent-view query on
+ * every view, then a user lookup, a product lookup and an insert) and after (in-memory
+ * dedup, batched inserts). The after side runs the real ingestion pipeline and filter in real
+ * time against a JdbcTemplate that counts the statements issued; the before side is counted
+ * from exact dedup of the same views. Not part of the normal build:
+ * mvn test -Dtest=RecentViewDedupBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecentViewDedupBenchmarkTest {
+
+	private static final Duration WINDOW = Duration.ofMinutes(5);
+	private static final int USERS = 20_000;
+	private static final int PRODUCTS = 5_000;
+	private static final int VIEWS_PER_SECOND = 500;
+	private static final int SECONDS = 60;
+	private static final int TICK_MILLIS = 10;
+
+	@Test
+	void benchmarkViewDedup() throws InterruptedException {
+		CountingJdbcTemplate jdbc = new CountingJdbcTemplate();
+		RecentViewFilter filter = new RecentViewFilter(new SimpleMeterRegistry(), WINDOW, 5,
+				VIEWS_PER_SECOND * 60, 0.001);
+		ActivityIngestionService service = new ActivityIngestionService(jdbc, mock(PlatformTransactionManager.class),
+				filter, event -> {
+				}, new SimpleMeterRegistry(), 50_000, 500, Duration.ofMillis(200), Duration.ofMillis(50));
+
+		UUID[] users = uuids(USERS);
+		UUID[] products = uuids(PRODUCTS);
+		Map<Integer, Deque<Integer>> recentlyViewed = new HashMap<>();
+		// The run is shorter than the window, so a view is first if its pair wasn't viewed before
+		Set<Long> viewed = new HashSet<>();
+		Random random = new Random(11);
+
+		long views = 0;
+		long exactFirst = 0;
+		long submitNanos = 0;
+		int viewsPerTick = VIEWS_PER_SECOND * TICK_MILLIS / 1000;
+		service.start();
+		long started = System.nanoTime();
+		for (long tick = 0; tick < SECONDS * 1000L / TICK_MILLIS; tick++) {
+			long due = started + TimeUnit.MILLISECONDS.toNanos(tick * TICK_MILLIS);
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				TimeUnit.NANOSECONDS.sleep(wait);
+			}
+			for (int v = 0; v < viewsPerTick; v++) {
+				int user = (int) Math.min(USERS - 1, Math.abs(random.nextGaussian()) * USERS / 3);
+				Deque<Integer> recent = recentlyViewed.computeIfAbsent(user, u -> new ArrayDeque<>());
+				// Shoppers go back and forth between a few products, or open a new one
+				int product = !recent.isEmpty() && random.nextDouble() < 0.4
+						? recent.stream().skip(random.nextInt(recent.size())).findFirst().orElseThrow()
+						: (int) Math.min(PRODUCTS - 1, Math.abs(random.nextGaussian()) * PRODUCTS / 3);
+				recent.addFirst(product);
+				if (recent.size() > 5) {
+					recent.removeLast();
+				}
+				views++;
+				if (viewed.add((long) user * PRODUCTS + product)) {
+					exactFirst++;
+				}
+
+				ActivityIngestionService.PendingActivity activity = ActivityIngestionService.PendingActivity.of(
+						users[user], products[product], ActivityType.VIEW);
+				long start = System.nanoTime();
+				service.submit(activity);
+				submitNanos += System.nanoTime() - start;
+			}
+		}
+		double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+		service.shutdown();
+
+		Map<String, Object> stats = service.getStats();
+		// Before: a COUNT per view, then findById(user), findById(product) and an insert per first view
+		long before = views + 3 * exactFirst;
+		// After: what the pipeline actually sent
+		long after = jdbc.batches.get() + jdbc.rowUpdates.get();
+		long written = jdbc.rows.get();
+		System.out.printf("%d views over %.1f s, %d first views (%.1f%% repeats)%n", views, elapsedSeconds,
+				exactFirst, 100.0 * (views - exactFirst) / views);
+		System.out.printf("DB statements/s before %8.1f  (recent-view queries/s %.1f)%n",
+				before / elapsedSeconds, views / elapsedSeconds);
+		System.out.printf("DB statements/s after  %8.1f  (%d batched inserts of %.1f rows on average, "
+				+ "%d single-row inserts)%n", after / elapsedSeconds, jdbc.batches.get(),
+				(double) written / Math.max(1, jdbc.batches.get()), jdbc.rowUpdates.get());
+		System.out.printf("Submit %.0f ns per view, shed %s, first views wrongly dropped %.4f%%%n",
+				(double) submitNanos / views, stats.get("shed"), 100.0 * (exactFirst - written) / exactFirst);
+
+		assertEquals(0L, stats.get("shed"));
+		assertEquals(0L, jdbc.repeatsWritten.get(), "a repeat view within the window was written");
+		assertTrue(after < before / 10);
+		assertTrue((double) (exactFirst - written) / exactFirst < 0.002);
+	}
+
+	private static UUID[] uuids(int count) {
+		UUID[] ids = new UUID[count];
+		for (int i = 0; i < count; i++) {
+			ids[i] = UUID.randomUUID();
+		}
+		return ids;
+	}
+
+	/**
+	 * Counts the batched and single-row inserts the pipeline issues, and the rows in them
+	 */
+	private static final class CountingJdbcTemplate extends JdbcTemplate {
+
+		private final AtomicLong batches = new AtomicLong();
+		private final AtomicLong rowUpdates = new AtomicLong();
+		private final AtomicLong rows = new AtomicLong();
+		private final AtomicLong repeatsWritten = new AtomicLong();
+		private final Set<String> writtenViews = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> pss) {
+			batches.incrementAndGet();
+			rows.addAndGet(batchArgs.size());
+			for (T arg : batchArgs) {
+				ActivityIngestionService.PendingActivity activity = (ActivityIngestionService.PendingActivity) arg;
+				if (!writtenViews.add(activity.userId() + "/" + activity.productId())) {
+					repeatsWritten.incrementAndGet();
+				}
+			}
+			int[] counts = new int[batchArgs.size()];
+			Arrays.fill(counts, 1);
+			return new int[][] { counts };
+		}
+
+		@Override
+		public int update(String sql, PreparedStatementSetter pss) {
+			rowUpdates.incrementAndGet();
+			rows.incrementAndGet();
+			return 1;
+		}
+	}
+}
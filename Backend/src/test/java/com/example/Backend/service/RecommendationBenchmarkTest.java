@@ -0,0 +1,63 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency and quality of every recommendation strategy on a synthetic shop, to compare
+ * before and after a change. Calls go through the production recommender, with the product
+ * repository in memory, so the latency excludes the database. Not part of the normal build:
+ * mvn test -Dtest=RecommendationBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RecommendationBenchmarkTest {
+
+	private static final int WARM_UP_CALLS = 20_000;
+	private static final int MEASURED_CALLS = 50_000;
+
+	@Test
+	void benchmarkStrategies() {
+		SyntheticShop.Dataset shop = SyntheticShop.generate(42, 2_000, 3_000, 60);
+		RecommendationEvaluationService.Evaluator evaluator =
+				SyntheticShop.evaluationService(shop.catalog(), shop.documents()).newEvaluator(shop.catalog(),
+						shop.splitAt());
+		long started = System.nanoTime();
+		shop.training().forEach(evaluator::train);
+		shop.test().forEach(evaluator::test);
+		System.out.printf("Trained on %d products, %d activities in %d ms%n", shop.catalog().size(),
+				shop.training().size(), (System.nanoTime() - started) / 1_000_000);
+
+		List<UUID> users = new ArrayList<>(evaluator.users());
+		Random random = new Random(1);
+		for (RecommendationEvaluationService.Strategy strategy : RecommendationEvaluationService.Strategy.values()) {
+			long[] nanos = new long[MEASURED_CALLS];
+			int returned = 0;
+			for (int i = 0; i < WARM_UP_CALLS + MEASURED_CALLS; i++) {
+				UUID user = users.get(random.nextInt(users.size()));
+				long start = System.nanoTime();
+				returned += evaluator.recommend(strategy, user, 10).size();
+				if (i >= WARM_UP_CALLS) {
+					nanos[i - WARM_UP_CALLS] = System.nanoTime() - start;
+				}
+			}
+			Arrays.sort(nanos);
+			System.out.printf("%-12s p50 %7.1f us  p99 %7.1f us  mean %7.1f us%n", strategy,
+					nanos[MEASURED_CALLS / 2] / 1000.0, nanos[MEASURED_CALLS * 99 / 100] / 1000.0,
+					Arrays.stream(nanos).average().orElse(0) / 1000.0);
+			assertTrue(returned > 0, strategy + " returned nothing");
+		}
+
+		for (RecommendationEvaluationService.StrategyResult result : evaluator.results(10)) {
+			System.out.printf("%-12s users %5d  precision@10 %.4f  recall@10 %.4f  coverage %.4f%n",
+					result.strategy(), result.users(), result.precision(), result.recall(), result.coverage());
+		}
+	}
+}
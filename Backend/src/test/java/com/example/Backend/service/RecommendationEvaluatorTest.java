@@ -0,0 +1,106 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationEvaluatorTest {
+
+	@Test
+	void scoresTheProductionRecommender() {
+		UUID user = UUID.randomUUID();
+		List<RecommendationEvaluationService.CatalogItem> catalog = List.of(
+				item(1L), item(1L), item(2L), item(2L));
+		UUID a = catalog.get(0).productId();
+		UUID b = catalog.get(1).productId();
+		UUID c = catalog.get(2).productId();
+
+		RecommendationEvaluationService.Evaluator evaluator = SyntheticShop.evaluationService(catalog, List.of())
+				.newEvaluator(catalog, 10);
+		evaluator.train(interaction(user, a, ActivityType.VIEW, 1));
+		evaluator.train(interaction(user, a, ActivityType.VIEW, 2));
+		evaluator.test(interaction(user, b, ActivityType.PURCHASE, 11));
+		evaluator.test(interaction(user, c, ActivityType.ADD_TO_CART, 12));
+		evaluator.test(interaction(user, c, ActivityType.VIEW, 13));
+		Map<RecommendationEvaluationService.Strategy, RecommendationEvaluationService.StrategyResult> results =
+				byStrategy(evaluator.results(2));
+
+		// Only b shares the viewed product's category, a itself was viewed so it's excluded, and
+		// the newest featured product fills the rest
+		assertEquals(List.of(b, c), evaluator.recommend(RecommendationEvaluationService.Strategy.PERSONALIZED,
+				user, 2));
+		RecommendationEvaluationService.StrategyResult personalized =
+				results.get(RecommendationEvaluationService.Strategy.PERSONALIZED);
+		assertEquals(1, personalized.users());
+		assertEquals(1.0, personalized.precision(), 1e-9);
+		assertEquals(1.0, personalized.recall(), 1e-9);
+		assertEquals(0.5, personalized.coverage(), 1e-9);
+
+		// Trending only knows the viewed product and is topped up with featured ones
+		assertEquals(List.of(a, b), evaluator.recommend(RecommendationEvaluationService.Strategy.TRENDING, user, 2));
+		RecommendationEvaluationService.StrategyResult trending =
+				results.get(RecommendationEvaluationService.Strategy.TRENDING);
+		assertEquals(0.5, trending.precision(), 1e-9);
+		assertEquals(0.5, trending.coverage(), 1e-9);
+	}
+
+	@Test
+	void trainingEndsWhenTestingStarts() {
+		List<RecommendationEvaluationService.CatalogItem> catalog = List.of(item(1L));
+		RecommendationEvaluationService.Evaluator evaluator = SyntheticShop.evaluationService(catalog, List.of())
+				.newEvaluator(catalog, 10);
+		UUID user = UUID.randomUUID();
+		UUID product = catalog.get(0).productId();
+		evaluator.test(interaction(user, product, ActivityType.PURCHASE, 11));
+
+		assertThrows(IllegalStateException.class,
+				() -> evaluator.train(interaction(user, product, ActivityType.VIEW, 1)));
+		// No training history: nothing to score, and no live profile is loaded
+		assertTrue(evaluator.recommend(RecommendationEvaluationService.Strategy.PERSONALIZED, user, 2).isEmpty());
+		assertEquals(0, evaluator.results(2).get(0).users());
+	}
+
+	@Test
+	void strategiesFindThePlantedStructure() {
+		SyntheticShop.Dataset shop = SyntheticShop.generate(11, 300, 400, 40);
+		RecommendationEvaluationService.Evaluator evaluator =
+				SyntheticShop.evaluationService(shop.catalog(), shop.documents()).newEvaluator(shop.catalog(),
+						shop.splitAt());
+		shop.training().forEach(evaluator::train);
+		shop.test().forEach(evaluator::test);
+
+		Map<RecommendationEvaluationService.Strategy, RecommendationEvaluationService.StrategyResult> results =
+				byStrategy(evaluator.results(10));
+
+		results.values().forEach(r -> assertTrue(r.users() > 100, r.toString()));
+		double personalized = results.get(RecommendationEvaluationService.Strategy.PERSONALIZED).precision();
+		double trending = results.get(RecommendationEvaluationService.Strategy.TRENDING).precision();
+		assertTrue(personalized > trending, "personalized " + personalized + " vs trending " + trending);
+		assertTrue(results.get(RecommendationEvaluationService.Strategy.ALSO_BOUGHT).precision() > 0);
+		assertTrue(results.get(RecommendationEvaluationService.Strategy.SIMILAR).precision() > 0);
+		assertTrue(results.get(RecommendationEvaluationService.Strategy.PERSONALIZED).coverage()
+				> results.get(RecommendationEvaluationService.Strategy.TRENDING).coverage());
+	}
+
+	private static Map<RecommendationEvaluationService.Strategy, RecommendationEvaluationService.StrategyResult>
+			byStrategy(List<RecommendationEvaluationService.StrategyResult> results) {
+		return results.stream().collect(Collectors.toMap(
+				RecommendationEvaluationService.StrategyResult::strategy, Function.identity()));
+	}
+
+	private static RecommendationEvaluationService.CatalogItem item(long category) {
+		return new RecommendationEvaluationService.CatalogItem(UUID.randomUUID(), category, null, null);
+	}
+
+	private static RecommendationEvaluationService.Interaction interaction(UUID user, UUID product, ActivityType type,
+			long at) {
+		return new RecommendationEvaluationService.Interaction(user, product, type, at);
+	}
+}
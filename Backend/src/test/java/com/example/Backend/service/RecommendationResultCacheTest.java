@@ -0,0 +1,161 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.entity.Product;
+import com.example.Backend.event.ProductChangedEvent;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecommendationResultCacheTest {
+
+	private final UUID user = UUID.randomUUID();
+	private final Product shown = product();
+	private final UserPreferenceService.Profile profile = new UserPreferenceService.Profile(System.currentTimeMillis());
+	private final UserPreferenceService preferences = mock(UserPreferenceService.class);
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@SuppressWarnings("unchecked")
+	private final RecommendationResultCache cache = new RecommendationResultCache(preferences,
+			mock(ObjectProvider.class), mock(JdbcTemplate.class), new SimpleMeterRegistry(),
+			Duration.ofMinutes(15), 100, Duration.ofHours(1), 10, new int[] { 10 });
+
+	RecommendationResultCacheTest() {
+		when(preferences.getProfile(user)).thenReturn(profile);
+		// Brakes (category 1) are this user's strongest preference
+		for (int i = 0; i < 5; i++) {
+			record(ActivityType.PURCHASE, 1L);
+		}
+	}
+
+	@Test
+	void servesRepeatedLookupsFromCache() {
+		load();
+		load();
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void activityOnAShownProductInvalidates() {
+		load();
+		cache.onActivity(event(ActivityType.VIEW, shown.getId()));
+
+		load();
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void activityLeavingPreferencesUnchangedKeepsTheEntry() {
+		load();
+		record(ActivityType.VIEW, 1L);
+		cache.onActivity(event(ActivityType.VIEW, UUID.randomUUID()));
+
+		load();
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void activityChangingPreferencesInvalidates() {
+		load();
+		// Filters (category 2) become a strong interest too
+		for (int i = 0; i < 3; i++) {
+			record(ActivityType.PURCHASE, 2L);
+		}
+		cache.onActivity(event(ActivityType.PURCHASE, UUID.randomUUID()));
+
+		load();
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void activitiesNotInTheProfileAreIgnored() {
+		load();
+		cache.onActivity(event(ActivityType.SEARCH, shown.getId()));
+		cache.onActivity(event(ActivityType.REMOVE_FROM_CART, shown.getId()));
+
+		load();
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void resultsComputedAcrossAnActivityAreNotStored() {
+		// The user views a recommended product while their recommendations are being computed
+		List<Product> stale = cache.get(user, 10, () -> {
+			cache.onActivity(event(ActivityType.VIEW, shown.getId()));
+			loads.incrementAndGet();
+			return List.of(shown);
+		});
+		assertEquals(List.of(shown), stale);
+
+		load();
+		load();
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void changeToAShownProductInvalidates() {
+		load();
+		cache.onProductChanged(new ProductChangedEvent(UUID.randomUUID()));
+		load();
+		assertEquals(1, loads.get());
+
+		// Its price or stock may have changed
+		cache.onProductChanged(new ProductChangedEvent(shown.getId()));
+		load();
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void resultsComputedAcrossAChangeToTheirProductsAreNotStored() {
+		cache.get(user, 10, () -> {
+			cache.onProductChanged(new ProductChangedEvent(UUID.randomUUID()));
+			cache.onProductChanged(new ProductChangedEvent(shown.getId()));
+			loads.incrementAndGet();
+			return List.of(shown);
+		});
+		load();
+		assertEquals(2, loads.get());
+
+		// A change to another product doesn't matter
+		cache.invalidate(user);
+		cache.get(user, 10, () -> {
+			cache.onProductChanged(new ProductChangedEvent(UUID.randomUUID()));
+			loads.incrementAndGet();
+			return List.of(shown);
+		});
+		load();
+		assertEquals(3, loads.get());
+	}
+
+	private void load() {
+		cache.get(user, 10, () -> {
+			loads.incrementAndGet();
+			return List.of(shown);
+		});
+	}
+
+	private void record(ActivityType type, Long categoryId) {
+		profile.record(type, UUID.randomUUID(), categoryId, null, null, System.currentTimeMillis());
+	}
+
+	private UserActivityRecordedEvent event(ActivityType type, UUID productId) {
+		return new UserActivityRecordedEvent(user, productId, type, LocalDateTime.now());
+	}
+
+	private static Product product() {
+		Product product = new Product();
+		product.setId(UUID.randomUUID());
+		return product;
+	}
+}
@@ -0,0 +1,26 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportExportServiceTest {
+
+	@Test
+	void quotesSeparatorsAndQuotes() {
+		assertEquals("plain", ReportExportService.csvValue("plain"));
+		assertEquals("\"a,b\"", ReportExportService.csvValue("a,b"));
+		assertEquals("\"say \"\"hi\"\"\"", ReportExportService.csvValue("say \"hi\""));
+		assertEquals("\"two\nlines\"", ReportExportService.csvValue("two\nlines"));
+		assertEquals("", ReportExportService.csvValue(null));
+	}
+
+	@Test
+	void neutralizesFormulasButNotNumbers() {
+		assertEquals("'=SUM(A1:A2)", ReportExportService.csvValue("=SUM(A1:A2)"));
+		assertEquals("'@cmd", ReportExportService.csvValue("@cmd"));
+		assertEquals("-12.50", ReportExportService.csvValue(new BigDecimal("-12.50")));
+	}
+}
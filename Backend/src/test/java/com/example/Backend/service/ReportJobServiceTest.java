@@ -0,0 +1,107 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.ReportJobDTO;
+import com.example.Backend.entity.Report;
+import com.example.Backend.repository.ReportRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReportJobServiceTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+	private static final LocalDateTime END = LocalDateTime.of(2025, 1, 31, 23, 59);
+
+	private final UUID alice = UUID.randomUUID();
+	private final UUID bob = UUID.randomUUID();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private ReportService reportService;
+	private ReportJobService jobService;
+
+	@BeforeEach
+	void setUp() {
+		reportService = mock(ReportService.class);
+		// Reports stay in progress until the test releases them
+		when(reportService.generateReport(anyString(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			Report report = new Report();
+			report.setId(UUID.randomUUID());
+			return report;
+		});
+		jobService = new ReportJobService(reportService, mock(ReportRepository.class), 1, 1,
+				Duration.ofHours(24), Duration.ofMinutes(5));
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		jobService.shutdown();
+	}
+
+	@Test
+	void coalescesIdenticalSubmissions() {
+		ReportJobDTO first = jobService.submit("sales", START, END, Map.of("region", "north"), alice);
+		ReportJobDTO second = jobService.submit("SALES ", START, END, Map.of("region", "north"), bob);
+
+		assertEquals(first.getJobId(), second.getJobId());
+		assertEquals(alice, second.getSubmittedBy());
+		assertEquals(Set.of(alice, bob), second.getRequestedBy());
+	}
+
+	@Test
+	void keepsJobsWithDifferentParametersApart() {
+		ReportJobDTO north = jobService.submit("SALES", START, END, Map.of("region", "north"), alice);
+		ReportJobDTO south = jobService.submit("SALES", START, END, Map.of("region", "south"), alice);
+
+		assertNotEquals(north.getJobId(), south.getJobId());
+	}
+
+	@Test
+	void listsCoalescedJobsForEveryRequester() {
+		UUID jobId = jobService.submit("SALES", START, END, null, alice).getJobId();
+		jobService.submit("SALES", START, END, null, bob);
+
+		assertEquals(List.of(jobId), jobIds(jobService.getJobs(alice)));
+		assertEquals(List.of(jobId), jobIds(jobService.getJobs(bob)));
+		assertTrue(jobService.getJobs(UUID.randomUUID()).isEmpty());
+		assertEquals(List.of(jobId), jobIds(jobService.getJobs(null)));
+	}
+
+	@Test
+	void rejectedJobIsNotReused() {
+		jobService.submit("SALES", START, END, null, alice);
+		jobService.submit("INVENTORY", START, END, null, alice);
+
+		// One worker busy and the single queue slot taken
+		assertThrows(RejectedExecutionException.class,
+				() -> jobService.submit("CUSTOMERS", START, END, null, alice));
+		ReportJobDTO rejected = jobService.getJobs(alice).stream()
+				.filter(job -> job.getReportType().equals("CUSTOMERS"))
+				.findFirst().orElseThrow();
+		assertEquals(ReportJobService.STATUS_FAILED, rejected.getStatus());
+
+		assertThrows(RejectedExecutionException.class,
+				() -> jobService.submit("CUSTOMERS", START, END, null, bob));
+		assertEquals(1, jobService.getJobs(bob).size());
+		assertNotEquals(rejected.getJobId(), jobService.getJobs(bob).get(0).getJobId());
+	}
+
+	private static List<UUID> jobIds(List<ReportJobDTO> jobs) {
+		return jobs.stream().map(ReportJobDTO::getJobId).toList();
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ReportSchedule;
+import com.example.Backend.exception.ValidationException;
+import com.example.Backend.repository.ReportRepository;
+import com.example.Backend.repository.ReportScheduleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReportScheduleServiceTest {
+
+	private final ReportScheduleRepository scheduleRepository = mock(ReportScheduleRepository.class);
+	private final ReportScheduleService service = new ReportScheduleService(scheduleRepository,
+			mock(ReportRepository.class), mock(ReportService.class), mock(AdminNotificationService.class),
+			new ObjectMapper(), mock(PlatformTransactionManager.class), Duration.ofMinutes(30), Duration.ZERO);
+
+	@Test
+	void runNowMakesAnEnabledScheduleDue() {
+		ReportSchedule schedule = schedule(true);
+		when(scheduleRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+		ReportSchedule due = service.runNow(schedule.getId());
+
+		assertNotNull(due.getNextRunAt());
+		assertEquals(due.getScheduledAt(), due.getNextRunAt());
+	}
+
+	@Test
+	void runNowRejectsADisabledSchedule() {
+		// The poll only picks up enabled schedules, so it would never run
+		ReportSchedule schedule = schedule(false);
+
+		assertThrows(ValidationException.class, () -> service.runNow(schedule.getId()));
+		verify(scheduleRepository, never()).save(any());
+	}
+
+	private ReportSchedule schedule(boolean enabled) {
+		ReportSchedule schedule = new ReportSchedule();
+		schedule.setId(UUID.randomUUID());
+		schedule.setEnabled(enabled);
+		when(scheduleRepository.findById(schedule.getId())).thenReturn(Optional.of(schedule));
+		return schedule;
+	}
+}
@@ -0,0 +1,178 @@
+package com.example.Backend.service;
+
+import com.example.Backend.config.JacksonConfig;
+import com.example.Backend.dto.ReportSummaryDTO;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.Report;
+import com.example.Backend.repository.DeliveryRepository;
+import com.example.Backend.repository.OrderRepository;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.ReclamationRepository;
+import com.example.Backend.repository.ReportRepository;
+import com.example.Backend.repository.UserRepository;
+import com.example.Backend.service.impl.ReportServiceImpl;
+import com.example.Backend.util.GzipTextConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Storage and list-endpoint cost of 10k stored reports, before (JSON in a TEXT column, lists
+ * returning full entities) and after (gzip bytea payload, lists returning metadata only).
+ * Payloads are built by the production report builders over synthetic shop figures; list
+ * latency is the JSON serialization of a page, so it excludes the database and the network.
+ * Not part of the normal build:
+ * mvn test -Dtest=ReportStorageBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReportStorageBenchmarkTest {
+
+	private static final int REPORTS = 10_000;
+	private static final int[] PAGE_SIZES = { 20, 100 };
+	private static final int WARM_UP_CALLS = 2_000;
+	private static final int MEASURED_CALLS = 5_000;
+
+	private final Random random = new Random(7);
+	private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+	@Test
+	void benchmarkReportStorage() throws JsonProcessingException {
+		List<Report> reports = generateReports();
+
+		long textBytes = 0;
+		long payloadBytes = 0;
+		for (Report report : reports) {
+			textBytes += report.getData().getBytes(StandardCharsets.UTF_8).length;
+			payloadBytes += GzipTextConverter.compress(report.getData()).length;
+		}
+		System.out.printf("%d reports, payload %.1f KB on average: TEXT %.1f MB, gzip bytea %.1f MB (%.1fx)%n",
+				REPORTS, textBytes / 1024.0 / REPORTS, textBytes / 1048576.0, payloadBytes / 1048576.0,
+				(double) textBytes / payloadBytes);
+
+		List<ReportSummaryDTO> summaries = reports.stream()
+				.map(r -> new ReportSummaryDTO(r.getId(), r.getReportType(), r.getTitle(), r.getDescription(),
+						r.getFileUrl(), r.getPeriodStart(), r.getPeriodEnd(), r.getGeneratedBy(), r.getCreatedAt()))
+				.toList();
+		for (int pageSize : PAGE_SIZES) {
+			Measurement before = measure(() -> page(reports, pageSize));
+			Measurement after = measure(() -> page(summaries, pageSize));
+			System.out.printf("Page of %3d  full entities %7.1f KB p50 %7.1f us  |  summaries %6.1f KB p50 %6.1f us%n",
+					pageSize, before.bytes() / 1024.0, before.p50Micros(), after.bytes() / 1024.0,
+					after.p50Micros());
+			assertTrue(after.bytes() < before.bytes());
+		}
+
+		// What opening a report now costs on top of reading it
+		byte[][] payloads = reports.stream().map(r -> GzipTextConverter.compress(r.getData())).toArray(byte[][]::new);
+		long[] nanos = new long[MEASURED_CALLS];
+		for (int i = 0; i < WARM_UP_CALLS + MEASURED_CALLS; i++) {
+			long start = System.nanoTime();
+			GzipTextConverter.decompress(payloads[i % REPORTS]);
+			if (i >= WARM_UP_CALLS) {
+				nanos[i - WARM_UP_CALLS] = System.nanoTime() - start;
+			}
+		}
+		Arrays.sort(nanos);
+		System.out.printf("Decompressing one payload p50 %.1f us%n", nanos[MEASURED_CALLS / 2] / 1000.0);
+
+		assertTrue(payloadBytes < textBytes);
+	}
+
+	private Measurement measure(Supplier<Object> page) throws JsonProcessingException {
+		long[] nanos = new long[MEASURED_CALLS];
+		int bytes = 0;
+		for (int i = 0; i < WARM_UP_CALLS + MEASURED_CALLS; i++) {
+			Object content = page.get();
+			long start = System.nanoTime();
+			bytes = objectMapper.writeValueAsBytes(content).length;
+			if (i >= WARM_UP_CALLS) {
+				nanos[i - WARM_UP_CALLS] = System.nanoTime() - start;
+			}
+		}
+		Arrays.sort(nanos);
+		return new Measurement(bytes, nanos[MEASURED_CALLS / 2] / 1000.0);
+	}
+
+	private <T> PageImpl<T> page(List<T> all, int pageSize) {
+		int page = random.nextInt(all.size() / pageSize);
+		return new PageImpl<>(all.subList(page * pageSize, (page + 1) * pageSize), PageRequest.of(page, pageSize),
+				all.size());
+	}
+
+	private record Measurement(int bytes, double p50Micros) {
+	}
+
+	// Half sales reports, a quarter each inventory and user reports, over varying shop figures
+	private List<Report> generateReports() {
+		ReportRepository reportRepository = mock(ReportRepository.class);
+		OrderRepository orderRepository = mock(OrderRepository.class);
+		ProductRepository productRepository = mock(ProductRepository.class);
+		UserRepository userRepository = mock(UserRepository.class);
+		when(reportRepository.save(any())).thenAnswer(inv -> {
+			Report report = inv.getArgument(0);
+			report.setId(UUID.randomUUID());
+			return report;
+		});
+		when(orderRepository.calculateRevenueBetween(any(), any()))
+				.thenAnswer(inv -> BigDecimal.valueOf(random.nextInt(5_000_000), 2));
+		when(orderRepository.countByCreatedAtBetween(any(), any())).thenAnswer(inv -> (long) random.nextInt(2_000));
+		when(orderRepository.countByStatusBetween(any(), any())).thenAnswer(inv -> List.of(
+				new Object[] { "PENDING", (long) random.nextInt(100) },
+				new Object[] { "DELIVERED", (long) random.nextInt(1_000) },
+				new Object[] { "CANCELLED", (long) random.nextInt(50) }));
+		when(orderRepository.countDistinctCustomersSince(any())).thenAnswer(inv -> (long) random.nextInt(5_000));
+		when(productRepository.findTopSellingProducts(any())).thenAnswer(inv -> new PageImpl<>(products(10)));
+		when(productRepository.findLowStock(anyInt())).thenAnswer(inv -> products(random.nextInt(150)));
+		when(productRepository.findDistinctCategories()).thenReturn(List.of("Freinage", "Moteur", "Suspension",
+				"Électrique", "Carrosserie", "Filtration", "Transmission", "Éclairage"));
+		when(productRepository.count()).thenAnswer(inv -> 2_000L + random.nextInt(500));
+		when(productRepository.countInStock()).thenAnswer(inv -> 1_500L + random.nextInt(500));
+		when(userRepository.count()).thenAnswer(inv -> 10_000L + random.nextInt(5_000));
+		when(userRepository.countByCreatedAtBetween(any(), any())).thenAnswer(inv -> (long) random.nextInt(300));
+		when(userRepository.countUsersByRole()).thenAnswer(inv -> List.of(
+				new Object[] { "CLIENT", 10_000L + random.nextInt(5_000) },
+				new Object[] { "ADMIN", (long) random.nextInt(10) }));
+		ReportService reportService = new ReportServiceImpl(reportRepository, orderRepository, productRepository,
+				userRepository, mock(ReclamationRepository.class), mock(DeliveryRepository.class), objectMapper);
+
+		List<Report> reports = new ArrayList<>(REPORTS);
+		LocalDateTime first = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (int i = 0; i < REPORTS; i++) {
+			LocalDateTime start = first.plusDays(i % 700);
+			String type = i % 2 == 0 ? Report.TYPE_SALES : i % 4 == 1 ? Report.TYPE_INVENTORY : Report.TYPE_USERS;
+			reports.add(reportService.generateReport(type, start, start.plusDays(1), null, UUID.randomUUID(),
+					percent -> {
+					}));
+		}
+		return reports;
+	}
+
+	private List<Product> products(int count) {
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Product product = new Product();
+			product.setName("Pièce " + (char) ('A' + random.nextInt(26)) + "-" + random.nextInt(100_000));
+			product.setPrice(BigDecimal.valueOf(random.nextInt(50_000), 2));
+			product.setStock(random.nextInt(200));
+			products.add(product);
+		}
+		return products;
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.CustomerMetrics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RfmScoringTest {
+
+	@Test
+	void splitsDistinctValuesIntoFiveEqualBuckets() {
+		double[] values = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+		assertArrayEquals(new int[] { 1, 1, 2, 2, 3, 3, 4, 4, 5, 5 },
+				CustomerMetricsService.quintileScores(values, true));
+		// Lower is better for recency: the most recent customers get 5
+		assertArrayEquals(new int[] { 5, 5, 4, 4, 3, 3, 2, 2, 1, 1 },
+				CustomerMetricsService.quintileScores(values, false));
+	}
+
+	@Test
+	void tiesShareTheScoreOfTheirFirstRank() {
+		// Ranks 0..3 all hold 1, so they fall in the first bucket, though rank 2 and 3 alone would not
+		double[] values = { 1, 1, 1, 1, 5, 6, 7, 8, 9, 10 };
+
+		int[] scores = CustomerMetricsService.quintileScores(values, true);
+		assertArrayEquals(new int[] { 1, 1, 1, 1, 3, 3, 4, 4, 5, 5 }, scores);
+	}
+
+	@Test
+	void handlesFewerCustomersThanBuckets() {
+		assertArrayEquals(new int[] { 1 }, CustomerMetricsService.quintileScores(new double[] { 42 }, true));
+		assertArrayEquals(new int[] { 1, 3 }, CustomerMetricsService.quintileScores(new double[] { 1, 2 }, true));
+		assertArrayEquals(new int[0], CustomerMetricsService.quintileScores(new double[0], true));
+	}
+
+	@Test
+	void mapsScoresToSegments() {
+		assertEquals(CustomerMetrics.SEGMENT_CHAMPIONS, CustomerMetrics.segmentFor(5, 5));
+		assertEquals(CustomerMetrics.SEGMENT_CHAMPIONS, CustomerMetrics.segmentFor(4, 4));
+		assertEquals(CustomerMetrics.SEGMENT_LOYAL, CustomerMetrics.segmentFor(3, 3));
+		assertEquals(CustomerMetrics.SEGMENT_LOYAL, CustomerMetrics.segmentFor(5, 3));
+		assertEquals(CustomerMetrics.SEGMENT_NEW, CustomerMetrics.segmentFor(5, 1));
+		assertEquals(CustomerMetrics.SEGMENT_POTENTIAL_LOYALIST, CustomerMetrics.segmentFor(4, 2));
+		assertEquals(CustomerMetrics.SEGMENT_POTENTIAL_LOYALIST, CustomerMetrics.segmentFor(3, 1));
+		assertEquals(CustomerMetrics.SEGMENT_CANT_LOSE, CustomerMetrics.segmentFor(1, 5));
+		assertEquals(CustomerMetrics.SEGMENT_CANT_LOSE, CustomerMetrics.segmentFor(2, 4));
+		assertEquals(CustomerMetrics.SEGMENT_AT_RISK, CustomerMetrics.segmentFor(2, 3));
+		assertEquals(CustomerMetrics.SEGMENT_HIBERNATING, CustomerMetrics.segmentFor(2, 2));
+		assertEquals(CustomerMetrics.SEGMENT_LOST, CustomerMetrics.segmentFor(1, 2));
+		assertEquals(CustomerMetrics.SEGMENT_LOST, CustomerMetrics.segmentFor(1, 1));
+	}
+}
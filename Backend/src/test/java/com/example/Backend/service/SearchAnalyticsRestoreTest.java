@@ -0,0 +1,67 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.AnalyticsDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchAnalyticsRestoreTest {
+
+	@Test
+	void restoresEachSketchFromItsOwnTopTerms() {
+		// A day saved from sketches of two: the top terms of both, so three rows
+		JdbcTemplate jdbc = savedDay(
+				new Object[] { "brake pads", 10L, 0L },
+				new Object[] { "oil filter", 5L, 5L },
+				new Object[] { "wiper", 3L, 3L });
+		SearchAnalyticsService service = new SearchAnalyticsService(jdbc, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 2, 90, 7, 200);
+
+		service.restore();
+
+		assertEquals(List.of("brake pads 10 0", "oil filter 5 0"), describe(service.getPopularQueries(1, 10)));
+		assertEquals(List.of("oil filter 5 0", "wiper 3 0"), describe(service.getZeroResultQueries(1, 10)));
+		// Restoring again on another start doesn't inflate anything
+		SearchAnalyticsService restarted = new SearchAnalyticsService(jdbc, mock(PlatformTransactionManager.class),
+				new SimpleMeterRegistry(), 2, 90, 7, 200);
+		restarted.restore();
+		assertEquals(List.of("brake pads 10 0", "oil filter 5 0"), describe(restarted.getPopularQueries(1, 10)));
+	}
+
+	private static List<String> describe(List<AnalyticsDTO.SearchTermStats> stats) {
+		return stats.stream().map(s -> s.getTerm() + " " + s.getSearches() + " " + s.getMaxOverestimate()).toList();
+	}
+
+	// Answers the load query with today's rows of term, searches, zero-result searches
+	private static JdbcTemplate savedDay(Object[]... rows) {
+		return new JdbcTemplate() {
+			@Override
+			public void query(String sql, RowCallbackHandler rch, Object... args) {
+				try {
+					for (Object[] row : rows) {
+						ResultSet rs = mock(ResultSet.class);
+						when(rs.getString(1)).thenReturn((String) row[0]);
+						when(rs.getDate(2)).thenReturn(Date.valueOf(LocalDate.now()));
+						when(rs.getLong(3)).thenReturn((Long) row[1]);
+						when(rs.getLong(4)).thenReturn((Long) row[2]);
+						rch.processRow(rs);
+					}
+				} catch (SQLException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.Backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SearchAnalyticsScoringTest {
+
+	@Test
+	void variantsOfAQueryNormalizeTheSame() {
+		assertEquals("plaquettes de frein", SearchAnalyticsService.normalize("  Plaquettes  de FREIN "));
+		assertEquals("plaquettes de frein", SearchAnalyticsService.normalize("plaquettes-de-frein!"));
+		assertEquals("filtre a huile", SearchAnalyticsService.normalize("Filtre à huile"));
+		assertNull(SearchAnalyticsService.normalize(" ?! "));
+		assertNull(SearchAnalyticsService.normalize(null));
+		assertEquals(100, SearchAnalyticsService.normalize("x".repeat(300)).length());
+	}
+
+	@Test
+	void popularRefinementsOfAQueryAreRelated() {
+		SearchAnalyticsService service = new SearchAnalyticsService(mock(JdbcTemplate.class),
+				mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), 100, 90, 7, 200);
+		search(service, "Brake pads", 100);
+		search(service, "brake disc", 30);
+		search(service, "brake", 10);
+		search(service, "oil filter", 50);
+
+		assertEquals(Map.of(Set.of("brake", "pads"), 100L, Set.of("brake", "disc"), 30L, Set.of("brake"), 10L),
+				service.relatedTerms("BRAKE"));
+		assertEquals(Map.of(Set.of("brake", "pads"), 100L), service.relatedTerms("pads brake"));
+		assertTrue(service.relatedTerms("clutch").isEmpty());
+		assertTrue(service.relatedTerms(" ?! ").isEmpty());
+	}
+
+	private static void search(SearchAnalyticsService service, String query, int times) {
+		for (int i = 0; i < times; i++) {
+			service.recordSearch(query, 1);
+		}
+	}
+}
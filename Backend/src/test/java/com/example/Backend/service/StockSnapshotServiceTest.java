@@ -0,0 +1,186 @@
+package com.example.Backend.service;
+
+import com.example.Backend.dto.StockSnapshotDTO;
+import com.example.Backend.entity.Product;
+import com.example.Backend.entity.StockMovement;
+import com.example.Backend.entity.StockSnapshot;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.repository.StockMovementRepository;
+import com.example.Backend.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockSnapshotServiceTest {
+
+	private static final LocalDate MAY_10 = LocalDate.of(2025, 5, 10);
+
+	private final Product product = new Product();
+	private final List<StockSnapshot> snapshots = new ArrayList<>();
+	private final List<StockMovement> movements = new ArrayList<>();
+
+	private final StockSnapshotRepository snapshotRepository = mock(StockSnapshotRepository.class);
+	private final StockMovementRepository movementRepository = mock(StockMovementRepository.class);
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final StockSnapshotService service = new StockSnapshotService(snapshotRepository, movementRepository,
+			productRepository, jdbcTemplate, mock(PlatformTransactionManager.class), 90);
+
+	StockSnapshotServiceTest() {
+		product.setId(UUID.randomUUID());
+		product.setStock(7);
+		when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+		// In-memory versions of the repository queries
+		when(snapshotRepository.findTopByProductIdAndSnapshotDateLessThanOrderBySnapshotDateDesc(any(), any()))
+				.thenAnswer(invocation -> {
+					LocalDate before = invocation.getArgument(1);
+					return snapshots.stream().filter(s -> s.getSnapshotDate().isBefore(before))
+							.max(Comparator.comparing(StockSnapshot::getSnapshotDate));
+				});
+		when(movementRepository.findLatestInRange(any(), any(), any(), any())).thenAnswer(invocation -> {
+			LocalDateTime from = invocation.getArgument(1);
+			LocalDateTime to = invocation.getArgument(2);
+			return latestFirst(m -> !m.getMovementDate().isBefore(from) && m.getMovementDate().isBefore(to));
+		});
+		when(movementRepository.findLatestBefore(any(), any(), any())).thenAnswer(invocation -> {
+			LocalDateTime to = invocation.getArgument(1);
+			return latestFirst(m -> m.getMovementDate().isBefore(to));
+		});
+		when(movementRepository.findEarliestFrom(any(), any(), any())).thenAnswer(invocation -> {
+			LocalDateTime from = invocation.getArgument(1);
+			return movements.stream().filter(m -> !m.getMovementDate().isBefore(from))
+					.sorted(Comparator.comparing(StockMovement::getMovementDate)).limit(1).toList();
+		});
+	}
+
+	@Test
+	void endOfDaySnapshotAnswersTheNextMidnight() {
+		snapshot(MAY_10, 40);
+		movement(MAY_10.plusDays(1).atTime(9, 0), 40, 35);
+
+		StockSnapshotDTO.StockAt stock = service.getStockAt(product.getId(), MAY_10.plusDays(1).atStartOfDay());
+
+		assertEquals(40, stock.getStock());
+		assertEquals(MAY_10, stock.getSnapshotDate());
+		assertNull(stock.getLastMovementAt());
+	}
+
+	@Test
+	void sameDaySnapshotIsNotUsedBeforeTheDayEnds() {
+		snapshot(MAY_10.minusDays(1), 50);
+		movement(MAY_10.atTime(10, 0), 50, 45);
+		movement(MAY_10.atTime(18, 0), 45, 40);
+		snapshot(MAY_10, 40);
+
+		StockSnapshotDTO.StockAt stock = service.getStockAt(product.getId(), MAY_10.atTime(12, 0));
+
+		assertEquals(45, stock.getStock());
+		assertEquals(MAY_10.minusDays(1), stock.getSnapshotDate());
+		assertEquals(MAY_10.atTime(10, 0), stock.getLastMovementAt());
+	}
+
+	@Test
+	void movementAtTheRequestedTimeIsNotYetApplied() {
+		snapshot(MAY_10.minusDays(1), 50);
+		movement(MAY_10.atTime(10, 0), 50, 45);
+
+		assertEquals(50, service.getStockAt(product.getId(), MAY_10.atTime(10, 0)).getStock());
+		assertEquals(45, service.getStockAt(product.getId(), MAY_10.atTime(10, 0, 1)).getStock());
+	}
+
+	@Test
+	void beforeAnySnapshotFallsBackToMovementsThenCurrentStock() {
+		movement(MAY_10.atTime(10, 0), 12, 9);
+
+		// Before the first movement: the stock it started from
+		assertEquals(12, service.getStockAt(product.getId(), MAY_10.atTime(8, 0)).getStock());
+		assertEquals(9, service.getStockAt(product.getId(), MAY_10.atTime(11, 0)).getStock());
+
+		movements.clear();
+		assertEquals(7, service.getStockAt(product.getId(), MAY_10.atTime(8, 0)).getStock());
+	}
+
+	@Test
+	void prunesDailySnapshotsBeforeTheCutoffButKeepsMonthEnds() {
+		List<LocalDate> days = List.of(LocalDate.of(2024, 2, 28), LocalDate.of(2024, 2, 29),
+				LocalDate.of(2025, 1, 30), LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1),
+				LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1));
+
+		assertEquals(List.of(LocalDate.of(2024, 2, 28), LocalDate.of(2025, 1, 30), LocalDate.of(2025, 2, 1)),
+				StockSnapshotService.prunableDays(days, LocalDate.of(2025, 3, 1)));
+		assertEquals(List.of(), StockSnapshotService.prunableDays(days, LocalDate.of(2024, 2, 28)));
+	}
+
+	@Test
+	void catchesUpOnMissedDays() {
+		LocalDate yesterday = LocalDate.now().minusDays(1);
+		when(snapshotRepository.findLatestSnapshotDate()).thenReturn(yesterday.minusDays(3));
+
+		assertTrue(service.takeSnapshots());
+
+		assertEquals(List.of(yesterday.minusDays(2), yesterday.minusDays(1), yesterday), snapshotDays());
+	}
+
+	@Test
+	void firstSnapshotStartsFromTheWholeLedger() {
+		assertTrue(service.takeSnapshots());
+
+		// Day, created at, then the range of movements the day is built from
+		List<Object[]> calls = snapshotCalls();
+		assertEquals(1, calls.size());
+		assertEquals(Date.valueOf(LocalDate.now().minusDays(1)), calls.get(0)[0]);
+		assertEquals(Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0)), calls.get(0)[2]);
+		assertEquals(Timestamp.valueOf(LocalDate.now().atStartOfDay()), calls.get(0)[3]);
+	}
+
+	private List<LocalDate> snapshotDays() {
+		return snapshotCalls().stream().map(args -> ((Date) args[0]).toLocalDate()).toList();
+	}
+
+	private List<Object[]> snapshotCalls() {
+		return mockingDetails(jdbcTemplate).getInvocations().stream()
+				.filter(invocation -> invocation.getMethod().getName().equals("update"))
+				// Arguments after the SQL
+				.map(invocation -> Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length))
+				.toList();
+	}
+
+	private List<StockMovement> latestFirst(Predicate<StockMovement> filter) {
+		return movements.stream().filter(filter)
+				.sorted(Comparator.comparing(StockMovement::getMovementDate).reversed()).limit(1).toList();
+	}
+
+	private void snapshot(LocalDate day, int stock) {
+		StockSnapshot snapshot = new StockSnapshot();
+		snapshot.setProductId(product.getId());
+		snapshot.setSnapshotDate(day);
+		snapshot.setStockQuantity(stock);
+		snapshots.add(snapshot);
+	}
+
+	private void movement(LocalDateTime at, int previousStock, int newStock) {
+		StockMovement movement = new StockMovement();
+		movement.setProduct(product);
+		movement.setMovementDate(at);
+		movement.setPreviousStock(previousStock);
+		movement.setNewStock(newStock);
+		movements.add(movement);
+	}
+}
@@ -0,0 +1,211 @@
+package com.example.Backend.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.entity.Brand;
+import com.example.Backend.entity.Category;
+import com.example.Backend.entity.Product;
+import com.example.Backend.repository.ProductRepository;
+import com.example.Backend.service.impl.RecommendationServiceImpl;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Synthetic catalog and browsing history with known structure, for evaluating and benchmarking
+ * recommendations without a database. Products come in pairs that share category, brand and
+ * model and are often bought together; each user mostly browses one category and one vehicle
+ * model, and a few products are popular with everyone.
+ */
+final class SyntheticShop {
+
+	private static final long DAY_MS = 86_400_000L;
+
+	record Dataset(List<RecommendationEvaluationService.CatalogItem> catalog,
+			List<ProductSimilarityService.ProductDocument> documents,
+			List<RecommendationEvaluationService.Interaction> training,
+			List<RecommendationEvaluationService.Interaction> test,
+			long splitAt) {
+	}
+
+	private SyntheticShop() {
+	}
+
+	static Dataset generate(long seed, int productPairs, int users, int activitiesPerUser) {
+		Random random = new Random(seed);
+		int categories = 20;
+		int brands = 15;
+		int models = 30;
+
+		List<RecommendationEvaluationService.CatalogItem> catalog = new ArrayList<>();
+		List<ProductSimilarityService.ProductDocument> documents = new ArrayList<>();
+		for (int pair = 0; pair < productPairs; pair++) {
+			long category = random.nextInt(categories);
+			long brand = random.nextInt(brands);
+			String model = "Model " + random.nextInt(models);
+			for (int side = 0; side < 2; side++) {
+				String name = "Kind" + category + " part" + (side == 0 ? "front" : "rear") + " variant" + pair % 10;
+				UUID id = UUID.randomUUID();
+				catalog.add(new RecommendationEvaluationService.CatalogItem(id, category, brand, model));
+				documents.add(new ProductSimilarityService.ProductDocument(id,
+						ProductSimilarityService.TextVectorizer.terms(name, null, "Category " + category,
+								"Brand " + brand, model, null), true));
+			}
+		}
+
+		long start = 1_700_000_000_000L;
+		long end = start + 60 * DAY_MS;
+		List<RecommendationEvaluationService.Interaction> all = new ArrayList<>();
+		for (int u = 0; u < users; u++) {
+			UUID user = UUID.randomUUID();
+			long favouriteCategory = random.nextInt(categories);
+			String favouriteModel = "Model " + random.nextInt(models);
+			for (int a = 0; a < activitiesPerUser; a++) {
+				int index = pick(random, catalog, favouriteCategory, favouriteModel);
+				long at = start + (long) (random.nextDouble() * (end - start));
+				double roll = random.nextDouble();
+				ActivityType type = roll < 0.75 ? ActivityType.VIEW
+						: roll < 0.92 ? ActivityType.ADD_TO_CART : ActivityType.PURCHASE;
+				all.add(new RecommendationEvaluationService.Interaction(user, catalog.get(index).productId(), type, at));
+				if (type == ActivityType.PURCHASE && random.nextDouble() < 0.5) {
+					// The other product of the pair, bought together
+					all.add(new RecommendationEvaluationService.Interaction(user,
+							catalog.get(index ^ 1).productId(), ActivityType.PURCHASE, at + 1));
+				}
+			}
+		}
+		all.sort(Comparator.comparingLong(RecommendationEvaluationService.Interaction::at));
+
+		long splitAt = start + 48 * DAY_MS;
+		return new Dataset(catalog, documents,
+				all.stream().filter(i -> i.at() < splitAt).toList(),
+				all.stream().filter(i -> i.at() >= splitAt).toList(),
+				splitAt);
+	}
+
+	/**
+	 * An evaluation service over the given catalog, with the recommender's services configured
+	 * as by default and the product repository and similarity index in memory. Every product is
+	 * in stock, and catalog order is newest first.
+	 */
+	static RecommendationEvaluationService evaluationService(List<RecommendationEvaluationService.CatalogItem> catalog,
+			List<ProductSimilarityService.ProductDocument> documents) {
+		// The recommender logs every call
+		((Logger) LoggerFactory.getLogger(RecommendationServiceImpl.class)).setLevel(Level.WARN);
+
+		ProductRepository productRepository = productRepository(catalog);
+		ProductSimilarityService.SimilarityIndex index = new ProductSimilarityService.SimilarityIndex(256, 16, 100, 64);
+		index.build(documents);
+		ProductSimilarityService similarity = mock(ProductSimilarityService.class);
+		when(similarity.getSimilarIds(any(), anyInt()))
+				.thenAnswer(inv -> index.similar(inv.getArgument(0), inv.getArgument(1)));
+
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		return new RecommendationEvaluationService(null, transactionManager, productRepository, null, null,
+				new CoPurchaseService(null, transactionManager, 20, 200),
+				new TrendingService(productRepository, null, null, transactionManager, new int[] { 1, 7, 30 }, 50),
+				similarity,
+				new UserPreferenceService(null, Duration.ofMinutes(30), 10_000));
+	}
+
+	private static ProductRepository productRepository(List<RecommendationEvaluationService.CatalogItem> catalog) {
+		List<Product> products = new ArrayList<>();
+		LocalDateTime newest = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (RecommendationEvaluationService.CatalogItem item : catalog) {
+			Product product = new Product();
+			product.setId(item.productId());
+			product.setName("Product " + products.size());
+			product.setPrice(BigDecimal.TEN);
+			product.setStock(10);
+			product.setModel(item.model());
+			product.setCategory(item.categoryId() != null ? Category.builder().id(item.categoryId()).build() : null);
+			product.setBrand(item.brandId() != null ? Brand.builder().id(item.brandId()).build() : null);
+			product.setCreatedAt(newest.minusMinutes(products.size()));
+			products.add(product);
+		}
+		Map<UUID, Product> byId = products.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+		Map<Long, List<Product>> byCategory = products.stream().filter(p -> p.getCategory() != null)
+				.collect(Collectors.groupingBy(p -> p.getCategory().getId()));
+		Map<Long, List<Product>> byBrand = products.stream().filter(p -> p.getBrand() != null)
+				.collect(Collectors.groupingBy(p -> p.getBrand().getId()));
+		Map<String, List<Product>> byModel = products.stream().filter(p -> p.getModel() != null)
+				.collect(Collectors.groupingBy(Product::getModel));
+
+		ProductRepository repository = mock(ProductRepository.class);
+		when(repository.findInStockByCategoryIds(any(), any()))
+				.thenAnswer(inv -> newestFirst(byCategory, inv.getArgument(0), inv.getArgument(1)));
+		when(repository.findInStockByBrandIds(any(), any()))
+				.thenAnswer(inv -> newestFirst(byBrand, inv.getArgument(0), inv.getArgument(1)));
+		when(repository.findInStockByModels(any(), any()))
+				.thenAnswer(inv -> newestFirst(byModel, inv.getArgument(0), inv.getArgument(1)));
+		when(repository.findFeaturedProducts(any())).thenAnswer(inv -> {
+			Pageable page = inv.getArgument(0);
+			return new PageImpl<>(products.subList(0, Math.min(page.getPageSize(), products.size())), page,
+					products.size());
+		});
+		when(repository.findAllById(any())).thenAnswer(inv -> {
+			List<Product> found = new ArrayList<>();
+			for (UUID id : inv.<Iterable<UUID>>getArgument(0)) {
+				if (byId.containsKey(id)) {
+					found.add(byId.get(id));
+				}
+			}
+			return found;
+		});
+		when(repository.findById(any())).thenAnswer(inv -> Optional.ofNullable(byId.get(inv.<UUID>getArgument(0))));
+		return repository;
+	}
+
+	private static <K> List<Product> newestFirst(Map<K, List<Product>> products, Collection<K> keys,
+			Pageable page) {
+		// Each key's products are newest first already, so only the first page of each can be on the page
+		Map<UUID, Product> matching = new HashMap<>();
+		keys.forEach(key -> products.getOrDefault(key, List.of()).stream().limit(page.getPageSize())
+				.forEach(p -> matching.put(p.getId(), p)));
+		return matching.values().stream()
+				.sorted(Comparator.comparing(Product::getCreatedAt).reversed())
+				.limit(page.getPageSize())
+				.toList();
+	}
+
+	private static int pick(Random random, List<RecommendationEvaluationService.CatalogItem> catalog,
+			long category, String model) {
+		double roll = random.nextDouble();
+		// Rejection sampling is fine at these sizes
+		for (int attempt = 0; attempt < 10_000; attempt++) {
+			int index = random.nextInt(catalog.size());
+			RecommendationEvaluationService.CatalogItem item = catalog.get(index);
+			if (roll < 0.6 && item.categoryId() == category
+					|| roll >= 0.6 && roll < 0.85 && item.model().equals(model)) {
+				return index;
+			}
+			if (roll >= 0.85) {
+				// Popular products: the first few pairs
+				return random.nextInt(Math.min(40, catalog.size()));
+			}
+		}
+		return random.nextInt(catalog.size());
+	}
+}
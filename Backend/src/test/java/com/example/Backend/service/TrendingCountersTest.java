@@ -0,0 +1,69 @@
+package com.example.Backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingCountersTest {
+
+	private static final long DAY = 86_400_000L;
+
+	private final UUID brakes = UUID.randomUUID();
+	private final UUID tyres = UUID.randomUUID();
+	private final UUID mirror = UUID.randomUUID();
+
+	@Test
+	void recentActivityOutranksOlderActivity() {
+		long now = 100 * DAY;
+		TrendingService.TrendingCounters counters = new TrendingService.TrendingCounters(new int[] { 2 }, 10, now);
+
+		// Half-life of one day: three views two days ago weigh 0.75 today
+		counters.add(brakes, 0, 3, now - 2 * DAY);
+		counters.add(tyres, 0, 1, now);
+
+		assertEquals(List.of(tyres, brakes), counters.top(0, 10));
+		assertEquals(0.75, counters.score(brakes, 0, now), 1e-9);
+	}
+
+	@Test
+	void keepsOnlyTheBestProducts() {
+		long now = 0;
+		TrendingService.TrendingCounters counters = new TrendingService.TrendingCounters(new int[] { 7 }, 2, now);
+
+		counters.add(brakes, 0, 5, now);
+		counters.add(tyres, 0, 3, now);
+		counters.add(mirror, 0, 1, now);
+		assertEquals(List.of(brakes, tyres), counters.top(0, 10));
+
+		counters.add(mirror, 0, 10, now);
+		assertEquals(List.of(mirror, brakes), counters.top(0, 10));
+		assertEquals(List.of(mirror), counters.top(0, 1));
+	}
+
+	@Test
+	void rebaseKeepsScoresAndDropsFadedProducts() {
+		TrendingService.TrendingCounters counters = new TrendingService.TrendingCounters(new int[] { 2 }, 10, 0);
+		counters.add(brakes, 0, 1, 0);
+		counters.add(tyres, 0, 1000, 0);
+
+		// Ten half-lives later: brakes fades below the cut-off, tyres is just under 1
+		List<TrendingService.TrendingCounters.Score> kept = counters.rebase(10 * DAY);
+
+		assertEquals(1, kept.size());
+		assertEquals(1000 / 1024d, counters.score(tyres, 0, 10 * DAY), 1e-9);
+		assertEquals(0, counters.score(brakes, 0, 10 * DAY));
+		assertEquals(List.of(tyres), counters.top(0, 10));
+	}
+
+	@Test
+	void picksClosestHorizon() {
+		TrendingService.TrendingCounters counters = new TrendingService.TrendingCounters(new int[] { 1, 7, 30 }, 10, 0);
+
+		assertEquals(0, counters.horizonIndex(1));
+		assertEquals(1, counters.horizonIndex(5));
+		assertEquals(2, counters.horizonIndex(90));
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.Backend.service;
+
+import com.example.Backend.entity.ActivityType;
+import com.example.Backend.event.UserActivityRecordedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPreferenceProfileTest {
+
+	private static final long NOW = 1_700_000_000_000L;
+
+	@Test
+	void purchasesOutweighViews() {
+		UserPreferenceService.Profile profile = new UserPreferenceService.Profile(NOW);
+
+		profile.record(ActivityType.VIEW, UUID.randomUUID(), 1L, 10L, "Corolla", NOW);
+		profile.record(ActivityType.VIEW, UUID.randomUUID(), 1L, 10L, "Corolla", NOW);
+		profile.record(ActivityType.PURCHASE, UUID.randomUUID(), 2L, 20L, "Civic", NOW);
+
+		assertEquals(List.of(2L, 1L), profile.topCategories(5));
+		assertEquals(List.of(20L), profile.topBrands(1));
+		assertEquals(List.of("Civic", "Corolla"), profile.topModels(5));
+		assertEquals(15.0, profile.affinity(2L, 20L, "Civic"), 1e-9);
+		assertEquals(0.0, profile.affinity(3L, null, null), 1e-9);
+	}
+
+	@Test
+	void olderActivityCountsLess() {
+		UserPreferenceService.Profile profile = new UserPreferenceService.Profile(NOW);
+		long monthAgo = NOW - Duration.ofDays(30).toMillis();
+
+		profile.record(ActivityType.ADD_TO_CART, UUID.randomUUID(), 1L, null, null, monthAgo);
+		profile.record(ActivityType.VIEW, UUID.randomUUID(), 2L, null, null, NOW);
+
+		assertEquals(1.5, profile.affinity(1L, null, null), 1e-9);
+		assertEquals(List.of(1L, 2L), profile.topCategories(5));
+		assertEquals(List.of(), profile.topBrands(5));
+	}
+
+	@Test
+	void recentViewsKeepLatestOrder() {
+		UserPreferenceService.Profile profile = new UserPreferenceService.Profile(NOW);
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+
+		profile.record(ActivityType.VIEW, first, 1L, null, null, NOW);
+		profile.record(ActivityType.VIEW, second, 1L, null, null, NOW);
+		profile.record(ActivityType.VIEW, first, 1L, null, null, NOW);
+		profile.record(ActivityType.PURCHASE, UUID.randomUUID(), 1L, null, null, NOW);
+
+		assertEquals(List.of(second, first), List.copyOf(profile.recentViews()));
+		assertEquals(4, profile.version());
+		assertFalse(profile.isEmpty());
+		assertTrue(new UserPreferenceService.Profile(NOW).isEmpty());
+	}
+
+	@Test
+	void profileLoadedWhileAnActivityArrivesIsNotCached() {
+		UUID user = UUID.randomUUID();
+		AtomicInteger loads = new AtomicInteger();
+		UserPreferenceService[] service = new UserPreferenceService[1];
+		JdbcTemplate jdbc = new JdbcTemplate() {
+			@Override
+			public void query(String sql, RowCallbackHandler rch, Object... args) {
+				// The first history read misses a view that commits while it runs
+				if (sql.contains("FROM user_activities ua") && loads.incrementAndGet() == 1) {
+					service[0].onActivity(new UserActivityRecordedEvent(user, UUID.randomUUID(), ActivityType.VIEW,
+							LocalDateTime.now()));
+				}
+			}
+		};
+		service[0] = new UserPreferenceService(jdbc, Duration.ofMinutes(30), 100);
+
+		service[0].getProfile(user);
+		service[0].getProfile(user);
+		service[0].getProfile(user);
+
+		// Served once without caching, then loaded again and cached
+		assertEquals(2, loads.get());
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.Backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DemandForecasterTest {
+
+	@Test
+	void steadyDemandUsesExponentialSmoothing() {
+		double[] demand = new double[90];
+		java.util.Arrays.fill(demand, 4);
+
+		DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, 0.1);
+
+		assertEquals(DemandForecaster.METHOD_SES, forecast.method());
+		assertEquals(4, forecast.dailyDemand(), 1e-9);
+		assertEquals(0, forecast.dailyStdDev(), 1e-9);
+		assertEquals(28, forecast.reorderPoint(7, 0.95));
+		assertEquals(120, forecast.reorderQuantity(30));
+	}
+
+	@Test
+	void intermittentDemandUsesCroston() {
+		// 10 units every 5th day: 2 units a day on average
+		double[] demand = new double[200];
+		for (int i = 4; i < demand.length; i += 5) {
+			demand[i] = 10;
+		}
+
+		DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, 0.1);
+
+		assertEquals(DemandForecaster.METHOD_CROSTON, forecast.method());
+		// Bias-corrected rate: (1 - alpha / 2) * 10 / 5
+		assertEquals(1.9, forecast.dailyDemand(), 1e-9);
+		assertTrue(forecast.reorderPoint(7, 0.95) > Math.ceil(1.9 * 7), "safety stock expected");
+	}
+
+	@Test
+	void historyStartsAtTheFirstSale() {
+		// First sold on day 300 of the year, then 10 units every 5th day
+		double[] demand = new double[365];
+		for (int i = 300; i < demand.length; i += 5) {
+			demand[i] = 10;
+		}
+
+		DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, 0.1);
+
+		assertEquals(DemandForecaster.METHOD_CROSTON, forecast.method());
+		assertEquals(1.9, forecast.dailyDemand(), 1e-9);
+	}
+
+	@Test
+	void newProductSellingDailyUsesExponentialSmoothing() {
+		// Listed late in the year, sells every day since
+		double[] demand = new double[365];
+		java.util.Arrays.fill(demand, 330, demand.length, 3);
+
+		DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, 0.1);
+
+		assertEquals(DemandForecaster.METHOD_SES, forecast.method());
+		assertEquals(3, forecast.dailyDemand(), 1e-9);
+	}
+
+	@Test
+	void singleSaleIsSpreadOverTheDaysSince() {
+		// Croston on its own; forecast() needs more history than a single sale
+		double[] demand = new double[10];
+		demand[0] = 10;
+
+		DemandForecaster.Forecast forecast = DemandForecaster.croston(demand, 0.1);
+
+		assertEquals(DemandForecaster.METHOD_CROSTON, forecast.method());
+		assertEquals(0.95 * 10 / 10, forecast.dailyDemand(), 1e-9);
+	}
+
+	@Test
+	void recentFirstSalesAreTooShortAHistory() {
+		// Ten units sold today, or one sale yesterday: a full history would order hundreds
+		double[] today = new double[365];
+		today[364] = 10;
+		double[] yesterday = new double[365];
+		yesterday[363] = 1;
+		// Sold on three days, but only over the last two weeks
+		double[] fortnight = new double[365];
+		fortnight[351] = 2;
+		fortnight[357] = 2;
+		fortnight[364] = 2;
+
+		for (double[] demand : new double[][] { today, yesterday, fortnight }) {
+			DemandForecaster.Forecast forecast = DemandForecaster.forecast(demand, 0.1);
+			assertEquals(DemandForecaster.METHOD_SHORT_HISTORY, forecast.method());
+			assertFalse(forecast.isReliable());
+			assertEquals(0, forecast.reorderPoint(7, 0.95));
+		}
+		assertTrue(DemandForecaster.forecast(new double[30], 0.1).isReliable());
+	}
+
+	@Test
+	void noSalesSuggestsMinimalOrder() {
+		DemandForecaster.Forecast forecast = DemandForecaster.forecast(new double[30], 0.1);
+
+		assertEquals(DemandForecaster.METHOD_NO_DEMAND, forecast.method());
+		assertEquals(0, forecast.reorderPoint(7, 0.95));
+		assertEquals(1, forecast.reorderQuantity(30));
+	}
+
+	@Test
+	void inverseNormalMatchesTables() {
+		assertEquals(1.645, DemandForecaster.inverseNormal(0.95), 1e-3);
+		assertEquals(2.326, DemandForecaster.inverseNormal(0.99), 1e-3);
+		assertEquals(0, DemandForecaster.inverseNormal(0.5), 1e-9);
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.Backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringBloomFilterTest {
+
+	private static final long MINUTE = 60_000;
+
+	@Test
+	void remembersKeysForTheWindowOnly() {
+		ExpiringBloomFilter filter = new ExpiringBloomFilter(5 * MINUTE, 5, 1000, 0.001);
+		long start = 100 * MINUTE;
+		filter.put(1, 2, start);
+
+		assertTrue(filter.mightContain(1, 2, start));
+		assertTrue(filter.mightContain(1, 2, start + 5 * MINUTE - 1));
+		assertFalse(filter.mightContain(2, 1, start));
+		// Gone once its bucket is a full window old
+		assertFalse(filter.mightContain(1, 2, start + 6 * MINUTE));
+	}
+
+	@Test
+	void reusedBucketsForgetOldKeys() {
+		ExpiringBloomFilter filter = new ExpiringBloomFilter(5 * MINUTE, 5, 1000, 0.001);
+		filter.put(1, 2, 0);
+		filter.put(3, 4, 6 * MINUTE);
+
+		assertEquals(1, filter.keysInCurrentBucket(6 * MINUTE));
+		assertTrue(filter.mightContain(3, 4, 6 * MINUTE));
+		assertFalse(filter.mightContain(1, 2, 6 * MINUTE));
+	}
+
+	@Test
+	void putIfAbsentAddsOnlyNewKeys() {
+		ExpiringBloomFilter filter = new ExpiringBloomFilter(5 * MINUTE, 5, 1000, 0.001);
+		long start = 100 * MINUTE;
+
+		assertTrue(filter.putIfAbsent(1, 2, start));
+		assertFalse(filter.putIfAbsent(1, 2, start + MINUTE));
+		assertTrue(filter.mightContain(1, 2, start + MINUTE));
+		// Forgotten with its bucket, so it is new again
+		assertTrue(filter.putIfAbsent(1, 2, start + 6 * MINUTE));
+	}
+
+	@Test
+	void concurrentPutIfAbsentAddsAKeyOnce() throws InterruptedException {
+		ExpiringBloomFilter filter = new ExpiringBloomFilter(5 * MINUTE, 5, 100_000, 0.001);
+		int threads = 8;
+		int keys = 2_000;
+		AtomicInteger added = new AtomicInteger();
+		CountDownLatch go = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				try {
+					go.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int key = 0; key < keys; key++) {
+					if (filter.putIfAbsent(key, ~key, 0)) {
+						added.incrementAndGet();
+					}
+				}
+			});
+			worker.start();
+			workers.add(worker);
+		}
+		go.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		// Every key added by exactly one thread, barring the odd false positive
+		assertTrue(added.get() <= keys && added.get() > keys * 0.99, "added " + added.get());
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTarget() {
+		int keysPerBucket = 10_000;
+		ExpiringBloomFilter filter = new ExpiringBloomFilter(5 * MINUTE, 5, keysPerBucket, 0.01);
+		Random random = new Random(5);
+		long now = 0;
+		for (int bucket = 0; bucket < 6; bucket++) {
+			for (int i = 0; i < keysPerBucket; i++) {
+				filter.put(random.nextLong(), random.nextLong(), now);
+			}
+			now += MINUTE;
+		}
+		now -= MINUTE;
+
+		int falsePositives = 0;
+		int lookups = 100_000;
+		for (int i = 0; i < lookups; i++) {
+			long key = random.nextLong();
+			if (filter.mightContain(key, ~key, now)) {
+				falsePositives++;
+			}
+		}
+		double rate = (double) falsePositives / lookups;
+		assertTrue(rate < 0.015, "false positive rate was " + rate);
+	}
+}
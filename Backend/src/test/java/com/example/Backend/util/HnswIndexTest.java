@@ -0,0 +1,95 @@
+package com.example.Backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+	private static final int DIMENSIONS = 32;
+
+	@Test
+	void findsNearlyAllExactNeighbours() {
+		Random random = new Random(7);
+		float[][] vectors = new float[2000][];
+		HnswIndex index = new HnswIndex(DIMENSIONS, 16, 100, 1);
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = randomUnitVector(random);
+			assertEquals(i, index.add(vectors[i]));
+		}
+
+		int found = 0;
+		int queries = 100;
+		for (int q = 0; q < queries; q++) {
+			float[] query = randomUnitVector(random);
+			int[] exact = IntStream.range(0, vectors.length).boxed()
+					.sorted(Comparator.comparingDouble(i -> -dot(query, vectors[i])))
+					.limit(10).mapToInt(Integer::intValue).toArray();
+			int[] approximate = index.search(query, 10, 64, null);
+			assertEquals(10, approximate.length);
+			for (int node : approximate) {
+				if (Arrays.stream(exact).anyMatch(e -> e == node)) {
+					found++;
+				}
+			}
+		}
+		double recall = found / (queries * 10.0);
+		assertTrue(recall > 0.9, "recall@10 was " + recall);
+	}
+
+	@Test
+	void removedAndFilteredNodesAreNotReturned() {
+		Random random = new Random(3);
+		HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50, 1);
+		for (int i = 0; i < 200; i++) {
+			index.add(randomUnitVector(random));
+		}
+		float[] query = index.vector(5);
+
+		assertEquals(5, index.search(query, 1, 32, null)[0]);
+
+		index.remove(5);
+		assertTrue(index.isRemoved(5));
+		assertEquals(1, index.removedCount());
+		int[] afterRemoval = index.search(query, 20, 32, null);
+		assertTrue(Arrays.stream(afterRemoval).noneMatch(n -> n == 5));
+
+		int[] evenOnly = index.search(query, 20, 32, n -> n % 2 == 0);
+		assertEquals(20, evenOnly.length);
+		assertTrue(Arrays.stream(evenOnly).allMatch(n -> n % 2 == 0 && n != 5));
+	}
+
+	@Test
+	void emptyIndexReturnsNothing() {
+		HnswIndex index = new HnswIndex(DIMENSIONS, 8, 50, 1);
+
+		assertEquals(0, index.search(randomUnitVector(new Random(1)), 5, 32, null).length);
+		assertThrows(IllegalArgumentException.class, () -> index.add(new float[3]));
+	}
+
+	private static float[] randomUnitVector(Random random) {
+		float[] vector = new float[DIMENSIONS];
+		double norm = 0;
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] = (float) random.nextGaussian();
+			norm += vector[i] * vector[i];
+		}
+		for (int i = 0; i < DIMENSIONS; i++) {
+			vector[i] /= (float) Math.sqrt(norm);
+		}
+		return vector;
+	}
+
+	private static double dot(float[] a, float[] b) {
+		double sum = 0;
+		for (int i = 0; i < a.length; i++) {
+			sum += a[i] * b[i];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.Backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+	@Test
+	void countsExactlyWhileUnderCapacity() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+		sketch.add("brake pads", 3);
+		sketch.add("oil filter", 1);
+		sketch.add("brake pads", 2);
+
+		List<SpaceSavingSketch.Entry> top = sketch.top(5);
+		assertEquals(2, top.size());
+		assertEquals(new SpaceSavingSketch.Entry("brake pads", 5, 0), top.get(0));
+		assertEquals(new SpaceSavingSketch.Entry("oil filter", 1, 0), top.get(1));
+		assertEquals(6, sketch.total());
+	}
+
+	@Test
+	void newKeyReplacesTheLowestAndInheritsItsCount() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+		sketch.add("a", 5);
+		sketch.add("b", 2);
+		sketch.add("c", 1);
+
+		assertEquals(2, sketch.size());
+		assertEquals(0, sketch.estimate("b"));
+		assertEquals(new SpaceSavingSketch.Entry("c", 3, 2), sketch.top(2).get(1));
+	}
+
+	@Test
+	void findsHeavyHittersOfASkewedStream() {
+		SpaceSavingSketch sketch = new SpaceSavingSketch(100);
+		Map<String, Long> exact = new HashMap<>();
+		Random random = new Random(9);
+		for (int i = 0; i < 100_000; i++) {
+			// Zipf-like: a few queries are very frequent, most are rare
+			String key = "q" + (int) Math.floor(Math.pow(10_000, random.nextDouble()));
+			sketch.add(key, 1);
+			exact.merge(key, 1L, Long::sum);
+		}
+
+		List<Map.Entry<String, Long>> trueTop = exact.entrySet().stream()
+				.sorted(Map.Entry.<String, Long>comparingByValue().reversed()).limit(10).toList();
+		List<String> top = sketch.top(10).stream().map(SpaceSavingSketch.Entry::key).toList();
+		for (Map.Entry<String, Long> heavy : trueTop) {
+			assertTrue(top.contains(heavy.getKey()), heavy.getKey() + " missing from " + top);
+		}
+		for (SpaceSavingSketch.Entry entry : sketch.top(100)) {
+			long trueCount = exact.get(entry.key());
+			assertTrue(entry.count() >= trueCount);
+			assertTrue(entry.count() - entry.error() <= trueCount);
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.Backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesDownsamplerTest {
+
+	@Test
+	void keepsEverythingWhenBelowThreshold() {
+		double[] x = { 0, 1, 2, 3 };
+		double[] y = { 5, 1, 7, 2 };
+
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, TimeSeriesDownsampler.lttb(x, y, 10));
+	}
+
+	@Test
+	void keepsEndpointsAndPeaks() {
+		int n = 1000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i;
+			y[i] = 10;
+		}
+		y[437] = 500; // single spike must survive downsampling
+
+		int[] kept = TimeSeriesDownsampler.lttb(x, y, 50);
+
+		assertEquals(50, kept.length);
+		assertEquals(0, kept[0]);
+		assertEquals(n - 1, kept[kept.length - 1]);
+		for (int i = 1; i < kept.length; i++) {
+			assertTrue(kept[i] > kept[i - 1]);
+		}
+		assertTrue(java.util.Arrays.stream(kept).anyMatch(i -> i == 437));
+	}
+}
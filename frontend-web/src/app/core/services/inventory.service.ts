@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { map } from 'rxjs/operators';
 import { environment } from '../../../environments/environment';
 
 export interface Supplier {
@@ -278,9 +279,23 @@ export class InventoryService {
     }
 
     /**
-     * Get product stock overview with status indicators
+     * Get one page of the product stock overview with status indicators
      */
-    getProductStockOverview(): Observable<any[]> {
-        return this.http.get<any[]>(`${this.apiUrl}/product-stock`);
+    getProductStockOverview(page: number = 0, size: number = 50, sort: string = 'name'): Observable<Page<any>> {
+        const params = new HttpParams()
+            .set('page', page.toString())
+            .set('size', size.toString())
+            .set('sort', sort);
+        return this.http.get<Page<any>>(`${this.apiUrl}/product-stock`, { params });
+    }
+
+    /**
+     * Get the full product stock overview, for downloads.
+     * Read from the NDJSON export, which the backend streams row by row
+     */
+    exportProductStock(): Observable<any[]> {
+        return this.http.get(`${this.apiUrl}/product-stock/export`, { responseType: 'text' }).pipe(
+            map(body => body.split('\n').filter(line => line.trim()).map(line => JSON.parse(line)))
+        );
     }
 }
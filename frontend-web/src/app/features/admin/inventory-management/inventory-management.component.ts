@@ -101,6 +101,9 @@ export class InventoryManagementComponent implements OnInit {
 
     // Product Stock Overview
     productStock = signal<any[]>([]);
+    productStockTotal = signal<number>(0);
+    productStockPageSize = signal<number>(50);
+    productStockPageIndex = signal<number>(0);
     productStockColumns: string[] = ['product', 'sku', 'stock', 'status', 'value', 'actions'];
 
     // Suppliers
@@ -296,9 +299,13 @@ export class InventoryManagementComponent implements OnInit {
     }
 
     loadProductStock(): void {
-        this.inventoryService.getProductStockOverview().subscribe({
-            next: (products) => {
-                this.productStock.set(products);
+        const page = this.productStockPageIndex();
+        const size = this.productStockPageSize();
+
+        this.inventoryService.getProductStockOverview(page, size).subscribe({
+            next: (response) => {
+                this.productStock.set(response.content);
+                this.productStockTotal.set(response.totalElements);
             },
             error: (error) => {
                 console.error('Error loading product stock:', error);
@@ -636,6 +643,12 @@ export class InventoryManagementComponent implements OnInit {
         this.pageIndex.set(event.pageIndex);
     }
 
+    handleProductStockPageEvent(event: PageEvent): void {
+        this.productStockPageSize.set(event.pageSize);
+        this.productStockPageIndex.set(event.pageIndex);
+        this.loadProductStock();
+    }
+
 
 
     // Actions
@@ -736,8 +749,13 @@ export class InventoryManagementComponent implements OnInit {
     // Export Methods
     exportToCSV(type: 'inventory' | 'movements'): void {
         if (type === 'inventory') {
-            this.exportService.exportInventory(this.productStock());
-            this.notificationService.success('Export inventaire téléchargé');
+            this.inventoryService.exportProductStock().subscribe({
+                next: (products) => {
+                    this.exportService.exportInventory(products);
+                    this.notificationService.success('Export inventaire téléchargé');
+                },
+                error: () => this.notificationService.error('Erreur lors de l\'export de l\'inventaire')
+            });
         } else {
             this.exportService.exportStockMovements(this.stockMovements());
             this.notificationService.success('Export mouvements téléchargé');